@@ -0,0 +1,162 @@
+/**
+* Copyright 2023 the original author or authors.
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*     http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+*/
+package com.bcn.todo.codec;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.core.ResolvableType;
+import org.springframework.core.codec.Decoder;
+import org.springframework.core.codec.Encoder;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.core.io.buffer.NettyDataBufferFactory;
+import org.springframework.http.MediaType;
+import org.springframework.http.codec.json.Jackson2JsonDecoder;
+import org.springframework.http.codec.json.Jackson2JsonEncoder;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import io.netty.buffer.PooledByteBufAllocator;
+import reactor.core.publisher.Flux;
+
+import com.bcn.todo.task.TaskDTO;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.datatype.jsr310.deser.LocalDateTimeDeserializer;
+import com.fasterxml.jackson.datatype.jsr310.ser.LocalDateTimeSerializer;
+import com.fasterxml.jackson.module.paramnames.ParameterNamesModule;
+
+/**
+ * Compares the {@link TaskDTOEncoder} and {@link TaskDTODecoder} with the Jackson codecs configured as the application object mapper, on a JSON array of tasks
+ * written into pooled Netty buffers.
+ *
+ * @author ttrigo
+ * @since 0.1.0
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class TaskCodecBenchmark {
+
+    private static final String DATE_TIME_PATTERN = "yyyy-MM-dd'T'HH:mm:ss.SSS'Z'";
+
+    private static final ResolvableType TASK_TYPE = ResolvableType.forClass(TaskDTO.class);
+
+    private static final int TASK_COUNT = 100;
+
+    private NettyDataBufferFactory bufferFactory;
+
+    private Jackson2JsonEncoder jacksonEncoder;
+
+    private Jackson2JsonDecoder jacksonDecoder;
+
+    private TaskDTOEncoder taskDTOEncoder;
+
+    private TaskDTODecoder taskDTODecoder;
+
+    private List<TaskDTO> tasks;
+
+    private byte[] json;
+
+    @Setup
+    public void setup() {
+        var dateTimeFormatter = DateTimeFormatter.ofPattern(DATE_TIME_PATTERN);
+        var objectMapper = Jackson2ObjectMapperBuilder.json()
+                                                      .serializationInclusion(JsonInclude.Include.NON_NULL)
+                                                      .serializers(new LocalDateTimeSerializer(dateTimeFormatter))
+                                                      .deserializers(new LocalDateTimeDeserializer(dateTimeFormatter))
+                                                      .modulesToInstall(new ParameterNamesModule())
+                                                      .build();
+        this.bufferFactory = new NettyDataBufferFactory(PooledByteBufAllocator.DEFAULT);
+        this.jacksonEncoder = new Jackson2JsonEncoder(objectMapper);
+        this.jacksonDecoder = new Jackson2JsonDecoder(objectMapper);
+        this.taskDTOEncoder = new TaskDTOEncoder(DATE_TIME_PATTERN);
+        this.taskDTODecoder = new TaskDTODecoder(DATE_TIME_PATTERN, 256 * 1024);
+        this.tasks = IntStream.range(0, TASK_COUNT)
+                              .mapToObj(index -> TaskDTO.builder()
+                                                        .id(UUID.randomUUID())
+                                                        .title("Benchmark Title " + index)
+                                                        .description("Benchmark Description with \"quotes\" and accents: àéïõü")
+                                                        .startDateTime(LocalDateTime.now())
+                                                        .build())
+                              .toList();
+        this.json = encode(this.taskDTOEncoder);
+    }
+
+    @Benchmark
+    public int encodeWithJackson() {
+        return write(this.jacksonEncoder);
+    }
+
+    @Benchmark
+    public int encodeWithTaskDTOEncoder() {
+        return write(this.taskDTOEncoder);
+    }
+
+    @Benchmark
+    public List<TaskDTO> decodeWithJackson() {
+        return read(this.jacksonDecoder);
+    }
+
+    @Benchmark
+    public List<TaskDTO> decodeWithTaskDTODecoder() {
+        return read(this.taskDTODecoder);
+    }
+
+    private int write(Encoder<? super TaskDTO> encoder) {
+        return encoder.encode(Flux.fromIterable(this.tasks), this.bufferFactory, TASK_TYPE, MediaType.APPLICATION_JSON, null)
+                      .map(buffer -> {
+                          var size = buffer.readableByteCount();
+                          DataBufferUtils.release(buffer);
+                          return size;
+                      })
+                      .reduce(0, Integer::sum)
+                      .block();
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<TaskDTO> read(Decoder<?> decoder) {
+        return (List<TaskDTO>) decoder.decode(Flux.just(this.bufferFactory.wrap(this.json)), TASK_TYPE, MediaType.APPLICATION_JSON, null)
+                                      .collectList()
+                                      .block();
+    }
+
+    private byte[] encode(Encoder<? super TaskDTO> encoder) {
+        var buffers = encoder.encode(Flux.fromIterable(this.tasks), DefaultDataBufferFactory.sharedInstance, TASK_TYPE, MediaType.APPLICATION_JSON, null);
+        var buffer = DataBufferUtils.join(buffers)
+                                    .block();
+        var bytes = new byte[buffer.readableByteCount()];
+        buffer.read(bytes);
+        return bytes;
+    }
+
+}
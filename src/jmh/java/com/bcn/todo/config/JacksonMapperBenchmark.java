@@ -0,0 +1,123 @@
+/**
+* Copyright 2023 the original author or authors.
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*     http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+*/
+package com.bcn.todo.config;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.module.paramnames.ParameterNamesModule;
+
+import com.bcn.todo.task.TaskDTO;
+
+/**
+ * Measures the JSON serialization of {@link TaskDTO} with the object mapper customized by {@link JacksonMapperConfiguration}.
+ * <p>
+ * The object mapper is built as Spring Boot builds it, including the parameter names module needed to deserialize tasks.
+ *
+ * @author ttrigo
+ * @since 0.1.0
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class JacksonMapperBenchmark {
+
+    private static final int TASK_LIST_SIZE = 100;
+
+    private ObjectWriter taskWriter;
+
+    private ObjectWriter taskListWriter;
+
+    private ObjectReader taskReader;
+
+    private TaskDTO taskDTO;
+
+    private List<TaskDTO> taskDTOs;
+
+    private byte[] taskJson;
+
+    @Setup
+    public void setup() throws IOException {
+        var jacksonMapperConfiguration = new JacksonMapperConfiguration();
+        ReflectionTestUtils.setField(jacksonMapperConfiguration, "dateFormat", "yyyy-MM-dd");
+        ReflectionTestUtils.setField(jacksonMapperConfiguration, "dateTimeFormat", "yyyy-MM-dd'T'HH:mm:ss.SSS'Z'");
+
+        var objectMapperBuilder = Jackson2ObjectMapperBuilder.json()
+                                                             .modulesToInstall(new ParameterNamesModule());
+        jacksonMapperConfiguration.jackson2ObjectMapperBuilderCustomizer()
+                                  .customize(objectMapperBuilder);
+        ObjectMapper objectMapper = objectMapperBuilder.build();
+
+        this.taskDTO = TaskDTO.builder()
+                              .id(UUID.randomUUID())
+                              .title("Benchmark Title")
+                              .description("Benchmark Description")
+                              .startDateTime(LocalDateTime.now())
+                              .build();
+        this.taskDTOs = IntStream.range(0, TASK_LIST_SIZE)
+                                 .mapToObj(index -> TaskDTO.builder()
+                                                           .id(UUID.randomUUID())
+                                                           .title("Benchmark Title " + index)
+                                                           .startDateTime(LocalDateTime.now())
+                                                           .build())
+                                 .toList();
+
+        this.taskWriter = objectMapper.writerFor(TaskDTO.class);
+        this.taskListWriter = objectMapper.writerFor(objectMapper.getTypeFactory()
+                                                                 .constructCollectionType(List.class, TaskDTO.class));
+        this.taskReader = objectMapper.readerFor(TaskDTO.class);
+        this.taskJson = this.taskWriter.writeValueAsBytes(this.taskDTO);
+    }
+
+    @Benchmark
+    public byte[] serializeTask() throws IOException {
+        return this.taskWriter.writeValueAsBytes(this.taskDTO);
+    }
+
+    @Benchmark
+    public byte[] serializeTaskList() throws IOException {
+        return this.taskListWriter.writeValueAsBytes(this.taskDTOs);
+    }
+
+    @Benchmark
+    public TaskDTO deserializeTask() throws IOException {
+        return this.taskReader.readValue(this.taskJson);
+    }
+
+}
@@ -0,0 +1,92 @@
+/**
+* Copyright 2023 the original author or authors.
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*     http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+*/
+package com.bcn.todo.error;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.core.MethodParameter;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.validation.BeanPropertyBindingResult;
+import org.springframework.validation.beanvalidation.SpringValidatorAdapter;
+import org.springframework.web.bind.support.WebExchangeBindException;
+
+import jakarta.validation.Validation;
+
+import com.bcn.todo.task.TaskDTO;
+import com.bcn.todo.task.TaskRestAPI;
+
+/**
+ * Measures the path followed by a request with an invalid task, from the validation of the task to the problem details built by
+ * {@link GlobalExceptionHandler}.
+ *
+ * @author ttrigo
+ * @since 0.1.0
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class GlobalExceptionHandlerBenchmark {
+
+    private static final String TASK_ENTITY_NAME = "taskDTO";
+
+    private GlobalExceptionHandler globalExceptionHandler;
+
+    private SpringValidatorAdapter validator;
+
+    private MethodParameter createTaskParameter;
+
+    private TaskDTO invalidTaskDTO;
+
+    @Setup
+    public void setup() throws NoSuchMethodException {
+        this.globalExceptionHandler = new GlobalExceptionHandler();
+        this.validator = new SpringValidatorAdapter(Validation.buildDefaultValidatorFactory()
+                                                              .getValidator());
+        this.createTaskParameter = new MethodParameter(TaskRestAPI.class.getMethod("createTask", TaskDTO.class), 0);
+        this.invalidTaskDTO = TaskDTO.builder()
+                                     .description("Benchmark Description")
+                                     .build();
+    }
+
+    @Benchmark
+    public ResponseEntity<Object> validateAndHandleInvalidTask() {
+        var bindingResult = new BeanPropertyBindingResult(this.invalidTaskDTO, TASK_ENTITY_NAME);
+        this.validator.validate(this.invalidTaskDTO, bindingResult);
+
+        var exchange = MockServerWebExchange.from(MockServerHttpRequest.post("/v1/tasks"));
+        return this.globalExceptionHandler.handleWebExchangeBindException(new WebExchangeBindException(this.createTaskParameter, bindingResult),
+                new HttpHeaders(), HttpStatus.BAD_REQUEST, exchange)
+                                          .block();
+    }
+
+}
@@ -0,0 +1,75 @@
+/**
+* Copyright 2023 the original author or authors.
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*     http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+*/
+package com.bcn.todo.task;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the mapping between {@link Task} and {@link TaskDTO} done by the generated {@link TaskMapper}.
+ *
+ * @author ttrigo
+ * @since 0.1.0
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class TaskMapperBenchmark {
+
+    private TaskMapper taskMapper;
+
+    private Task task;
+
+    private TaskDTO taskDTO;
+
+    @Setup
+    public void setup() {
+        this.taskMapper = new TaskMapperImpl();
+        this.task = new Task(UUID.randomUUID(), "Benchmark Title", "Benchmark Description", LocalDateTime.now(), null);
+        this.taskDTO = this.taskMapper.toTaskDTO(this.task);
+    }
+
+    @Benchmark
+    public TaskDTO toTaskDTO() {
+        return this.taskMapper.toTaskDTO(this.task);
+    }
+
+    @Benchmark
+    public Task toTask() {
+        return this.taskMapper.toTask(this.taskDTO);
+    }
+
+    @Benchmark
+    public Task toTaskIgnoreId() {
+        return this.taskMapper.toTaskIgnoreId(this.taskDTO);
+    }
+
+}
@@ -0,0 +1,139 @@
+/**
+* Copyright 2023 the original author or authors.
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*     http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+*/
+package com.bcn.todo.task;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.transaction.reactive.TransactionalOperator;
+
+import io.micrometer.observation.ObservationRegistry;
+import jakarta.validation.Validation;
+import reactor.core.publisher.Flux;
+
+import com.bcn.todo.InMemoryTransactionManager;
+import com.bcn.todo.outbox.InMemoryTaskOutboxRepository;
+
+/**
+ * Measures the {@link TaskServiceImpl} pipelines on top of an {@link InMemoryTaskRepository}, so that the results only reflect the cost of the service. Writes
+ * still run in a transaction, managed by an {@link InMemoryTransactionManager}, and record their changes in an {@link InMemoryTaskOutboxRepository}.
+ *
+ * @author ttrigo
+ * @since 0.1.0
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class TaskServiceBenchmark {
+
+    private static final int STORED_TASKS = 1_000;
+
+    private static final int PAGE_SIZE = 50;
+
+    private static final int BATCH_SIZE = 100;
+
+    private TaskServiceImpl taskService;
+
+    private UUID storedTaskId;
+
+    private TaskDTO taskDTO;
+
+    private List<TaskDTO> batchTaskDTOs;
+
+    @Setup
+    public void setup() {
+        var taskRepository = new InMemoryTaskRepository();
+        this.taskService = new TaskServiceImpl(new TaskMapperImpl(), taskRepository, new InMemoryTaskOutboxRepository(),
+                TransactionalOperator.create(new InMemoryTransactionManager()), Validation.buildDefaultValidatorFactory()
+                                                                                          .getValidator(), ObservationRegistry.NOOP,
+                TaskTimeouts.none(), null);
+
+        var storedTasks = IntStream.range(0, STORED_TASKS)
+                                   .mapToObj(index -> new Task(UUID.randomUUID(), "Benchmark Title " + index, null, LocalDateTime.now()
+                                                                                                                                .plusMinutes(index), null))
+                                   .toList();
+        taskRepository.insertTasks(storedTasks)
+                      .blockLast();
+
+        this.storedTaskId = storedTasks.get(STORED_TASKS / 2)
+                                       .id();
+        this.taskDTO = TaskDTO.builder()
+                              .title("Benchmark Title")
+                              .description("Benchmark Description")
+                              .startDateTime(LocalDateTime.now())
+                              .build();
+        this.batchTaskDTOs = IntStream.range(0, BATCH_SIZE)
+                                      .mapToObj(index -> TaskDTO.builder()
+                                                                .title("Benchmark Batch Title " + index)
+                                                                .build())
+                                      .toList();
+    }
+
+    @Benchmark
+    public TaskDTO findById() {
+        return this.taskService.findById(this.storedTaskId)
+                               .block();
+    }
+
+    @Benchmark
+    public TaskPageDTO findFirstPage() {
+        return this.taskService.findPage(null, PAGE_SIZE)
+                               .block();
+    }
+
+    @Benchmark
+    public TaskDTO update() {
+        var updatedTaskDTO = TaskDTO.builder()
+                                    .title("Benchmark Updated Title")
+                                    .build();
+        return this.taskService.update(this.storedTaskId, updatedTaskDTO)
+                               .block();
+    }
+
+    @Benchmark
+    public Boolean createAndDelete() {
+        return this.taskService.create(this.taskDTO)
+                               .flatMap(createdTaskDTO -> this.taskService.deleteById(createdTaskDTO.getId(), null))
+                               .block();
+    }
+
+    @Benchmark
+    public List<TaskBatchResultDTO> createAllAndDeleteAll() {
+        return this.taskService.createAll(Flux.fromIterable(this.batchTaskDTOs))
+                               .map(TaskBatchResultDTO::getId)
+                               .collectList()
+                               .flatMapMany(ids -> this.taskService.deleteAllById(Flux.fromIterable(ids)))
+                               .collectList()
+                               .block();
+    }
+
+}
@@ -0,0 +1,471 @@
+/**
+* Copyright 2023 the original author or authors.
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*     http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+*/
+package com.bcn.todo.task;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+import java.util.stream.IntStream;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.reactive.context.ReactiveWebServerApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.transaction.reactive.TransactionalOperator;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+import io.netty.handler.codec.http.HttpHeaderNames;
+import io.netty.handler.codec.http.HttpHeaderValues;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Hooks;
+import reactor.core.publisher.Mono;
+import reactor.netty.ByteBufFlux;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+import com.bcn.todo.InMemoryTransactionManager;
+import com.bcn.todo.TodoServiceApplication;
+import com.bcn.todo.outbox.InMemoryTaskOutboxRepository;
+
+/**
+ * Load test of the {@link TaskRestAPI} endpoints.
+ * <p>
+ * Boots the application on a random port with an {@link InMemoryTaskRepository} standing in for the database, then sends a mix of requests at a constant rate
+ * through Reactor Netty and reports the throughput and latency percentiles of each endpoint. Requests are scheduled at their intended time regardless of the
+ * responses, and latencies are measured from that time, so that a slow server is not hidden by a client that waits for it.
+ * <p>
+ * The load is configured with the following system properties:
+ * <ul>
+ * <li>{@code loadtest.rate}: the requests sent per second, defaults to {@value #DEFAULT_RATE}.</li>
+ * <li>{@code loadtest.duration}: the ISO-8601 duration of the measurement, defaults to {@value #DEFAULT_DURATION}.</li>
+ * <li>{@code loadtest.warm-up}: the ISO-8601 duration of the warm-up, whose requests are not measured, defaults to {@value #DEFAULT_WARM_UP}.</li>
+ * <li>{@code loadtest.concurrency}: the maximum number of requests in flight, defaults to {@value #DEFAULT_CONCURRENCY}.</li>
+ * <li>{@code loadtest.preloaded-tasks}: the number of tasks stored before the load starts, defaults to {@value #DEFAULT_PRELOADED_TASKS}.</li>
+ * <li>{@code loadtest.mix}: the weight of each operation, defaults to {@value #DEFAULT_MIX}.</li>
+ * <li>{@code loadtest.output-directory}: the directory where the reports are written, defaults to {@value #DEFAULT_OUTPUT_DIRECTORY}.</li>
+ * </ul>
+ * The summary of each operation is written to {@code loadtest-result.json} and its full latency distribution, in milliseconds, to {@code <operation>.hgrm}.
+ *
+ * @author ttrigo
+ * @since 0.1.0
+ */
+public class TaskLoadTest {
+
+    private static final int DEFAULT_RATE = 500;
+
+    private static final String DEFAULT_DURATION = "PT60S";
+
+    private static final String DEFAULT_WARM_UP = "PT10S";
+
+    private static final int DEFAULT_CONCURRENCY = 256;
+
+    private static final int DEFAULT_PRELOADED_TASKS = 10_000;
+
+    private static final String DEFAULT_MIX = "GET_BY_ID=60,GET_PAGE=10,CREATE=10,UPDATE=10,DELETE=10";
+
+    private static final String DEFAULT_OUTPUT_DIRECTORY = "target/loadtest";
+
+    /**
+     * The period at which requests are scheduled, high rates are reached by scheduling several requests per tick.
+     */
+    private static final Duration TICK = Duration.ofMillis(10);
+
+    private static final int PAGE_SIZE = 50;
+
+    private static final double MICROS_PER_MILLI = 1_000.0;
+
+    /**
+     * Properties that replace the database of the application by the in-memory repository.
+     */
+    private static final String[] APPLICATION_PROPERTIES = { "server.port=0", "spring.main.banner-mode=off", "logging.level.com.bcn.todo=WARN", "todo.r2dbc.pool.enabled=false",
+            "todo.task.changes.enabled=false", "todo.task.outbox.enabled=false", "todo.http.admission.enabled=false",
+            "spring.autoconfigure.exclude=org.springframework.boot.autoconfigure.r2dbc.R2dbcAutoConfiguration,"
+                    + "org.springframework.boot.autoconfigure.data.r2dbc.R2dbcDataAutoConfiguration,"
+                    + "org.springframework.boot.autoconfigure.data.r2dbc.R2dbcRepositoriesAutoConfiguration,"
+                    + "org.springframework.boot.autoconfigure.liquibase.LiquibaseAutoConfiguration" };
+
+    private final Settings settings;
+
+    private final HttpClient httpClient;
+
+    private final ObjectMapper objectMapper;
+
+    private final List<UUID> preloadedTaskIds;
+
+    private final Queue<UUID> createdTaskIds = new ConcurrentLinkedQueue<>();
+
+    private final Map<Operation, OperationStats> stats = new EnumMap<>(Operation.class);
+
+    private TaskLoadTest(Settings settings, HttpClient httpClient, ObjectMapper objectMapper, List<UUID> preloadedTaskIds) {
+        this.settings = settings;
+        this.httpClient = httpClient;
+        this.objectMapper = objectMapper;
+        this.preloadedTaskIds = preloadedTaskIds;
+        Arrays.stream(Operation.values())
+              .forEach(operation -> this.stats.put(operation, new OperationStats()));
+    }
+
+    /**
+     * Load test entry point.
+     *
+     * @param args command line arguments, not used.
+     * @throws IOException if the reports cannot be written.
+     */
+    public static void main(String[] args) throws IOException {
+        Hooks.enableAutomaticContextPropagation();
+        var settings = Settings.fromSystemProperties();
+
+        try (var context = (ReactiveWebServerApplicationContext) new SpringApplicationBuilder(TodoServiceApplication.class,
+                InMemoryDatabaseConfiguration.class).properties(APPLICATION_PROPERTIES)
+                                                    .run()) {
+            var preloadedTasks = IntStream.range(0, settings.preloadedTasks())
+                                          .mapToObj(index -> new Task(UUID.randomUUID(), "Load test task " + index, null, LocalDateTime.now()
+                                                                                                                                      .plusMinutes(index), null))
+                                          .toList();
+            context.getBean(InMemoryTaskRepository.class)
+                   .insertTasks(preloadedTasks)
+                   .blockLast();
+
+            var connectionProvider = ConnectionProvider.builder("loadtest")
+                                                       .maxConnections(settings.concurrency())
+                                                       .pendingAcquireMaxCount(-1)
+                                                       .build();
+            var httpClient = HttpClient.create(connectionProvider)
+                                       .baseUrl("http://localhost:" + context.getWebServer()
+                                                                             .getPort() + context.getEnvironment()
+                                                                                                 .getProperty("spring.webflux.base-path", "") + "/v1/tasks");
+
+            var loadTest = new TaskLoadTest(settings, httpClient, context.getBean(ObjectMapper.class), preloadedTasks.stream()
+                                                                                                                  .map(Task::id)
+                                                                                                                  .toList());
+            loadTest.run();
+            loadTest.report(System.out);
+            connectionProvider.dispose();
+        }
+    }
+
+    /**
+     * Sends the requests at the configured rate until the warm-up and the measurement are over.
+     */
+    private void run() {
+        var tickNanos = TICK.toNanos();
+        var requestsPerTick = this.settings.rate() * tickNanos / 1_000_000_000.0;
+        var ticks = this.settings.warmUp()
+                                 .plus(this.settings.duration())
+                                 .toNanos() / tickNanos;
+        var startNanos = System.nanoTime();
+        var measurementStartNanos = startNanos + this.settings.warmUp()
+                                                              .toNanos();
+
+        Flux.interval(TICK)
+            .take(ticks)
+            .onBackpressureBuffer()
+            .concatMapIterable(tick -> {
+                var intendedNanos = startNanos + (tick + 1) * tickNanos;
+                var requests = (int) ((tick + 1) * requestsPerTick) - (int) (tick * requestsPerTick);
+                return IntStream.range(0, requests)
+                                .mapToObj(index -> new Request(this.settings.nextOperation(), intendedNanos, intendedNanos >= measurementStartNanos))
+                                .toList();
+            })
+            .flatMap(this::execute, this.settings.concurrency())
+            .blockLast();
+    }
+
+    /**
+     * Sends the given request and records its latency and outcome.
+     *
+     * @param request the request to send.
+     * @return {@link Mono} completing once the response has been received.
+     */
+    private Mono<Void> execute(Request request) {
+        return send(request.operation()).onErrorReturn(-1)
+                                        .doOnNext(status -> {
+                                            if (request.measured()) {
+                                                this.stats.get(request.operation())
+                                                          .record(status, (System.nanoTime() - request.intendedNanos()) / 1_000L);
+                                            }
+                                        })
+                                        .then();
+    }
+
+    private Mono<Integer> send(Operation operation) {
+        return switch (operation) {
+            case GET_BY_ID -> exchange(this.httpClient.get()
+                                                      .uri("/" + randomPreloadedTaskId()), body -> {});
+            case GET_PAGE -> exchange(this.httpClient.get()
+                                                     .uri("/page?size=" + PAGE_SIZE), body -> {});
+            case CREATE -> exchange(jsonHttpClient().post()
+                                                    .uri("")
+                                                    .send(ByteBufFlux.fromString(Mono.just(taskJson()))), this::rememberCreatedTask);
+            case UPDATE -> exchange(jsonHttpClient().put()
+                                                    .uri("/" + randomPreloadedTaskId())
+                                                    .send(ByteBufFlux.fromString(Mono.just(taskJson()))), body -> {});
+            case DELETE -> {
+                var createdTaskId = this.createdTaskIds.poll();
+                yield exchange(this.httpClient.delete()
+                                              .uri("/" + (createdTaskId == null ? UUID.randomUUID() : createdTaskId)), body -> {});
+            }
+        };
+    }
+
+    /**
+     * Receives the response of a request.
+     *
+     * @param receiver     the request to receive the response from.
+     * @param bodyConsumer the consumer of the body of successful responses.
+     * @return {@link Mono} emitting the status code of the response.
+     */
+    private Mono<Integer> exchange(HttpClient.ResponseReceiver<?> receiver, Consumer<byte[]> bodyConsumer) {
+        return receiver.responseSingle((response, body) -> body.asByteArray()
+                                                               .doOnNext(bytes -> {
+                                                                   if (isSuccessful(response.status()
+                                                                                            .code())) {
+                                                                       bodyConsumer.accept(bytes);
+                                                                   }
+                                                               })
+                                                               .then(Mono.just(response.status()
+                                                                                       .code())));
+    }
+
+    private HttpClient jsonHttpClient() {
+        return this.httpClient.headers(headers -> headers.set(HttpHeaderNames.CONTENT_TYPE, HttpHeaderValues.APPLICATION_JSON));
+    }
+
+    private UUID randomPreloadedTaskId() {
+        return this.preloadedTaskIds.get(ThreadLocalRandom.current()
+                                                          .nextInt(this.preloadedTaskIds.size()));
+    }
+
+    private String taskJson() {
+        return "{\"title\":\"Load test task\",\"description\":\"Sent by the load test\"}";
+    }
+
+    private void rememberCreatedTask(byte[] body) {
+        try {
+            this.createdTaskIds.add(UUID.fromString(this.objectMapper.readTree(body)
+                                                                     .get("id")
+                                                                     .asText()));
+        } catch (IOException e) {
+            throw new IllegalStateException("Invalid created task", e);
+        }
+    }
+
+    /**
+     * Prints the summary of each operation and writes the reports to the output directory.
+     *
+     * @param out the stream where the summary is printed.
+     * @throws IOException if the reports cannot be written.
+     */
+    private void report(PrintStream out) throws IOException {
+        var outputDirectory = Files.createDirectories(this.settings.outputDirectory());
+        var durationSeconds = this.settings.duration()
+                                           .toNanos() / 1_000_000_000.0;
+        var summary = new LinkedHashMap<String, Object>();
+
+        out.printf("%-10s %10s %8s %12s %10s %10s %10s %10s%n", "operation", "requests", "errors", "throughput", "p50 (ms)", "p99 (ms)", "p999 (ms)", "max (ms)");
+        for (var entry : this.stats.entrySet()) {
+            var histogram = entry.getValue()
+                                 .histogram();
+            var requests = histogram.getTotalCount();
+            var errors = entry.getValue()
+                              .errors()
+                              .sum();
+            var throughput = requests / durationSeconds;
+
+            out.printf("%-10s %10d %8d %12.1f %10.3f %10.3f %10.3f %10.3f%n", entry.getKey(), requests, errors, throughput, percentile(histogram, 50.0),
+                    percentile(histogram, 99.0), percentile(histogram, 99.9), histogram.getMaxValue() / MICROS_PER_MILLI);
+
+            var operationSummary = new LinkedHashMap<String, Object>();
+            operationSummary.put("requests", requests);
+            operationSummary.put("errors", errors);
+            operationSummary.put("throughput", throughput);
+            operationSummary.put("p50", percentile(histogram, 50.0));
+            operationSummary.put("p99", percentile(histogram, 99.0));
+            operationSummary.put("p999", percentile(histogram, 99.9));
+            operationSummary.put("max", histogram.getMaxValue() / MICROS_PER_MILLI);
+            summary.put(entry.getKey()
+                             .name(), operationSummary);
+
+            try (var histogramOut = new PrintStream(Files.newOutputStream(outputDirectory.resolve(entry.getKey()
+                                                                                                       .name() + ".hgrm")))) {
+                histogram.outputPercentileDistribution(histogramOut, MICROS_PER_MILLI);
+            }
+        }
+
+        this.objectMapper.writer()
+                         .with(SerializationFeature.INDENT_OUTPUT)
+                         .writeValue(outputDirectory.resolve("loadtest-result.json")
+                                                    .toFile(), Map.of("settings", this.settings.toString(), "operations", summary));
+        out.printf("Reports written to %s%n", outputDirectory.toAbsolutePath());
+    }
+
+    private static double percentile(Histogram histogram, double percentile) {
+        return histogram.getValueAtPercentile(percentile) / MICROS_PER_MILLI;
+    }
+
+    private static boolean isSuccessful(int status) {
+        return status >= 200 && status < 300;
+    }
+
+    /**
+     * The operations sent by the load test.
+     */
+    enum Operation {
+
+        /**
+         * Gets a preloaded task by id.
+         */
+        GET_BY_ID,
+
+        /**
+         * Gets the first page of tasks.
+         */
+        GET_PAGE,
+
+        /**
+         * Creates a task, which is deleted later by {@link #DELETE}.
+         */
+        CREATE,
+
+        /**
+         * Updates a preloaded task.
+         */
+        UPDATE,
+
+        /**
+         * Deletes a task created by {@link #CREATE}, or a missing task if none is left.
+         */
+        DELETE
+
+    }
+
+    /**
+     * A request scheduled by the load test.
+     *
+     * @param operation     the operation of the request.
+     * @param intendedNanos the time at which the request should have been sent.
+     * @param measured      whether the request belongs to the measurement rather than to the warm-up.
+     */
+    private record Request(Operation operation, long intendedNanos, boolean measured) {}
+
+    /**
+     * The latencies, in microseconds, and the errors of an operation.
+     *
+     * @param histogram the latencies of the operation.
+     * @param errors    the number of requests that failed or got a response other than 2xx.
+     */
+    private record OperationStats(Histogram histogram, LongAdder errors) {
+
+        OperationStats() {
+            this(new ConcurrentHistogram(3), new LongAdder());
+        }
+
+        void record(int status, long latencyMicros) {
+            this.histogram.recordValue(latencyMicros);
+            if (!isSuccessful(status)) {
+                this.errors.increment();
+            }
+        }
+
+    }
+
+    /**
+     * The settings of the load test.
+     *
+     * @param rate            the requests sent per second.
+     * @param duration        the duration of the measurement.
+     * @param warmUp          the duration of the warm-up.
+     * @param concurrency     the maximum number of requests in flight.
+     * @param preloadedTasks  the number of tasks stored before the load starts.
+     * @param mix             the weight of each operation.
+     * @param outputDirectory the directory where the reports are written.
+     */
+    private record Settings(int rate, Duration duration, Duration warmUp, int concurrency, int preloadedTasks, Map<Operation, Integer> mix,
+            Path outputDirectory) {
+
+        static Settings fromSystemProperties() {
+            var mix = new EnumMap<Operation, Integer>(Operation.class);
+            Arrays.stream(System.getProperty("loadtest.mix", DEFAULT_MIX)
+                                .split(","))
+                  .map(weight -> weight.trim()
+                                       .split("="))
+                  .forEach(weight -> mix.put(Operation.valueOf(weight[0].trim()), Integer.parseInt(weight[1].trim())));
+
+            return new Settings(Integer.getInteger("loadtest.rate", DEFAULT_RATE), Duration.parse(System.getProperty("loadtest.duration", DEFAULT_DURATION)),
+                    Duration.parse(System.getProperty("loadtest.warm-up", DEFAULT_WARM_UP)), Integer.getInteger("loadtest.concurrency", DEFAULT_CONCURRENCY),
+                    Integer.getInteger("loadtest.preloaded-tasks", DEFAULT_PRELOADED_TASKS), mix,
+                    Path.of(System.getProperty("loadtest.output-directory", DEFAULT_OUTPUT_DIRECTORY)));
+        }
+
+        Operation nextOperation() {
+            var totalWeight = this.mix.values()
+                                      .stream()
+                                      .mapToInt(Integer::intValue)
+                                      .sum();
+            var position = ThreadLocalRandom.current()
+                                            .nextInt(totalWeight);
+            for (var weight : this.mix.entrySet()) {
+                position -= weight.getValue();
+                if (position < 0) {
+                    return weight.getKey();
+                }
+            }
+            throw new IllegalStateException("Invalid operation mix " + this.mix);
+        }
+
+    }
+
+    /**
+     * Replaces the task repository of the application by an {@link InMemoryTaskRepository}, and the outbox and the transactions by their in-memory
+     * counterparts.
+     */
+    static class InMemoryDatabaseConfiguration {
+
+        @Bean
+        InMemoryTaskRepository taskRepository() {
+            return new InMemoryTaskRepository();
+        }
+
+        @Bean
+        InMemoryTaskOutboxRepository taskOutboxRepository() {
+            return new InMemoryTaskOutboxRepository();
+        }
+
+        @Bean
+        TransactionalOperator transactionalOperator() {
+            return TransactionalOperator.create(new InMemoryTransactionManager());
+        }
+
+    }
+
+}
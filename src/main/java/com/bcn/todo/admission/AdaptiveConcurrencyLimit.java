@@ -0,0 +1,123 @@
+/**
+* Copyright 2023 the original author or authors.
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*     http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+*/
+package com.bcn.todo.admission;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Concurrency limit adapted to the latency of the requests with an additive increase, multiplicative decrease (AIMD) policy.
+ * <p>
+ * A request is admitted while the number of requests in flight is below the limit. Each completed request adjusts the limit: it is multiplied by the backoff
+ * ratio when the request failed or was slower than the latency threshold, the sign that a downstream resource such as the database is saturated, and it is
+ * increased by one when the request succeeded while at least half of the limit was in use, so that the limit only grows when it is actually needed.
+ *
+ * @author ttrigo
+ * @since 0.1.0
+ */
+public class AdaptiveConcurrencyLimit {
+
+    private final int minLimit;
+
+    private final int maxLimit;
+
+    private final double backoffRatio;
+
+    private final long latencyThresholdNanos;
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    private volatile double limit;
+
+    /**
+     * Default constructor.
+     *
+     * @param initialLimit     the limit before any request completes.
+     * @param minLimit         the lowest limit, must be positive.
+     * @param maxLimit         the highest limit, must not be lower than the minimum limit.
+     * @param backoffRatio     the ratio applied to the limit when a request is dropped, between 0 and 1.
+     * @param latencyThreshold the latency above which a request is considered dropped, must not be {@literal null}.
+     */
+    public AdaptiveConcurrencyLimit(int initialLimit, int minLimit, int maxLimit, double backoffRatio, Duration latencyThreshold) {
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.backoffRatio = backoffRatio;
+        this.latencyThresholdNanos = latencyThreshold.toNanos();
+        this.limit = Math.min(maxLimit, Math.max(minLimit, initialLimit));
+    }
+
+    /**
+     * Admits a request if the limit is not reached.
+     *
+     * @return {@literal true} if the request is admitted, it must then be released once completed.
+     */
+    public boolean tryAcquire() {
+        while (true) {
+            var current = this.inFlight.get();
+            if (current >= getLimit()) {
+                return false;
+            }
+            if (this.inFlight.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Releases a completed request and adjusts the limit.
+     *
+     * @param latencyNanos the time spent serving the request.
+     * @param dropped      whether the request failed because of an overload.
+     */
+    public void release(long latencyNanos, boolean dropped) {
+        var inFlightBefore = this.inFlight.getAndDecrement();
+        adjust(inFlightBefore, dropped || latencyNanos > this.latencyThresholdNanos);
+    }
+
+    /**
+     * Releases a request that did not complete, as a request cancelled by the client, without adjusting the limit.
+     */
+    public void release() {
+        this.inFlight.decrementAndGet();
+    }
+
+    /**
+     * Gets the current limit.
+     *
+     * @return the maximum number of requests in flight.
+     */
+    public int getLimit() {
+        return (int) this.limit;
+    }
+
+    /**
+     * Gets the number of requests in flight.
+     *
+     * @return the admitted requests that have not been released yet.
+     */
+    public int getInFlight() {
+        return this.inFlight.get();
+    }
+
+    private synchronized void adjust(int inFlightBefore, boolean dropped) {
+        if (dropped) {
+            this.limit = Math.max(this.minLimit, this.limit * this.backoffRatio);
+        } else if (inFlightBefore * 2 >= this.limit) {
+            this.limit = Math.min(this.maxLimit, this.limit + 1);
+        }
+    }
+
+}
@@ -0,0 +1,229 @@
+/**
+* Copyright 2023 the original author or authors.
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*     http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+*/
+package com.bcn.todo.admission;
+
+import java.time.Duration;
+import java.util.Set;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.lang.NonNull;
+import org.springframework.web.reactive.HandlerMapping;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+import org.springframework.web.util.pattern.PathPattern;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.SignalType;
+
+/**
+ * {@link WebFilter} that rejects the requests of the API early instead of letting them queue up when the service is saturated.
+ * <p>
+ * Each client is first rate limited by the {@link ClientRateLimiter}, being identified by its address, and is answered with 429-TOO_MANY_REQUESTS when it
+ * exceeds its rate. The address is never taken from a header set by the client itself, so behind a proxy the forwarded headers have to be resolved by the
+ * server, e.g. with {@code server.forward-headers-strategy}. The request is then admitted by the {@link AdaptiveConcurrencyLimit} of its group, reads or
+ * writes, so that slow writes do not starve the reads, and is answered with 503-SERVICE_UNAVAILABLE when the limit is reached. Both rejections carry a
+ * {@code Retry-After} header and no body. The GET requests whose handler is mapped to one of the unlimited patterns, such as the notification streams that
+ * are expected to last without running queries, are only rate limited.
+ * <p>
+ * The limit and the requests in flight of each group are published as the {@value #LIMIT_GAUGE} and {@value #IN_FLIGHT_GAUGE} gauges, the rejections as the
+ * {@value #REJECTED_COUNTER} counter tagged by group and reason.
+ *
+ * @author ttrigo
+ * @since 0.1.0
+ */
+public class AdmissionControlWebFilter implements WebFilter {
+
+    /**
+     * The name of the concurrency limit gauge.
+     */
+    public static final String LIMIT_GAUGE = "http.server.admission.limit";
+
+    /**
+     * The name of the requests in flight gauge.
+     */
+    public static final String IN_FLIGHT_GAUGE = "http.server.admission.in-flight";
+
+    /**
+     * The name of the rejected requests counter.
+     */
+    public static final String REJECTED_COUNTER = "http.server.admission.rejected";
+
+    private static final String API_PATH_PREFIX = "/v1/";
+
+    private static final String UNKNOWN_CLIENT = "unknown";
+
+    private final AdaptiveConcurrencyLimit readLimit;
+
+    private final AdaptiveConcurrencyLimit writeLimit;
+
+    private final ClientRateLimiter rateLimiter;
+
+    private final HandlerMapping handlerMapping;
+
+    private final Set<String> unlimitedPatterns;
+
+    private final Duration retryAfter;
+
+    private final Counter readRejectedByLimit;
+
+    private final Counter writeRejectedByLimit;
+
+    private final Counter readRejectedByRate;
+
+    private final Counter writeRejectedByRate;
+
+    /**
+     * Default constructor.
+     *
+     * @param readLimit         the concurrency limit of the reads, must not be {@literal null}.
+     * @param writeLimit        the concurrency limit of the writes, must not be {@literal null}.
+     * @param rateLimiter       the rate limiter of the clients, must not be {@literal null}.
+     * @param handlerMapping    the mapping of the requests to their handlers, used to find out the pattern a read is mapped to, must not be {@literal null}.
+     * @param unlimitedPatterns the patterns of the handlers whose reads are not bounded by the concurrency limit, must not be {@literal null}.
+     * @param retryAfter        the delay suggested to the clients rejected because of the concurrency limit, must not be {@literal null}.
+     * @param meterRegistry     the registry where the admission meters are published, must not be {@literal null}.
+     */
+    public AdmissionControlWebFilter(AdaptiveConcurrencyLimit readLimit, AdaptiveConcurrencyLimit writeLimit, ClientRateLimiter rateLimiter,
+            HandlerMapping handlerMapping, Set<String> unlimitedPatterns, Duration retryAfter, MeterRegistry meterRegistry) {
+        this.readLimit = readLimit;
+        this.writeLimit = writeLimit;
+        this.rateLimiter = rateLimiter;
+        this.handlerMapping = handlerMapping;
+        this.unlimitedPatterns = Set.copyOf(unlimitedPatterns);
+        this.retryAfter = retryAfter;
+        registerGauges("read", readLimit, meterRegistry);
+        registerGauges("write", writeLimit, meterRegistry);
+        this.readRejectedByLimit = rejectedCounter("read", "concurrency", meterRegistry);
+        this.writeRejectedByLimit = rejectedCounter("write", "concurrency", meterRegistry);
+        this.readRejectedByRate = rejectedCounter("read", "rate", meterRegistry);
+        this.writeRejectedByRate = rejectedCounter("write", "rate", meterRegistry);
+    }
+
+    @NonNull
+    @Override
+    public Mono<Void> filter(@NonNull ServerWebExchange exchange, @NonNull WebFilterChain chain) {
+        var request = exchange.getRequest();
+        if (!request.getPath()
+                    .pathWithinApplication()
+                    .value()
+                    .startsWith(API_PATH_PREFIX)) {
+            return chain.filter(exchange);
+        }
+        var read = isRead(request.getMethod());
+
+        var wait = this.rateLimiter.tryAcquire(clientId(request));
+        if (!wait.isZero()) {
+            (read ? this.readRejectedByRate : this.writeRejectedByRate).increment();
+            return reject(exchange, HttpStatus.TOO_MANY_REQUESTS, wait);
+        }
+        if (!HttpMethod.GET.equals(request.getMethod())) {
+            return admit(exchange, chain, read);
+        }
+        return isUnlimited(exchange).flatMap(unlimited -> Boolean.TRUE.equals(unlimited) ? chain.filter(exchange) : admit(exchange, chain, true));
+    }
+
+    /**
+     * Admits the given request within the concurrency limit of its group, or rejects it if the limit is reached.
+     *
+     * @param exchange the exchange of the request.
+     * @param chain    the chain of the filters.
+     * @param read     whether the request is a read.
+     * @return {@link Mono} completing once the request has been handled or rejected.
+     */
+    private Mono<Void> admit(ServerWebExchange exchange, WebFilterChain chain, boolean read) {
+        var limit = read ? this.readLimit : this.writeLimit;
+        return Mono.defer(() -> {
+            if (!limit.tryAcquire()) {
+                (read ? this.readRejectedByLimit : this.writeRejectedByLimit).increment();
+                return reject(exchange, HttpStatus.SERVICE_UNAVAILABLE, this.retryAfter);
+            }
+            var start = System.nanoTime();
+            return chain.filter(exchange)
+                        .doFinally(signal -> {
+                            if (signal == SignalType.CANCEL) {
+                                limit.release();
+                                return;
+                            }
+                            var status = exchange.getResponse()
+                                                 .getStatusCode();
+                            limit.release(System.nanoTime() - start, signal == SignalType.ON_ERROR || status != null && status.is5xxServerError());
+                        });
+        });
+    }
+
+    private static boolean isRead(HttpMethod method) {
+        return HttpMethod.GET.equals(method) || HttpMethod.HEAD.equals(method) || HttpMethod.OPTIONS.equals(method);
+    }
+
+    /**
+     * Checks whether the handler of the given GET request is mapped to one of the unlimited patterns.
+     * <p>
+     * The decision is taken from the handler matched for the request rather than from its media types, so that neither a client asking for a streamed media
+     * type nor the query-backed streams skip the concurrency limit. Requests whose handler cannot be matched are limited, and they are rejected by the handling
+     * of the request itself.
+     *
+     * @param exchange the exchange of the request.
+     * @return {@link Mono} emitting whether the request is not bounded by the concurrency limit.
+     */
+    private Mono<Boolean> isUnlimited(ServerWebExchange exchange) {
+        return this.handlerMapping.getHandler(exchange)
+                                  .map(handler -> exchange.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE) instanceof PathPattern pattern
+                                          && this.unlimitedPatterns.contains(pattern.getPatternString()))
+                                  .defaultIfEmpty(false)
+                                  .onErrorReturn(false);
+    }
+
+    private static String clientId(ServerHttpRequest request) {
+        var remoteAddress = request.getRemoteAddress();
+        return remoteAddress == null || remoteAddress.getAddress() == null ? UNKNOWN_CLIENT : remoteAddress.getAddress()
+                                                                                                           .getHostAddress();
+    }
+
+    private static Mono<Void> reject(ServerWebExchange exchange, HttpStatus status, Duration retryAfter) {
+        var response = exchange.getResponse();
+        response.setStatusCode(status);
+        response.getHeaders()
+                .set(HttpHeaders.RETRY_AFTER, String.valueOf(Math.max(1L, (retryAfter.toMillis() + 999) / 1000)));
+        return response.setComplete();
+    }
+
+    private static void registerGauges(String group, AdaptiveConcurrencyLimit limit, MeterRegistry meterRegistry) {
+        Gauge.builder(LIMIT_GAUGE, limit, AdaptiveConcurrencyLimit::getLimit)
+             .description("Maximum number of requests in flight")
+             .tag("group", group)
+             .register(meterRegistry);
+        Gauge.builder(IN_FLIGHT_GAUGE, limit, AdaptiveConcurrencyLimit::getInFlight)
+             .description("Number of requests in flight")
+             .tag("group", group)
+             .register(meterRegistry);
+    }
+
+    private static Counter rejectedCounter(String group, String reason, MeterRegistry meterRegistry) {
+        return Counter.builder(REJECTED_COUNTER)
+                      .description("Requests rejected by the admission control")
+                      .tag("group", group)
+                      .tag("reason", reason)
+                      .register(meterRegistry);
+    }
+
+}
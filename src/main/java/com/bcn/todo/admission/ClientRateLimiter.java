@@ -0,0 +1,100 @@
+/**
+* Copyright 2023 the original author or authors.
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*     http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+*/
+package com.bcn.todo.admission;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Ticker;
+
+/**
+ * Rate limiter giving each client a token bucket.
+ * <p>
+ * A bucket holds up to the capacity tokens and is refilled at a constant rate, so that a client can send bursts of requests as long as its average rate stays
+ * below the refill rate. The buckets are kept in a bounded cache and forgotten once they would be full again, a new bucket being full anyway.
+ *
+ * @author ttrigo
+ * @since 0.1.0
+ */
+public class ClientRateLimiter {
+
+    private final long capacity;
+
+    private final double refillTokensPerNano;
+
+    private final Ticker ticker;
+
+    private final Cache<String, TokenBucket> buckets;
+
+    /**
+     * Default constructor.
+     *
+     * @param capacity       the maximum number of tokens of a bucket, the largest burst of requests of a client.
+     * @param refillRate     the tokens added to a bucket every second, the sustained rate of requests of a client, must be positive.
+     * @param maximumClients the maximum number of buckets kept.
+     * @param ticker         the source of time, must not be {@literal null}.
+     */
+    public ClientRateLimiter(long capacity, double refillRate, long maximumClients, Ticker ticker) {
+        this.capacity = capacity;
+        this.refillTokensPerNano = refillRate / TimeUnit.SECONDS.toNanos(1);
+        this.ticker = ticker;
+        this.buckets = Caffeine.newBuilder()
+                               .maximumSize(maximumClients)
+                               .expireAfterAccess(Duration.ofNanos((long) Math.ceil(capacity / this.refillTokensPerNano)))
+                               .ticker(ticker)
+                               .build();
+    }
+
+    /**
+     * Takes a token from the bucket of the given client.
+     *
+     * @param clientId the identifier of the client, must not be {@literal null}.
+     * @return zero if the request is allowed, otherwise the time to wait until the bucket holds a token again.
+     */
+    public Duration tryAcquire(String clientId) {
+        var bucket = this.buckets.get(clientId, id -> new TokenBucket(this.capacity, this.ticker.read()));
+        return Duration.ofNanos(bucket.tryConsume(this.ticker.read(), this.capacity, this.refillTokensPerNano));
+    }
+
+    /**
+     * Tokens of a client.
+     */
+    private static final class TokenBucket {
+
+        private double tokens;
+
+        private long refilledAt;
+
+        TokenBucket(long tokens, long refilledAt) {
+            this.tokens = tokens;
+            this.refilledAt = refilledAt;
+        }
+
+        synchronized long tryConsume(long now, long capacity, double refillTokensPerNano) {
+            this.tokens = Math.min(capacity, this.tokens + (now - this.refilledAt) * refillTokensPerNano);
+            this.refilledAt = now;
+            if (this.tokens >= 1) {
+                this.tokens -= 1;
+                return 0L;
+            }
+            return (long) Math.ceil((1 - this.tokens) / refillTokensPerNano);
+        }
+
+    }
+
+}
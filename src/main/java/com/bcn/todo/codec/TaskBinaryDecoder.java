@@ -0,0 +1,177 @@
+/**
+* Copyright 2023 the original author or authors.
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*     http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+*/
+package com.bcn.todo.codec;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import org.reactivestreams.Publisher;
+import org.springframework.core.ResolvableType;
+import org.springframework.core.codec.DecodingException;
+import org.springframework.core.codec.Decoder;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferLimitException;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.lang.Nullable;
+import org.springframework.util.MimeType;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import com.bcn.todo.task.TaskDTO;
+
+/**
+ * Decodes {@link TaskDTO} with a {@link TaskBinaryFormat}.
+ * <p>
+ * A single task is read from the whole body. A stream of tasks is read with the length-delimited framing written by the {@link TaskBinaryEncoder}, each task
+ * being decoded as soon as its bytes have arrived.
+ *
+ * @author ttrigo
+ * @since 0.1.0
+ */
+public class TaskBinaryDecoder implements Decoder<TaskDTO> {
+
+    private final TaskBinaryFormat format;
+
+    private final List<MimeType> mimeTypes;
+
+    private final int maxInMemorySize;
+
+    /**
+     * Default constructor.
+     *
+     * @param format          the format of the tasks, must not be {@literal null}.
+     * @param maxInMemorySize the maximum number of bytes of a task, {@literal -1} for unlimited.
+     */
+    public TaskBinaryDecoder(TaskBinaryFormat format, int maxInMemorySize) {
+        this.format = format;
+        this.mimeTypes = List.of(format.getMimeType());
+        this.maxInMemorySize = maxInMemorySize;
+    }
+
+    @Override
+    public boolean canDecode(ResolvableType elementType, @Nullable MimeType mimeType) {
+        return TaskDTO.class.equals(elementType.toClass()) && mimeType != null && this.format.getMimeType()
+                                                                                             .isCompatibleWith(mimeType);
+    }
+
+    @Override
+    public Flux<TaskDTO> decode(Publisher<DataBuffer> inputStream, ResolvableType elementType, @Nullable MimeType mimeType,
+            @Nullable Map<String, Object> hints) {
+        return Flux.defer(() -> {
+            var splitter = new Splitter();
+            return Flux.from(inputStream)
+                       .concatMapIterable(splitter::split)
+                       .concatWith(Mono.fromRunnable(splitter::complete));
+        });
+    }
+
+    @Override
+    public Mono<TaskDTO> decodeToMono(Publisher<DataBuffer> inputStream, ResolvableType elementType, @Nullable MimeType mimeType,
+            @Nullable Map<String, Object> hints) {
+        return DataBufferUtils.join(inputStream, this.maxInMemorySize)
+                              .map(buffer -> decode(buffer, elementType, mimeType, hints));
+    }
+
+    @Override
+    public TaskDTO decode(DataBuffer buffer, ResolvableType targetType, @Nullable MimeType mimeType, @Nullable Map<String, Object> hints) {
+        try {
+            var bytes = new byte[buffer.readableByteCount()];
+            buffer.read(bytes);
+            return this.format.read(bytes, 0, bytes.length);
+        } finally {
+            DataBufferUtils.release(buffer);
+        }
+    }
+
+    @Override
+    public List<MimeType> getDecodableMimeTypes() {
+        return this.mimeTypes;
+    }
+
+    /**
+     * Returns the configured maximum number of bytes of a task.
+     *
+     * @return the maximum number of bytes of a task, {@literal -1} for unlimited.
+     */
+    public int getMaxInMemorySize() {
+        return this.maxInMemorySize;
+    }
+
+    /**
+     * Splits a stream of buffers into the tasks they hold, keeping the length or the bytes of the task being read across buffers.
+     */
+    private final class Splitter {
+
+        private int length;
+
+        private int lengthShift;
+
+        private byte[] task;
+
+        private int position;
+
+        List<TaskDTO> split(DataBuffer buffer) {
+            try {
+                var tasks = new ArrayList<TaskDTO>();
+                while (buffer.readableByteCount() > 0) {
+                    if (this.task == null) {
+                        readLength(buffer.read());
+                    } else {
+                        var count = Math.min(buffer.readableByteCount(), this.task.length - this.position);
+                        buffer.read(this.task, this.position, count);
+                        this.position += count;
+                    }
+                    if (this.task != null && this.position == this.task.length) {
+                        tasks.add(TaskBinaryDecoder.this.format.read(this.task, 0, this.task.length));
+                        this.task = null;
+                    }
+                }
+                return tasks;
+            } finally {
+                DataBufferUtils.release(buffer);
+            }
+        }
+
+        void complete() {
+            if (this.task != null || this.lengthShift > 0) {
+                throw new DecodingException("Binary decoding error: Incomplete task at the end of the input");
+            }
+        }
+
+        private void readLength(byte current) {
+            if (this.lengthShift == 7 * TaskBinaryFraming.MAX_LENGTH_SIZE) {
+                throw new DecodingException("Binary decoding error: Invalid task length");
+            }
+            this.length |= (current & 0x7F) << this.lengthShift;
+            this.lengthShift += 7;
+            if ((current & 0x80) != 0) {
+                return;
+            }
+            var maxInMemorySize = TaskBinaryDecoder.this.maxInMemorySize;
+            if (this.length < 0 || maxInMemorySize >= 0 && this.length > maxInMemorySize) {
+                throw new DataBufferLimitException("Exceeded limit on max bytes per task: " + maxInMemorySize);
+            }
+            this.task = new byte[this.length];
+            this.position = 0;
+            this.length = 0;
+            this.lengthShift = 0;
+        }
+
+    }
+
+}
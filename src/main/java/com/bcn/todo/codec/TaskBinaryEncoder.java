@@ -0,0 +1,101 @@
+/**
+* Copyright 2023 the original author or authors.
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*     http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+*/
+package com.bcn.todo.codec;
+
+import java.util.List;
+import java.util.Map;
+
+import org.reactivestreams.Publisher;
+import org.springframework.core.ResolvableType;
+import org.springframework.core.codec.Encoder;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferFactory;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.lang.Nullable;
+import org.springframework.util.MimeType;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import com.bcn.todo.task.TaskDTO;
+
+/**
+ * Encodes {@link TaskDTO} with a {@link TaskBinaryFormat}.
+ * <p>
+ * A single task is written as is. A list or a stream of tasks is written with length-delimited framing, each task being preceded by its number of bytes as a
+ * base 128 varint, the framing of {@code writeDelimitedTo} in Protocol Buffers, so that the tasks can be read as they arrive.
+ *
+ * @author ttrigo
+ * @since 0.1.0
+ */
+public class TaskBinaryEncoder implements Encoder<TaskDTO> {
+
+    private final TaskBinaryFormat format;
+
+    private final List<MimeType> mimeTypes;
+
+    /**
+     * Default constructor.
+     *
+     * @param format the format of the tasks, must not be {@literal null}.
+     */
+    public TaskBinaryEncoder(TaskBinaryFormat format) {
+        this.format = format;
+        this.mimeTypes = List.of(format.getMimeType());
+    }
+
+    @Override
+    public boolean canEncode(ResolvableType elementType, @Nullable MimeType mimeType) {
+        return TaskDTO.class.equals(elementType.toClass()) && mimeType != null && this.format.getMimeType()
+                                                                                             .isCompatibleWith(mimeType);
+    }
+
+    @Override
+    public Flux<DataBuffer> encode(Publisher<? extends TaskDTO> inputStream, DataBufferFactory bufferFactory, ResolvableType elementType,
+            @Nullable MimeType mimeType, @Nullable Map<String, Object> hints) {
+        if (inputStream instanceof Mono) {
+            return Mono.from(inputStream)
+                       .map(task -> encodeValue(task, bufferFactory, elementType, mimeType, hints))
+                       .flux();
+        }
+        return Flux.from(inputStream)
+                   .map(task -> encodeDelimited(task, bufferFactory));
+    }
+
+    @Override
+    public DataBuffer encodeValue(TaskDTO value, DataBufferFactory bufferFactory, ResolvableType valueType, @Nullable MimeType mimeType,
+            @Nullable Map<String, Object> hints) {
+        return bufferFactory.wrap(this.format.write(value));
+    }
+
+    @Override
+    public List<MimeType> getEncodableMimeTypes() {
+        return this.mimeTypes;
+    }
+
+    private DataBuffer encodeDelimited(TaskDTO task, DataBufferFactory bufferFactory) {
+        var bytes = this.format.write(task);
+        var buffer = bufferFactory.allocateBuffer(TaskBinaryFraming.MAX_LENGTH_SIZE + bytes.length);
+        try {
+            TaskBinaryFraming.writeLength(bytes.length, buffer);
+            return buffer.write(bytes);
+        } catch (RuntimeException e) {
+            DataBufferUtils.release(buffer);
+            throw e;
+        }
+    }
+
+}
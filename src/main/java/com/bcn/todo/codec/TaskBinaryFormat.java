@@ -0,0 +1,56 @@
+/**
+* Copyright 2023 the original author or authors.
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*     http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+*/
+package com.bcn.todo.codec;
+
+import org.springframework.util.MimeType;
+
+import com.bcn.todo.task.TaskDTO;
+
+/**
+ * Binary representation of a {@link TaskDTO}.
+ *
+ * @author ttrigo
+ * @since 0.1.0
+ */
+public interface TaskBinaryFormat {
+
+    /**
+     * Gets the MIME type of the representation.
+     *
+     * @return the MIME type.
+     */
+    MimeType getMimeType();
+
+    /**
+     * Writes the given task.
+     *
+     * @param task the task to write, must not be {@literal null}.
+     * @return the bytes of the task.
+     */
+    byte[] write(TaskDTO task);
+
+    /**
+     * Reads a task from the given bytes.
+     *
+     * @param bytes  the bytes holding the task, must not be {@literal null}.
+     * @param offset the position of the first byte of the task.
+     * @param length the number of bytes of the task.
+     * @return the task read.
+     * @throws org.springframework.core.codec.DecodingException if the bytes are not a valid task.
+     */
+    TaskDTO read(byte[] bytes, int offset, int length);
+
+}
@@ -0,0 +1,51 @@
+/**
+* Copyright 2023 the original author or authors.
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*     http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+*/
+package com.bcn.todo.codec;
+
+import org.springframework.core.io.buffer.DataBuffer;
+
+/**
+ * Length-delimited framing of the binary representations of the tasks: each task is preceded by its number of bytes as a base 128 varint.
+ *
+ * @author ttrigo
+ * @since 0.1.0
+ */
+final class TaskBinaryFraming {
+
+    /**
+     * The maximum number of bytes of the length of a task.
+     */
+    static final int MAX_LENGTH_SIZE = 5;
+
+    private TaskBinaryFraming() {
+    }
+
+    /**
+     * Writes the given length as a varint.
+     *
+     * @param length the length to write, must be positive.
+     * @param buffer the buffer to write to, must not be {@literal null}.
+     */
+    static void writeLength(int length, DataBuffer buffer) {
+        var remaining = length;
+        while ((remaining & ~0x7F) != 0) {
+            buffer.write((byte) (remaining & 0x7F | 0x80));
+            remaining >>>= 7;
+        }
+        buffer.write((byte) remaining);
+    }
+
+}
@@ -0,0 +1,83 @@
+/**
+* Copyright 2023 the original author or authors.
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*     http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+*/
+package com.bcn.todo.codec;
+
+import java.io.IOException;
+
+import org.springframework.core.codec.DecodingException;
+import org.springframework.core.codec.EncodingException;
+import org.springframework.util.MimeType;
+
+import com.bcn.todo.task.TaskDTO;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+
+/**
+ * CBOR representation of a {@link TaskDTO}, the JSON representation of the task written with the CBOR data model.
+ *
+ * @author ttrigo
+ * @since 0.1.0
+ */
+public class TaskCborFormat implements TaskBinaryFormat {
+
+    /**
+     * The MIME type of the representation.
+     */
+    public static final MimeType MIME_TYPE = new MimeType("application", "cbor");
+
+    private final ObjectWriter writer;
+
+    private final ObjectReader reader;
+
+    /**
+     * Default constructor.
+     *
+     * @param objectMapper the object mapper, must be created with a {@link CBORFactory} and must not be {@literal null}.
+     */
+    public TaskCborFormat(ObjectMapper objectMapper) {
+        if (!(objectMapper.getFactory() instanceof CBORFactory)) {
+            throw new IllegalArgumentException("The object mapper must be created with a CBORFactory");
+        }
+        this.writer = objectMapper.writerFor(TaskDTO.class);
+        this.reader = objectMapper.readerFor(TaskDTO.class);
+    }
+
+    @Override
+    public MimeType getMimeType() {
+        return MIME_TYPE;
+    }
+
+    @Override
+    public byte[] write(TaskDTO task) {
+        try {
+            return this.writer.writeValueAsBytes(task);
+        } catch (IOException e) {
+            throw new EncodingException("CBOR encoding error: " + e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public TaskDTO read(byte[] bytes, int offset, int length) {
+        try {
+            return this.reader.readValue(bytes, offset, length);
+        } catch (IOException e) {
+            throw new DecodingException("CBOR decoding error: " + e.getMessage(), e);
+        }
+    }
+
+}
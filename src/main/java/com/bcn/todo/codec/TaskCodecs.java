@@ -0,0 +1,46 @@
+/**
+* Copyright 2023 the original author or authors.
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*     http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+*/
+package com.bcn.todo.codec;
+
+import java.util.List;
+
+import org.springframework.lang.Nullable;
+import org.springframework.util.MimeType;
+
+/**
+ * Helper methods shared by the task codecs.
+ *
+ * @author ttrigo
+ * @since 0.1.0
+ */
+final class TaskCodecs {
+
+    private TaskCodecs() {
+    }
+
+    /**
+     * Whether the given MIME type is supported.
+     *
+     * @param mimeTypes the MIME types supported by the codec.
+     * @param mimeType  the MIME type to check, {@literal null} when any MIME type is accepted.
+     * @return {@literal true} if the MIME type is compatible with one of the supported ones.
+     */
+    static boolean supports(List<MimeType> mimeTypes, @Nullable MimeType mimeType) {
+        return mimeType == null || mimeTypes.stream()
+                                            .anyMatch(supported -> supported.isCompatibleWith(mimeType));
+    }
+
+}
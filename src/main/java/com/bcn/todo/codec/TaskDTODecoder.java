@@ -0,0 +1,206 @@
+/**
+* Copyright 2023 the original author or authors.
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*     http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+*/
+package com.bcn.todo.codec;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import org.reactivestreams.Publisher;
+import org.springframework.core.ResolvableType;
+import org.springframework.core.codec.DecodingException;
+import org.springframework.core.codec.Decoder;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferLimitException;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.MediaType;
+import org.springframework.lang.Nullable;
+import org.springframework.util.MimeType;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import com.bcn.todo.task.TaskDTO;
+
+/**
+ * Decodes {@link TaskDTO} from JSON without going through the object mapper.
+ * <p>
+ * A stream of tasks is read as the buffers arrive, whether it is a JSON array or one task per line: the objects are split on their closing brace and decoded
+ * one by one, so that at most one task is held in memory. A single task is decoded once its buffers are joined.
+ *
+ * @author ttrigo
+ * @since 0.1.0
+ */
+public class TaskDTODecoder implements Decoder<TaskDTO> {
+
+    private static final List<MimeType> MIME_TYPES = List.of(MediaType.APPLICATION_JSON, MediaType.APPLICATION_NDJSON);
+
+    private final TaskJsonReader reader;
+
+    private final int maxInMemorySize;
+
+    /**
+     * Default constructor.
+     *
+     * @param dateTimePattern the pattern of the dates, must not be {@literal null}.
+     * @param maxInMemorySize the maximum number of bytes of a task, {@literal -1} for unlimited.
+     */
+    public TaskDTODecoder(String dateTimePattern, int maxInMemorySize) {
+        this.reader = new TaskJsonReader(dateTimePattern);
+        this.maxInMemorySize = maxInMemorySize;
+    }
+
+    @Override
+    public boolean canDecode(ResolvableType elementType, @Nullable MimeType mimeType) {
+        return TaskDTO.class.equals(elementType.toClass()) && TaskCodecs.supports(MIME_TYPES, mimeType);
+    }
+
+    @Override
+    public Flux<TaskDTO> decode(Publisher<DataBuffer> inputStream, ResolvableType elementType, @Nullable MimeType mimeType,
+            @Nullable Map<String, Object> hints) {
+        return Flux.defer(() -> {
+            var splitter = new Splitter();
+            return Flux.from(inputStream)
+                       .concatMapIterable(splitter::split)
+                       .concatWith(Mono.fromRunnable(splitter::complete));
+        });
+    }
+
+    @Override
+    public Mono<TaskDTO> decodeToMono(Publisher<DataBuffer> inputStream, ResolvableType elementType, @Nullable MimeType mimeType,
+            @Nullable Map<String, Object> hints) {
+        return DataBufferUtils.join(inputStream, this.maxInMemorySize)
+                              .map(buffer -> decode(buffer, elementType, mimeType, hints));
+    }
+
+    @Override
+    public TaskDTO decode(DataBuffer buffer, ResolvableType targetType, @Nullable MimeType mimeType, @Nullable Map<String, Object> hints) {
+        try {
+            var bytes = new byte[buffer.readableByteCount()];
+            buffer.read(bytes);
+            return this.reader.read(bytes, 0, bytes.length);
+        } finally {
+            DataBufferUtils.release(buffer);
+        }
+    }
+
+    @Override
+    public List<MimeType> getDecodableMimeTypes() {
+        return MIME_TYPES;
+    }
+
+    /**
+     * Returns the configured maximum number of bytes of a task.
+     *
+     * @return the maximum number of bytes of a task, {@literal -1} for unlimited.
+     */
+    public int getMaxInMemorySize() {
+        return this.maxInMemorySize;
+    }
+
+    /**
+     * Splits a stream of buffers into the JSON objects of the tasks, keeping the bytes of the object being read across buffers.
+     */
+    private final class Splitter {
+
+        private byte[] object = new byte[256];
+
+        private int length;
+
+        private int depth;
+
+        private boolean inString;
+
+        private boolean escaped;
+
+        List<TaskDTO> split(DataBuffer buffer) {
+            try {
+                var tasks = new ArrayList<TaskDTO>();
+                while (buffer.readableByteCount() > 0) {
+                    var current = buffer.read();
+                    if (this.depth == 0) {
+                        if (current != '{') {
+                            if (!isSeparator(current)) {
+                                throw new DecodingException("JSON decoding error: Unexpected character '" + (char) current + "' between tasks");
+                            }
+                            continue;
+                        }
+                        this.length = 0;
+                    }
+                    append(current);
+                    if (track(current)) {
+                        tasks.add(TaskDTODecoder.this.reader.read(this.object, 0, this.length));
+                    }
+                }
+                return tasks;
+            } finally {
+                DataBufferUtils.release(buffer);
+            }
+        }
+
+        void complete() {
+            if (this.depth > 0) {
+                throw new DecodingException("JSON decoding error: Incomplete task at the end of the input");
+            }
+        }
+
+        /**
+         * Tracks the nesting of the current object.
+         *
+         * @param current the byte read.
+         * @return {@literal true} when the byte closes the current object.
+         */
+        private boolean track(byte current) {
+            if (this.inString) {
+                if (this.escaped) {
+                    this.escaped = false;
+                } else if (current == '\\') {
+                    this.escaped = true;
+                } else if (current == '"') {
+                    this.inString = false;
+                }
+                return false;
+            }
+            switch (current) {
+            case '"' -> this.inString = true;
+            case '{', '[' -> this.depth++;
+            case '}', ']' -> this.depth--;
+            default -> {
+                return false;
+            }
+            }
+            return this.depth == 0;
+        }
+
+        private void append(byte current) {
+            var maxInMemorySize = TaskDTODecoder.this.maxInMemorySize;
+            if (maxInMemorySize >= 0 && this.length >= maxInMemorySize) {
+                throw new DataBufferLimitException("Exceeded limit on max bytes per task: " + maxInMemorySize);
+            }
+            if (this.length == this.object.length) {
+                this.object = Arrays.copyOf(this.object, this.length * 2);
+            }
+            this.object[this.length++] = current;
+        }
+
+        private static boolean isSeparator(byte current) {
+            return current == '[' || current == ']' || current == ',' || TaskJsonReader.isWhitespace(current);
+        }
+
+    }
+
+}
@@ -0,0 +1,122 @@
+/**
+* Copyright 2023 the original author or authors.
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*     http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+*/
+package com.bcn.todo.codec;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.reactivestreams.Publisher;
+import org.springframework.core.ResolvableType;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferFactory;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.MediaType;
+import org.springframework.http.codec.HttpMessageEncoder;
+import org.springframework.lang.Nullable;
+import org.springframework.util.MimeType;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import com.bcn.todo.task.TaskDTO;
+
+/**
+ * Encodes {@link TaskDTO} as JSON without going through the object mapper.
+ * <p>
+ * Each task is written into a single buffer allocated from the {@link DataBufferFactory} of the response, pooled with Netty. A stream of tasks is written as
+ * it is emitted: one task per line for {@link MediaType#APPLICATION_NDJSON}, or the elements of an array for {@link MediaType#APPLICATION_JSON}, the
+ * brackets and separators being written with the elements instead of in buffers of their own.
+ *
+ * @author ttrigo
+ * @since 0.1.0
+ */
+public class TaskDTOEncoder implements HttpMessageEncoder<TaskDTO> {
+
+    private static final List<MimeType> MIME_TYPES = List.of(MediaType.APPLICATION_JSON, MediaType.APPLICATION_NDJSON);
+
+    private static final List<MediaType> STREAMING_MEDIA_TYPES = List.of(MediaType.APPLICATION_NDJSON);
+
+    private final TaskJsonWriter writer;
+
+    /**
+     * Default constructor.
+     *
+     * @param dateTimePattern the pattern of the dates, must not be {@literal null}.
+     */
+    public TaskDTOEncoder(String dateTimePattern) {
+        this.writer = new TaskJsonWriter(dateTimePattern);
+    }
+
+    @Override
+    public boolean canEncode(ResolvableType elementType, @Nullable MimeType mimeType) {
+        return TaskDTO.class.equals(elementType.toClass()) && TaskCodecs.supports(MIME_TYPES, mimeType);
+    }
+
+    @Override
+    public Flux<DataBuffer> encode(Publisher<? extends TaskDTO> inputStream, DataBufferFactory bufferFactory, ResolvableType elementType,
+            @Nullable MimeType mimeType, @Nullable Map<String, Object> hints) {
+        if (inputStream instanceof Mono) {
+            return Mono.from(inputStream)
+                       .map(task -> encodeValue(task, bufferFactory, elementType, mimeType, hints))
+                       .flux();
+        }
+        if (MediaType.APPLICATION_NDJSON.isCompatibleWith(mimeType)) {
+            return Flux.from(inputStream)
+                       .map(task -> encode(task, bufferFactory, null, (byte) '\n'));
+        }
+        return Flux.defer(() -> {
+            var first = new AtomicBoolean(true);
+            return Flux.from(inputStream)
+                       .map(task -> encode(task, bufferFactory, first.getAndSet(false) ? (byte) '[' : (byte) ',', null))
+                       .concatWith(Mono.fromSupplier(() -> bufferFactory.wrap(first.get() ? new byte[] { '[', ']' } : new byte[] { ']' })));
+        });
+    }
+
+    @Override
+    public DataBuffer encodeValue(TaskDTO value, DataBufferFactory bufferFactory, ResolvableType valueType, @Nullable MimeType mimeType,
+            @Nullable Map<String, Object> hints) {
+        return encode(value, bufferFactory, null, null);
+    }
+
+    @Override
+    public List<MimeType> getEncodableMimeTypes() {
+        return MIME_TYPES;
+    }
+
+    @Override
+    public List<MediaType> getStreamingMediaTypes() {
+        return STREAMING_MEDIA_TYPES;
+    }
+
+    private DataBuffer encode(TaskDTO task, DataBufferFactory bufferFactory, @Nullable Byte prefix, @Nullable Byte suffix) {
+        var buffer = bufferFactory.allocateBuffer(this.writer.estimateSize(task) + 2);
+        try {
+            if (prefix != null) {
+                buffer.write(prefix);
+            }
+            this.writer.write(task, buffer);
+            if (suffix != null) {
+                buffer.write(suffix);
+            }
+            return buffer;
+        } catch (RuntimeException e) {
+            DataBufferUtils.release(buffer);
+            throw e;
+        }
+    }
+
+}
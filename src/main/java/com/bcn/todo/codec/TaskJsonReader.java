@@ -0,0 +1,292 @@
+/**
+* Copyright 2023 the original author or authors.
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*     http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+*/
+package com.bcn.todo.codec;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.UUID;
+
+import org.springframework.core.codec.DecodingException;
+
+import com.bcn.todo.task.TaskDTO;
+
+/**
+ * Reads a {@link TaskDTO} from the bytes of a JSON object.
+ * <p>
+ * Accepts what the application object mapper accepts for a task: unknown fields and the version are ignored, fields can be {@literal null} and the start date
+ * must match {@code spring.webflux.format.date-time}. Any other input is rejected with a {@link DecodingException}.
+ *
+ * @author ttrigo
+ * @since 0.1.0
+ */
+final class TaskJsonReader {
+
+    private final DateTimeFormatter dateTimeFormatter;
+
+    /**
+     * Default constructor.
+     *
+     * @param dateTimePattern the pattern of the dates, must not be {@literal null}.
+     */
+    TaskJsonReader(String dateTimePattern) {
+        this.dateTimeFormatter = DateTimeFormatter.ofPattern(dateTimePattern);
+    }
+
+    /**
+     * Reads a task from the given bytes.
+     *
+     * @param bytes  the bytes holding the JSON object, must not be {@literal null}.
+     * @param offset the position of the first byte of the object.
+     * @param length the number of bytes of the object, surrounding whitespaces included.
+     * @return the task read.
+     */
+    TaskDTO read(byte[] bytes, int offset, int length) {
+        var parser = new Parser(bytes, offset, offset + length);
+        var task = TaskDTO.builder()
+                          .build();
+
+        parser.expect('{');
+        if (!parser.consumeIf('}')) {
+            do {
+                var fieldName = parser.readString();
+                parser.expect(':');
+                switch (fieldName) {
+                case "id" -> task.setId(toUuid(parser.readNullableString(), parser));
+                case "title" -> task.setTitle(parser.readNullableString());
+                case "description" -> task.setDescription(parser.readNullableString());
+                case "startDateTime" -> task.setStartDateTime(toDateTime(parser.readNullableString(), parser));
+                default -> parser.skipValue();
+                }
+            } while (parser.consumeIf(','));
+            parser.expect('}');
+        }
+        parser.expectEnd();
+        return task;
+    }
+
+    private static UUID toUuid(String value, Parser parser) {
+        try {
+            return value == null ? null : UUID.fromString(value);
+        } catch (IllegalArgumentException e) {
+            throw parser.error("Invalid task id " + value);
+        }
+    }
+
+    private LocalDateTime toDateTime(String value, Parser parser) {
+        try {
+            return value == null ? null : LocalDateTime.parse(value, this.dateTimeFormatter);
+        } catch (DateTimeParseException e) {
+            throw parser.error("Invalid task start date " + value);
+        }
+    }
+
+    /**
+     * Cursor over the bytes of a JSON value.
+     */
+    private static final class Parser {
+
+        private final byte[] bytes;
+
+        private final int end;
+
+        private int position;
+
+        Parser(byte[] bytes, int start, int end) {
+            this.bytes = bytes;
+            this.position = start;
+            this.end = end;
+        }
+
+        void expect(char expected) {
+            if (!consumeIf(expected)) {
+                throw error("Expected '" + expected + "'");
+            }
+        }
+
+        boolean consumeIf(char expected) {
+            skipWhitespaces();
+            if (this.position < this.end && this.bytes[this.position] == expected) {
+                this.position++;
+                return true;
+            }
+            return false;
+        }
+
+        void expectEnd() {
+            skipWhitespaces();
+            if (this.position != this.end) {
+                throw error("Unexpected content after the task");
+            }
+        }
+
+        String readNullableString() {
+            skipWhitespaces();
+            if (consumeLiteral("null")) {
+                return null;
+            }
+            return readString();
+        }
+
+        String readString() {
+            expect('"');
+            StringBuilder escaped = null;
+            var segmentStart = this.position;
+            while (this.position < this.end) {
+                var current = this.bytes[this.position];
+                if (current == '"') {
+                    var segment = new String(this.bytes, segmentStart, this.position - segmentStart, StandardCharsets.UTF_8);
+                    this.position++;
+                    return escaped == null ? segment : escaped.append(segment)
+                                                              .toString();
+                }
+                if (current == '\\') {
+                    if (escaped == null) {
+                        escaped = new StringBuilder();
+                    }
+                    escaped.append(new String(this.bytes, segmentStart, this.position - segmentStart, StandardCharsets.UTF_8))
+                           .append(readEscape());
+                    segmentStart = this.position;
+                } else if ((current & 0xFF) < 0x20) {
+                    throw error("Unescaped control character in string");
+                } else {
+                    this.position++;
+                }
+            }
+            throw error("Unterminated string");
+        }
+
+        private char readEscape() {
+            if (this.position + 1 >= this.end) {
+                throw error("Unterminated escape");
+            }
+            var escape = this.bytes[this.position + 1];
+            this.position += 2;
+            return switch (escape) {
+            case '"' -> '"';
+            case '\\' -> '\\';
+            case '/' -> '/';
+            case 'b' -> '\b';
+            case 'f' -> '\f';
+            case 'n' -> '\n';
+            case 'r' -> '\r';
+            case 't' -> '\t';
+            case 'u' -> readHexCharacter();
+            default -> throw error("Invalid escape");
+            };
+        }
+
+        private char readHexCharacter() {
+            if (this.position + 4 > this.end) {
+                throw error("Unterminated escape");
+            }
+            var value = 0;
+            for (var digit = 0; digit < 4; digit++) {
+                var hexDigit = Character.digit(this.bytes[this.position++], 16);
+                if (hexDigit < 0) {
+                    throw error("Invalid escape");
+                }
+                value = value << 4 | hexDigit;
+            }
+            return (char) value;
+        }
+
+        /**
+         * Skips a value of any type, nested objects and arrays included.
+         */
+        void skipValue() {
+            skipWhitespaces();
+            if (this.position >= this.end) {
+                throw error("Expected a value");
+            }
+            switch (this.bytes[this.position]) {
+            case '"' -> readString();
+            case '{' -> skipContainer('{', '}', true);
+            case '[' -> skipContainer('[', ']', false);
+            default -> skipScalar();
+            }
+        }
+
+        private void skipContainer(char open, char close, boolean object) {
+            expect(open);
+            if (consumeIf(close)) {
+                return;
+            }
+            do {
+                if (object) {
+                    readString();
+                    expect(':');
+                }
+                skipValue();
+            } while (consumeIf(','));
+            expect(close);
+        }
+
+        private void skipScalar() {
+            if (consumeLiteral("null") || consumeLiteral("true") || consumeLiteral("false")) {
+                return;
+            }
+            var start = this.position;
+            while (this.position < this.end && isNumberCharacter(this.bytes[this.position])) {
+                this.position++;
+            }
+            if (this.position == start) {
+                throw error("Unexpected character");
+            }
+        }
+
+        private boolean consumeLiteral(String literal) {
+            var length = literal.length();
+            if (this.position + length > this.end) {
+                return false;
+            }
+            for (var index = 0; index < length; index++) {
+                if (this.bytes[this.position + index] != literal.charAt(index)) {
+                    return false;
+                }
+            }
+            this.position += length;
+            return true;
+        }
+
+        private void skipWhitespaces() {
+            while (this.position < this.end && isWhitespace(this.bytes[this.position])) {
+                this.position++;
+            }
+        }
+
+        DecodingException error(String message) {
+            return new DecodingException("JSON decoding error: " + message + " at position " + this.position);
+        }
+
+        private static boolean isNumberCharacter(byte value) {
+            return value >= '0' && value <= '9' || value == '-' || value == '+' || value == '.' || value == 'e' || value == 'E';
+        }
+
+    }
+
+    /**
+     * Whether the given byte is a JSON whitespace.
+     *
+     * @param value the byte.
+     * @return {@literal true} for spaces, tabs and line breaks.
+     */
+    static boolean isWhitespace(byte value) {
+        return value == ' ' || value == '\t' || value == '\n' || value == '\r';
+    }
+
+}
@@ -0,0 +1,241 @@
+/**
+* Copyright 2023 the original author or authors.
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*     http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+*/
+package com.bcn.todo.codec;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.UUID;
+
+import org.springframework.core.io.buffer.DataBuffer;
+
+import com.bcn.todo.task.TaskDTO;
+
+/**
+ * Writes a {@link TaskDTO} as JSON directly into a {@link DataBuffer}.
+ * <p>
+ * The output is the one of the application object mapper: fields in declaration order, {@literal null} fields omitted, the version ignored and the start date
+ * formatted with {@code spring.webflux.format.date-time}. Field names are encoded once, identifiers and dates are written digit by digit without intermediate
+ * strings when the date-time pattern is the default one, otherwise the cached formatter is used.
+ *
+ * @author ttrigo
+ * @since 0.1.0
+ */
+final class TaskJsonWriter {
+
+    /**
+     * The date-time pattern that is written without formatter.
+     */
+    static final String DEFAULT_DATE_TIME_PATTERN = "yyyy-MM-dd'T'HH:mm:ss.SSS'Z'";
+
+    /**
+     * The maximum number of bytes written for a character of a string, reached by the unicode escapes of the control characters.
+     */
+    private static final int MAX_BYTES_PER_CHAR = 6;
+
+    /**
+     * The number of bytes of the braces, the field names, the id and the start date.
+     */
+    private static final int FIXED_SIZE = 128;
+
+    private static final byte[] ID_FIELD = "\"id\":".getBytes(StandardCharsets.US_ASCII);
+
+    private static final byte[] TITLE_FIELD = "\"title\":".getBytes(StandardCharsets.US_ASCII);
+
+    private static final byte[] DESCRIPTION_FIELD = "\"description\":".getBytes(StandardCharsets.US_ASCII);
+
+    private static final byte[] START_DATE_TIME_FIELD = "\"startDateTime\":".getBytes(StandardCharsets.US_ASCII);
+
+    private static final byte[] LOWER_CASE_HEX_DIGITS = "0123456789abcdef".getBytes(StandardCharsets.US_ASCII);
+
+    private static final byte[] UPPER_CASE_HEX_DIGITS = "0123456789ABCDEF".getBytes(StandardCharsets.US_ASCII);
+
+    private final DateTimeFormatter dateTimeFormatter;
+
+    private final boolean defaultDateTimePattern;
+
+    /**
+     * Default constructor.
+     *
+     * @param dateTimePattern the pattern of the dates, must not be {@literal null}.
+     */
+    TaskJsonWriter(String dateTimePattern) {
+        this.dateTimeFormatter = DateTimeFormatter.ofPattern(dateTimePattern);
+        this.defaultDateTimePattern = DEFAULT_DATE_TIME_PATTERN.equals(dateTimePattern);
+    }
+
+    /**
+     * Estimates the number of bytes needed to write the given task, so that the buffer is allocated once.
+     *
+     * @param task the task to write.
+     * @return the maximum number of bytes written for the task.
+     */
+    int estimateSize(TaskDTO task) {
+        return FIXED_SIZE + MAX_BYTES_PER_CHAR * (length(task.getTitle()) + length(task.getDescription()));
+    }
+
+    /**
+     * Writes the given task.
+     *
+     * @param task   the task to write, must not be {@literal null}.
+     * @param buffer the buffer to write to, must not be {@literal null}.
+     */
+    void write(TaskDTO task, DataBuffer buffer) {
+        buffer.write((byte) '{');
+        var empty = true;
+        if (task.getId() != null) {
+            empty = writeFieldName(buffer, ID_FIELD, empty);
+            writeUuid(task.getId(), buffer);
+        }
+        if (task.getTitle() != null) {
+            empty = writeFieldName(buffer, TITLE_FIELD, empty);
+            writeString(task.getTitle(), buffer);
+        }
+        if (task.getDescription() != null) {
+            empty = writeFieldName(buffer, DESCRIPTION_FIELD, empty);
+            writeString(task.getDescription(), buffer);
+        }
+        if (task.getStartDateTime() != null) {
+            writeFieldName(buffer, START_DATE_TIME_FIELD, empty);
+            writeDateTime(task.getStartDateTime(), buffer);
+        }
+        buffer.write((byte) '}');
+    }
+
+    private static boolean writeFieldName(DataBuffer buffer, byte[] fieldName, boolean empty) {
+        if (!empty) {
+            buffer.write((byte) ',');
+        }
+        buffer.write(fieldName);
+        return false;
+    }
+
+    private static void writeUuid(UUID uuid, DataBuffer buffer) {
+        var mostSignificantBits = uuid.getMostSignificantBits();
+        var leastSignificantBits = uuid.getLeastSignificantBits();
+        buffer.write((byte) '"');
+        writeHex(mostSignificantBits >>> 32, 8, LOWER_CASE_HEX_DIGITS, buffer);
+        buffer.write((byte) '-');
+        writeHex(mostSignificantBits >>> 16, 4, LOWER_CASE_HEX_DIGITS, buffer);
+        buffer.write((byte) '-');
+        writeHex(mostSignificantBits, 4, LOWER_CASE_HEX_DIGITS, buffer);
+        buffer.write((byte) '-');
+        writeHex(leastSignificantBits >>> 48, 4, LOWER_CASE_HEX_DIGITS, buffer);
+        buffer.write((byte) '-');
+        writeHex(leastSignificantBits, 12, LOWER_CASE_HEX_DIGITS, buffer);
+        buffer.write((byte) '"');
+    }
+
+    private static void writeHex(long value, int digits, byte[] hexDigits, DataBuffer buffer) {
+        for (var shift = (digits - 1) * 4; shift >= 0; shift -= 4) {
+            buffer.write(hexDigits[(int) (value >>> shift) & 0xF]);
+        }
+    }
+
+    private void writeDateTime(LocalDateTime dateTime, DataBuffer buffer) {
+        if (!this.defaultDateTimePattern || dateTime.getYear() < 0 || dateTime.getYear() > 9999) {
+            writeString(this.dateTimeFormatter.format(dateTime), buffer);
+            return;
+        }
+        buffer.write((byte) '"');
+        writeDigits(dateTime.getYear(), 4, buffer);
+        buffer.write((byte) '-');
+        writeDigits(dateTime.getMonthValue(), 2, buffer);
+        buffer.write((byte) '-');
+        writeDigits(dateTime.getDayOfMonth(), 2, buffer);
+        buffer.write((byte) 'T');
+        writeDigits(dateTime.getHour(), 2, buffer);
+        buffer.write((byte) ':');
+        writeDigits(dateTime.getMinute(), 2, buffer);
+        buffer.write((byte) ':');
+        writeDigits(dateTime.getSecond(), 2, buffer);
+        buffer.write((byte) '.');
+        writeDigits(dateTime.getNano() / 1_000_000, 3, buffer);
+        buffer.write((byte) 'Z');
+        buffer.write((byte) '"');
+    }
+
+    private static void writeDigits(int value, int digits, DataBuffer buffer) {
+        var divisor = 1;
+        for (var digit = 1; digit < digits; digit++) {
+            divisor *= 10;
+        }
+        for (; divisor > 0; divisor /= 10) {
+            buffer.write((byte) ('0' + value / divisor % 10));
+        }
+    }
+
+    /**
+     * Writes the given string quoted, escaped as the object mapper does and encoded in UTF-8.
+     */
+    private static void writeString(String value, DataBuffer buffer) {
+        buffer.write((byte) '"');
+        var length = value.length();
+        for (var index = 0; index < length; index++) {
+            var character = value.charAt(index);
+            if (character < 0x80) {
+                writeAsciiCharacter(character, buffer);
+            } else if (character < 0x800) {
+                buffer.write((byte) (0xC0 | character >> 6));
+                buffer.write((byte) (0x80 | character & 0x3F));
+            } else if (Character.isHighSurrogate(character) && index + 1 < length && Character.isLowSurrogate(value.charAt(index + 1))) {
+                var codePoint = Character.toCodePoint(character, value.charAt(++index));
+                buffer.write((byte) (0xF0 | codePoint >> 18));
+                buffer.write((byte) (0x80 | codePoint >> 12 & 0x3F));
+                buffer.write((byte) (0x80 | codePoint >> 6 & 0x3F));
+                buffer.write((byte) (0x80 | codePoint & 0x3F));
+            } else if (Character.isSurrogate(character)) {
+                buffer.write((byte) '?');
+            } else {
+                buffer.write((byte) (0xE0 | character >> 12));
+                buffer.write((byte) (0x80 | character >> 6 & 0x3F));
+                buffer.write((byte) (0x80 | character & 0x3F));
+            }
+        }
+        buffer.write((byte) '"');
+    }
+
+    private static void writeAsciiCharacter(char character, DataBuffer buffer) {
+        switch (character) {
+        case '"' -> writeEscape('"', buffer);
+        case '\\' -> writeEscape('\\', buffer);
+        case '\b' -> writeEscape('b', buffer);
+        case '\f' -> writeEscape('f', buffer);
+        case '\n' -> writeEscape('n', buffer);
+        case '\r' -> writeEscape('r', buffer);
+        case '\t' -> writeEscape('t', buffer);
+        default -> {
+            if (character < 0x20) {
+                buffer.write((byte) '\\');
+                buffer.write((byte) 'u');
+                writeHex(character, 4, UPPER_CASE_HEX_DIGITS, buffer);
+            } else {
+                buffer.write((byte) character);
+            }
+        }
+        }
+    }
+
+    private static void writeEscape(char escape, DataBuffer buffer) {
+        buffer.write((byte) '\\');
+        buffer.write((byte) escape);
+    }
+
+    private static int length(String value) {
+        return value == null ? 0 : value.length();
+    }
+
+}
@@ -0,0 +1,150 @@
+/**
+* Copyright 2023 the original author or authors.
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*     http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+*/
+package com.bcn.todo.codec;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.UUID;
+
+import org.springframework.core.codec.DecodingException;
+import org.springframework.core.codec.EncodingException;
+import org.springframework.util.MimeType;
+
+import com.bcn.todo.task.TaskDTO;
+import com.google.protobuf.ByteString;
+import com.google.protobuf.CodedInputStream;
+import com.google.protobuf.CodedOutputStream;
+import com.google.protobuf.WireFormat;
+
+/**
+ * Protocol Buffers representation of a {@link TaskDTO}, the {@code Task} message described by {@code proto/task.proto}.
+ * <p>
+ * The message is written and read field by field, so no class has to be generated from the schema. The id is written as its 16 bytes and the start date as
+ * the milliseconds since the epoch in UTC, the precision of the JSON representation.
+ *
+ * @author ttrigo
+ * @since 0.1.0
+ */
+public class TaskProtobufFormat implements TaskBinaryFormat {
+
+    /**
+     * The MIME type of the representation.
+     */
+    public static final MimeType MIME_TYPE = new MimeType("application", "x-protobuf");
+
+    private static final int ID_FIELD = 1;
+
+    private static final int TITLE_FIELD = 2;
+
+    private static final int DESCRIPTION_FIELD = 3;
+
+    private static final int START_DATE_TIME_FIELD = 4;
+
+    private static final int UUID_SIZE = 16;
+
+    @Override
+    public MimeType getMimeType() {
+        return MIME_TYPE;
+    }
+
+    @Override
+    public byte[] write(TaskDTO task) {
+        var id = task.getId() == null ? null : toBytes(task.getId());
+        var startDateTime = task.getStartDateTime() == null ? 0L : toEpochMilli(task.getStartDateTime());
+        var size = 0;
+        if (id != null) {
+            size += CodedOutputStream.computeByteArraySize(ID_FIELD, id);
+        }
+        if (task.getTitle() != null) {
+            size += CodedOutputStream.computeStringSize(TITLE_FIELD, task.getTitle());
+        }
+        if (task.getDescription() != null) {
+            size += CodedOutputStream.computeStringSize(DESCRIPTION_FIELD, task.getDescription());
+        }
+        if (task.getStartDateTime() != null) {
+            size += CodedOutputStream.computeSInt64Size(START_DATE_TIME_FIELD, startDateTime);
+        }
+        var bytes = new byte[size];
+        var output = CodedOutputStream.newInstance(bytes);
+        try {
+            if (id != null) {
+                output.writeByteArray(ID_FIELD, id);
+            }
+            if (task.getTitle() != null) {
+                output.writeString(TITLE_FIELD, task.getTitle());
+            }
+            if (task.getDescription() != null) {
+                output.writeString(DESCRIPTION_FIELD, task.getDescription());
+            }
+            if (task.getStartDateTime() != null) {
+                output.writeSInt64(START_DATE_TIME_FIELD, startDateTime);
+            }
+            output.checkNoSpaceLeft();
+        } catch (IOException e) {
+            throw new EncodingException("Protobuf encoding error: " + e.getMessage(), e);
+        }
+        return bytes;
+    }
+
+    @Override
+    public TaskDTO read(byte[] bytes, int offset, int length) {
+        var input = CodedInputStream.newInstance(bytes, offset, length);
+        var task = TaskDTO.builder()
+                          .build();
+        try {
+            for (var tag = input.readTag(); tag != 0; tag = input.readTag()) {
+                switch (tag) {
+                case ID_FIELD << 3 | WireFormat.WIRETYPE_LENGTH_DELIMITED -> task.setId(toUuid(input.readBytes()));
+                case TITLE_FIELD << 3 | WireFormat.WIRETYPE_LENGTH_DELIMITED -> task.setTitle(input.readStringRequireUtf8());
+                case DESCRIPTION_FIELD << 3 | WireFormat.WIRETYPE_LENGTH_DELIMITED -> task.setDescription(input.readStringRequireUtf8());
+                case START_DATE_TIME_FIELD << 3 | WireFormat.WIRETYPE_VARINT -> task.setStartDateTime(toLocalDateTime(input.readSInt64()));
+                default -> input.skipField(tag);
+                }
+            }
+        } catch (IOException e) {
+            throw new DecodingException("Protobuf decoding error: " + e.getMessage(), e);
+        }
+        return task;
+    }
+
+    private static byte[] toBytes(UUID uuid) {
+        return ByteBuffer.allocate(UUID_SIZE)
+                         .putLong(uuid.getMostSignificantBits())
+                         .putLong(uuid.getLeastSignificantBits())
+                         .array();
+    }
+
+    private static UUID toUuid(ByteString bytes) {
+        if (bytes.size() != UUID_SIZE) {
+            throw new DecodingException("Protobuf decoding error: Invalid task id of " + bytes.size() + " bytes");
+        }
+        var buffer = bytes.asReadOnlyByteBuffer();
+        return new UUID(buffer.getLong(), buffer.getLong());
+    }
+
+    private static long toEpochMilli(LocalDateTime dateTime) {
+        return dateTime.toInstant(ZoneOffset.UTC)
+                       .toEpochMilli();
+    }
+
+    private static LocalDateTime toLocalDateTime(long epochMilli) {
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(epochMilli), ZoneOffset.UTC);
+    }
+
+}
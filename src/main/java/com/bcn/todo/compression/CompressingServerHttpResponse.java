@@ -0,0 +1,191 @@
+/**
+* Copyright 2023 the original author or authors.
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*     http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+*/
+package com.bcn.todo.compression;
+
+import java.util.List;
+import java.util.function.Consumer;
+
+import org.reactivestreams.Publisher;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.http.server.reactive.ServerHttpResponseDecorator;
+import org.springframework.lang.NonNull;
+import org.springframework.util.MimeType;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.SynchronousSink;
+
+/**
+ * {@link ServerHttpResponse} that compresses its body with the negotiated {@link ContentCoding}.
+ * <p>
+ * Only bodies of the compressible MIME types are compressed. A body written at once, as a single task, is left as is when it is smaller than the minimum
+ * size. A body written as a stream, as a list of tasks, is compressed as it is written since its size is not known, and the compressed bytes are flushed
+ * whenever the uncompressed ones are, so that newline delimited JSON and server-sent events keep reaching the client element by element.
+ * <p>
+ * The strong entity tag of a compressed body is suffixed with the coding, so that it differs from the one of the identity body. A NOT_MODIFIED response
+ * carries the entity tag of the coding when that is the one the client asked about, since the request reaches the handler with it decoded.
+ *
+ * @author ttrigo
+ * @since 0.1.0
+ */
+final class CompressingServerHttpResponse extends ServerHttpResponseDecorator {
+
+    private final ContentCoding coding;
+
+    private final int level;
+
+    private final List<MimeType> mimeTypes;
+
+    private final int minResponseSize;
+
+    private final List<String> ifNoneMatch;
+
+    private final Consumer<ResponseCompressor> onCompressed;
+
+    /**
+     * Default constructor.
+     *
+     * @param delegate        the response to compress, must not be {@literal null}.
+     * @param coding          the negotiated coding, must not be {@literal null}.
+     * @param level           the compression level, between 0 and 9.
+     * @param mimeTypes       the compressible MIME types, must not be {@literal null}.
+     * @param minResponseSize the minimum number of bytes of a body written at once to compress it.
+     * @param ifNoneMatch     the entity tags of the {@code If-None-Match} header of the request as sent by the client, must not be {@literal null}.
+     * @param onCompressed    called with the compressor once a body has been compressed, must not be {@literal null}.
+     */
+    CompressingServerHttpResponse(ServerHttpResponse delegate, ContentCoding coding, int level, List<MimeType> mimeTypes, int minResponseSize,
+            List<String> ifNoneMatch, Consumer<ResponseCompressor> onCompressed) {
+        super(delegate);
+        this.coding = coding;
+        this.level = level;
+        this.mimeTypes = mimeTypes;
+        this.minResponseSize = minResponseSize;
+        this.ifNoneMatch = ifNoneMatch;
+        this.onCompressed = onCompressed;
+    }
+
+    @NonNull
+    @Override
+    public Mono<Void> setComplete() {
+        var status = getStatusCode();
+        var eTag = getHeaders().getETag();
+        if (status != null && status.isSameCodeAs(HttpStatus.NOT_MODIFIED) && eTag != null && this.ifNoneMatch.contains(this.coding.encodeEntityTag(eTag))) {
+            getHeaders().setETag(this.coding.encodeEntityTag(eTag));
+        }
+        return super.setComplete();
+    }
+
+    @NonNull
+    @Override
+    public Mono<Void> writeWith(@NonNull Publisher<? extends DataBuffer> body) {
+        if (!isCompressible()) {
+            return super.writeWith(body);
+        }
+        if (body instanceof Mono) {
+            return Mono.from(body)
+                       .flatMap(buffer -> {
+                           if (buffer.readableByteCount() < this.minResponseSize) {
+                               return super.writeWith(Mono.just(buffer));
+                           }
+                           var compressor = new ResponseCompressor(this.coding, this.level, bufferFactory());
+                           try {
+                               var compressed = List.of(compressor.compress(buffer), compressor.finish());
+                               setCompressedHeaders();
+                               getHeaders().setContentLength(compressed.stream()
+                                                                       .mapToInt(DataBuffer::readableByteCount)
+                                                                       .sum());
+                               this.onCompressed.accept(compressor);
+                               return super.writeWith(Flux.fromIterable(compressed));
+                           } finally {
+                               compressor.close();
+                           }
+                       });
+        }
+        setCompressedHeaders();
+        return Mono.defer(() -> {
+            var compressor = new ResponseCompressor(this.coding, this.level, bufferFactory());
+            var compressed = Flux.from(body)
+                                 .<DataBuffer> handle((buffer, sink) -> emitNotEmpty(compressor.compress(buffer), sink))
+                                 .concatWith(Mono.fromSupplier(compressor::finish))
+                                 .doOnComplete(() -> this.onCompressed.accept(compressor))
+                                 .doFinally(signal -> compressor.close());
+            return super.writeWith(compressed);
+        });
+    }
+
+    @NonNull
+    @Override
+    public Mono<Void> writeAndFlushWith(@NonNull Publisher<? extends Publisher<? extends DataBuffer>> body) {
+        if (!isCompressible()) {
+            return super.writeAndFlushWith(body);
+        }
+        setCompressedHeaders();
+        return Mono.defer(() -> {
+            var compressor = new ResponseCompressor(this.coding, this.level, bufferFactory());
+            var compressed = Flux.from(body)
+                                 .<Publisher<DataBuffer>> map(element -> Flux.from(element)
+                                                                             .<DataBuffer> handle((buffer, sink) -> emitNotEmpty(compressor.compress(buffer), sink))
+                                                                             .concatWith(Mono.fromSupplier(compressor::flush)))
+                                 .concatWith(Mono.<Publisher<DataBuffer>> just(Mono.fromSupplier(compressor::finish)))
+                                 .doOnComplete(() -> this.onCompressed.accept(compressor))
+                                 .doFinally(signal -> compressor.close());
+            return super.writeAndFlushWith(compressed);
+        });
+    }
+
+    private boolean isCompressible() {
+        var headers = getHeaders();
+        if (headers.containsKey(HttpHeaders.CONTENT_ENCODING)) {
+            return false;
+        }
+        var status = getStatusCode();
+        if (status != null && (status.isSameCodeAs(HttpStatus.NO_CONTENT) || status.isSameCodeAs(HttpStatus.NOT_MODIFIED))) {
+            return false;
+        }
+        var contentType = headers.getContentType();
+        if (contentType == null || this.mimeTypes.stream()
+                                                 .noneMatch(mimeType -> mimeType.isCompatibleWith(contentType))) {
+            return false;
+        }
+        if (!headers.getVary()
+                    .contains(HttpHeaders.ACCEPT_ENCODING)) {
+            headers.add(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        }
+        return true;
+    }
+
+    private void setCompressedHeaders() {
+        getHeaders().set(HttpHeaders.CONTENT_ENCODING, this.coding.getToken());
+        getHeaders().remove(HttpHeaders.CONTENT_LENGTH);
+        var eTag = getHeaders().getETag();
+        if (eTag != null) {
+            getHeaders().setETag(this.coding.encodeEntityTag(eTag));
+        }
+    }
+
+    private static void emitNotEmpty(DataBuffer buffer, SynchronousSink<DataBuffer> sink) {
+        if (buffer.readableByteCount() > 0) {
+            sink.next(buffer);
+        } else {
+            DataBufferUtils.release(buffer);
+        }
+    }
+
+}
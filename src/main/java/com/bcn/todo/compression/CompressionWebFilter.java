@@ -0,0 +1,198 @@
+/**
+* Copyright 2023 the original author or authors.
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*     http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+*/
+package com.bcn.todo.compression;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.lang.NonNull;
+import org.springframework.util.MimeType;
+import org.springframework.util.StringUtils;
+import org.springframework.web.reactive.HandlerMapping;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+import org.springframework.web.util.pattern.PathPattern;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import reactor.core.publisher.Mono;
+
+/**
+ * {@link WebFilter} that compresses the responses with the {@link ContentCoding} negotiated through the {@code Accept-Encoding} header.
+ * <p>
+ * Among the codings accepted by the client, the one with the highest quality value is applied, ties being resolved by the order of the configured codings.
+ * The compression ratio of each response is published as the {@value #RATIO_SUMMARY} summary and the CPU time spent compressing it as the
+ * {@value #CPU_TIMER} timer, both tagged by endpoint and coding.
+ * <p>
+ * The entity tags of the compressed responses are suffixed with their coding, and the ones sent back by the client in the {@code If-None-Match} header are
+ * decoded before reaching the handler, so that conditional requests keep matching the versions of the resources.
+ *
+ * @author ttrigo
+ * @since 0.1.0
+ */
+public class CompressionWebFilter implements WebFilter {
+
+    /**
+     * The name of the compression ratio summary, the number of bytes of the body divided by the number of bytes sent.
+     */
+    public static final String RATIO_SUMMARY = "http.server.compression.ratio";
+
+    /**
+     * The name of the compression CPU time timer.
+     */
+    public static final String CPU_TIMER = "http.server.compression.cpu";
+
+    private static final String UNKNOWN_URI = "UNKNOWN";
+
+    private final List<ContentCoding> codings;
+
+    private final List<MimeType> mimeTypes;
+
+    private final int minResponseSize;
+
+    private final int level;
+
+    private final MeterRegistry meterRegistry;
+
+    /**
+     * Default constructor.
+     *
+     * @param codings         the codings that can be applied by order of preference, must not be {@literal null}.
+     * @param mimeTypes       the compressible MIME types, must not be {@literal null}.
+     * @param minResponseSize the minimum number of bytes of a body written at once to compress it.
+     * @param level           the compression level, between 0 and 9.
+     * @param meterRegistry   the registry where the compression meters are published, must not be {@literal null}.
+     */
+    public CompressionWebFilter(List<ContentCoding> codings, List<MimeType> mimeTypes, int minResponseSize, int level, MeterRegistry meterRegistry) {
+        this.codings = List.copyOf(codings);
+        this.mimeTypes = List.copyOf(mimeTypes);
+        this.minResponseSize = minResponseSize;
+        this.level = level;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @NonNull
+    @Override
+    public Mono<Void> filter(@NonNull ServerWebExchange exchange, @NonNull WebFilterChain chain) {
+        var request = exchange.getRequest();
+        if (HttpMethod.HEAD.equals(request.getMethod())) {
+            return chain.filter(exchange);
+        }
+        var coding = negotiate(request.getHeaders()
+                                      .getFirst(HttpHeaders.ACCEPT_ENCODING));
+        if (coding == null) {
+            return chain.filter(exchange);
+        }
+        var ifNoneMatch = request.getHeaders()
+                                 .getIfNoneMatch();
+        var response = new CompressingServerHttpResponse(exchange.getResponse(), coding, this.level, this.mimeTypes, this.minResponseSize, ifNoneMatch,
+                compressor -> record(exchange, compressor));
+        var decodedIfNoneMatch = ifNoneMatch.stream()
+                                            .map(coding::decodeEntityTag)
+                                            .toList();
+        if (decodedIfNoneMatch.equals(ifNoneMatch)) {
+            return chain.filter(exchange.mutate()
+                                        .response(response)
+                                        .build());
+        }
+        return chain.filter(exchange.mutate()
+                                    .request(request.mutate()
+                                                    .headers(headers -> headers.setIfNoneMatch(decodedIfNoneMatch))
+                                                    .build())
+                                    .response(response)
+                                    .build());
+    }
+
+    /**
+     * Negotiates the coding of a response.
+     *
+     * @param acceptEncoding the {@code Accept-Encoding} header of the request, may be {@literal null}.
+     * @return the coding to apply, {@literal null} if the response must not be compressed.
+     */
+    ContentCoding negotiate(String acceptEncoding) {
+        if (!StringUtils.hasText(acceptEncoding)) {
+            return null;
+        }
+        ContentCoding negotiated = null;
+        var negotiatedQuality = 0.0;
+        for (var coding : this.codings) {
+            var quality = quality(acceptEncoding, coding);
+            if (quality > negotiatedQuality) {
+                negotiated = coding;
+                negotiatedQuality = quality;
+            }
+        }
+        return negotiated;
+    }
+
+    /**
+     * Gets the quality value given by the client to a coding, explicitly or through the {@code *} wildcard.
+     */
+    private static double quality(String acceptEncoding, ContentCoding coding) {
+        var wildcardQuality = 0.0;
+        for (var element : StringUtils.tokenizeToStringArray(acceptEncoding, ",")) {
+            var parameters = StringUtils.tokenizeToStringArray(element, ";");
+            if (parameters.length == 0) {
+                continue;
+            }
+            var token = parameters[0].toLowerCase(Locale.ROOT);
+            var quality = 1.0;
+            for (var index = 1; index < parameters.length; index++) {
+                var parameter = parameters[index].toLowerCase(Locale.ROOT);
+                if (parameter.startsWith("q=")) {
+                    try {
+                        quality = Double.parseDouble(parameter.substring(2));
+                    } catch (NumberFormatException e) {
+                        quality = 0.0;
+                    }
+                }
+            }
+            if (token.equals(coding.getToken())) {
+                return quality;
+            }
+            if (token.equals("*")) {
+                wildcardQuality = quality;
+            }
+        }
+        return wildcardQuality;
+    }
+
+    private void record(ServerWebExchange exchange, ResponseCompressor compressor) {
+        var uri = exchange.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE) instanceof PathPattern pattern ? pattern.getPatternString() : UNKNOWN_URI;
+        var coding = compressor.getCoding()
+                               .getToken();
+        if (compressor.getOutputBytes() > 0) {
+            DistributionSummary.builder(RATIO_SUMMARY)
+                               .description("Number of bytes of the response bodies divided by the number of bytes sent once compressed")
+                               .tag("uri", uri)
+                               .tag("coding", coding)
+                               .register(this.meterRegistry)
+                               .record((double) compressor.getInputBytes() / compressor.getOutputBytes());
+        }
+        Timer.builder(CPU_TIMER)
+             .description("CPU time spent compressing the response bodies")
+             .tag("uri", uri)
+             .tag("coding", coding)
+             .register(this.meterRegistry)
+             .record(compressor.getCpuTimeNanos(), TimeUnit.NANOSECONDS);
+    }
+
+}
@@ -0,0 +1,120 @@
+/**
+* Copyright 2023 the original author or authors.
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*     http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+*/
+package com.bcn.todo.compression;
+
+import java.util.zip.Deflater;
+
+/**
+ * Content codings applied to the responses, named as in the {@code Accept-Encoding} and {@code Content-Encoding} headers.
+ *
+ * @author ttrigo
+ * @since 0.1.0
+ */
+public enum ContentCoding {
+
+    /**
+     * Deflate compressed data within the gzip format.
+     */
+    GZIP("gzip"),
+
+    /**
+     * Deflate compressed data within the zlib format.
+     */
+    DEFLATE("deflate");
+
+    private static final String ETAG_QUOTE = "\"";
+
+    private static final String ETAG_SUFFIX_SEPARATOR = "-";
+
+    private final String token;
+
+    ContentCoding(String token) {
+        this.token = token;
+    }
+
+    /**
+     * Gets the entity tag of the identity representation of a response given the entity tag of any of its coded representations.
+     *
+     * @param eTag the entity tag, may be {@literal null}.
+     * @return the entity tag without the suffix of its coding, or the given one if it has no such suffix.
+     */
+    public static String decodeAnyEntityTag(String eTag) {
+        if (eTag == null) {
+            return null;
+        }
+        for (var coding : values()) {
+            var decoded = coding.decodeEntityTag(eTag);
+            if (!decoded.equals(eTag)) {
+                return decoded;
+            }
+        }
+        return eTag;
+    }
+
+    /**
+     * Gets the name of the coding in the HTTP headers.
+     *
+     * @return the name of the coding.
+     */
+    public String getToken() {
+        return this.token;
+    }
+
+    /**
+     * Gets the entity tag of the representation of a response in this coding given the entity tag of its identity representation.
+     * <p>
+     * Strong entity tags must differ between the representations of a response, so they are suffixed with the coding, e.g. {@code "1"} becomes
+     * {@code "1-gzip"}. Weak entity tags are left as they are since the representations are semantically equivalent.
+     *
+     * @param eTag the entity tag of the identity representation, may be {@literal null}.
+     * @return the entity tag of the representation in this coding.
+     */
+    public String encodeEntityTag(String eTag) {
+        if (!isStrong(eTag)) {
+            return eTag;
+        }
+        return eTag.substring(0, eTag.length() - 1) + ETAG_SUFFIX_SEPARATOR + this.token + ETAG_QUOTE;
+    }
+
+    /**
+     * Gets the entity tag of the identity representation of a response given the entity tag of its representation in this coding.
+     *
+     * @param eTag the entity tag, may be {@literal null}.
+     * @return the entity tag without the suffix of this coding, or the given one if it has no such suffix.
+     */
+    public String decodeEntityTag(String eTag) {
+        var suffix = ETAG_SUFFIX_SEPARATOR + this.token + ETAG_QUOTE;
+        if (!isStrong(eTag) || !eTag.endsWith(suffix) || eTag.length() == suffix.length()) {
+            return eTag;
+        }
+        return eTag.substring(0, eTag.length() - suffix.length()) + ETAG_QUOTE;
+    }
+
+    private static boolean isStrong(String eTag) {
+        return eTag != null && eTag.length() >= 2 && eTag.startsWith(ETAG_QUOTE) && eTag.endsWith(ETAG_QUOTE);
+    }
+
+    /**
+     * Creates the deflater of the coding.
+     *
+     * @param level the compression level, between 0 and 9.
+     * @return a new deflater, the gzip header and trailer being left to the caller.
+     */
+    Deflater newDeflater(int level) {
+        return new Deflater(level, this == GZIP);
+    }
+
+}
@@ -0,0 +1,231 @@
+/**
+* Copyright 2023 the original author or authors.
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*     http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+*/
+package com.bcn.todo.compression;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferFactory;
+import org.springframework.core.io.buffer.DataBufferUtils;
+
+/**
+ * Compresses the body of a response as it is written, keeping the state of the compression across the buffers of the body.
+ * <p>
+ * The buffers are deflated without being copied, the compressed bytes going through a scratch array into buffers of the response factory. The bytes read and
+ * written and the CPU time spent compressing are accumulated, so that they can be published once the body is complete.
+ *
+ * @author ttrigo
+ * @since 0.1.0
+ */
+final class ResponseCompressor {
+
+    private static final ThreadMXBean THREAD_MX_BEAN = ManagementFactory.getThreadMXBean();
+
+    private static final boolean THREAD_CPU_TIME_MEASURED = THREAD_MX_BEAN.isCurrentThreadCpuTimeSupported() && THREAD_MX_BEAN.isThreadCpuTimeEnabled();
+
+    private static final byte[] GZIP_HEADER = { 0x1F, (byte) 0x8B, Deflater.DEFLATED, 0, 0, 0, 0, 0, 0, (byte) 0xFF };
+
+    private static final int GZIP_TRAILER_SIZE = 8;
+
+    private static final int SCRATCH_SIZE = 8192;
+
+    private final ContentCoding coding;
+
+    private final Deflater deflater;
+
+    private final CRC32 crc;
+
+    private final DataBufferFactory bufferFactory;
+
+    private final byte[] scratch = new byte[SCRATCH_SIZE];
+
+    private boolean headerWritten;
+
+    private boolean closed;
+
+    private long inputBytes;
+
+    private long outputBytes;
+
+    private long cpuTimeNanos;
+
+    /**
+     * Default constructor.
+     *
+     * @param coding        the coding to apply, must not be {@literal null}.
+     * @param level         the compression level, between 0 and 9.
+     * @param bufferFactory the factory of the compressed buffers, must not be {@literal null}.
+     */
+    ResponseCompressor(ContentCoding coding, int level, DataBufferFactory bufferFactory) {
+        this.coding = coding;
+        this.deflater = coding.newDeflater(level);
+        this.crc = coding == ContentCoding.GZIP ? new CRC32() : null;
+        this.bufferFactory = bufferFactory;
+    }
+
+    /**
+     * Compresses the given buffer, which is released.
+     *
+     * @param input the buffer to compress, must not be {@literal null}.
+     * @return the compressed bytes, possibly none since the deflater keeps the bytes it has not compressed yet.
+     */
+    synchronized DataBuffer compress(DataBuffer input) {
+        var start = cpuTime();
+        var output = this.bufferFactory.allocateBuffer(Math.max(64, input.readableByteCount() / 2));
+        try {
+            checkNotClosed();
+            writeHeader(output);
+            try (var iterator = input.readableByteBuffers()) {
+                while (iterator.hasNext()) {
+                    var byteBuffer = iterator.next();
+                    this.inputBytes += byteBuffer.remaining();
+                    if (this.crc != null) {
+                        this.crc.update(byteBuffer.duplicate());
+                    }
+                    this.deflater.setInput(byteBuffer);
+                    while (!this.deflater.needsInput()) {
+                        deflate(output, Deflater.NO_FLUSH);
+                    }
+                }
+            }
+            return output;
+        } catch (RuntimeException e) {
+            DataBufferUtils.release(output);
+            throw e;
+        } finally {
+            DataBufferUtils.release(input);
+            this.cpuTimeNanos += cpuTime() - start;
+        }
+    }
+
+    /**
+     * Flushes the bytes kept by the deflater, so that the client can decompress everything compressed so far.
+     *
+     * @return the flushed bytes.
+     */
+    synchronized DataBuffer flush() {
+        var start = cpuTime();
+        var output = this.bufferFactory.allocateBuffer(64);
+        try {
+            checkNotClosed();
+            writeHeader(output);
+            var count = SCRATCH_SIZE;
+            while (count == SCRATCH_SIZE) {
+                count = deflate(output, Deflater.SYNC_FLUSH);
+            }
+            return output;
+        } catch (RuntimeException e) {
+            DataBufferUtils.release(output);
+            throw e;
+        } finally {
+            this.cpuTimeNanos += cpuTime() - start;
+        }
+    }
+
+    /**
+     * Finishes the compression.
+     *
+     * @return the last compressed bytes and the trailer of the coding.
+     */
+    synchronized DataBuffer finish() {
+        var start = cpuTime();
+        var output = this.bufferFactory.allocateBuffer(64);
+        try {
+            checkNotClosed();
+            writeHeader(output);
+            this.deflater.finish();
+            while (!this.deflater.finished()) {
+                deflate(output, Deflater.NO_FLUSH);
+            }
+            if (this.crc != null) {
+                writeIntLittleEndian((int) this.crc.getValue(), output);
+                writeIntLittleEndian((int) this.inputBytes, output);
+                this.outputBytes += GZIP_TRAILER_SIZE;
+            }
+            return output;
+        } catch (RuntimeException e) {
+            DataBufferUtils.release(output);
+            throw e;
+        } finally {
+            this.cpuTimeNanos += cpuTime() - start;
+        }
+    }
+
+    /**
+     * Releases the native resources of the compression, the compressor cannot be used anymore.
+     */
+    synchronized void close() {
+        if (!this.closed) {
+            this.closed = true;
+            this.deflater.end();
+        }
+    }
+
+    ContentCoding getCoding() {
+        return this.coding;
+    }
+
+    synchronized long getInputBytes() {
+        return this.inputBytes;
+    }
+
+    synchronized long getOutputBytes() {
+        return this.outputBytes;
+    }
+
+    synchronized long getCpuTimeNanos() {
+        return this.cpuTimeNanos;
+    }
+
+    private int deflate(DataBuffer output, int flush) {
+        var count = this.deflater.deflate(this.scratch, 0, SCRATCH_SIZE, flush);
+        output.write(this.scratch, 0, count);
+        this.outputBytes += count;
+        return count;
+    }
+
+    private void writeHeader(DataBuffer output) {
+        if (this.crc != null && !this.headerWritten) {
+            output.write(GZIP_HEADER);
+            this.outputBytes += GZIP_HEADER.length;
+            this.headerWritten = true;
+        }
+    }
+
+    private void checkNotClosed() {
+        if (this.closed) {
+            throw new IllegalStateException("The response compressor is closed");
+        }
+    }
+
+    private static void writeIntLittleEndian(int value, DataBuffer output) {
+        output.write((byte) value);
+        output.write((byte) (value >>> 8));
+        output.write((byte) (value >>> 16));
+        output.write((byte) (value >>> 24));
+    }
+
+    /**
+     * Gets the CPU time of the current thread, or the wall-clock time when the JVM does not measure it.
+     */
+    private static long cpuTime() {
+        return THREAD_CPU_TIME_MEASURED ? THREAD_MX_BEAN.getCurrentThreadCpuTime() : System.nanoTime();
+    }
+
+}
@@ -0,0 +1,67 @@
+/**
+* Copyright 2023 the original author or authors.
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*     http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+*/
+package com.bcn.todo.config;
+
+import java.time.Duration;
+import java.util.Set;
+
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.web.reactive.HandlerMapping;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+import com.bcn.todo.admission.AdaptiveConcurrencyLimit;
+import com.bcn.todo.admission.AdmissionControlWebFilter;
+import com.bcn.todo.admission.ClientRateLimiter;
+import com.github.benmanes.caffeine.cache.Ticker;
+
+/**
+ * Admission control configuration.
+ * <p>
+ * The reads and the writes have concurrency limits of their own, configured alike. The filter runs before the other ones, so that a rejected request costs as
+ * little as possible, and looks up the handlers of the reads in the mapping of the annotated controllers to find out whether they are mapped to one of the
+ * {@code todo.http.admission.unlimited-patterns}.
+ *
+ * @author ttrigo
+ * @since 0.1.0
+ */
+@Configuration
+@ConditionalOnProperty(name = "todo.http.admission.enabled", havingValue = "true")
+public class AdmissionControlConfiguration {
+
+    @Bean
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    AdmissionControlWebFilter admissionControlWebFilter(MeterRegistry meterRegistry,
+            @Qualifier("requestMappingHandlerMapping") HandlerMapping requestMappingHandlerMapping, @Value("${todo.http.admission.initial-limit}") int initialLimit,
+            @Value("${todo.http.admission.min-limit}") int minLimit, @Value("${todo.http.admission.max-limit}") int maxLimit,
+            @Value("${todo.http.admission.backoff-ratio}") double backoffRatio, @Value("${todo.http.admission.latency-threshold}") Duration latencyThreshold,
+            @Value("${todo.http.admission.retry-after}") Duration retryAfter, @Value("${todo.http.admission.rate-limit.capacity}") long rateLimitCapacity,
+            @Value("${todo.http.admission.rate-limit.refill-rate}") double rateLimitRefillRate,
+            @Value("${todo.http.admission.rate-limit.maximum-clients}") long rateLimitMaximumClients,
+            @Value("${todo.http.admission.unlimited-patterns}") Set<String> unlimitedPatterns) {
+        var readLimit = new AdaptiveConcurrencyLimit(initialLimit, minLimit, maxLimit, backoffRatio, latencyThreshold);
+        var writeLimit = new AdaptiveConcurrencyLimit(initialLimit, minLimit, maxLimit, backoffRatio, latencyThreshold);
+        var rateLimiter = new ClientRateLimiter(rateLimitCapacity, rateLimitRefillRate, rateLimitMaximumClients, Ticker.systemTicker());
+        return new AdmissionControlWebFilter(readLimit, writeLimit, rateLimiter, requestMappingHandlerMapping, unlimitedPatterns, retryAfter, meterRegistry);
+    }
+
+}
@@ -0,0 +1,52 @@
+/**
+* Copyright 2023 the original author or authors.
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*     http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+*/
+package com.bcn.todo.config;
+
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.util.MimeType;
+import org.springframework.util.unit.DataSize;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+import com.bcn.todo.compression.CompressionWebFilter;
+import com.bcn.todo.compression.ContentCoding;
+
+/**
+ * Response compression configuration.
+ * <p>
+ * Responses are compressed by a web filter instead of the server, so that the size threshold is applied to the bodies written at once whatever their framing,
+ * the streamed bodies are flushed element by element and the compression is measured per endpoint.
+ *
+ * @author ttrigo
+ * @since 0.1.0
+ */
+@Configuration
+@ConditionalOnProperty(name = "todo.http.compression.enabled", havingValue = "true")
+public class CompressionConfiguration {
+
+    @Bean
+    CompressionWebFilter compressionWebFilter(MeterRegistry meterRegistry, @Value("${todo.http.compression.codings}") List<ContentCoding> codings,
+            @Value("${todo.http.compression.mime-types}") List<MimeType> mimeTypes, @Value("${todo.http.compression.min-response-size}") DataSize minResponseSize,
+            @Value("${todo.http.compression.level}") int level) {
+        return new CompressionWebFilter(codings, mimeTypes, (int) minResponseSize.toBytes(), level, meterRegistry);
+    }
+
+}
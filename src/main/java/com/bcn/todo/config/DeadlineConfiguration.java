@@ -0,0 +1,45 @@
+/**
+* Copyright 2023 the original author or authors.
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*     http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+*/
+package com.bcn.todo.config;
+
+import java.time.Clock;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+import com.bcn.todo.deadline.DeadlineWebFilter;
+
+/**
+ * Request deadlines configuration.
+ * <p>
+ * When enabled, the deadline sent by the clients bounds the operations serving their requests.
+ *
+ * @author ttrigo
+ * @since 0.1.0
+ */
+@Configuration
+@ConditionalOnProperty(name = "todo.http.deadline.enabled", havingValue = "true")
+public class DeadlineConfiguration {
+
+    @Bean
+    DeadlineWebFilter deadlineWebFilter(MeterRegistry meterRegistry) {
+        return new DeadlineWebFilter(Clock.systemUTC(), meterRegistry);
+    }
+
+}
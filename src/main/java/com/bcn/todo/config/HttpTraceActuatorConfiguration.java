@@ -15,14 +15,16 @@
 */
 package com.bcn.todo.config;
 
-import org.springframework.boot.actuate.web.exchanges.InMemoryHttpExchangeRepository;
+import java.time.Duration;
+
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
 /**
  * Actuator HTTP traces configuration.
  * <p>
- * By default, traces are stored in memory.
+ * Traces are sampled and stored in memory, server errors and slow requests are always stored.
  *
  * @author ttrigo
  * @since 0.1.0
@@ -31,8 +33,9 @@ import org.springframework.context.annotation.Configuration;
 public class HttpTraceActuatorConfiguration {
 
     @Bean
-    InMemoryHttpExchangeRepository createTraceRepository() {
-        return new InMemoryHttpExchangeRepository();
+    SampledHttpExchangeRepository createTraceRepository(@Value("${todo.http.exchanges.capacity}") int capacity,
+            @Value("${todo.http.exchanges.sample-rate}") double sampleRate, @Value("${todo.http.exchanges.slow-threshold}") Duration slowThreshold) {
+        return new SampledHttpExchangeRepository(capacity, sampleRate, slowThreshold);
     }
 
 }
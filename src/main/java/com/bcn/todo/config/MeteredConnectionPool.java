@@ -0,0 +1,104 @@
+/**
+* Copyright 2023 the original author or authors.
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*     http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+*/
+package com.bcn.todo.config;
+
+import org.reactivestreams.Publisher;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.r2dbc.pool.ConnectionPool;
+import io.r2dbc.spi.Connection;
+import io.r2dbc.spi.ConnectionFactory;
+import io.r2dbc.spi.ConnectionFactoryMetadata;
+import io.r2dbc.spi.Wrapped;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+
+/**
+ * {@link ConnectionFactory} that times the acquisition of connections from a {@link ConnectionPool}.
+ * <p>
+ * The time spent waiting for a connection is published as the {@value #ACQUIRE_TIMER} timer, tagged by pool name and outcome. The pool itself stays reachable
+ * through {@link #unwrap()}, so that the pool gauges published by Spring Boot keep working.
+ *
+ * @author ttrigo
+ * @since 0.1.0
+ */
+public class MeteredConnectionPool implements ConnectionFactory, Wrapped<ConnectionPool>, Disposable {
+
+    /**
+     * The name of the connection acquisition timer.
+     */
+    public static final String ACQUIRE_TIMER = "r2dbc.pool.acquire";
+
+    private final ConnectionPool connectionPool;
+
+    private final Timer acquireSuccessTimer;
+
+    private final Timer acquireFailureTimer;
+
+    /**
+     * Default constructor.
+     *
+     * @param connectionPool the pool to acquire connections from, must not be {@literal null}.
+     * @param poolName       the name of the pool, used to tag the timer.
+     * @param meterRegistry  the registry where the timer is published, must not be {@literal null}.
+     */
+    public MeteredConnectionPool(ConnectionPool connectionPool, String poolName, MeterRegistry meterRegistry) {
+        this.connectionPool = connectionPool;
+        this.acquireSuccessTimer = acquireTimer(poolName, "success", meterRegistry);
+        this.acquireFailureTimer = acquireTimer(poolName, "failure", meterRegistry);
+    }
+
+    @Override
+    public Publisher<? extends Connection> create() {
+        return Mono.defer(() -> {
+            var sample = Timer.start();
+            return this.connectionPool.create()
+                                      .doOnSuccess(connection -> sample.stop(this.acquireSuccessTimer))
+                                      .doOnError(error -> sample.stop(this.acquireFailureTimer));
+        });
+    }
+
+    @Override
+    public ConnectionFactoryMetadata getMetadata() {
+        return this.connectionPool.getMetadata();
+    }
+
+    @Override
+    public ConnectionPool unwrap() {
+        return this.connectionPool;
+    }
+
+    @Override
+    public void dispose() {
+        this.connectionPool.dispose();
+    }
+
+    @Override
+    public boolean isDisposed() {
+        return this.connectionPool.isDisposed();
+    }
+
+    private static Timer acquireTimer(String poolName, String outcome, MeterRegistry meterRegistry) {
+        return Timer.builder(ACQUIRE_TIMER)
+                    .description("Time spent acquiring a connection from the pool")
+                    .tag("name", poolName)
+                    .tag("outcome", outcome)
+                    .publishPercentileHistogram()
+                    .register(meterRegistry);
+    }
+
+}
@@ -0,0 +1,141 @@
+/**
+* Copyright 2023 the original author or authors.
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*     http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+*/
+package com.bcn.todo.config;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.embedded.netty.NettyReactiveWebServerFactory;
+import org.springframework.boot.web.server.WebServerFactoryCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.server.PathContainer;
+import org.springframework.util.function.SingletonSupplier;
+import org.springframework.web.reactive.result.method.annotation.RequestMappingHandlerMapping;
+import org.springframework.web.util.pattern.PathPattern;
+
+import io.netty.buffer.PooledByteBufAllocator;
+import io.netty.channel.ChannelOption;
+import reactor.netty.http.HttpProtocol;
+import reactor.netty.resources.LoopResources;
+
+/**
+ * Reactor Netty server configuration.
+ * <p>
+ * Tunes the server for many small requests: the event loops are dedicated to the server and use the native epoll transport when available, clear text HTTP/2
+ * lets a client multiplex its requests over a few connections, and the accept backlog, idle timeout and buffer allocator are configurable. Reactor Netty
+ * metrics are published with the URIs reduced to the templates of the annotated controllers, and the URIs matching none of them to {@value #UNKNOWN_URI}, so
+ * that the number of time series grows neither with the number of tasks nor with the requests to unknown paths.
+ *
+ * @author ttrigo
+ * @since 0.1.0
+ */
+@Configuration
+@ConditionalOnProperty(name = "todo.http.server.enabled", havingValue = "true")
+public class NettyServerConfiguration {
+
+    private static final Logger logger = LoggerFactory.getLogger(NettyServerConfiguration.class);
+
+    private static final String LOOP_RESOURCES_PREFIX = "todo-http";
+
+    private static final String UNKNOWN_URI = "UNKNOWN";
+
+    /**
+     * The event loops of the server, not shared with the HTTP clients. A negative worker count leaves the Reactor Netty default, one per core, and a negative
+     * select count lets the workers accept the connections.
+     */
+    @Bean(destroyMethod = "dispose")
+    LoopResources serverLoopResources(@Value("${todo.http.server.select-count}") int selectCount, @Value("${todo.http.server.worker-count}") int workerCount) {
+        return LoopResources.create(LOOP_RESOURCES_PREFIX, selectCount, workerCount > 0 ? workerCount : LoopResources.DEFAULT_IO_WORKER_COUNT, true);
+    }
+
+    @Bean
+    WebServerFactoryCustomizer<NettyReactiveWebServerFactory> nettyServerCustomizer(LoopResources serverLoopResources,
+            @Value("${todo.http.server.prefer-native}") boolean preferNative, @Value("${todo.http.server.h2c-enabled}") boolean h2cEnabled,
+            @Value("${todo.http.server.idle-timeout}") Duration idleTimeout, @Value("${todo.http.server.max-concurrent-streams}") long maxConcurrentStreams,
+            @Value("${todo.http.server.so-backlog}") int soBacklog, @Value("${todo.http.server.allocator.prefer-direct}") boolean preferDirect,
+            @Value("${todo.http.server.allocator.heap-arenas}") int heapArenas, @Value("${todo.http.server.allocator.direct-arenas}") int directArenas,
+            @Value("${todo.http.server.metrics-enabled}") boolean metricsEnabled, @Value("${spring.webflux.base-path:}") String basePath,
+            @Qualifier("requestMappingHandlerMapping") ObjectProvider<RequestMappingHandlerMapping> requestMappingHandlerMapping) {
+        var allocator = new PooledByteBufAllocator(preferDirect, heapArenas >= 0 ? heapArenas : PooledByteBufAllocator.defaultNumHeapArena(),
+                directArenas >= 0 ? directArenas : PooledByteBufAllocator.defaultNumDirectArena(), PooledByteBufAllocator.defaultPageSize(),
+                PooledByteBufAllocator.defaultMaxOrder(), PooledByteBufAllocator.defaultSmallCacheSize(), PooledByteBufAllocator.defaultNormalCacheSize(),
+                PooledByteBufAllocator.defaultUseCacheForAllThreads());
+        var uriTemplates = SingletonSupplier.of(() -> uriTemplates(requestMappingHandlerMapping.getObject()));
+        if (preferNative && !LoopResources.hasNativeSupport()) {
+            logger.info("Native transport is not available, the server runs on NIO");
+        }
+        return factory -> factory.addServerCustomizers(httpServer -> httpServer.runOn(serverLoopResources, preferNative)
+                                                                               .protocol(h2cEnabled ? new HttpProtocol[] { HttpProtocol.HTTP11, HttpProtocol.H2C }
+                                                                                       : new HttpProtocol[] { HttpProtocol.HTTP11 })
+                                                                               .http2Settings(settings -> settings.maxConcurrentStreams(maxConcurrentStreams))
+                                                                               .idleTimeout(idleTimeout)
+                                                                               .option(ChannelOption.SO_BACKLOG, soBacklog)
+                                                                               .option(ChannelOption.ALLOCATOR, allocator)
+                                                                               .childOption(ChannelOption.ALLOCATOR, allocator)
+                                                                               .metrics(metricsEnabled, uri -> uriTagValue(uri, basePath, uriTemplates.obtain())));
+    }
+
+    /**
+     * Gets the URI templates of the annotated controllers, the most specific ones first.
+     * <p>
+     * The templates are read once the handler mapping is available, i.e. on the first request, since the server is customized before it.
+     *
+     * @param requestMappingHandlerMapping the mapping of the annotated controllers.
+     * @return the URI templates.
+     */
+    private static List<PathPattern> uriTemplates(RequestMappingHandlerMapping requestMappingHandlerMapping) {
+        return requestMappingHandlerMapping.getHandlerMethods()
+                                           .keySet()
+                                           .stream()
+                                           .map(mapping -> mapping.getPatternsCondition()
+                                                                  .getPatterns())
+                                           .flatMap(Collection::stream)
+                                           .distinct()
+                                           .sorted(PathPattern.SPECIFICITY_COMPARATOR)
+                                           .toList();
+    }
+
+    /**
+     * Reduces a request URI to the most specific template it matches, e.g. the ids of the tasks being replaced by {@code {id}}.
+     *
+     * @param uri          the URI of the request.
+     * @param basePath     the path prefixed to every template, empty if none.
+     * @param uriTemplates the URI templates, the most specific ones first.
+     * @return the base path followed by the URI template, or {@value #UNKNOWN_URI} if the URI matches no template.
+     */
+    static String uriTagValue(String uri, String basePath, List<PathPattern> uriTemplates) {
+        var queryStart = uri.indexOf('?');
+        var path = queryStart < 0 ? uri : uri.substring(0, queryStart);
+        if (!path.startsWith(basePath)) {
+            return UNKNOWN_URI;
+        }
+        var pathWithinApplication = PathContainer.parsePath(path.substring(basePath.length()));
+        return uriTemplates.stream()
+                           .filter(uriTemplate -> uriTemplate.matches(pathWithinApplication))
+                           .findFirst()
+                           .map(uriTemplate -> basePath + uriTemplate.getPatternString())
+                           .orElse(UNKNOWN_URI);
+    }
+
+}
@@ -0,0 +1,59 @@
+/**
+* Copyright 2023 the original author or authors.
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*     http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+*/
+package com.bcn.todo.config;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.r2dbc.connection.R2dbcTransactionManager;
+import org.springframework.r2dbc.core.DatabaseClient;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.r2dbc.spi.ConnectionFactory;
+
+import com.bcn.todo.deadline.DeadlineConnectionFactory;
+
+/**
+ * R2dbc deadlines configuration.
+ * <p>
+ * When enabled, the database client and the transaction manager acquire their connections through a {@link DeadlineConnectionFactory}, so that the queries
+ * are bounded by the deadline of the request and cancelled on the database when the operation is abandoned. The decorated factory is not exposed as a
+ * connection factory candidate, so that the pools keep being the connection factories seen by the rest of the application, e.g. by the pool metrics. Both
+ * beans must share the same factory so that the queries of a transaction run on its connection.
+ *
+ * @author ttrigo
+ * @since 0.1.0
+ */
+@Configuration
+@ConditionalOnProperty(name = { "todo.r2dbc.pool.enabled", "todo.r2dbc.deadline.enabled" }, havingValue = "true")
+public class R2dbcDeadlineConfiguration {
+
+    @Bean(autowireCandidate = false)
+    DeadlineConnectionFactory deadlineConnectionFactory(ConnectionFactory connectionFactory, MeterRegistry meterRegistry) {
+        return new DeadlineConnectionFactory(connectionFactory, meterRegistry);
+    }
+
+    @Bean
+    DatabaseClient r2dbcDatabaseClient(ConnectionFactory connectionFactory, MeterRegistry meterRegistry) {
+        return DatabaseClient.create(deadlineConnectionFactory(connectionFactory, meterRegistry));
+    }
+
+    @Bean
+    R2dbcTransactionManager connectionFactoryTransactionManager(ConnectionFactory connectionFactory, MeterRegistry meterRegistry) {
+        return new R2dbcTransactionManager(deadlineConnectionFactory(connectionFactory, meterRegistry));
+    }
+
+}
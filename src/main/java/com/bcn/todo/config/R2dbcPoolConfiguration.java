@@ -0,0 +1,124 @@
+/**
+* Copyright 2023 the original author or authors.
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*     http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+*/
+package com.bcn.todo.config;
+
+import java.time.Duration;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.r2dbc.R2dbcConnectionDetails;
+import org.springframework.boot.autoconfigure.r2dbc.R2dbcProperties;
+import org.springframework.boot.context.properties.PropertyMapper;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.r2dbc.pool.ConnectionPool;
+import io.r2dbc.pool.ConnectionPoolConfiguration;
+import io.r2dbc.spi.ConnectionFactories;
+import io.r2dbc.spi.ConnectionFactoryOptions;
+import reactor.core.publisher.Mono;
+
+/**
+ * R2dbc connection pool configuration.
+ * <p>
+ * Replaces the pool created by Spring Boot in order to tune the background eviction of idle connections, time the acquisition of connections and warm the pool
+ * up before the application is ready to accept traffic. The pool is configured with the standard {@code spring.r2dbc.pool.*} properties, its gauges are still
+ * published by Spring Boot.
+ *
+ * @author ttrigo
+ * @since 0.1.0
+ */
+@Configuration
+@ConditionalOnProperty(name = "todo.r2dbc.pool.enabled", havingValue = "true")
+public class R2dbcPoolConfiguration {
+
+    private static final Logger logger = LoggerFactory.getLogger(R2dbcPoolConfiguration.class);
+
+    private static final String POOL_NAME = "todo";
+
+    @Bean(destroyMethod = "dispose")
+    MeteredConnectionPool connectionFactory(R2dbcConnectionDetails connectionDetails, R2dbcProperties properties, MeterRegistry meterRegistry,
+            @Value("${todo.r2dbc.pool.background-eviction-interval}") Duration backgroundEvictionInterval) {
+        var connectionPool = createConnectionPool(connectionDetails.getConnectionFactoryOptions(), POOL_NAME, properties.getPool(), backgroundEvictionInterval);
+        return new MeteredConnectionPool(connectionPool, POOL_NAME, meterRegistry);
+    }
+
+    /**
+     * Opens the initial connections of the pool during the startup.
+     * <p>
+     * Application runners are called before the application is marked as ready, so the first requests do not pay the connection setup. A failure is only
+     * logged, the connections are then opened on demand.
+     */
+    @Bean
+    ApplicationRunner connectionPoolWarmUp(MeteredConnectionPool connectionPool, @Value("${todo.r2dbc.pool.warm-up-timeout}") Duration warmUpTimeout) {
+        return args -> connectionPool.unwrap()
+                                     .warmup()
+                                     .timeout(warmUpTimeout)
+                                     .doOnNext(connections -> logger.info("Connection pool warmed up with {} connections", connections))
+                                     .onErrorResume(error -> {
+                                         logger.warn("Connection pool warm up failed, connections will be opened on demand", error);
+                                         return Mono.empty();
+                                     })
+                                     .block();
+    }
+
+    /**
+     * Creates a connection pool configured with the given pool properties.
+     *
+     * @param connectionFactoryOptions   the options of the database to connect to, must not be {@literal null}.
+     * @param name                       the name of the pool.
+     * @param pool                       the {@code spring.r2dbc.pool.*} properties, must not be {@literal null}.
+     * @param backgroundEvictionInterval the interval at which idle connections are evicted, must not be {@literal null}.
+     * @return the connection pool.
+     */
+    static ConnectionPool createConnectionPool(ConnectionFactoryOptions connectionFactoryOptions, String name, R2dbcProperties.Pool pool,
+            Duration backgroundEvictionInterval) {
+        var builder = ConnectionPoolConfiguration.builder(ConnectionFactories.get(connectionFactoryOptions))
+                                                 .name(name)
+                                                 .backgroundEvictionInterval(backgroundEvictionInterval);
+
+        var map = PropertyMapper.get()
+                                .alwaysApplyingWhenNonNull();
+        map.from(pool.getInitialSize())
+           .to(builder::initialSize);
+        map.from(pool.getMaxSize())
+           .to(builder::maxSize);
+        map.from(pool.getMinIdle())
+           .to(builder::minIdle);
+        map.from(pool.getMaxIdleTime())
+           .to(builder::maxIdleTime);
+        map.from(pool.getMaxLifeTime())
+           .to(builder::maxLifeTime);
+        map.from(pool.getMaxAcquireTime())
+           .to(builder::maxAcquireTime);
+        map.from(pool.getMaxCreateConnectionTime())
+           .to(builder::maxCreateConnectionTime);
+        map.from(pool.getMaxValidationTime())
+           .to(builder::maxValidationTime);
+        map.from(pool.getValidationQuery())
+           .whenHasText()
+           .to(builder::validationQuery);
+        map.from(pool.getValidationDepth())
+           .to(builder::validationDepth);
+
+        return new ConnectionPool(builder.build());
+    }
+
+}
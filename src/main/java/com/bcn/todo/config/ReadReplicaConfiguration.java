@@ -0,0 +1,124 @@
+/**
+* Copyright 2023 the original author or authors.
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*     http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+*/
+package com.bcn.todo.config;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.actuate.metrics.r2dbc.ConnectionPoolMetrics;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.r2dbc.R2dbcConnectionDetails;
+import org.springframework.boot.autoconfigure.r2dbc.R2dbcProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.r2dbc.spi.ConnectionFactoryOptions;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import com.bcn.todo.routing.ReadReplicaRoutingConnectionFactory;
+import com.bcn.todo.routing.ReadYourWritesWebFilter;
+
+/**
+ * Read replicas configuration.
+ * <p>
+ * When enabled, the read-only queries are routed to the read replicas given by {@code todo.r2dbc.replicas.urls}, each one with its own connection pool
+ * configured as the primary one. The replicas are connected with the credentials of the primary database unless their URL holds other ones.
+ *
+ * @author ttrigo
+ * @since 0.1.0
+ */
+@Configuration
+@ConditionalOnProperty(name = { "todo.r2dbc.pool.enabled", "todo.r2dbc.replicas.enabled" }, havingValue = "true")
+public class ReadReplicaConfiguration {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReadReplicaConfiguration.class);
+
+    private static final String REPLICA_POOL_NAME = "replica-";
+
+    @Bean(destroyMethod = "dispose")
+    @Primary
+    ReadReplicaRoutingConnectionFactory routingConnectionFactory(MeteredConnectionPool connectionFactory, R2dbcConnectionDetails connectionDetails,
+            R2dbcProperties properties, MeterRegistry meterRegistry, @Value("${todo.r2dbc.replicas.urls}") List<String> replicaUrls,
+            @Value("${todo.r2dbc.replicas.retry-after}") Duration retryAfter,
+            @Value("${todo.r2dbc.pool.background-eviction-interval}") Duration backgroundEvictionInterval) {
+        var primaryOptions = connectionDetails.getConnectionFactoryOptions();
+        var replicas = IntStream.range(0, replicaUrls.size())
+                                .mapToObj(replica -> {
+                                    var poolName = REPLICA_POOL_NAME + replica;
+                                    var replicaPool = R2dbcPoolConfiguration.createConnectionPool(replicaOptions(replicaUrls.get(replica), primaryOptions),
+                                            poolName, properties.getPool(), backgroundEvictionInterval);
+                                    new ConnectionPoolMetrics(replicaPool, poolName, Tags.empty()).bindTo(meterRegistry);
+                                    return new MeteredConnectionPool(replicaPool, poolName, meterRegistry);
+                                })
+                                .toList();
+
+        return new ReadReplicaRoutingConnectionFactory(connectionFactory, replicas, retryAfter);
+    }
+
+    @Bean
+    ReadYourWritesWebFilter readYourWritesWebFilter(@Value("${todo.r2dbc.replicas.read-your-writes-window}") Duration readYourWritesWindow) {
+        return new ReadYourWritesWebFilter(readYourWritesWindow, Clock.systemUTC());
+    }
+
+    /**
+     * Opens the initial connections of the replica pools during the startup, as done for the primary pool.
+     */
+    @Bean
+    ApplicationRunner replicaConnectionPoolsWarmUp(ReadReplicaRoutingConnectionFactory routingConnectionFactory,
+            @Value("${todo.r2dbc.pool.warm-up-timeout}") Duration warmUpTimeout) {
+        return args -> Flux.fromIterable(routingConnectionFactory.getReplicas())
+                           .cast(MeteredConnectionPool.class)
+                           .flatMap(replica -> replica.unwrap()
+                                                      .warmup()
+                                                      .timeout(warmUpTimeout)
+                                                      .onErrorResume(error -> {
+                                                          logger.warn("Read replica connection pool warm up failed, connections will be opened on demand", error);
+                                                          return Mono.empty();
+                                                      }))
+                           .then()
+                           .block();
+    }
+
+    /**
+     * Builds the options to connect to a replica.
+     *
+     * @param replicaUrl     the URL of the replica.
+     * @param primaryOptions the options to connect to the primary database.
+     * @return the options of the given URL, completed with the credentials of the primary database.
+     */
+    private static ConnectionFactoryOptions replicaOptions(String replicaUrl, ConnectionFactoryOptions primaryOptions) {
+        var replicaOptions = ConnectionFactoryOptions.parse(replicaUrl);
+        var builder = replicaOptions.mutate();
+        if (!replicaOptions.hasOption(ConnectionFactoryOptions.USER) && primaryOptions.hasOption(ConnectionFactoryOptions.USER)) {
+            builder.option(ConnectionFactoryOptions.USER, (String) primaryOptions.getRequiredValue(ConnectionFactoryOptions.USER));
+        }
+        if (!replicaOptions.hasOption(ConnectionFactoryOptions.PASSWORD) && primaryOptions.hasOption(ConnectionFactoryOptions.PASSWORD)) {
+            builder.option(ConnectionFactoryOptions.PASSWORD, (CharSequence) primaryOptions.getRequiredValue(ConnectionFactoryOptions.PASSWORD));
+        }
+        return builder.build();
+    }
+
+}
@@ -0,0 +1,107 @@
+/**
+* Copyright 2023 the original author or authors.
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*     http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+*/
+package com.bcn.todo.config;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import org.springframework.boot.actuate.web.exchanges.HttpExchange;
+import org.springframework.boot.actuate.web.exchanges.HttpExchangeRepository;
+
+/**
+ * {@link HttpExchangeRepository} that keeps a sample of the most recent exchanges in a lock-free ring buffer.
+ * <p>
+ * Each exchange is recorded with the given sample rate, except server errors and exchanges slower than the given threshold, which are always recorded. Once the
+ * buffer is full, each recorded exchange replaces the oldest one.
+ *
+ * @author ttrigo
+ * @since 0.1.0
+ */
+public class SampledHttpExchangeRepository implements HttpExchangeRepository {
+
+    private final AtomicReferenceArray<HttpExchange> exchanges;
+
+    private final AtomicLong sequence = new AtomicLong();
+
+    private final double sampleRate;
+
+    private final Duration slowThreshold;
+
+    /**
+     * Default constructor.
+     *
+     * @param capacity      the maximum number of exchanges kept, must be positive.
+     * @param sampleRate    the ratio of exchanges recorded, between 0 and 1.
+     * @param slowThreshold the time taken above which an exchange is always recorded, must not be {@literal null}.
+     */
+    public SampledHttpExchangeRepository(int capacity, double sampleRate, Duration slowThreshold) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("The capacity must be positive");
+        }
+        if (sampleRate < 0.0 || sampleRate > 1.0) {
+            throw new IllegalArgumentException("The sample rate must be between 0 and 1");
+        }
+        this.exchanges = new AtomicReferenceArray<>(capacity);
+        this.sampleRate = sampleRate;
+        this.slowThreshold = slowThreshold;
+    }
+
+    /**
+     * Finds the recorded exchanges, the most recent first.
+     *
+     * @return the recorded exchanges.
+     */
+    @Override
+    public List<HttpExchange> findAll() {
+        var capacity = this.exchanges.length();
+        var last = this.sequence.get();
+        var first = Math.max(0L, last - capacity);
+        var recordedExchanges = new ArrayList<HttpExchange>((int) (last - first));
+        for (var position = last - 1; position >= first; position--) {
+            var exchange = this.exchanges.get((int) (position % capacity));
+            if (exchange != null) {
+                recordedExchanges.add(exchange);
+            }
+        }
+        return recordedExchanges;
+    }
+
+    @Override
+    public void add(HttpExchange httpExchange) {
+        if (shouldRecord(httpExchange)) {
+            var position = this.sequence.getAndIncrement();
+            this.exchanges.set((int) (position % this.exchanges.length()), httpExchange);
+        }
+    }
+
+    private boolean shouldRecord(HttpExchange httpExchange) {
+        var response = httpExchange.getResponse();
+        if (response != null && response.getStatus() >= 500) {
+            return true;
+        }
+        var timeTaken = httpExchange.getTimeTaken();
+        if (timeTaken != null && timeTaken.compareTo(this.slowThreshold) >= 0) {
+            return true;
+        }
+        return this.sampleRate >= 1.0 || ThreadLocalRandom.current()
+                                                          .nextDouble() < this.sampleRate;
+    }
+
+}
@@ -0,0 +1,67 @@
+/**
+* Copyright 2023 the original author or authors.
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*     http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+*/
+package com.bcn.todo.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.codec.CodecCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.codec.CodecConfigurer;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.util.unit.DataSize;
+
+import com.bcn.todo.codec.TaskBinaryDecoder;
+import com.bcn.todo.codec.TaskBinaryEncoder;
+import com.bcn.todo.codec.TaskBinaryFormat;
+import com.bcn.todo.codec.TaskCborFormat;
+import com.bcn.todo.codec.TaskProtobufFormat;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+
+/**
+ * Task binary codecs configuration.
+ * <p>
+ * Tasks are also exchanged as Protocol Buffers and CBOR, selected by the {@code Accept} and {@code Content-Type} headers. The CBOR object mapper is configured
+ * as the JSON one, so both representations hold the same fields. When disabled, the binary media types are dropped from the task endpoints by the
+ * {@link TaskBinaryMediaTypesConfiguration}.
+ *
+ * @author ttrigo
+ * @since 0.1.0
+ */
+@Configuration
+@ConditionalOnProperty(name = "todo.task.codec.binary.enabled", havingValue = "true")
+public class TaskBinaryCodecConfiguration {
+
+    @Bean
+    CodecCustomizer taskBinaryCodecCustomizer(Jackson2ObjectMapperBuilder objectMapperBuilder,
+            @Value("${spring.codec.max-in-memory-size:256KB}") DataSize maxInMemorySize) {
+        var cborFormat = new TaskCborFormat(objectMapperBuilder.factory(new CBORFactory())
+                                                               .build());
+        var protobufFormat = new TaskProtobufFormat();
+        return configurer -> {
+            register(configurer, protobufFormat, maxInMemorySize);
+            register(configurer, cborFormat, maxInMemorySize);
+        };
+    }
+
+    private static void register(CodecConfigurer configurer, TaskBinaryFormat format, DataSize maxInMemorySize) {
+        configurer.customCodecs()
+                  .register(new TaskBinaryEncoder(format));
+        configurer.customCodecs()
+                  .register(new TaskBinaryDecoder(format, (int) maxInMemorySize.toBytes()));
+    }
+
+}
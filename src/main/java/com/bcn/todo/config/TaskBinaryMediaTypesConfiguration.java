@@ -0,0 +1,119 @@
+/**
+* Copyright 2023 the original author or authors.
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*     http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+*/
+package com.bcn.todo.config;
+
+import java.lang.reflect.Method;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.web.reactive.WebFluxRegistrations;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.MediaType;
+import org.springframework.util.MimeType;
+import org.springframework.web.reactive.result.condition.MediaTypeExpression;
+import org.springframework.web.reactive.result.method.RequestMappingInfo;
+import org.springframework.web.reactive.result.method.annotation.RequestMappingHandlerMapping;
+
+import com.bcn.todo.codec.TaskCborFormat;
+import com.bcn.todo.codec.TaskProtobufFormat;
+
+/**
+ * Task binary media types configuration.
+ * <p>
+ * The task endpoints declare the binary representations of the tasks among the media types they produce and consume. When the binary codecs are disabled,
+ * those media types are dropped from the request mappings, so that the requests asking for them are answered with 406-NOT_ACCEPTABLE or
+ * 415-UNSUPPORTED_MEDIA_TYPE instead of reaching a handler whose body cannot be read or written.
+ *
+ * @author ttrigo
+ * @since 0.1.0
+ */
+@Configuration
+@ConditionalOnProperty(name = "todo.task.codec.binary.enabled", havingValue = "false")
+public class TaskBinaryMediaTypesConfiguration {
+
+    private static final List<MimeType> BINARY_MIME_TYPES = List.of(TaskProtobufFormat.MIME_TYPE, TaskCborFormat.MIME_TYPE);
+
+    @Bean
+    WebFluxRegistrations taskBinaryMediaTypesRegistrations() {
+        return new WebFluxRegistrations() {
+
+            @Override
+            public RequestMappingHandlerMapping getRequestMappingHandlerMapping() {
+                return new ExcludingMediaTypesHandlerMapping(BINARY_MIME_TYPES);
+            }
+
+        };
+    }
+
+    /**
+     * {@link RequestMappingHandlerMapping} that drops the given media types from the media types produced and consumed by the handlers.
+     */
+    static class ExcludingMediaTypesHandlerMapping extends RequestMappingHandlerMapping {
+
+        private final List<MimeType> excludedMimeTypes;
+
+        /**
+         * Default constructor.
+         *
+         * @param excludedMimeTypes the media types dropped from the mappings, must not be {@literal null}.
+         */
+        ExcludingMediaTypesHandlerMapping(List<MimeType> excludedMimeTypes) {
+            this.excludedMimeTypes = excludedMimeTypes;
+        }
+
+        @Override
+        protected RequestMappingInfo getMappingForMethod(Method method, Class<?> handlerType) {
+            var info = super.getMappingForMethod(method, handlerType);
+            if (info == null) {
+                return null;
+            }
+            var produces = info.getProducesCondition()
+                               .getExpressions();
+            var consumes = info.getConsumesCondition()
+                               .getExpressions();
+            if (!isExcludingAny(produces) && !isExcludingAny(consumes)) {
+                return info;
+            }
+            return info.mutate()
+                       .produces(retained(produces))
+                       .consumes(retained(consumes))
+                       .build();
+        }
+
+        private boolean isExcludingAny(Set<? extends MediaTypeExpression> expressions) {
+            return expressions.stream()
+                              .anyMatch(this::isExcluded);
+        }
+
+        private String[] retained(Collection<? extends MediaTypeExpression> expressions) {
+            return expressions.stream()
+                              .filter(expression -> !isExcluded(expression))
+                              .map(expression -> (expression.isNegated() ? "!" : "") + expression.getMediaType())
+                              .toArray(String[]::new);
+        }
+
+        private boolean isExcluded(MediaTypeExpression expression) {
+            MediaType mediaType = expression.getMediaType();
+            return this.excludedMimeTypes.stream()
+                                         .anyMatch(mediaType::equalsTypeAndSubtype);
+        }
+
+    }
+
+}
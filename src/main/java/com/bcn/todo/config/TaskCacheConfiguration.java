@@ -0,0 +1,59 @@
+/**
+* Copyright 2023 the original author or authors.
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*     http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+*/
+package com.bcn.todo.config;
+
+import java.time.Duration;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+import com.bcn.todo.task.CachingTaskService;
+import com.bcn.todo.task.CoalescingTaskService;
+import com.bcn.todo.task.TaskService;
+import com.bcn.todo.task.TaskServiceImpl;
+
+/**
+ * Task cache configuration.
+ * <p>
+ * When enabled, the task service used by the web layer is decorated with an in-memory cache of the tasks found by id. When the write-behind is enabled as
+ * well, the cache decorates the coalescing service, so that its entries are invalidated once the coalesced updates are written.
+ *
+ * @author ttrigo
+ * @since 0.1.0
+ */
+@Configuration
+@ConditionalOnProperty(name = "todo.task.cache.enabled", havingValue = "true")
+public class TaskCacheConfiguration {
+
+    @Bean
+    @Primary
+    TaskService cachingTaskService(TaskServiceImpl taskService, ObjectProvider<CoalescingTaskService> coalescingTaskService, MeterRegistry meterRegistry,
+            @Value("${todo.task.cache.maximum-size}") long maximumSize, @Value("${todo.task.cache.time-to-live}") Duration timeToLive,
+            @Value("${todo.task.cache.not-found-time-to-live}") Duration notFoundTimeToLive) {
+        TaskService delegate = coalescingTaskService.getIfAvailable();
+        if (delegate == null) {
+            delegate = taskService;
+        }
+        return new CachingTaskService(delegate, meterRegistry, maximumSize, timeToLive, notFoundTimeToLive);
+    }
+
+}
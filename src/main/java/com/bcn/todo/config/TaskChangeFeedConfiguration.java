@@ -0,0 +1,91 @@
+/**
+* Copyright 2023 the original author or authors.
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*     http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+*/
+package com.bcn.todo.config;
+
+import java.time.Duration;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.r2dbc.R2dbcConnectionDetails;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import io.r2dbc.postgresql.api.Notification;
+import io.r2dbc.postgresql.api.PostgresqlConnection;
+import io.r2dbc.postgresql.api.PostgresqlResult;
+import io.r2dbc.spi.Connection;
+import io.r2dbc.spi.ConnectionFactories;
+import io.r2dbc.spi.ConnectionFactory;
+import reactor.core.publisher.BufferOverflowStrategy;
+import reactor.core.publisher.Flux;
+import reactor.util.retry.Retry;
+
+import com.bcn.todo.task.TaskChangeFeed;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Task changes feed configuration.
+ * <p>
+ * The changes are notified by a trigger of the task table with {@code pg_notify}, so every write is published whatever the statement that performs it. They
+ * are listened through a dedicated connection that is not taken from the pool, since a listening connection cannot be shared, and that is opened again with an
+ * exponential backoff when it is lost. Changes notified while the connection is down are not received.
+ *
+ * @author ttrigo
+ * @since 0.1.0
+ */
+@Configuration
+@ConditionalOnProperty(name = "todo.task.changes.enabled", havingValue = "true")
+public class TaskChangeFeedConfiguration {
+
+    private static final Logger logger = LoggerFactory.getLogger(TaskChangeFeedConfiguration.class);
+
+    @Bean(initMethod = "start", destroyMethod = "stop")
+    TaskChangeFeed taskChangeFeed(R2dbcConnectionDetails connectionDetails, ObjectMapper objectMapper, @Value("${todo.task.changes.buffer-size}") int bufferSize,
+            @Value("${todo.task.changes.overflow-strategy}") BufferOverflowStrategy overflowStrategy,
+            @Value("${todo.task.changes.min-reconnect-delay}") Duration minReconnectDelay,
+            @Value("${todo.task.changes.max-reconnect-delay}") Duration maxReconnectDelay) {
+        var connectionFactory = ConnectionFactories.get(connectionDetails.getConnectionFactoryOptions());
+        var reconnect = Retry.backoff(Long.MAX_VALUE, minReconnectDelay)
+                             .maxBackoff(maxReconnectDelay)
+                             .transientErrors(true)
+                             .doBeforeRetry(signal -> logger.warn("Listening task changes failed, reconnecting ...", signal.failure()));
+        var notifications = listen(connectionFactory, TaskChangeFeed.CHANNEL).retryWhen(reconnect);
+        return new TaskChangeFeed(notifications, objectMapper, bufferSize, overflowStrategy);
+    }
+
+    /**
+     * Listens a notification channel through a new connection.
+     *
+     * @param connectionFactory the factory of the connection, must create PostgreSQL connections and must not be {@literal null}.
+     * @param channel           the notification channel.
+     * @return the payloads of the notifications, the flux fails when the connection is closed.
+     */
+    static Flux<String> listen(ConnectionFactory connectionFactory, String channel) {
+        return Flux.usingWhen(connectionFactory.create(), connection -> {
+            var postgresqlConnection = (PostgresqlConnection) connection;
+            return postgresqlConnection.createStatement("LISTEN " + channel)
+                                       .execute()
+                                       .flatMap(PostgresqlResult::getRowsUpdated)
+                                       .doOnComplete(() -> logger.info("Listening notifications of channel {}", channel))
+                                       .thenMany(postgresqlConnection.getNotifications())
+                                       .concatWith(Flux.error(new IllegalStateException("Connection listening channel " + channel + " has been closed")));
+        }, Connection::close)
+                   .mapNotNull(Notification::getParameter);
+    }
+
+}
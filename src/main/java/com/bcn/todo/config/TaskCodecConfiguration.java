@@ -0,0 +1,52 @@
+/**
+* Copyright 2023 the original author or authors.
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*     http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+*/
+package com.bcn.todo.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.codec.CodecCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.util.unit.DataSize;
+
+import com.bcn.todo.codec.TaskDTODecoder;
+import com.bcn.todo.codec.TaskDTOEncoder;
+
+/**
+ * Task codec configuration.
+ * <p>
+ * The task codecs only handle tasks, so they are registered as typed codecs and are consulted before the object mapper, which still handles every other body
+ * and the server-sent events.
+ *
+ * @author ttrigo
+ * @since 0.1.0
+ */
+@Configuration
+@ConditionalOnProperty(name = "todo.task.codec.enabled", havingValue = "true")
+public class TaskCodecConfiguration {
+
+    @Bean
+    CodecCustomizer taskCodecCustomizer(@Value("${spring.webflux.format.date-time}") String dateTimeFormat,
+            @Value("${spring.codec.max-in-memory-size:256KB}") DataSize maxInMemorySize) {
+        return configurer -> {
+            configurer.customCodecs()
+                      .register(new TaskDTOEncoder(dateTimeFormat));
+            configurer.customCodecs()
+                      .register(new TaskDTODecoder(dateTimeFormat, (int) maxInMemorySize.toBytes()));
+        };
+    }
+
+}
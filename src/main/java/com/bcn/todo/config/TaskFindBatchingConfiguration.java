@@ -0,0 +1,54 @@
+/**
+* Copyright 2023 the original author or authors.
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*     http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+*/
+package com.bcn.todo.config;
+
+import java.time.Duration;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import reactor.core.scheduler.Schedulers;
+
+import com.bcn.todo.routing.DatabaseRouting;
+import com.bcn.todo.task.TaskFindBatcher;
+import com.bcn.todo.task.TaskRepository;
+
+/**
+ * Task find by id batching configuration.
+ * <p>
+ * When enabled, the tasks found by id within {@code todo.task.find-by-id.batching.window} are found with a single query of at most
+ * {@code todo.task.find-by-id.batching.max-batch-size} ids, routed as a read-only query. Finds that require the primary database or that are bounded by
+ * a request deadline are not batched.
+ *
+ * @author ttrigo
+ * @since 0.1.0
+ */
+@Configuration
+@ConditionalOnProperty(name = "todo.task.find-by-id.batching.enabled", havingValue = "true")
+public class TaskFindBatchingConfiguration {
+
+    @Bean(destroyMethod = "dispose")
+    TaskFindBatcher taskFindBatcher(TaskRepository taskRepository, MeterRegistry meterRegistry, @Value("${todo.task.find-by-id.batching.window}") Duration window,
+            @Value("${todo.task.find-by-id.batching.max-batch-size}") int maxBatchSize) {
+        return new TaskFindBatcher(ids -> taskRepository.findTasksByIds(ids)
+                                                        .contextWrite(DatabaseRouting::readOnly),
+                meterRegistry, window, maxBatchSize, Schedulers.parallel());
+    }
+
+}
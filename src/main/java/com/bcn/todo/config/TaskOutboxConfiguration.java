@@ -0,0 +1,76 @@
+/**
+* Copyright 2023 the original author or authors.
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*     http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+*/
+package com.bcn.todo.config;
+
+import java.nio.file.Path;
+import java.time.Duration;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.transaction.reactive.TransactionalOperator;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+import com.bcn.todo.outbox.FileTaskOutboxSink;
+import com.bcn.todo.outbox.InMemoryTaskOutboxSink;
+import com.bcn.todo.outbox.TaskOutboxPublisher;
+import com.bcn.todo.outbox.TaskOutboxRepository;
+import com.bcn.todo.outbox.TaskOutboxRepositoryImpl;
+import com.bcn.todo.outbox.TaskOutboxSink;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Task outbox configuration.
+ * <p>
+ * The changes of the tasks are recorded in the outbox by the task service, in the transaction of each change, and published by a background publisher to the
+ * sink selected by {@code todo.task.outbox.sink}: {@code memory} keeps the last events in memory and {@code file} appends them to a newline delimited JSON file.
+ * When disabled, another {@link TaskOutboxRepository} must be provided.
+ *
+ * @author ttrigo
+ * @since 0.1.0
+ */
+@Configuration
+@ConditionalOnProperty(name = "todo.task.outbox.enabled", havingValue = "true")
+public class TaskOutboxConfiguration {
+
+    @Bean
+    TaskOutboxRepository taskOutboxRepository(DatabaseClient databaseClient) {
+        return new TaskOutboxRepositoryImpl(databaseClient);
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "todo.task.outbox.sink", havingValue = "memory")
+    TaskOutboxSink inMemoryTaskOutboxSink(@Value("${todo.task.outbox.memory.capacity}") int capacity) {
+        return new InMemoryTaskOutboxSink(capacity);
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "todo.task.outbox.sink", havingValue = "file")
+    TaskOutboxSink fileTaskOutboxSink(ObjectMapper objectMapper, @Value("${todo.task.outbox.file.path}") Path file) {
+        return new FileTaskOutboxSink(file, objectMapper);
+    }
+
+    @Bean(initMethod = "start", destroyMethod = "stop")
+    TaskOutboxPublisher taskOutboxPublisher(TaskOutboxRepository taskOutboxRepository, TaskOutboxSink taskOutboxSink, TransactionalOperator transactionalOperator,
+            MeterRegistry meterRegistry, @Value("${todo.task.outbox.batch-size}") int batchSize,
+            @Value("${todo.task.outbox.poll-interval}") Duration pollInterval) {
+        return new TaskOutboxPublisher(taskOutboxRepository, taskOutboxSink, transactionalOperator, meterRegistry, batchSize, pollInterval);
+    }
+
+}
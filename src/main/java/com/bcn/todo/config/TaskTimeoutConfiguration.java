@@ -0,0 +1,54 @@
+/**
+* Copyright 2023 the original author or authors.
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*     http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+*/
+package com.bcn.todo.config;
+
+import java.time.Duration;
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+import com.bcn.todo.task.TaskTimeouts;
+
+/**
+ * Task timeouts configuration.
+ * <p>
+ * Every task service method is bounded by {@code todo.task.timeouts.default}, unless it has a timeout of its own under {@code todo.task.timeouts.methods},
+ * keyed by method name, e.g. {@code todo.task.timeouts.methods.find-by-id=1s}. A zero timeout leaves the method bounded only by the deadline of the request.
+ *
+ * @author ttrigo
+ * @since 0.1.0
+ */
+@Configuration
+public class TaskTimeoutConfiguration {
+
+    private static final String METHOD_TIMEOUTS_PROPERTY = "todo.task.timeouts.methods";
+
+    @Bean
+    TaskTimeouts taskTimeouts(Environment environment, MeterRegistry meterRegistry, @Value("${todo.task.timeouts.default}") Duration defaultTimeout) {
+        var methodTimeouts = Binder.get(environment)
+                                   .bind(METHOD_TIMEOUTS_PROPERTY, Bindable.mapOf(String.class, Duration.class))
+                                   .orElse(Map.of());
+        return new TaskTimeouts(defaultTimeout, methodTimeouts, meterRegistry);
+    }
+
+}
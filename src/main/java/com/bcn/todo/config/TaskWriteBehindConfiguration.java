@@ -0,0 +1,62 @@
+/**
+* Copyright 2023 the original author or authors.
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*     http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+*/
+package com.bcn.todo.config;
+
+import java.time.Duration;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import reactor.core.scheduler.Schedulers;
+
+import com.bcn.todo.task.CoalescingTaskService;
+import com.bcn.todo.task.TaskService;
+import com.bcn.todo.task.TaskServiceImpl;
+import com.bcn.todo.task.TaskTimeouts;
+
+/**
+ * Task write-behind configuration.
+ * <p>
+ * When enabled, the updates of the same task received within {@code todo.task.write-behind.window} are coalesced and written together. The coalescing service
+ * is the one used by the web layer, unless the task cache is enabled, in which case the cache decorates it. Each write of the coalesced updates is bounded by
+ * {@code todo.task.write-behind.flush-timeout}.
+ *
+ * @author ttrigo
+ * @since 0.1.0
+ */
+@Configuration
+@ConditionalOnProperty(name = "todo.task.write-behind.enabled", havingValue = "true")
+public class TaskWriteBehindConfiguration {
+
+    @Bean(destroyMethod = "dispose")
+    CoalescingTaskService coalescingTaskService(TaskServiceImpl taskService, MeterRegistry meterRegistry,
+            @Value("${todo.task.write-behind.window}") Duration window, @Value("${todo.task.write-behind.max-pending}") int maxPending, TaskTimeouts taskTimeouts,
+            @Value("${todo.task.write-behind.flush-timeout}") Duration flushTimeout) {
+        return new CoalescingTaskService(taskService, meterRegistry, window, maxPending, taskTimeouts, flushTimeout, Schedulers.parallel());
+    }
+
+    @Bean
+    @Primary
+    @ConditionalOnProperty(name = "todo.task.cache.enabled", havingValue = "false")
+    TaskService writeBehindTaskService(CoalescingTaskService coalescingTaskService) {
+        return coalescingTaskService;
+    }
+
+}
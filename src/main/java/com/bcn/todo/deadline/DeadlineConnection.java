@@ -0,0 +1,167 @@
+/**
+* Copyright 2023 the original author or authors.
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*     http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+*/
+package com.bcn.todo.deadline;
+
+import java.time.Duration;
+
+import org.reactivestreams.Publisher;
+
+import io.r2dbc.spi.Batch;
+import io.r2dbc.spi.Connection;
+import io.r2dbc.spi.ConnectionMetadata;
+import io.r2dbc.spi.IsolationLevel;
+import io.r2dbc.spi.Statement;
+import io.r2dbc.spi.TransactionDefinition;
+import io.r2dbc.spi.ValidationDepth;
+import io.r2dbc.spi.Wrapped;
+import reactor.core.publisher.Mono;
+
+/**
+ * {@link Connection} created by a {@link DeadlineConnectionFactory}, that resets its statement timeout before being released, or cancels its running query
+ * and closes the physical connection when its queries have been cancelled.
+ *
+ * @author ttrigo
+ * @since 0.1.0
+ */
+class DeadlineConnection implements Connection, Wrapped<Connection> {
+
+    private final Connection connection;
+
+    private final boolean statementTimeoutSet;
+
+    private final QueryCancellation cancellation;
+
+    private final DeadlineConnectionFactory connectionFactory;
+
+    /**
+     * Default constructor.
+     *
+     * @param connection          the connection to decorate, must not be {@literal null}.
+     * @param statementTimeoutSet whether the statement timeout of the connection has been set and has to be reset before releasing it.
+     * @param cancellation        the cancellation of the queries of the connection, or {@literal null} if they cannot be cancelled.
+     * @param connectionFactory   the factory that created the connection, must not be {@literal null}.
+     */
+    DeadlineConnection(Connection connection, boolean statementTimeoutSet, QueryCancellation cancellation, DeadlineConnectionFactory connectionFactory) {
+        this.connection = connection;
+        this.statementTimeoutSet = statementTimeoutSet;
+        this.cancellation = cancellation;
+        this.connectionFactory = connectionFactory;
+    }
+
+    @Override
+    public Publisher<Void> close() {
+        return Mono.defer(() -> {
+            if (this.cancellation != null && this.cancellation.isCancelled()) {
+                return this.connectionFactory.cancelRequest(this.connection)
+                                             .then(DeadlineConnectionFactory.closePhysicalConnection(this.connection))
+                                             .then(Mono.from(this.connection.close()));
+            }
+            var reset = this.statementTimeoutSet ? DeadlineConnectionFactory.resetStatementTimeout(this.connection) : Mono.<Void> empty();
+            return reset.then(Mono.from(this.connection.close()));
+        });
+    }
+
+    @Override
+    public Publisher<Void> beginTransaction() {
+        return this.connection.beginTransaction();
+    }
+
+    @Override
+    public Publisher<Void> beginTransaction(TransactionDefinition definition) {
+        return this.connection.beginTransaction(definition);
+    }
+
+    @Override
+    public Publisher<Void> commitTransaction() {
+        return this.connection.commitTransaction();
+    }
+
+    @Override
+    public Batch createBatch() {
+        return this.connection.createBatch();
+    }
+
+    @Override
+    public Publisher<Void> createSavepoint(String name) {
+        return this.connection.createSavepoint(name);
+    }
+
+    @Override
+    public Statement createStatement(String sql) {
+        return this.connection.createStatement(sql);
+    }
+
+    @Override
+    public boolean isAutoCommit() {
+        return this.connection.isAutoCommit();
+    }
+
+    @Override
+    public ConnectionMetadata getMetadata() {
+        return this.connection.getMetadata();
+    }
+
+    @Override
+    public IsolationLevel getTransactionIsolationLevel() {
+        return this.connection.getTransactionIsolationLevel();
+    }
+
+    @Override
+    public Publisher<Void> releaseSavepoint(String name) {
+        return this.connection.releaseSavepoint(name);
+    }
+
+    @Override
+    public Publisher<Void> rollbackTransaction() {
+        return this.connection.rollbackTransaction();
+    }
+
+    @Override
+    public Publisher<Void> rollbackTransactionToSavepoint(String name) {
+        return this.connection.rollbackTransactionToSavepoint(name);
+    }
+
+    @Override
+    public Publisher<Void> setAutoCommit(boolean autoCommit) {
+        return this.connection.setAutoCommit(autoCommit);
+    }
+
+    @Override
+    public Publisher<Void> setLockWaitTimeout(Duration timeout) {
+        return this.connection.setLockWaitTimeout(timeout);
+    }
+
+    @Override
+    public Publisher<Void> setStatementTimeout(Duration timeout) {
+        return this.connection.setStatementTimeout(timeout);
+    }
+
+    @Override
+    public Publisher<Void> setTransactionIsolationLevel(IsolationLevel isolationLevel) {
+        return this.connection.setTransactionIsolationLevel(isolationLevel);
+    }
+
+    @Override
+    public Publisher<Boolean> validate(ValidationDepth depth) {
+        return this.connection.validate(depth);
+    }
+
+    @Override
+    public Connection unwrap() {
+        return this.connection;
+    }
+
+}
@@ -0,0 +1,163 @@
+/**
+* Copyright 2023 the original author or authors.
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*     http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+*/
+package com.bcn.todo.deadline;
+
+import java.time.Duration;
+
+import org.reactivestreams.Publisher;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.r2dbc.postgresql.api.PostgresqlConnection;
+import io.r2dbc.spi.Connection;
+import io.r2dbc.spi.ConnectionFactory;
+import io.r2dbc.spi.ConnectionFactoryMetadata;
+import io.r2dbc.spi.Wrapped;
+import reactor.core.publisher.Mono;
+
+/**
+ * {@link ConnectionFactory} that applies the deadlines and the cancellations found in the Reactor context to the connections it creates.
+ * <p>
+ * When the pipeline acquiring a connection has a deadline, the time left is set as the statement timeout of the connection, so that the database aborts the
+ * queries that would end after the deadline, and the statement timeout is reset before the connection is released. Connections acquired without deadline are
+ * left untouched, so they do not pay the extra round trips.
+ * <p>
+ * When the {@link QueryCancellation} of the pipeline has been cancelled by the time the connection is released, a cancel request is sent to the database
+ * first, so that the running query does not keep the database busy, and the physical connection is closed, so that a pool does not hand it out again while
+ * the cancelled query may still be running or its results still be arriving on it. The cancel requests are published as the {@value #CANCEL_REQUESTS_COUNTER} counter,
+ * tagged by outcome.
+ *
+ * @author ttrigo
+ * @since 0.1.0
+ */
+public class DeadlineConnectionFactory implements ConnectionFactory {
+
+    /**
+     * The name of the cancel requests counter.
+     */
+    public static final String CANCEL_REQUESTS_COUNTER = "r2dbc.cancel.requests";
+
+    /**
+     * The statement timeout set when the deadline has passed, since a zero timeout disables the statement timeout.
+     */
+    private static final Duration MIN_STATEMENT_TIMEOUT = Duration.ofMillis(1);
+
+    private final ConnectionFactory connectionFactory;
+
+    private final Counter cancelSuccessCounter;
+
+    private final Counter cancelFailureCounter;
+
+    /**
+     * Default constructor.
+     *
+     * @param connectionFactory the factory of the connections, must not be {@literal null}.
+     * @param meterRegistry     the registry where the cancel requests counter is published, must not be {@literal null}.
+     */
+    public DeadlineConnectionFactory(ConnectionFactory connectionFactory, MeterRegistry meterRegistry) {
+        this.connectionFactory = connectionFactory;
+        this.cancelSuccessCounter = cancelRequestsCounter("success", meterRegistry);
+        this.cancelFailureCounter = cancelRequestsCounter("failure", meterRegistry);
+    }
+
+    @Override
+    public Publisher<? extends Connection> create() {
+        return Mono.<Connection> deferContextual(context -> {
+            var remaining = Deadlines.remaining(context)
+                                     .map(timeout -> timeout.compareTo(MIN_STATEMENT_TIMEOUT) < 0 ? MIN_STATEMENT_TIMEOUT : timeout);
+            var cancellation = Deadlines.cancellation(context)
+                                        .orElse(null);
+            return Mono.<Connection> from(this.connectionFactory.create())
+                       .flatMap(connection -> remaining.map(timeout -> Mono.from(connection.setStatementTimeout(timeout))
+                                                                           .thenReturn(new DeadlineConnection(connection, true, cancellation, this))
+                                                                           .onErrorResume(error -> Mono.from(connection.close())
+                                                                                                       .then(Mono.<DeadlineConnection> error(error))))
+                                                       .orElseGet(() -> Mono.just(new DeadlineConnection(connection, false, cancellation, this))));
+        });
+    }
+
+    @Override
+    public ConnectionFactoryMetadata getMetadata() {
+        return this.connectionFactory.getMetadata();
+    }
+
+    /**
+     * Asks the database to cancel the query running on the given connection.
+     * <p>
+     * Only PostgreSQL connections can be cancelled, other connections are left as they are. A failed cancel request is only counted, the connection is still
+     * released.
+     *
+     * @param connection the connection whose query is cancelled.
+     * @return {@link Mono} completing once the cancel request has been sent.
+     */
+    Mono<Void> cancelRequest(Connection connection) {
+        var postgresqlConnection = unwrapPostgresqlConnection(connection);
+        if (postgresqlConnection == null) {
+            return Mono.empty();
+        }
+        return postgresqlConnection.cancelRequest()
+                                   .doOnSuccess(ignored -> this.cancelSuccessCounter.increment())
+                                   .onErrorResume(error -> {
+                                       this.cancelFailureCounter.increment();
+                                       return Mono.empty();
+                                   });
+    }
+
+    /**
+     * Closes the physical connection under the given one, so that the pool the given connection belongs to, if any, discards it instead of reusing it.
+     * <p>
+     * Pooled connections are validated before being acquired again, so a closed physical connection is invalidated and replaced by the pool. Connections that
+     * are not wrapping a PostgreSQL connection are left as they are, since they are closed anyway when released.
+     *
+     * @param connection the connection whose physical connection is closed.
+     * @return {@link Mono} completing once the physical connection has been closed, even if the close failed.
+     */
+    static Mono<Void> closePhysicalConnection(Connection connection) {
+        var postgresqlConnection = unwrapPostgresqlConnection(connection);
+        if (postgresqlConnection == null || postgresqlConnection == connection) {
+            return Mono.empty();
+        }
+        return Mono.from(postgresqlConnection.close())
+                   .onErrorResume(error -> Mono.empty());
+    }
+
+    /**
+     * Resets the statement timeout of the given connection to the default one, no timeout.
+     *
+     * @param connection the connection to reset.
+     * @return {@link Mono} completing once the statement timeout has been reset, even if the reset failed.
+     */
+    static Mono<Void> resetStatementTimeout(Connection connection) {
+        return Mono.from(connection.setStatementTimeout(Duration.ZERO))
+                   .onErrorResume(error -> Mono.empty());
+    }
+
+    private static PostgresqlConnection unwrapPostgresqlConnection(Object connection) {
+        var current = connection;
+        while (!(current instanceof PostgresqlConnection) && current instanceof Wrapped<?> wrapped) {
+            current = wrapped.unwrap();
+        }
+        return current instanceof PostgresqlConnection postgresqlConnection ? postgresqlConnection : null;
+    }
+
+    private static Counter cancelRequestsCounter(String outcome, MeterRegistry meterRegistry) {
+        return Counter.builder(CANCEL_REQUESTS_COUNTER)
+                      .description("Requests sent to the database to cancel the query of an abandoned operation")
+                      .tag("outcome", outcome)
+                      .register(meterRegistry);
+    }
+
+}
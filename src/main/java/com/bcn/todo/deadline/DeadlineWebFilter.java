@@ -0,0 +1,108 @@
+/**
+* Copyright 2023 the original author or authors.
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*     http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+*/
+package com.bcn.todo.deadline;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.lang.NonNull;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import reactor.core.publisher.Mono;
+
+/**
+ * {@link WebFilter} that honors the deadline sent by the clients.
+ * <p>
+ * Requests may send the {@value #DEADLINE_HEADER} header, holding the epoch millis after which the client no longer waits for the response. The deadline is
+ * stored in the Reactor context through {@link Deadlines}, so that the operations serving the request and their queries are bounded by it. Requests received
+ * after their deadline are answered with 504-GATEWAY_TIMEOUT without being served, and counted by the {@value #EXPIRED_COUNTER} counter. Invalid values are
+ * ignored, and deadlines further than a day away are brought back to a day.
+ *
+ * @author ttrigo
+ * @since 0.1.0
+ */
+public class DeadlineWebFilter implements WebFilter {
+
+    /**
+     * The header holding the epoch millis after which the client no longer waits for the response.
+     */
+    public static final String DEADLINE_HEADER = "X-Request-Deadline";
+
+    /**
+     * The name of the counter of requests received after their deadline.
+     */
+    public static final String EXPIRED_COUNTER = "http.server.deadline.expired";
+
+    private static final long MAX_REMAINING_MILLIS = Duration.ofDays(1)
+                                                             .toMillis();
+
+    private final Clock clock;
+
+    private final Counter expiredCounter;
+
+    /**
+     * Default constructor.
+     *
+     * @param clock         the clock used to compute the time left until the deadline, must not be {@literal null}.
+     * @param meterRegistry the registry where the expired requests counter is published, must not be {@literal null}.
+     */
+    public DeadlineWebFilter(Clock clock, MeterRegistry meterRegistry) {
+        this.clock = clock;
+        this.expiredCounter = Counter.builder(EXPIRED_COUNTER)
+                                     .description("Requests received after their deadline")
+                                     .register(meterRegistry);
+    }
+
+    @NonNull
+    @Override
+    public Mono<Void> filter(@NonNull ServerWebExchange exchange, @NonNull WebFilterChain chain) {
+        var deadlineMillis = parseDeadline(exchange.getRequest()
+                                                   .getHeaders()
+                                                   .getFirst(DEADLINE_HEADER));
+        if (deadlineMillis == null) {
+            return chain.filter(exchange);
+        }
+
+        var remainingMillis = deadlineMillis - this.clock.millis();
+        if (remainingMillis <= 0L) {
+            this.expiredCounter.increment();
+            var response = exchange.getResponse();
+            response.setStatusCode(HttpStatus.GATEWAY_TIMEOUT);
+            return response.setComplete();
+        }
+        var deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(Math.min(remainingMillis, MAX_REMAINING_MILLIS));
+        return chain.filter(exchange)
+                    .contextWrite(context -> Deadlines.withDeadline(context, deadline));
+    }
+
+    private static Long parseDeadline(String deadline) {
+        if (deadline == null) {
+            return null;
+        }
+        try {
+            return Long.parseLong(deadline);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+}
@@ -0,0 +1,87 @@
+/**
+* Copyright 2023 the original author or authors.
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*     http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+*/
+package com.bcn.todo.deadline;
+
+import java.time.Duration;
+import java.util.Optional;
+
+import reactor.util.context.Context;
+import reactor.util.context.ContextView;
+
+/**
+ * Marks reactive pipelines with the deadline of the request they serve and with the cancellation of their queries.
+ * <p>
+ * The marks are stored in the Reactor context, so they apply to the queries issued upstream of the operator that writes them. Deadlines are stored as
+ * {@link System#nanoTime()} values, so they are not affected by changes of the wall clock once the request has been received.
+ *
+ * @author ttrigo
+ * @since 0.1.0
+ */
+public final class Deadlines {
+
+    private static final String DEADLINE_KEY = Deadlines.class.getName() + ".DEADLINE";
+
+    private static final String CANCELLATION_KEY = Deadlines.class.getName() + ".CANCELLATION";
+
+    private Deadlines() {}
+
+    /**
+     * Marks a pipeline with a deadline, keeping the earliest one if the pipeline already has a deadline.
+     *
+     * @param context  the context of the pipeline.
+     * @param deadline the {@link System#nanoTime()} value after which the result of the pipeline is useless.
+     * @return the given context marked with the deadline.
+     */
+    public static Context withDeadline(Context context, long deadline) {
+        if (context.hasKey(DEADLINE_KEY) && context.<Long> get(DEADLINE_KEY) - deadline <= 0L) {
+            return context;
+        }
+        return context.put(DEADLINE_KEY, deadline);
+    }
+
+    /**
+     * Gets the time left until the deadline of a pipeline.
+     *
+     * @param context the context of the pipeline.
+     * @return the time left, zero or negative if the deadline has passed, or empty if the pipeline has no deadline.
+     */
+    public static Optional<Duration> remaining(ContextView context) {
+        return context.<Long> getOrEmpty(DEADLINE_KEY)
+                      .map(deadline -> Duration.ofNanos(deadline - System.nanoTime()));
+    }
+
+    /**
+     * Marks the queries of a pipeline with the cancellation they have to honor.
+     *
+     * @param context      the context of the pipeline.
+     * @param cancellation the cancellation of the queries, must not be {@literal null}.
+     * @return the given context marked with the cancellation.
+     */
+    public static Context withCancellation(Context context, QueryCancellation cancellation) {
+        return context.put(CANCELLATION_KEY, cancellation);
+    }
+
+    /**
+     * Gets the cancellation the queries of a pipeline have to honor.
+     *
+     * @param context the context of the pipeline.
+     * @return the cancellation, or empty if the queries of the pipeline cannot be cancelled.
+     */
+    public static Optional<QueryCancellation> cancellation(ContextView context) {
+        return context.getOrEmpty(CANCELLATION_KEY);
+    }
+
+}
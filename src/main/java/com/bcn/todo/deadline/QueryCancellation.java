@@ -0,0 +1,69 @@
+/**
+* Copyright 2023 the original author or authors.
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*     http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+*/
+package com.bcn.todo.deadline;
+
+/**
+ * Cancellation shared by the queries of a single operation.
+ * <p>
+ * The operation cancels it when its subscriber goes away, either because the client disconnected or because the operation timed out. The connections
+ * acquired by the operation then ask the database to cancel the running query before being released, instead of letting the database finish a query whose
+ * result is discarded. Operations emitting a single value complete it once the value is emitted, since their queries are done by then, so that a subscriber
+ * that cancels after receiving the value does not cancel anything.
+ *
+ * @author ttrigo
+ * @since 0.1.0
+ */
+public class QueryCancellation {
+
+    private volatile boolean completed;
+
+    private volatile boolean cancelled;
+
+    /**
+     * Marks the queries of the operation as completed, a later cancellation has no effect then.
+     */
+    public void complete() {
+        this.completed = true;
+    }
+
+    /**
+     * Cancels the queries of the operation, unless they have completed.
+     */
+    public void cancel() {
+        if (!this.completed) {
+            this.cancelled = true;
+        }
+    }
+
+    /**
+     * Checks whether the queries of the operation have completed.
+     *
+     * @return {@literal true} if the queries have completed.
+     */
+    public boolean isCompleted() {
+        return this.completed;
+    }
+
+    /**
+     * Checks whether the queries of the operation have been cancelled.
+     *
+     * @return {@literal true} if the queries have been cancelled.
+     */
+    public boolean isCancelled() {
+        return this.cancelled;
+    }
+
+}
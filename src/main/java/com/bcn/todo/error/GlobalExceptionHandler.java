@@ -18,6 +18,7 @@ package com.bcn.todo.error;
 import java.util.List;
 import java.util.function.Function;
 
+import org.springframework.dao.QueryTimeoutException;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.HttpStatusCode;
@@ -25,6 +26,7 @@ import org.springframework.http.ProblemDetail;
 import org.springframework.http.ResponseEntity;
 import org.springframework.lang.NonNull;
 import org.springframework.validation.FieldError;
+import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
 import org.springframework.web.bind.support.WebExchangeBindException;
 import org.springframework.web.reactive.result.method.annotation.ResponseEntityExceptionHandler;
@@ -58,6 +60,52 @@ public class GlobalExceptionHandler extends ResponseEntityExceptionHandler {
         return handleExceptionInternal(ex, problemDetail, headers, status, exchange);
     }
 
+    /**
+     * Handles the continuation tokens that cannot be decoded.
+     *
+     * @param ex       the exception to handle.
+     * @param exchange the current exchange.
+     * @return a {@link Mono} emitting the bad request response with the problem details.
+     */
+    @ExceptionHandler(InvalidContinuationTokenException.class)
+    public Mono<ResponseEntity<Object>> handleInvalidContinuationTokenException(InvalidContinuationTokenException ex, ServerWebExchange exchange) {
+        var problemDetail = ProblemDetail.forStatusAndDetail(HttpStatus.BAD_REQUEST, ex.getLocalizedMessage());
+        problemDetail.setTitle("Bad Request");
+
+        return handleExceptionInternal(ex, problemDetail, new HttpHeaders(), HttpStatus.BAD_REQUEST, exchange);
+    }
+
+    /**
+     * Handles the modifications whose expected version does not match the current version of the entity.
+     *
+     * @param ex       the exception to handle.
+     * @param exchange the current exchange.
+     * @return a {@link Mono} emitting the precondition failed response with the problem details.
+     */
+    @ExceptionHandler(VersionMismatchException.class)
+    public Mono<ResponseEntity<Object>> handleVersionMismatchException(VersionMismatchException ex, ServerWebExchange exchange) {
+        var problemDetail = ProblemDetail.forStatusAndDetail(HttpStatus.PRECONDITION_FAILED, ex.getLocalizedMessage());
+        problemDetail.setTitle("Precondition Failed");
+
+        return handleExceptionInternal(ex, problemDetail, new HttpHeaders(), HttpStatus.PRECONDITION_FAILED, exchange);
+    }
+
+    /**
+     * Handles the operations that did not complete within their timeout or before the deadline of the request, and the queries aborted by the database for
+     * the same reason.
+     *
+     * @param ex       the exception to handle.
+     * @param exchange the current exchange.
+     * @return a {@link Mono} emitting the gateway timeout response with the problem details.
+     */
+    @ExceptionHandler({ OperationTimeoutException.class, QueryTimeoutException.class })
+    public Mono<ResponseEntity<Object>> handleTimeoutException(RuntimeException ex, ServerWebExchange exchange) {
+        var problemDetail = ProblemDetail.forStatusAndDetail(HttpStatus.GATEWAY_TIMEOUT, ex.getLocalizedMessage());
+        problemDetail.setTitle("Gateway Timeout");
+
+        return handleExceptionInternal(ex, problemDetail, new HttpHeaders(), HttpStatus.GATEWAY_TIMEOUT, exchange);
+    }
+
     /**
      * Maps the invalid parameter of request to a specific DTO.
      *
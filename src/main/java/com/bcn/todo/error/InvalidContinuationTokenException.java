@@ -0,0 +1,41 @@
+/**
+* Copyright 2023 the original author or authors.
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*     http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+*/
+package com.bcn.todo.error;
+
+import java.io.Serial;
+
+/**
+ * Thrown when a continuation token received from a client cannot be decoded.
+ *
+ * @author ttrigo
+ * @since 0.1.0
+ */
+public class InvalidContinuationTokenException extends RuntimeException {
+
+    @Serial
+    private static final long serialVersionUID = -2204883316284617046L;
+
+    /**
+     * Default constructor.
+     *
+     * @param message the detail message.
+     * @param cause   the cause of the decoding failure, may be {@literal null}.
+     */
+    public InvalidContinuationTokenException(String message, Throwable cause) {
+        super(message, cause);
+    }
+
+}
@@ -0,0 +1,84 @@
+/**
+* Copyright 2023 the original author or authors.
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*     http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+*/
+package com.bcn.todo.outbox;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * {@link TaskOutboxSink} that appends the events to a newline delimited JSON file, intended for local testing.
+ * <p>
+ * Every batch is written with a single write on a bounded elastic thread, so the publisher is not blocked by the file system.
+ *
+ * @author ttrigo
+ * @since 0.1.0
+ */
+public class FileTaskOutboxSink implements TaskOutboxSink {
+
+    private final Path file;
+
+    private final ObjectMapper objectMapper;
+
+    /**
+     * Default constructor.
+     *
+     * @param file         the file where the events are appended, created if it does not exist, must not be {@literal null}.
+     * @param objectMapper the mapper that writes the events as JSON, must not be {@literal null}.
+     */
+    public FileTaskOutboxSink(Path file, ObjectMapper objectMapper) {
+        this.file = file;
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    public Mono<Void> publish(List<TaskOutboxEvent> events) {
+        return Mono.<Void> fromRunnable(() -> append(toLines(events)))
+                   .subscribeOn(Schedulers.boundedElastic());
+    }
+
+    private String toLines(List<TaskOutboxEvent> events) {
+        var lines = new StringBuilder();
+        for (var event : events) {
+            try {
+                lines.append(this.objectMapper.writeValueAsString(event))
+                     .append('\n');
+            } catch (JsonProcessingException e) {
+                throw new IllegalStateException("The outbox event " + event.id() + " cannot be written as JSON", e);
+            }
+        }
+        return lines.toString();
+    }
+
+    private synchronized void append(String lines) {
+        try {
+            Files.writeString(this.file, lines, StandardCharsets.UTF_8, StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+        } catch (IOException e) {
+            throw new UncheckedIOException("The outbox events cannot be appended to " + this.file, e);
+        }
+    }
+
+}
@@ -0,0 +1,72 @@
+/**
+* Copyright 2023 the original author or authors.
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*     http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+*/
+package com.bcn.todo.outbox;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+
+import reactor.core.publisher.Mono;
+
+/**
+ * {@link TaskOutboxSink} that keeps the last published events in memory, intended for local testing.
+ *
+ * @author ttrigo
+ * @since 0.1.0
+ */
+public class InMemoryTaskOutboxSink implements TaskOutboxSink {
+
+    private final int capacity;
+
+    private final Deque<TaskOutboxEvent> events;
+
+    /**
+     * Default constructor.
+     *
+     * @param capacity the maximum number of events kept, the oldest ones are discarded first.
+     */
+    public InMemoryTaskOutboxSink(int capacity) {
+        this.capacity = capacity;
+        this.events = new ArrayDeque<>(capacity);
+    }
+
+    @Override
+    public Mono<Void> publish(List<TaskOutboxEvent> events) {
+        return Mono.fromRunnable(() -> {
+            synchronized (this.events) {
+                for (var event : events) {
+                    if (this.events.size() == this.capacity) {
+                        this.events.removeFirst();
+                    }
+                    this.events.addLast(event);
+                }
+            }
+        });
+    }
+
+    /**
+     * Get the events published, from the oldest to the latest.
+     *
+     * @return a copy of the events kept.
+     */
+    public List<TaskOutboxEvent> getEvents() {
+        synchronized (this.events) {
+            return new ArrayList<>(this.events);
+        }
+    }
+
+}
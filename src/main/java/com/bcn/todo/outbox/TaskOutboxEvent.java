@@ -0,0 +1,37 @@
+/**
+* Copyright 2023 the original author or authors.
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*     http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+*/
+package com.bcn.todo.outbox;
+
+import java.time.Instant;
+import java.util.UUID;
+
+import org.springframework.lang.NonNull;
+import org.springframework.lang.Nullable;
+
+import com.bcn.todo.task.TaskChangeOperation;
+import com.fasterxml.jackson.annotation.JsonRawValue;
+
+/**
+ * Represents a change of a task recorded in the outbox.
+ * <p>
+ * The payload is the JSON row of the task after the change, it is written as is when the event is serialized.
+ *
+ * @author ttrigo
+ * @since 0.1.0
+ */
+public record TaskOutboxEvent(long id, @NonNull UUID taskId, @NonNull TaskChangeOperation operation, @JsonRawValue @Nullable String payload, @NonNull Instant createdAt) {
+
+}
@@ -0,0 +1,188 @@
+/**
+* Copyright 2023 the original author or authors.
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*     http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+*/
+package com.bcn.todo.outbox;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.transaction.reactive.TransactionalOperator;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.TimeGauge;
+import io.micrometer.core.instrument.Timer;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Publishes the events of the outbox to a {@link TaskOutboxSink} in batches.
+ * <p>
+ * Every poll interval the outbox is drained: batches are published one after another until a batch is not full. Each batch is locked, published and deleted
+ * in a single transaction, skipping the events locked by other transactions, so any number of instances can publish concurrently without publishing the same
+ * events. Events are published in order within a batch, but concurrent instances may publish consecutive batches in any order.
+ * <p>
+ * The following meters are published:
+ * <ul>
+ * <li>{@value #PUBLISHED_COUNTER}: the number of events published</li>
+ * <li>{@value #BATCH_TIMER}: the time spent publishing a batch, including its transaction</li>
+ * <li>{@value #LAG_GAUGE}: the age of the oldest event not published yet, updated after each drain</li>
+ * </ul>
+ *
+ * @author ttrigo
+ * @since 0.1.0
+ */
+public class TaskOutboxPublisher {
+
+    private static final Logger logger = LoggerFactory.getLogger(TaskOutboxPublisher.class);
+
+    /**
+     * The name of the counter of published events.
+     */
+    public static final String PUBLISHED_COUNTER = "task.outbox.published";
+
+    /**
+     * The name of the timer of published batches.
+     */
+    public static final String BATCH_TIMER = "task.outbox.batch";
+
+    /**
+     * The name of the gauge of the age of the oldest event.
+     */
+    public static final String LAG_GAUGE = "task.outbox.lag";
+
+    private final TaskOutboxRepository taskOutboxRepository;
+
+    private final TaskOutboxSink taskOutboxSink;
+
+    private final TransactionalOperator transactionalOperator;
+
+    private final int batchSize;
+
+    private final Duration pollInterval;
+
+    private final Counter publishedCounter;
+
+    private final Timer batchTimer;
+
+    private final AtomicLong lagMillis = new AtomicLong();
+
+    private Disposable subscription;
+
+    /**
+     * Default constructor.
+     *
+     * @param taskOutboxRepository  the repository of the outbox, must not be {@literal null}.
+     * @param taskOutboxSink        the sink where the events are published, must not be {@literal null}.
+     * @param transactionalOperator the operator that runs each batch in a transaction, must not be {@literal null}.
+     * @param meterRegistry         the registry where the meters are published, must not be {@literal null}.
+     * @param batchSize             the maximum number of events published at once.
+     * @param pollInterval          the interval between drains of the outbox, must not be {@literal null}.
+     */
+    public TaskOutboxPublisher(TaskOutboxRepository taskOutboxRepository, TaskOutboxSink taskOutboxSink, TransactionalOperator transactionalOperator,
+            MeterRegistry meterRegistry, int batchSize, Duration pollInterval) {
+        this.taskOutboxRepository = taskOutboxRepository;
+        this.taskOutboxSink = taskOutboxSink;
+        this.transactionalOperator = transactionalOperator;
+        this.batchSize = batchSize;
+        this.pollInterval = pollInterval;
+        this.publishedCounter = Counter.builder(PUBLISHED_COUNTER)
+                                       .description("Number of task outbox events published")
+                                       .register(meterRegistry);
+        this.batchTimer = Timer.builder(BATCH_TIMER)
+                               .description("Time spent publishing a batch of task outbox events")
+                               .publishPercentileHistogram()
+                               .register(meterRegistry);
+        TimeGauge.builder(LAG_GAUGE, this.lagMillis, TimeUnit.MILLISECONDS, AtomicLong::get)
+                 .description("Age of the oldest task outbox event not published yet")
+                 .register(meterRegistry);
+    }
+
+    /**
+     * Starts draining the outbox every poll interval.
+     */
+    public void start() {
+        this.subscription = Flux.interval(this.pollInterval)
+                                .onBackpressureDrop()
+                                .concatMap(tick -> drain(), 1)
+                                .subscribe();
+    }
+
+    /**
+     * Stops draining the outbox, the batch in progress is rolled back and published again later.
+     */
+    public void stop() {
+        if (this.subscription != null) {
+            this.subscription.dispose();
+        }
+    }
+
+    /**
+     * Publishes batches until the outbox has no more events to publish, then updates the lag.
+     * <p>
+     * Failures are only logged, the events are published again on the next drain.
+     *
+     * @return {@link Mono} emitting the number of events published.
+     */
+    Mono<Long> drain() {
+        return publishBatch().expand(published -> published < this.batchSize ? Mono.empty() : publishBatch())
+                             .reduce(0L, Long::sum)
+                             .flatMap(published -> this.taskOutboxRepository.findLag()
+                                                                           .doOnNext(lag -> this.lagMillis.set(lag.toMillis()))
+                                                                           .thenReturn(published))
+                             .onErrorResume(error -> {
+                                 logger.warn("Publishing the task outbox failed, retrying in {}", this.pollInterval, error);
+                                 return Mono.empty();
+                             });
+    }
+
+    /**
+     * Locks, publishes and deletes the next batch of events in a single transaction.
+     *
+     * @return {@link Mono} emitting the number of events published.
+     */
+    private Mono<Long> publishBatch() {
+        return Mono.defer(() -> {
+            var sample = Timer.start();
+            return this.taskOutboxRepository.lockNextBatch(this.batchSize)
+                                            .collectList()
+                                            .flatMap(this::publish)
+                                            .as(this.transactionalOperator::transactional)
+                                            .doOnNext(published -> {
+                                                if (published > 0L) {
+                                                    sample.stop(this.batchTimer);
+                                                    this.publishedCounter.increment(published);
+                                                }
+                                            });
+        });
+    }
+
+    private Mono<Long> publish(List<TaskOutboxEvent> events) {
+        if (events.isEmpty()) {
+            return Mono.just(0L);
+        }
+        return this.taskOutboxSink.publish(events)
+                                  .then(Mono.defer(() -> this.taskOutboxRepository.deleteByIds(events.stream()
+                                                                                                     .map(TaskOutboxEvent::id)
+                                                                                                     .toList())))
+                                  .thenReturn((long) events.size());
+    }
+
+}
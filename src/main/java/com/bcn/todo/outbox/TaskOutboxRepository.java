@@ -0,0 +1,72 @@
+/**
+* Copyright 2023 the original author or authors.
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*     http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+*/
+package com.bcn.todo.outbox;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.UUID;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import com.bcn.todo.task.TaskChangeOperation;
+
+/**
+ * Repository of the outbox where the changes of the tasks are recorded until they are published.
+ *
+ * @author ttrigo
+ * @since 0.1.0
+ */
+public interface TaskOutboxRepository {
+
+    /**
+     * Records a change of each given task with a single statement.
+     * <p>
+     * Must be called in the transaction that changes the tasks, so that the changes are recorded if and only if the transaction commits. The payload of created
+     * and updated tasks is their row as written by the transaction.
+     *
+     * @param operation the operation that changed the tasks, must not be {@literal null}.
+     * @param taskIds   the ids of the changed tasks, must not be {@literal null}.
+     * @return {@link Mono} emitting the amount of events recorded.
+     */
+    Mono<Long> append(TaskChangeOperation operation, Collection<UUID> taskIds);
+
+    /**
+     * Finds and locks the oldest events not locked by another transaction.
+     * <p>
+     * Must be called in a transaction, the events stay locked until it ends, so that concurrent publishers never get the same events.
+     *
+     * @param limit the maximum number of events.
+     * @return {@link Flux} emitting the events in the order they have been recorded.
+     */
+    Flux<TaskOutboxEvent> lockNextBatch(int limit);
+
+    /**
+     * Deletes the events with the given ids.
+     *
+     * @param ids the ids of the events to delete, must not be {@literal null}.
+     * @return {@link Mono} emitting the amount of events deleted.
+     */
+    Mono<Long> deleteByIds(Collection<Long> ids);
+
+    /**
+     * Get the age of the oldest event.
+     *
+     * @return {@link Mono} emitting the time elapsed since the oldest event has been recorded, zero if there are no events.
+     */
+    Mono<Duration> findLag();
+
+}
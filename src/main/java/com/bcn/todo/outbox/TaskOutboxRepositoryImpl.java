@@ -0,0 +1,111 @@
+/**
+* Copyright 2023 the original author or authors.
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*     http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+*/
+package com.bcn.todo.outbox;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.UUID;
+
+import org.springframework.r2dbc.core.DatabaseClient;
+
+import io.r2dbc.spi.Readable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import com.bcn.todo.task.TaskChangeOperation;
+
+/**
+ * Default implementation of {@link TaskOutboxRepository} based on {@link DatabaseClient}.
+ *
+ * @author ttrigo
+ * @since 0.1.0
+ */
+public class TaskOutboxRepositoryImpl implements TaskOutboxRepository {
+
+    private static final String APPEND_WRITTEN_TASKS_QUERY = """
+            INSERT INTO task_outbox (task_id, operation, payload)
+            SELECT task_id, :operation, to_jsonb(task) - 'search_vector'
+            FROM task
+            WHERE task_id = ANY(:ids)""";
+
+    private static final String APPEND_DELETED_TASKS_QUERY = """
+            INSERT INTO task_outbox (task_id, operation)
+            SELECT id, :operation
+            FROM unnest(:ids) AS id""";
+
+    private static final String LOCK_NEXT_BATCH_QUERY = """
+            SELECT * FROM task_outbox
+            ORDER BY outbox_id
+            LIMIT :limit
+            FOR UPDATE SKIP LOCKED""";
+
+    private static final String DELETE_BY_IDS_QUERY = "DELETE FROM task_outbox WHERE outbox_id = ANY(:ids)";
+
+    private static final String FIND_LAG_QUERY = """
+            SELECT CAST(COALESCE(EXTRACT(EPOCH FROM clock_timestamp() - MIN(created_at)) * 1000, 0) AS bigint) AS lag
+            FROM task_outbox""";
+
+    private final DatabaseClient databaseClient;
+
+    /**
+     * Default constructor.
+     *
+     * @param databaseClient the client to run the statements, must not be {@literal null}.
+     */
+    public TaskOutboxRepositoryImpl(DatabaseClient databaseClient) {
+        this.databaseClient = databaseClient;
+    }
+
+    @Override
+    public Mono<Long> append(TaskChangeOperation operation, Collection<UUID> taskIds) {
+        var query = operation == TaskChangeOperation.DELETED ? APPEND_DELETED_TASKS_QUERY : APPEND_WRITTEN_TASKS_QUERY;
+        return this.databaseClient.sql(query)
+                                  .bind("operation", operation.name())
+                                  .bind("ids", taskIds.toArray(UUID[]::new))
+                                  .fetch()
+                                  .rowsUpdated();
+    }
+
+    @Override
+    public Flux<TaskOutboxEvent> lockNextBatch(int limit) {
+        return this.databaseClient.sql(LOCK_NEXT_BATCH_QUERY)
+                                  .bind("limit", limit)
+                                  .map(this::toEvent)
+                                  .all();
+    }
+
+    @Override
+    public Mono<Long> deleteByIds(Collection<Long> ids) {
+        return this.databaseClient.sql(DELETE_BY_IDS_QUERY)
+                                  .bind("ids", ids.toArray(Long[]::new))
+                                  .fetch()
+                                  .rowsUpdated();
+    }
+
+    @Override
+    public Mono<Duration> findLag() {
+        return this.databaseClient.sql(FIND_LAG_QUERY)
+                                  .map(row -> Duration.ofMillis(row.get("lag", Long.class)))
+                                  .one();
+    }
+
+    private TaskOutboxEvent toEvent(Readable row) {
+        return new TaskOutboxEvent(row.get("outbox_id", Long.class), row.get("task_id", UUID.class), TaskChangeOperation.valueOf(row.get("operation",
+                String.class)), row.get("payload", String.class), row.get("created_at", Instant.class));
+    }
+
+}
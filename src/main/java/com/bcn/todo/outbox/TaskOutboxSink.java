@@ -0,0 +1,41 @@
+/**
+* Copyright 2023 the original author or authors.
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*     http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+*/
+package com.bcn.todo.outbox;
+
+import java.util.List;
+
+import reactor.core.publisher.Mono;
+
+/**
+ * Destination where the events of the outbox are published.
+ * <p>
+ * Events are published at least once: a batch is deleted from the outbox only after the sink completes, so a batch whose transaction fails after being
+ * published is published again. Consumers must therefore tolerate duplicated events, for instance by ignoring the versions of a task they have already seen.
+ *
+ * @author ttrigo
+ * @since 0.1.0
+ */
+public interface TaskOutboxSink {
+
+    /**
+     * Publishes a batch of events.
+     *
+     * @param events the events to publish, in the order they have been recorded, must not be {@literal null}.
+     * @return {@link Mono} completing when the events have been published, or emitting an error if they could not be published.
+     */
+    Mono<Void> publish(List<TaskOutboxEvent> events);
+
+}
@@ -0,0 +1,83 @@
+/**
+* Copyright 2023 the original author or authors.
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*     http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+*/
+package com.bcn.todo.routing;
+
+import reactor.util.context.Context;
+import reactor.util.context.ContextView;
+
+/**
+ * Marks reactive pipelines with the database their queries should be routed to.
+ * <p>
+ * The marks are stored in the Reactor context, so they apply to the queries issued upstream of the operator that writes them. Queries are routed to the
+ * primary database unless they are marked as read-only, and read-only queries are routed to the primary database as well when the primary is required, e.g. to
+ * read the writes just done by the same client.
+ *
+ * @author ttrigo
+ * @since 0.1.0
+ */
+public final class DatabaseRouting {
+
+    private static final String READ_ONLY_KEY = DatabaseRouting.class.getName() + ".READ_ONLY";
+
+    private static final String PRIMARY_REQUIRED_KEY = DatabaseRouting.class.getName() + ".PRIMARY_REQUIRED";
+
+    private DatabaseRouting() {}
+
+    /**
+     * Marks the queries of a pipeline as read-only, so that they can be routed to a read replica.
+     * <p>
+     * To be used with {@code contextWrite(DatabaseRouting::readOnly)}.
+     *
+     * @param context the context of the pipeline.
+     * @return the given context marked as read-only.
+     */
+    public static Context readOnly(Context context) {
+        return context.put(READ_ONLY_KEY, Boolean.TRUE);
+    }
+
+    /**
+     * Marks the queries of a pipeline as requiring the primary database, even when they are read-only.
+     * <p>
+     * To be used with {@code contextWrite(DatabaseRouting::primaryRequired)}.
+     *
+     * @param context the context of the pipeline.
+     * @return the given context marked as requiring the primary database.
+     */
+    public static Context primaryRequired(Context context) {
+        return context.put(PRIMARY_REQUIRED_KEY, Boolean.TRUE);
+    }
+
+    /**
+     * Checks whether the queries of a pipeline require the primary database, e.g. to read the writes just done by the same client.
+     *
+     * @param context the context of the pipeline.
+     * @return {@literal true} if the pipeline is marked as requiring the primary database.
+     */
+    public static boolean isPrimaryRequired(ContextView context) {
+        return context.getOrDefault(PRIMARY_REQUIRED_KEY, Boolean.FALSE);
+    }
+
+    /**
+     * Checks whether the queries of a pipeline can be routed to a read replica.
+     *
+     * @param context the context of the pipeline.
+     * @return {@literal true} if the queries are read-only and the primary database is not required.
+     */
+    public static boolean canUseReplica(ContextView context) {
+        return context.getOrDefault(READ_ONLY_KEY, Boolean.FALSE) && !context.getOrDefault(PRIMARY_REQUIRED_KEY, Boolean.FALSE);
+    }
+
+}
@@ -0,0 +1,147 @@
+/**
+* Copyright 2023 the original author or authors.
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*     http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+*/
+package com.bcn.todo.routing;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import org.reactivestreams.Publisher;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import io.r2dbc.spi.Connection;
+import io.r2dbc.spi.ConnectionFactory;
+import io.r2dbc.spi.ConnectionFactoryMetadata;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+
+/**
+ * {@link ConnectionFactory} that routes the read-only queries to a set of read replicas and the rest of queries to the primary database.
+ * <p>
+ * The route of each query is decided by the marks of {@link DatabaseRouting} found in the Reactor context. Replicas are used in turns. When a connection cannot
+ * be acquired from a replica, the replica is considered unhealthy and skipped for the given retry delay, and the query falls back to the primary database.
+ *
+ * @author ttrigo
+ * @since 0.1.0
+ */
+public class ReadReplicaRoutingConnectionFactory implements ConnectionFactory, Disposable {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReadReplicaRoutingConnectionFactory.class);
+
+    private final ConnectionFactory primary;
+
+    private final List<? extends ConnectionFactory> replicas;
+
+    private final Duration retryAfter;
+
+    private final AtomicInteger nextReplica = new AtomicInteger();
+
+    private final AtomicLongArray replicasUnhealthyUntil;
+
+    private volatile boolean disposed;
+
+    /**
+     * Default constructor.
+     *
+     * @param primary    the connection factory of the primary database, must not be {@literal null}.
+     * @param replicas   the connection factories of the read replicas, must not be {@literal null}.
+     * @param retryAfter the time an unhealthy replica is skipped before being tried again, must not be {@literal null}.
+     */
+    public ReadReplicaRoutingConnectionFactory(ConnectionFactory primary, List<? extends ConnectionFactory> replicas, Duration retryAfter) {
+        this.primary = primary;
+        this.replicas = List.copyOf(replicas);
+        this.retryAfter = retryAfter;
+        this.replicasUnhealthyUntil = new AtomicLongArray(replicas.size());
+        var now = System.nanoTime();
+        for (var replica = 0; replica < replicas.size(); replica++) {
+            this.replicasUnhealthyUntil.set(replica, now);
+        }
+    }
+
+    @Override
+    public Publisher<? extends Connection> create() {
+        return Mono.deferContextual(context -> {
+            if (!DatabaseRouting.canUseReplica(context)) {
+                return createPrimary();
+            }
+
+            var replica = nextHealthyReplica();
+            if (replica < 0) {
+                return createPrimary();
+            }
+
+            return Mono.<Connection> from(this.replicas.get(replica)
+                                                       .create())
+                       .onErrorResume(error -> {
+                           logger.warn("Read replica {} is unhealthy, falling back to the primary database for {}", replica, this.retryAfter, error);
+                           this.replicasUnhealthyUntil.set(replica, System.nanoTime() + this.retryAfter.toNanos());
+                           return createPrimary();
+                       });
+        });
+    }
+
+    @Override
+    public ConnectionFactoryMetadata getMetadata() {
+        return this.primary.getMetadata();
+    }
+
+    /**
+     * Gets the connection factories of the read replicas.
+     *
+     * @return the connection factories of the read replicas.
+     */
+    public List<? extends ConnectionFactory> getReplicas() {
+        return this.replicas;
+    }
+
+    @Override
+    public void dispose() {
+        this.disposed = true;
+        this.replicas.stream()
+                     .filter(Disposable.class::isInstance)
+                     .map(Disposable.class::cast)
+                     .forEach(Disposable::dispose);
+    }
+
+    @Override
+    public boolean isDisposed() {
+        return this.disposed;
+    }
+
+    private Mono<Connection> createPrimary() {
+        return Mono.from(this.primary.create());
+    }
+
+    /**
+     * Selects the next healthy replica, in turns.
+     *
+     * @return the index of the selected replica, or -1 if all replicas are unhealthy.
+     */
+    private int nextHealthyReplica() {
+        var replicaCount = this.replicas.size();
+        var now = System.nanoTime();
+        for (var attempt = 0; attempt < replicaCount; attempt++) {
+            var replica = Math.floorMod(this.nextReplica.getAndIncrement(), replicaCount);
+            if (this.replicasUnhealthyUntil.get(replica) - now <= 0L) {
+                return replica;
+            }
+        }
+        return -1;
+    }
+
+}
@@ -0,0 +1,116 @@
+/**
+* Copyright 2023 the original author or authors.
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*     http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+*/
+package com.bcn.todo.routing;
+
+import java.time.Clock;
+import java.time.Duration;
+
+import org.springframework.http.HttpMethod;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.lang.NonNull;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+
+import reactor.core.publisher.Mono;
+
+/**
+ * {@link WebFilter} that lets each client read its own writes when reads are routed to read replicas.
+ * <p>
+ * Successful writes, i.e. the requests with an unsafe method other than the {@value #BATCH_GET_METHOD} reads, are answered with the
+ * {@value #READ_PRIMARY_UNTIL_HEADER} header, holding the epoch millis until which the replicas may not have caught up yet. Requests that send this header
+ * back before that time have their queries routed to the primary database. Values further away than the window are ignored, so that a client cannot pin its
+ * reads to the primary database.
+ *
+ * @author ttrigo
+ * @since 0.1.0
+ */
+public class ReadYourWritesWebFilter implements WebFilter {
+
+    /**
+     * The header holding the epoch millis until which the reads of a client are routed to the primary database.
+     */
+    public static final String READ_PRIMARY_UNTIL_HEADER = "X-Read-Primary-Until";
+
+    /**
+     * The suffix of the paths of the reads sent with POST because of the size of their parameters.
+     */
+    private static final String BATCH_GET_METHOD = ":batchGet";
+
+    private final Duration window;
+
+    private final Clock clock;
+
+    /**
+     * Default constructor.
+     *
+     * @param window the time after a write during which the reads of the same client are routed to the primary database, must not be {@literal null}.
+     * @param clock  the clock used to compute the read your writes window, must not be {@literal null}.
+     */
+    public ReadYourWritesWebFilter(Duration window, Clock clock) {
+        this.window = window;
+        this.clock = clock;
+    }
+
+    @NonNull
+    @Override
+    public Mono<Void> filter(@NonNull ServerWebExchange exchange, @NonNull WebFilterChain chain) {
+        var response = exchange.getResponse();
+        if (isWrite(exchange.getRequest())) {
+            response.beforeCommit(() -> {
+                var status = response.getStatusCode();
+                if (status != null && status.is2xxSuccessful()) {
+                    response.getHeaders()
+                            .set(READ_PRIMARY_UNTIL_HEADER, String.valueOf(this.clock.millis() + this.window.toMillis()));
+                }
+                return Mono.empty();
+            });
+            return chain.filter(exchange);
+        }
+
+        if (isWithinWindow(exchange.getRequest()
+                                   .getHeaders()
+                                   .getFirst(READ_PRIMARY_UNTIL_HEADER))) {
+            return chain.filter(exchange)
+                        .contextWrite(DatabaseRouting::primaryRequired);
+        }
+        return chain.filter(exchange);
+    }
+
+    private static boolean isWrite(ServerHttpRequest request) {
+        var method = request.getMethod();
+        if (HttpMethod.POST.equals(method)) {
+            return !request.getPath()
+                           .value()
+                           .endsWith(BATCH_GET_METHOD);
+        }
+        return HttpMethod.PUT.equals(method) || HttpMethod.PATCH.equals(method) || HttpMethod.DELETE.equals(method);
+    }
+
+    private boolean isWithinWindow(String readPrimaryUntil) {
+        if (readPrimaryUntil == null) {
+            return false;
+        }
+        try {
+            var now = this.clock.millis();
+            var until = Long.parseLong(readPrimaryUntil);
+            return until > now && until <= now + this.window.toMillis();
+        } catch (NumberFormatException e) {
+            return false;
+        }
+    }
+
+}
@@ -0,0 +1,297 @@
+/**
+* Copyright 2023 the original author or authors.
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*     http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+*/
+package com.bcn.todo.task;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineStatsCounter;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.util.context.ContextView;
+
+import com.bcn.todo.deadline.Deadlines;
+import com.bcn.todo.error.OperationTimeoutException;
+import com.bcn.todo.routing.DatabaseRouting;
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+
+/**
+ * Decorator of {@link TaskService} that caches the tasks found by id in memory.
+ * <p>
+ * The cache is bounded by size and entries expire after a time to live. Ids not found are cached as well, with their own time to live, so that repeated
+ * requests for missing tasks do not reach the database. Concurrent requests for the same missing id share a single database query. Tasks found by many ids at once
+ * are served from the cache when cached, and only the ids missing from the cache are found with a single database query.
+ * <p>
+ * Entries are invalidated when the task they belong to starts being updated or deleted through this service, and again once the write is done. Changes made by other instances of the service are only
+ * visible once the entries expire. Reads that require the primary database, to see the writes just done by the same client, bypass the cache, since the
+ * cached tasks may have been loaded from a read replica lagging behind those writes. Cache misses are loaded with the context of the request that finds them,
+ * and every request stops waiting for a load once its deadline has passed.
+ *
+ * @author ttrigo
+ * @since 0.1.0
+ */
+public class CachingTaskService implements TaskService {
+
+    /**
+     * The name of the cache, used to tag its metrics.
+     */
+    public static final String CACHE_NAME = "tasks";
+
+    private final TaskService taskService;
+
+    private final AsyncCache<UUID, Optional<TaskDTO>> cache;
+
+    /**
+     * Default constructor.
+     *
+     * @param taskService        the service to decorate, must not be {@literal null}.
+     * @param meterRegistry      the registry where the cache metrics are published, must not be {@literal null}.
+     * @param maximumSize        the maximum number of cached entries.
+     * @param timeToLive         the time a found task is kept in the cache, must not be {@literal null}.
+     * @param notFoundTimeToLive the time a not found id is kept in the cache, must not be {@literal null}.
+     */
+    public CachingTaskService(TaskService taskService, MeterRegistry meterRegistry, long maximumSize, Duration timeToLive, Duration notFoundTimeToLive) {
+        this.taskService = taskService;
+
+        var statsCounter = new CaffeineStatsCounter(meterRegistry, CACHE_NAME);
+        this.cache = Caffeine.newBuilder()
+                             .maximumSize(maximumSize)
+                             .expireAfter(new TaskExpiry(timeToLive, notFoundTimeToLive))
+                             .recordStats(() -> statsCounter)
+                             .buildAsync();
+        statsCounter.registerSizeMetric(this.cache.synchronous());
+    }
+
+    @Override
+    public Mono<TaskDTO> findById(UUID id) {
+        return Mono.deferContextual(context -> {
+            if (DatabaseRouting.isPrimaryRequired(context)) {
+                return this.taskService.findById(id);
+            }
+            var cachedTask = Mono.fromFuture(() -> this.cache.get(id, (taskId, executor) -> load(taskId, context)), true);
+            return withinDeadline("findById", context, cachedTask).flatMap(Mono::justOrEmpty);
+        });
+    }
+
+    @Override
+    public Flux<TaskBatchResultDTO> findAllById(List<UUID> ids) {
+        return Flux.deferContextual(context -> {
+            if (DatabaseRouting.isPrimaryRequired(context)) {
+                return this.taskService.findAllById(ids);
+            }
+            var cachedTasks = Mono.fromFuture(() -> this.cache.getAll(ids, (missingIds, executor) -> loadAll(missingIds, context)), true);
+            return withinDeadline("findAllById", context, cachedTasks).flatMapIterable(tasksById -> toFoundResults(ids, tasksById));
+        });
+    }
+
+    @Override
+    public Flux<TaskDTO> findAll() {
+        return this.taskService.findAll();
+    }
+
+    @Override
+    public Flux<TaskDTO> streamAll() {
+        return this.taskService.streamAll();
+    }
+
+    @Override
+    public Mono<TaskPageDTO> findPage(String continuationToken, int size) {
+        return this.taskService.findPage(continuationToken, size);
+    }
+
+    @Override
+    public Flux<TaskDTO> search(TaskSearchCriteria criteria) {
+        return this.taskService.search(criteria);
+    }
+
+    @Override
+    public Mono<TaskPageDTO> searchText(String query, String continuationToken, int size) {
+        return this.taskService.searchText(query, continuationToken, size);
+    }
+
+    @Override
+    public Flux<TaskDTO> streamSearchText(String query) {
+        return this.taskService.streamSearchText(query);
+    }
+
+    @Override
+    public Mono<TaskStatsDTO> findStats(TaskStatsGranularity granularity) {
+        return this.taskService.findStats(granularity);
+    }
+
+    @Override
+    public Mono<TaskDTO> create(TaskDTO taskDTO) {
+        return this.taskService.create(taskDTO);
+    }
+
+    @Override
+    public Mono<TaskDTO> update(UUID id, TaskDTO taskDTO) {
+        return invalidateAround(id, this.taskService.update(id, taskDTO));
+    }
+
+    @Override
+    public Mono<TaskDTO> upsert(UUID id, TaskDTO taskDTO) {
+        return invalidateAround(id, this.taskService.upsert(id, taskDTO));
+    }
+
+    @Override
+    public Mono<Boolean> deleteById(UUID id, Long expectedVersion) {
+        return invalidateAround(id, this.taskService.deleteById(id, expectedVersion));
+    }
+
+    @Override
+    public Flux<TaskBatchResultDTO> createAll(Flux<TaskDTO> taskDTOs) {
+        return this.taskService.createAll(taskDTOs);
+    }
+
+    @Override
+    public Flux<TaskBatchResultDTO> updateAll(Flux<TaskDTO> taskDTOs) {
+        return this.taskService.updateAll(taskDTOs.doOnNext(taskDTO -> invalidate(taskDTO.getId())))
+                               .doOnNext(result -> invalidate(result.getId()));
+    }
+
+    @Override
+    public Flux<TaskBatchResultDTO> deleteAllById(Flux<UUID> ids) {
+        return this.taskService.deleteAllById(ids.doOnNext(this::invalidate))
+                               .doOnNext(result -> invalidate(result.getId()));
+    }
+
+    /**
+     * Invalidates the cached task with the given id when the given write starts and once it terminates.
+     * <p>
+     * The entry is invalidated when the write starts, so that the reads running along with the write do not get the old task from the cache, and once the
+     * write terminates, so that the old task loaded by those reads is not kept. The last invalidation happens before the termination is propagated, so that
+     * subsequent reads of the same subscriber never see the old task.
+     *
+     * @param id    the id of the task being written.
+     * @param write the write of the task.
+     * @param <T>   the type of the write result.
+     * @return the given write invalidating the cached task on subscription, termination and cancellation.
+     */
+    private <T> Mono<T> invalidateAround(UUID id, Mono<T> write) {
+        return write.doOnSubscribe(subscription -> invalidate(id))
+                    .doOnTerminate(() -> invalidate(id))
+                    .doOnCancel(() -> invalidate(id));
+    }
+
+    /**
+     * Loads the task with the given id into the cache, with the context of the request that missed it.
+     *
+     * @param id      the id of the task.
+     * @param context the context of the request.
+     * @return the future task, empty if the id does not exist.
+     */
+    private CompletableFuture<Optional<TaskDTO>> load(UUID id, ContextView context) {
+        return this.taskService.findById(id)
+                               .map(Optional::of)
+                               .defaultIfEmpty(Optional.empty())
+                               .contextWrite(context)
+                               .toFuture();
+    }
+
+    /**
+     * Loads the tasks with the given ids into the cache, with the context of the request that missed them.
+     *
+     * @param ids     the ids of the tasks.
+     * @param context the context of the request.
+     * @return the future task of each id, empty if the id does not exist.
+     */
+    private CompletableFuture<Map<UUID, Optional<TaskDTO>>> loadAll(Set<? extends UUID> ids, ContextView context) {
+        return this.taskService.findAllById(List.copyOf(ids))
+                               .collectMap(TaskBatchResultDTO::getId, result -> Optional.ofNullable(result.getTask()))
+                               .contextWrite(context)
+                               .toFuture();
+    }
+
+    /**
+     * Bounds the wait of a request for a cached load by the deadline of the request.
+     * <p>
+     * The load runs with the context of the request that started it, so it is bounded by the deadline of that request, while the other requests waiting for
+     * the same load may have earlier deadlines. The load is not cancelled when a request stops waiting, since other requests may still be waiting for it.
+     *
+     * @param method  the name of the operation.
+     * @param context the context of the request.
+     * @param result  the cached load.
+     * @param <T>     the type of the load result.
+     * @return the given load bounded by the deadline of the request, if any.
+     */
+    private static <T> Mono<T> withinDeadline(String method, ContextView context, Mono<T> result) {
+        return Deadlines.remaining(context)
+                        .map(remaining -> result.timeout(remaining.isNegative() ? Duration.ZERO : remaining, Mono.defer(() -> Mono.<T> error(
+                                new OperationTimeoutException("The operation " + method + " did not complete in time")))))
+                        .orElse(result);
+    }
+
+    /**
+     * Builds the result of each given id from the cached tasks.
+     *
+     * @param ids       the ids of the tasks to find.
+     * @param tasksById the cached task of each id, empty if the id does not exist.
+     * @return the result of each given id, in the same order.
+     */
+    private static List<TaskBatchResultDTO> toFoundResults(List<UUID> ids, Map<UUID, Optional<TaskDTO>> tasksById) {
+        var results = new ArrayList<TaskBatchResultDTO>(ids.size());
+        for (var index = 0; index < ids.size(); index++) {
+            var foundTask = tasksById.getOrDefault(ids.get(index), Optional.empty());
+            results.add(TaskBatchResultDTO.builder()
+                                          .index(index)
+                                          .id(ids.get(index))
+                                          .status(foundTask.isPresent() ? TaskBatchResultStatus.FOUND : TaskBatchResultStatus.NOT_FOUND)
+                                          .task(foundTask.orElse(null))
+                                          .build());
+        }
+        return results;
+    }
+
+    private void invalidate(UUID id) {
+        if (id != null) {
+            this.cache.synchronous()
+                      .invalidate(id);
+        }
+    }
+
+    /**
+     * Expires found tasks and not found ids after their respective time to live.
+     */
+    private record TaskExpiry(Duration timeToLive, Duration notFoundTimeToLive) implements Expiry<UUID, Optional<TaskDTO>> {
+
+        @Override
+        public long expireAfterCreate(UUID id, Optional<TaskDTO> task, long currentTime) {
+            return task.isPresent() ? this.timeToLive.toNanos() : this.notFoundTimeToLive.toNanos();
+        }
+
+        @Override
+        public long expireAfterUpdate(UUID id, Optional<TaskDTO> task, long currentTime, long currentDuration) {
+            return expireAfterCreate(id, task, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(UUID id, Optional<TaskDTO> task, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+
+    }
+
+}
@@ -0,0 +1,414 @@
+/**
+* Copyright 2023 the original author or authors.
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*     http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+*/
+package com.bcn.todo.task;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.core.scheduler.Scheduler;
+
+/**
+ * Decorator of {@link TaskService} that coalesces the updates of the same task in a write-behind buffer.
+ * <p>
+ * Updates without expected version are not written right away: they are kept in a buffer for the given window, where a later update of the same task
+ * replaces the earlier one, and the whole buffer is then written with {@link TaskService#updateAll(Flux)}, i.e. with a single statement per chunk. Every
+ * caller is acknowledged once the buffer has been written, with the task as written by the last update of the window, which is the result the updates would
+ * have had if they had been written one after the other. Buffers are written one after the other, so that the updates of a task are written in order.
+ * <p>
+ * Every caller waits for its update within the timeout of {@code update} and the deadline of its request, as it would without write-behind, while the write
+ * of each buffer is bounded by the flush timeout. A caller that times out is not written back, its update is still written with the buffer.
+ * <p>
+ * Updates with expected version are written right away, since coalescing them would hide version mismatches, and so are the updates of new tasks once the
+ * buffer holds the maximum number of tasks, which bounds its memory. The other writes are not coalesced and are not ordered with the pending updates. The
+ * coalesced updates, the updates written right away and the size of the written buffers are published as the {@value #COALESCED_COUNTER},
+ * {@value #BYPASSED_COUNTER} and {@value #FLUSH_SUMMARY} meters.
+ *
+ * @author ttrigo
+ * @since 0.1.0
+ */
+public class CoalescingTaskService implements TaskService, Disposable {
+
+    private static final Logger logger = LoggerFactory.getLogger(CoalescingTaskService.class);
+
+    private static final String UPDATE_METHOD = "update";
+
+    /**
+     * The name of the counter of updates replaced by a later update of the same task.
+     */
+    public static final String COALESCED_COUNTER = "task.write-behind.coalesced";
+
+    /**
+     * The name of the counter of updates written right away, tagged by reason.
+     */
+    public static final String BYPASSED_COUNTER = "task.write-behind.bypassed";
+
+    /**
+     * The name of the summary of the number of tasks written by each flush of the buffer.
+     */
+    public static final String FLUSH_SUMMARY = "task.write-behind.flush.size";
+
+    private final TaskService taskService;
+
+    private final Duration window;
+
+    private final int maxPending;
+
+    private final TaskTimeouts timeouts;
+
+    private final Duration flushTimeout;
+
+    private final Scheduler scheduler;
+
+    private final Counter coalescedCounter;
+
+    private final Counter versionedCounter;
+
+    private final Counter fullCounter;
+
+    private final DistributionSummary flushSummary;
+
+    private final Object lock = new Object();
+
+    private Map<UUID, PendingUpdate> pending = new LinkedHashMap<>();
+
+    private boolean flushScheduled;
+
+    private long flushes;
+
+    private long scheduledFlush;
+
+    private boolean disposed;
+
+    /**
+     * Default constructor.
+     *
+     * @param taskService   the service to decorate, must not be {@literal null}.
+     * @param meterRegistry the registry where the write-behind meters are published, must not be {@literal null}.
+     * @param window        the time an update is kept in the buffer before being written, must not be {@literal null}.
+     * @param maxPending    the maximum number of tasks with pending updates.
+     * @param timeouts      the timeouts bounding the wait of each caller for its update, must not be {@literal null}.
+     * @param flushTimeout  the time the write of a buffer may last, must be positive.
+     * @param scheduler     the scheduler where the buffer is written at the end of each window, must not be {@literal null}.
+     */
+    public CoalescingTaskService(TaskService taskService, MeterRegistry meterRegistry, Duration window, int maxPending, TaskTimeouts timeouts,
+            Duration flushTimeout, Scheduler scheduler) {
+        this.taskService = taskService;
+        this.window = window;
+        this.maxPending = maxPending;
+        this.timeouts = timeouts;
+        this.flushTimeout = flushTimeout;
+        this.scheduler = scheduler;
+        this.coalescedCounter = Counter.builder(COALESCED_COUNTER)
+                                       .description("Task updates replaced by a later update of the same task before being written")
+                                       .register(meterRegistry);
+        this.versionedCounter = bypassedCounter("versioned", meterRegistry);
+        this.fullCounter = bypassedCounter("full", meterRegistry);
+        this.flushSummary = DistributionSummary.builder(FLUSH_SUMMARY)
+                                               .description("Number of tasks written by each flush of the write-behind buffer")
+                                               .register(meterRegistry);
+    }
+
+    @Override
+    public Mono<TaskDTO> findById(UUID id) {
+        return this.taskService.findById(id);
+    }
+
+    @Override
+    public Flux<TaskBatchResultDTO> findAllById(List<UUID> ids) {
+        return this.taskService.findAllById(ids);
+    }
+
+    @Override
+    public Flux<TaskDTO> findAll() {
+        return this.taskService.findAll();
+    }
+
+    @Override
+    public Mono<TaskPageDTO> findPage(String continuationToken, int size) {
+        return this.taskService.findPage(continuationToken, size);
+    }
+
+    @Override
+    public Flux<TaskDTO> search(TaskSearchCriteria criteria) {
+        return this.taskService.search(criteria);
+    }
+
+    @Override
+    public Mono<TaskPageDTO> searchText(String query, String continuationToken, int size) {
+        return this.taskService.searchText(query, continuationToken, size);
+    }
+
+    @Override
+    public Flux<TaskDTO> streamSearchText(String query) {
+        return this.taskService.streamSearchText(query);
+    }
+
+    @Override
+    public Flux<TaskDTO> streamAll() {
+        return this.taskService.streamAll();
+    }
+
+    @Override
+    public Mono<TaskStatsDTO> findStats(TaskStatsGranularity granularity) {
+        return this.taskService.findStats(granularity);
+    }
+
+    @Override
+    public Mono<TaskDTO> create(TaskDTO taskDTO) {
+        return this.taskService.create(taskDTO);
+    }
+
+    @Override
+    public Mono<TaskDTO> update(UUID id, TaskDTO taskDTO) {
+        if (taskDTO.getVersion() != null) {
+            this.versionedCounter.increment();
+            return this.taskService.update(id, taskDTO);
+        }
+        return Mono.defer(() -> {
+            var caller = Sinks.<TaskDTO> one();
+            if (!enqueue(id, taskDTO, caller)) {
+                this.fullCounter.increment();
+                return this.taskService.update(id, taskDTO);
+            }
+            return this.timeouts.limit(UPDATE_METHOD, caller.asMono());
+        });
+    }
+
+    @Override
+    public Mono<TaskDTO> upsert(UUID id, TaskDTO taskDTO) {
+        return this.taskService.upsert(id, taskDTO);
+    }
+
+    @Override
+    public Mono<Boolean> deleteById(UUID id, Long expectedVersion) {
+        return this.taskService.deleteById(id, expectedVersion);
+    }
+
+    @Override
+    public Flux<TaskBatchResultDTO> createAll(Flux<TaskDTO> taskDTOs) {
+        return this.taskService.createAll(taskDTOs);
+    }
+
+    @Override
+    public Flux<TaskBatchResultDTO> updateAll(Flux<TaskDTO> taskDTOs) {
+        return this.taskService.updateAll(taskDTOs);
+    }
+
+    @Override
+    public Flux<TaskBatchResultDTO> deleteAllById(Flux<UUID> ids) {
+        return this.taskService.deleteAllById(ids);
+    }
+
+    /**
+     * Stops buffering updates and writes the pending ones without waiting for the end of the window.
+     * <p>
+     * Blocks until the write in progress, if any, and the final write complete, at most twice the flush timeout since each of them is bounded by it.
+     */
+    @Override
+    public void dispose() {
+        long flush;
+        synchronized (this.lock) {
+            this.disposed = true;
+            flush = this.scheduledFlush;
+        }
+        if (flush != 0) {
+            flush(flush);
+        }
+        awaitFlushed(this.flushTimeout.multipliedBy(2));
+    }
+
+    @Override
+    public boolean isDisposed() {
+        synchronized (this.lock) {
+            return this.disposed;
+        }
+    }
+
+    /**
+     * Adds an update to the buffer, replacing the pending update of the same task if any.
+     *
+     * @param id      the id of the task to update.
+     * @param taskDTO the task to write.
+     * @param caller  the sink acknowledging the caller once the update has been written.
+     * @return {@literal false} if the update has not been buffered and must be written right away.
+     */
+    private boolean enqueue(UUID id, TaskDTO taskDTO, Sinks.One<TaskDTO> caller) {
+        synchronized (this.lock) {
+            if (this.disposed) {
+                return false;
+            }
+            var update = this.pending.get(id);
+            if (update == null) {
+                if (this.pending.size() >= this.maxPending) {
+                    return false;
+                }
+                update = new PendingUpdate();
+                this.pending.put(id, update);
+            } else {
+                this.coalescedCounter.increment();
+            }
+            taskDTO.setId(id);
+            update.taskDTO = taskDTO;
+            update.callers.add(caller);
+            if (!this.flushScheduled) {
+                this.flushScheduled = true;
+                scheduleFlush(this.window);
+            }
+            return true;
+        }
+    }
+
+    /**
+     * Schedules the flush of the buffer, replacing the scheduled flush that has not started yet if any.
+     *
+     * @param delay the time to wait before writing the buffer.
+     */
+    private void scheduleFlush(Duration delay) {
+        var flush = ++this.flushes;
+        this.scheduledFlush = flush;
+        this.scheduler.schedule(() -> flush(flush), delay.toNanos(), TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Writes the buffered updates and acknowledges their callers, then schedules the next flush if updates have been buffered in the meantime.
+     *
+     * @param flush the number of the scheduled flush, ignored if it has been replaced.
+     */
+    private void flush(long flush) {
+        List<PendingUpdate> updates;
+        synchronized (this.lock) {
+            if (flush != this.scheduledFlush) {
+                return;
+            }
+            this.scheduledFlush = 0;
+            updates = new ArrayList<>(this.pending.values());
+            this.pending = new LinkedHashMap<>();
+        }
+        this.flushSummary.record(updates.size());
+
+        this.taskService.updateAll(Flux.fromIterable(updates)
+                                       .map(update -> update.taskDTO))
+                        .collectList()
+                        .timeout(this.flushTimeout, this.scheduler)
+                        .subscribe(results -> {
+                            results.forEach(result -> acknowledge(updates.get(Math.toIntExact(result.getIndex())), result));
+                            flushed();
+                        }, error -> {
+                            updates.forEach(update -> update.callers.forEach(caller -> caller.tryEmitError(error)));
+                            flushed();
+                        });
+    }
+
+    /**
+     * Schedules the next flush if updates have been buffered during the one that has just completed, or writes them right away once disposed.
+     */
+    private void flushed() {
+        long flush = 0;
+        synchronized (this.lock) {
+            if (this.pending.isEmpty()) {
+                this.flushScheduled = false;
+                this.lock.notifyAll();
+            } else if (this.disposed) {
+                flush = ++this.flushes;
+                this.scheduledFlush = flush;
+            } else {
+                scheduleFlush(this.window);
+            }
+        }
+        if (flush != 0) {
+            flush(flush);
+        }
+    }
+
+    /**
+     * Waits until no update is pending nor being written.
+     *
+     * @param timeout the maximum time to wait.
+     */
+    private void awaitFlushed(Duration timeout) {
+        var deadline = System.nanoTime() + timeout.toNanos();
+        synchronized (this.lock) {
+            while (this.flushScheduled) {
+                var remaining = deadline - System.nanoTime();
+                if (remaining <= 0) {
+                    logger.warn("The pending task updates have not been written within {}", timeout);
+                    return;
+                }
+                try {
+                    TimeUnit.NANOSECONDS.timedWait(this.lock, remaining);
+                } catch (InterruptedException e) {
+                    Thread.currentThread()
+                          .interrupt();
+                    return;
+                }
+            }
+        }
+    }
+
+    /**
+     * Acknowledges the callers of a written update.
+     * <p>
+     * Updates rejected by the batch write, e.g. because they are invalid, are written again on their own, so that their callers get the same outcome as
+     * without write-behind.
+     *
+     * @param update the written update.
+     * @param result the result of the write.
+     */
+    private void acknowledge(PendingUpdate update, TaskBatchResultDTO result) {
+        switch (result.getStatus()) {
+            case UPDATED -> update.callers.forEach(caller -> caller.tryEmitValue(result.getTask()));
+            case NOT_FOUND -> update.callers.forEach(Sinks.One::tryEmitEmpty);
+            default -> this.taskService.update(update.taskDTO.getId(), update.taskDTO)
+                                       .subscribe(task -> update.callers.forEach(caller -> caller.tryEmitValue(task)),
+                                               error -> update.callers.forEach(caller -> caller.tryEmitError(error)),
+                                               () -> update.callers.forEach(Sinks.One::tryEmitEmpty));
+        }
+    }
+
+    private static Counter bypassedCounter(String reason, MeterRegistry meterRegistry) {
+        return Counter.builder(BYPASSED_COUNTER)
+                      .description("Task updates written right away instead of being buffered")
+                      .tag("reason", reason)
+                      .register(meterRegistry);
+    }
+
+    /**
+     * Pending update of a task, with the callers waiting for it.
+     */
+    private static final class PendingUpdate {
+
+        private TaskDTO taskDTO;
+
+        private final List<Sinks.One<TaskDTO>> callers = new ArrayList<>();
+
+    }
+
+}
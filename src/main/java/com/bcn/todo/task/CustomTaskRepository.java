@@ -0,0 +1,150 @@
+/**
+* Copyright 2023 the original author or authors.
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*     http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+*/
+package com.bcn.todo.task;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+import org.springframework.lang.Nullable;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Repository fragment that provides the {@link Task} operations written by hand on top of R2DBC.
+ *
+ * @author ttrigo
+ * @since 0.1.0
+ */
+public interface CustomTaskRepository {
+
+    /**
+     * Finds a page of {@link Task} ordered by start date and id, tasks without start date are placed at the end.
+     *
+     * @param after the cursor pointing to the last task of the previous page, {@literal null} to find the first page.
+     * @param limit the maximum number of tasks to find.
+     * @return {@link Flux} emitting the tasks placed after the given cursor.
+     */
+    Flux<Task> findPage(@Nullable TaskPageCursor after, int limit);
+
+    /**
+     * Searches the {@link Task} matching all the filters of the given criteria.
+     * <p>
+     * The title prefix filter is case-sensitive, while the title substring filter is case-insensitive. The start date range includes its lower bound and
+     * excludes its upper bound, tasks without start date never match it.
+     *
+     * @param criteria the filters, the order and the maximum number of tasks to find, must not be {@literal null}.
+     * @return {@link Flux} emitting the matching tasks in the requested order.
+     */
+    Flux<Task> search(TaskSearchCriteria criteria);
+
+    /**
+     * Finds a page of {@link Task} matching the given keywords, ordered by relevance and id.
+     * <p>
+     * Keywords are matched against the title and the description of the tasks, matches in the title being more relevant than matches in the description.
+     *
+     * @param query the keywords to search, in web search syntax.
+     * @param after the cursor pointing to the last task of the previous page, {@literal null} to find the first page.
+     * @param limit the maximum number of tasks to find.
+     * @return {@link Flux} emitting the matching tasks placed after the given cursor together with their relevance.
+     */
+    Flux<RankedTask> searchText(String query, @Nullable TaskTextSearchCursor after, int limit);
+
+    /**
+     * Streams all {@link Task} matching the given keywords, ordered by relevance and id.
+     * <p>
+     * Rows are fetched from the database through a cursor, so that only the rows requested by the subscriber are held in memory.
+     *
+     * @param query the keywords to search, in web search syntax.
+     * @return {@link Flux} emitting the matching tasks.
+     */
+    Flux<Task> streamSearchText(String query);
+
+    /**
+     * Streams all {@link Task}.
+     * <p>
+     * Rows are fetched from the database through a cursor, so that only the rows requested by the subscriber are held in memory.
+     *
+     * @return {@link Flux} emitting all tasks.
+     */
+    Flux<Task> streamAll();
+
+    /**
+     * Counts the {@link Task} by start date with a single statement.
+     * <p>
+     * The tasks without start date are counted in a bucket without start date.
+     *
+     * @param granularity the period of time covered by each bucket, must not be {@literal null}.
+     * @return {@link Flux} emitting the number of tasks of each bucket with tasks, ordered by start date with the bucket without start date at the end.
+     */
+    Flux<TaskStartDateCount> countByStartDate(TaskStatsGranularity granularity);
+
+    /**
+     * Finds the {@link Task} with the given ids with a single statement.
+     * <p>
+     * The ids are bound as a single array parameter, so that the statement is the same whatever the number of ids.
+     *
+     * @param ids the ids of the tasks to be found.
+     * @return {@link Flux} emitting the found tasks, in no particular order.
+     */
+    Flux<Task> findTasksByIds(Collection<UUID> ids);
+
+    /**
+     * Updates the given {@link Task} with a single statement, without checking first whether it exists.
+     * <p>
+     * When the given task has version, it is only updated if its current version is the same. The version of the updated task is incremented.
+     *
+     * @param task the task to be updated, must have id.
+     * @return {@link Mono} emitting the updated task if its id exists and its version matches, otherwise emitting empty.
+     */
+    Mono<Task> updateTask(Task task);
+
+    /**
+     * Updates the given {@link Task}, or inserts it if its id does not exist, with a single statement.
+     *
+     * @param task the task to be updated or inserted, must have id.
+     * @return {@link Mono} emitting the updated or inserted task.
+     */
+    Mono<Task> upsertTask(Task task);
+
+    /**
+     * Inserts the given {@link Task} list with a single multi-row statement.
+     *
+     * @param tasks the tasks to be inserted, all of them must have id.
+     * @return {@link Flux} emitting the inserted tasks.
+     */
+    Flux<Task> insertTasks(List<Task> tasks);
+
+    /**
+     * Updates the given {@link Task} list with a single multi-row statement.
+     * <p>
+     * Tasks whose id does not exist are ignored.
+     *
+     * @param tasks the tasks to be updated, all of them must have id.
+     * @return {@link Flux} emitting the updated tasks.
+     */
+    Flux<Task> updateTasks(List<Task> tasks);
+
+    /**
+     * Deletes the {@link Task} with the given ids with a single statement.
+     *
+     * @param ids the ids of the tasks to be deleted.
+     * @return {@link Flux} emitting the ids of the deleted tasks.
+     */
+    Flux<UUID> deleteTasksByIds(Collection<UUID> ids);
+
+}
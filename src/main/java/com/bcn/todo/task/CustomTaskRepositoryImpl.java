@@ -0,0 +1,425 @@
+/**
+* Copyright 2023 the original author or authors.
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*     http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+*/
+package com.bcn.todo.task;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.r2dbc.convert.R2dbcConverter;
+import org.springframework.data.r2dbc.core.R2dbcEntityTemplate;
+import org.springframework.r2dbc.core.DatabaseClient;
+
+import io.r2dbc.spi.Row;
+import io.r2dbc.spi.RowMetadata;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Default implementation of {@link CustomTaskRepository} based on {@link DatabaseClient}.
+ * <p>
+ * Tasks are counted by start date either with an aggregate over the task table, or over the {@code task_start_day_count} summary table, which is kept up
+ * to date by a trigger on every write of the tasks and holds a row per start day.
+ * <p>
+ * Queries name the columns of the tasks they read instead of selecting all of them, so that the {@code search_vector} column, only used to match the
+ * text searches, is never sent to the service.
+ *
+ * @author ttrigo
+ * @since 0.1.0
+ */
+public class CustomTaskRepositoryImpl implements CustomTaskRepository {
+
+    private static final String FIND_FIRST_PAGE_QUERY = """
+            SELECT task_id, title, description, start_date, version FROM task
+            ORDER BY start_date, task_id
+            LIMIT :limit""";
+
+    private static final String FIND_PAGE_AFTER_START_DATE_QUERY = """
+            SELECT task_id, title, description, start_date, version FROM (
+                (SELECT task_id, title, description, start_date, version FROM task WHERE (start_date, task_id) > (:startDate, :id) ORDER BY start_date, task_id LIMIT :limit)
+                UNION ALL
+                (SELECT task_id, title, description, start_date, version FROM task WHERE start_date IS NULL ORDER BY task_id LIMIT :limit)
+            ) AS page
+            ORDER BY start_date, task_id
+            LIMIT :limit""";
+
+    private static final String FIND_PAGE_AFTER_NULL_START_DATE_QUERY = """
+            SELECT task_id, title, description, start_date, version FROM task
+            WHERE start_date IS NULL AND task_id > :id
+            ORDER BY task_id
+            LIMIT :limit""";
+
+    private static final String SEARCH_QUERY = """
+            SELECT task_id, title, description, start_date, version FROM task
+            %s
+            ORDER BY %s
+            LIMIT :limit""";
+
+    private static final String TITLE_STARTS_WITH_CONDITION = "title LIKE :titleStartsWith";
+
+    private static final String TITLE_CONTAINS_CONDITION = "title ILIKE :titleContains";
+
+    private static final String START_DATE_FROM_CONDITION = "start_date >= :startDateFrom";
+
+    private static final String START_DATE_TO_CONDITION = "start_date < :startDateTo";
+
+    private static final String SEARCH_TEXT_QUERY = """
+            SELECT task_id, title, description, start_date, version, ts_rank(search_vector, query) AS rank
+            FROM task, websearch_to_tsquery('english', :query) AS query
+            WHERE search_vector @@ query
+            ORDER BY rank DESC, task_id""";
+
+    private static final String SEARCH_TEXT_FIRST_PAGE_QUERY = """
+            SELECT task_id, title, description, start_date, version, ts_rank(search_vector, query) AS rank
+            FROM task, websearch_to_tsquery('english', :query) AS query
+            WHERE search_vector @@ query
+            ORDER BY rank DESC, task_id
+            LIMIT :limit""";
+
+    private static final String SEARCH_TEXT_PAGE_AFTER_QUERY = """
+            SELECT task_id, title, description, start_date, version, rank FROM (
+                SELECT task_id, title, description, start_date, version, ts_rank(search_vector, query) AS rank
+                FROM task, websearch_to_tsquery('english', :query) AS query
+                WHERE search_vector @@ query
+            ) AS matches
+            WHERE rank < :rank OR (rank = :rank AND task_id > :id)
+            ORDER BY rank DESC, task_id
+            LIMIT :limit""";
+
+    private static final String STREAM_ALL_QUERY = "SELECT task_id, title, description, start_date, version FROM task";
+
+    private static final String COUNT_BY_START_DATE_QUERY = """
+            SELECT CAST(date_trunc('%s', start_date) AS date) AS bucket, count(*) AS tasks
+            FROM task
+            GROUP BY bucket
+            ORDER BY bucket""";
+
+    private static final String COUNT_BY_START_DATE_FROM_SUMMARY_QUERY = """
+            SELECT CAST(date_trunc('%s', CAST(start_day AS timestamp)) AS date) AS bucket, CAST(sum(tasks) AS bigint) AS tasks
+            FROM task_start_day_count
+            GROUP BY bucket
+            HAVING sum(tasks) > 0
+            ORDER BY bucket""";
+
+    private static final String FIND_TASKS_BY_IDS_QUERY = "SELECT task_id, title, description, start_date, version FROM task WHERE task_id = ANY(:ids)";
+
+    private static final String UPDATE_TASK_QUERY = """
+            UPDATE task
+            SET title = :title, description = :description, start_date = :startDate, version = version + 1
+            WHERE task_id = :id
+            RETURNING task_id, title, description, start_date, version""";
+
+    private static final String UPDATE_TASK_IF_VERSION_QUERY = """
+            UPDATE task
+            SET title = :title, description = :description, start_date = :startDate, version = version + 1
+            WHERE task_id = :id AND version = :version
+            RETURNING task_id, title, description, start_date, version""";
+
+    private static final String UPSERT_TASK_QUERY = """
+            INSERT INTO task (task_id, title, description, start_date)
+            VALUES (:id, :title, :description, :startDate)
+            ON CONFLICT (task_id) DO UPDATE
+            SET title = EXCLUDED.title, description = EXCLUDED.description, start_date = EXCLUDED.start_date, version = task.version + 1
+            RETURNING task_id, title, description, start_date, version""";
+
+    private static final String INSERT_TASKS_QUERY = """
+            INSERT INTO task (task_id, title, description, start_date)
+            VALUES %s
+            RETURNING task_id, title, description, start_date, version""";
+
+    private static final String INSERT_TASKS_ROW = "(:id%1$d, :title%1$d, :description%1$d, :startDate%1$d)";
+
+    private static final String UPDATE_TASKS_QUERY = """
+            UPDATE task
+            SET title = data.title, description = data.description, start_date = data.start_date, version = task.version + 1
+            FROM (VALUES %s) AS data (task_id, title, description, start_date)
+            WHERE task.task_id = data.task_id
+            RETURNING task.task_id, task.title, task.description, task.start_date, task.version""";
+
+    private static final String UPDATE_TASKS_ROW = "(CAST(:id%1$d AS uuid), CAST(:title%1$d AS varchar), CAST(:description%1$d AS varchar), CAST(:startDate%1$d AS timestamp))";
+
+    private static final String DELETE_TASKS_BY_IDS_QUERY = "DELETE FROM task WHERE task_id = ANY(:ids) RETURNING task_id";
+
+    private final DatabaseClient databaseClient;
+
+    private final R2dbcConverter converter;
+
+    private final int streamFetchSize;
+
+    private final boolean statsFromSummary;
+
+    /**
+     * Default constructor.
+     *
+     * @param r2dbcEntityTemplate the template that brings the database client and the entity converter, must not be {@literal null}.
+     * @param streamFetchSize     the number of rows fetched on each round trip while streaming tasks.
+     * @param statsFromSummary    whether the tasks are counted over the summary table instead of over the task table.
+     */
+    public CustomTaskRepositoryImpl(R2dbcEntityTemplate r2dbcEntityTemplate, @Value("${todo.task.stream.fetch-size}") int streamFetchSize,
+            @Value("${todo.task.stats.summary.enabled}") boolean statsFromSummary) {
+        this.databaseClient = r2dbcEntityTemplate.getDatabaseClient();
+        this.converter = r2dbcEntityTemplate.getConverter();
+        this.streamFetchSize = streamFetchSize;
+        this.statsFromSummary = statsFromSummary;
+    }
+
+    @Override
+    public Flux<Task> findPage(TaskPageCursor after, int limit) {
+        DatabaseClient.GenericExecuteSpec executeSpec;
+        if (after == null) {
+            executeSpec = this.databaseClient.sql(FIND_FIRST_PAGE_QUERY);
+        } else if (after.startDateTime() == null) {
+            executeSpec = this.databaseClient.sql(FIND_PAGE_AFTER_NULL_START_DATE_QUERY)
+                                             .bind("id", after.id());
+        } else {
+            executeSpec = this.databaseClient.sql(FIND_PAGE_AFTER_START_DATE_QUERY)
+                                             .bind("startDate", after.startDateTime())
+                                             .bind("id", after.id());
+        }
+
+        return executeSpec.bind("limit", limit)
+                          .map(this::toTask)
+                          .all();
+    }
+
+    @Override
+    public Flux<Task> search(TaskSearchCriteria criteria) {
+        var conditions = new ArrayList<String>();
+        var parameters = new HashMap<String, Object>();
+        if (TaskSearchCriteria.hasValue(criteria.titleStartsWith())) {
+            conditions.add(TITLE_STARTS_WITH_CONDITION);
+            parameters.put("titleStartsWith", escapeLikePattern(criteria.titleStartsWith()) + "%");
+        }
+        if (TaskSearchCriteria.hasValue(criteria.titleContains())) {
+            conditions.add(TITLE_CONTAINS_CONDITION);
+            parameters.put("titleContains", "%" + escapeLikePattern(criteria.titleContains()) + "%");
+        }
+        if (criteria.startDateFrom() != null) {
+            conditions.add(START_DATE_FROM_CONDITION);
+            parameters.put("startDateFrom", criteria.startDateFrom());
+        }
+        if (criteria.startDateTo() != null) {
+            conditions.add(START_DATE_TO_CONDITION);
+            parameters.put("startDateTo", criteria.startDateTo());
+        }
+
+        var whereClause = conditions.isEmpty() ? "" : "WHERE " + String.join(" AND ", conditions);
+        var executeSpec = this.databaseClient.sql(SEARCH_QUERY.formatted(whereClause, orderByClause(criteria.sort())));
+        for (var parameter : parameters.entrySet()) {
+            executeSpec = executeSpec.bind(parameter.getKey(), parameter.getValue());
+        }
+
+        return executeSpec.bind("limit", criteria.limit())
+                          .map(this::toTask)
+                          .all();
+    }
+
+    @Override
+    public Flux<RankedTask> searchText(String query, TaskTextSearchCursor after, int limit) {
+        DatabaseClient.GenericExecuteSpec executeSpec;
+        if (after == null) {
+            executeSpec = this.databaseClient.sql(SEARCH_TEXT_FIRST_PAGE_QUERY);
+        } else {
+            executeSpec = this.databaseClient.sql(SEARCH_TEXT_PAGE_AFTER_QUERY)
+                                             .bind("rank", after.rank())
+                                             .bind("id", after.id());
+        }
+
+        return executeSpec.bind("query", query)
+                          .bind("limit", limit)
+                          .map((row, metadata) -> new RankedTask(toTask(row, metadata), row.get("rank", Float.class)))
+                          .all();
+    }
+
+    @Override
+    public Flux<Task> streamSearchText(String query) {
+        return this.databaseClient.sql(SEARCH_TEXT_QUERY)
+                                  .bind("query", query)
+                                  .filter(statement -> statement.fetchSize(this.streamFetchSize))
+                                  .map(this::toTask)
+                                  .all();
+    }
+
+    @Override
+    public Flux<Task> streamAll() {
+        return this.databaseClient.sql(STREAM_ALL_QUERY)
+                                  .filter(statement -> statement.fetchSize(this.streamFetchSize))
+                                  .map(this::toTask)
+                                  .all();
+    }
+
+    @Override
+    public Flux<TaskStartDateCount> countByStartDate(TaskStatsGranularity granularity) {
+        var query = this.statsFromSummary ? COUNT_BY_START_DATE_FROM_SUMMARY_QUERY : COUNT_BY_START_DATE_QUERY;
+
+        return this.databaseClient.sql(query.formatted(dateTruncField(granularity)))
+                                  .map(row -> new TaskStartDateCount(row.get("bucket", LocalDate.class), row.get("tasks", Long.class)))
+                                  .all();
+    }
+
+    @Override
+    public Flux<Task> findTasksByIds(Collection<UUID> ids) {
+        return this.databaseClient.sql(FIND_TASKS_BY_IDS_QUERY)
+                                  .bind("ids", ids.toArray(UUID[]::new))
+                                  .map(this::toTask)
+                                  .all();
+    }
+
+    @Override
+    public Mono<Task> updateTask(Task task) {
+        var executeSpec = task.version() == null ? this.databaseClient.sql(UPDATE_TASK_QUERY)
+                : this.databaseClient.sql(UPDATE_TASK_IF_VERSION_QUERY)
+                                     .bind("version", task.version());
+
+        return bindTask(executeSpec, task).map(this::toTask)
+                                          .one();
+    }
+
+    @Override
+    public Mono<Task> upsertTask(Task task) {
+        return bindTask(this.databaseClient.sql(UPSERT_TASK_QUERY), task).map(this::toTask)
+                                                                         .one();
+    }
+
+    @Override
+    public Flux<Task> insertTasks(List<Task> tasks) {
+        var executeSpec = this.databaseClient.sql(INSERT_TASKS_QUERY.formatted(valuesList(INSERT_TASKS_ROW, tasks.size())));
+
+        return bindTasks(executeSpec, tasks).map(this::toTask)
+                                            .all();
+    }
+
+    @Override
+    public Flux<Task> updateTasks(List<Task> tasks) {
+        var executeSpec = this.databaseClient.sql(UPDATE_TASKS_QUERY.formatted(valuesList(UPDATE_TASKS_ROW, tasks.size())));
+
+        return bindTasks(executeSpec, tasks).map(this::toTask)
+                                            .all();
+    }
+
+    @Override
+    public Flux<UUID> deleteTasksByIds(Collection<UUID> ids) {
+        return this.databaseClient.sql(DELETE_TASKS_BY_IDS_QUERY)
+                                  .bind("ids", ids.toArray(UUID[]::new))
+                                  .map(row -> row.get("task_id", UUID.class))
+                                  .all();
+    }
+
+    /**
+     * Builds the ORDER BY clause of the given sort.
+     * <p>
+     * The clauses match the order of the indexes on {@code (start_date, task_id)} and {@code (title, task_id)}, so that the database reads the indexes forward
+     * or backward instead of sorting the rows.
+     *
+     * @param sort the order of the tasks.
+     * @return the ORDER BY clause, without the keywords.
+     */
+    private static String orderByClause(TaskSearchSort sort) {
+        return switch (sort) {
+            case START_DATE_ASC -> "start_date, task_id";
+            case START_DATE_DESC -> "start_date DESC, task_id DESC";
+            case TITLE_ASC -> "title, task_id";
+            case TITLE_DESC -> "title DESC, task_id DESC";
+        };
+    }
+
+    /**
+     * Gets the field of {@code date_trunc} that truncates the start dates to the beginning of their bucket.
+     *
+     * @param granularity the period of time covered by each bucket.
+     * @return the field of {@code date_trunc}.
+     */
+    private static String dateTruncField(TaskStatsGranularity granularity) {
+        return switch (granularity) {
+            case DAY -> "day";
+            case WEEK -> "week";
+        };
+    }
+
+    /**
+     * Escapes the wildcards of a LIKE pattern, so that the given value is matched literally.
+     *
+     * @param value the value to escape.
+     * @return the value with its wildcards and escape characters escaped.
+     */
+    private static String escapeLikePattern(String value) {
+        return value.replace("\\", "\\\\")
+                    .replace("%", "\\%")
+                    .replace("_", "\\_");
+    }
+
+    /**
+     * Builds the rows of a VALUES list.
+     *
+     * @param rowTemplate the template of a row, the parameters of each row are suffixed with the row index.
+     * @param rows        the number of rows.
+     * @return the rows of the VALUES list separated by commas.
+     */
+    private static String valuesList(String rowTemplate, int rows) {
+        return IntStream.range(0, rows)
+                        .mapToObj(rowTemplate::formatted)
+                        .collect(Collectors.joining(", "));
+    }
+
+    /**
+     * Binds the fields of the given task to the parameters of a statement.
+     *
+     * @param executeSpec the statement.
+     * @param task        the task to bind.
+     * @return the statement with all parameters bound.
+     */
+    private static DatabaseClient.GenericExecuteSpec bindTask(DatabaseClient.GenericExecuteSpec executeSpec, Task task) {
+        var boundExecuteSpec = executeSpec.bind("id", task.id())
+                                          .bind("title", task.title());
+        boundExecuteSpec = bindNullable(boundExecuteSpec, "description", task.description(), String.class);
+        return bindNullable(boundExecuteSpec, "startDate", task.startDateTime(), LocalDateTime.class);
+    }
+
+    /**
+     * Binds the fields of the given tasks to the parameters of a VALUES list.
+     *
+     * @param executeSpec the statement containing the VALUES list.
+     * @param tasks       the tasks to bind.
+     * @return the statement with all parameters bound.
+     */
+    private static DatabaseClient.GenericExecuteSpec bindTasks(DatabaseClient.GenericExecuteSpec executeSpec, List<Task> tasks) {
+        var boundExecuteSpec = executeSpec;
+        for (var index = 0; index < tasks.size(); index++) {
+            var task = tasks.get(index);
+            boundExecuteSpec = boundExecuteSpec.bind("id" + index, task.id())
+                                               .bind("title" + index, task.title());
+            boundExecuteSpec = bindNullable(boundExecuteSpec, "description" + index, task.description(), String.class);
+            boundExecuteSpec = bindNullable(boundExecuteSpec, "startDate" + index, task.startDateTime(), LocalDateTime.class);
+        }
+        return boundExecuteSpec;
+    }
+
+    private static <T> DatabaseClient.GenericExecuteSpec bindNullable(DatabaseClient.GenericExecuteSpec executeSpec, String name, T value, Class<T> type) {
+        return value == null ? executeSpec.bindNull(name, type) : executeSpec.bind(name, value);
+    }
+
+    private Task toTask(Row row, RowMetadata metadata) {
+        return this.converter.read(Task.class, row, metadata);
+    }
+
+}
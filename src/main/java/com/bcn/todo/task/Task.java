@@ -19,16 +19,19 @@ import java.time.LocalDateTime;
 import java.util.UUID;
 
 import org.springframework.data.annotation.Id;
+import org.springframework.data.annotation.Version;
 import org.springframework.data.relational.core.mapping.Column;
 import org.springframework.data.relational.core.mapping.Table;
 import org.springframework.lang.NonNull;
 
 /**
  * Represents a Task entity.
+ * <p>
+ * The version is incremented on every update, so that concurrent updates can be detected. Tasks without version have not been persisted yet.
  *
  * @author ttrigo
  * @since 0.1.0
  */
 @Table("task")
 public record Task(@Id @Column("task_id") UUID id, @NonNull @Column("title") String title, @Column("description") String description,
-        @Column("start_date") LocalDateTime startDateTime) {}
+        @Column("start_date") LocalDateTime startDateTime, @Version @Column("version") Long version) {}
@@ -0,0 +1,153 @@
+/**
+* Copyright 2023 the original author or authors.
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*     http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+*/
+package com.bcn.todo.task;
+
+import java.util.List;
+import java.util.UUID;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import reactor.core.publisher.Flux;
+
+/**
+ * Defines the endpoints to handle requests that operate on many tasks at once.
+ * <p>
+ * Requests accept a JSON array or a newline delimited JSON stream, the items are written in chunks with a single statement per chunk. Responses contain one
+ * {@link TaskBatchResultDTO} per item, in the same order as the request items, and can also be streamed as newline delimited JSON.
+ * <p>
+ * Tasks are also found by many ids at once, with a single query for up to 500 ids.
+ *
+ * @author ttrigo
+ * @since 0.1.0
+ */
+@Tag(name = "Tasks batch operations", description = "Defines the endpoints to handle requests that operate on many tasks at once")
+@RequestMapping({ "/v1" })
+public interface TaskBatchRestAPI {
+
+    /**
+     * Get many {@link TaskDTO} by id, given as a query parameter.
+     * <p>
+     * Ids not found are reported in its result and do not prevent getting the other tasks.
+     * <p>
+     * Response codes:
+     * <ul>
+     * <li>200-OK : The result of each id</li>
+     * <li>400-BAD_REQUEST : Invalid id or more than 500 ids</li>
+     * </ul>
+     *
+     * @param ids the ids of the tasks to get, at most 500.
+     * @return the {@link TaskBatchResultDTO} of each id, with the task if found, and the appropriate HTTP headers.
+     */
+    @Operation(summary = "Get many tasks by id", description = "Returns the result of each id, with the task if found")
+    @ApiResponse(responseCode = "200", description = "The result of each id", content = { @Content(schema = @Schema(implementation = TaskBatchResultDTO.class)) })
+    @ApiResponse(responseCode = "400", description = "Invalid id or more than 500 ids", content = { @Content })
+    @GetMapping(value = { "/tasks" }, params = { "ids" }, produces = { "application/json", "application/x-ndjson" })
+    @ResponseStatus(HttpStatus.OK)
+    Flux<TaskBatchResultDTO> getTasksById(@Parameter(description = "Ids of the tasks to get, comma separated") @RequestParam(name = "ids") @Size(max = 500) List<@NotNull UUID> ids);
+
+    /**
+     * Get many {@link TaskDTO} by id, given in the request body.
+     * <p>
+     * Behaves as {@link #getTasksById(List)}, for lists of ids too long to be sent in the URL.
+     * <p>
+     * Response codes:
+     * <ul>
+     * <li>200-OK : The result of each id</li>
+     * <li>400-BAD_REQUEST : Invalid id or more than 500 ids</li>
+     * </ul>
+     *
+     * @param ids the ids of the tasks to get, at most 500.
+     * @return the {@link TaskBatchResultDTO} of each id, with the task if found, and the appropriate HTTP headers.
+     */
+    @Operation(summary = "Get many tasks by id", description = "Returns the result of each id, with the task if found")
+    @ApiResponse(responseCode = "200", description = "The result of each id", content = { @Content(schema = @Schema(implementation = TaskBatchResultDTO.class)) })
+    @ApiResponse(responseCode = "400", description = "Invalid id or more than 500 ids", content = { @Content })
+    @PostMapping(value = { "/tasks:batchGet" }, consumes = { "application/json" }, produces = { "application/json", "application/x-ndjson" })
+    @ResponseStatus(HttpStatus.OK)
+    Flux<TaskBatchResultDTO> batchGetTasks(@RequestBody @Size(max = 500) List<@NotNull UUID> ids);
+
+    /**
+     * Create many {@link TaskDTO}.
+     * <p>
+     * Invalid tasks are reported in its result and do not prevent the creation of the valid ones.
+     * <p>
+     * Response codes:
+     * <ul>
+     * <li>200-OK : The result of each task</li>
+     * </ul>
+     *
+     * @param taskDTOs the tasks to create.
+     * @return the {@link TaskBatchResultDTO} of each task and the appropriate HTTP headers.
+     */
+    @Operation(summary = "Create many tasks", description = "Returns the result of each task, the created tasks have a new id")
+    @ApiResponse(responseCode = "200", description = "The result of each task", content = { @Content(schema = @Schema(implementation = TaskBatchResultDTO.class)) })
+    @PostMapping(value = { "/tasks:batch" }, consumes = { "application/json", "application/x-ndjson" }, produces = { "application/json", "application/x-ndjson" })
+    @ResponseStatus(HttpStatus.OK)
+    Flux<TaskBatchResultDTO> createTasks(@RequestBody Flux<TaskDTO> taskDTOs);
+
+    /**
+     * Update many {@link TaskDTO}.
+     * <p>
+     * Invalid tasks and tasks not found are reported in its result and do not prevent the update of the other ones.
+     * <p>
+     * Response codes:
+     * <ul>
+     * <li>200-OK : The result of each task</li>
+     * </ul>
+     *
+     * @param taskDTOs the tasks to update, each one with its id.
+     * @return the {@link TaskBatchResultDTO} of each task and the appropriate HTTP headers.
+     */
+    @Operation(summary = "Update many tasks", description = "Returns the result of each task")
+    @ApiResponse(responseCode = "200", description = "The result of each task", content = { @Content(schema = @Schema(implementation = TaskBatchResultDTO.class)) })
+    @PutMapping(value = { "/tasks:batch" }, consumes = { "application/json", "application/x-ndjson" }, produces = { "application/json", "application/x-ndjson" })
+    @ResponseStatus(HttpStatus.OK)
+    Flux<TaskBatchResultDTO> updateTasks(@RequestBody Flux<TaskDTO> taskDTOs);
+
+    /**
+     * Delete many {@link TaskDTO} by id.
+     * <p>
+     * Response codes:
+     * <ul>
+     * <li>200-OK : The result of each task</li>
+     * </ul>
+     *
+     * @param ids the ids of the tasks to delete.
+     * @return the {@link TaskBatchResultDTO} of each task and the appropriate HTTP headers.
+     */
+    @Operation(summary = "Delete many tasks by id", description = "Returns the result of each task")
+    @ApiResponse(responseCode = "200", description = "The result of each task", content = { @Content(schema = @Schema(implementation = TaskBatchResultDTO.class)) })
+    @DeleteMapping(value = { "/tasks:batch" }, consumes = { "application/json", "application/x-ndjson" }, produces = { "application/json", "application/x-ndjson" })
+    @ResponseStatus(HttpStatus.OK)
+    Flux<TaskBatchResultDTO> deleteTasksById(@RequestBody Flux<UUID> ids);
+
+}
@@ -0,0 +1,81 @@
+/**
+* Copyright 2023 the original author or authors.
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*     http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+*/
+package com.bcn.todo.task;
+
+import java.util.List;
+import java.util.UUID;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.web.bind.annotation.RestController;
+
+import reactor.core.publisher.Flux;
+
+/**
+ * Default implementation of the Task batch API.
+ *
+ * @author ttrigo
+ * @since 0.1.0
+ */
+@RestController
+public class TaskBatchRestController implements TaskBatchRestAPI {
+
+    private static final Logger logger = LoggerFactory.getLogger(TaskBatchRestController.class);
+
+    private final TaskService taskService;
+
+    /**
+     * Default constructor.
+     *
+     * @param taskService the service that brings task's business operations, must not be {@literal null}.
+     */
+    public TaskBatchRestController(TaskService taskService) {
+        this.taskService = taskService;
+    }
+
+    @Override
+    public Flux<TaskBatchResultDTO> getTasksById(List<UUID> ids) {
+        logger.info("Getting {} tasks by id ...", ids.size());
+        return this.taskService.findAllById(ids);
+    }
+
+    @Override
+    public Flux<TaskBatchResultDTO> batchGetTasks(List<UUID> ids) {
+        return getTasksById(ids);
+    }
+
+    @Override
+    public Flux<TaskBatchResultDTO> createTasks(Flux<TaskDTO> taskDTOs) {
+        logger.info("Creating tasks in batch ...");
+        return this.taskService.createAll(taskDTOs)
+                               .doOnComplete(() -> logger.info("Tasks batch creation completed"));
+    }
+
+    @Override
+    public Flux<TaskBatchResultDTO> updateTasks(Flux<TaskDTO> taskDTOs) {
+        logger.info("Updating tasks in batch ...");
+        return this.taskService.updateAll(taskDTOs)
+                               .doOnComplete(() -> logger.info("Tasks batch update completed"));
+    }
+
+    @Override
+    public Flux<TaskBatchResultDTO> deleteTasksById(Flux<UUID> ids) {
+        logger.info("Deleting tasks in batch ...");
+        return this.taskService.deleteAllById(ids)
+                               .doOnComplete(() -> logger.info("Tasks batch deletion completed"));
+    }
+
+}
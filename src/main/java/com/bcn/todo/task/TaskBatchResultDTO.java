@@ -0,0 +1,66 @@
+/**
+* Copyright 2023 the original author or authors.
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*     http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+*/
+package com.bcn.todo.task;
+
+import java.io.Serial;
+import java.io.Serializable;
+import java.util.List;
+import java.util.UUID;
+
+import lombok.Builder;
+import lombok.Data;
+
+import com.bcn.todo.error.InvalidRequestParameterDTO;
+
+/**
+ * Represents the result of an item of a batch operation.
+ *
+ * @author ttrigo
+ * @since 0.1.0
+ */
+@Data
+@Builder
+public class TaskBatchResultDTO implements Serializable {
+
+    @Serial
+    private static final long serialVersionUID = 2906318786201553734L;
+
+    /**
+     * The position of the item in the batch request, starting at zero.
+     */
+    private long index;
+
+    /**
+     * The id of the task.
+     */
+    private UUID id;
+
+    /**
+     * The outcome of the item.
+     */
+    private TaskBatchResultStatus status;
+
+    /**
+     * The task created or updated.
+     */
+    private TaskDTO task;
+
+    /**
+     * The invalid fields of the item.
+     */
+    private List<InvalidRequestParameterDTO> errors;
+
+}
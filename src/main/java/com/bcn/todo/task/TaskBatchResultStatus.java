@@ -0,0 +1,56 @@
+/**
+* Copyright 2023 the original author or authors.
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*     http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+*/
+package com.bcn.todo.task;
+
+/**
+ * Represents the outcome of an item of a batch operation.
+ *
+ * @author ttrigo
+ * @since 0.1.0
+ */
+public enum TaskBatchResultStatus {
+
+    /**
+     * The task has been found.
+     */
+    FOUND,
+
+    /**
+     * The task has been created.
+     */
+    CREATED,
+
+    /**
+     * The task has been updated.
+     */
+    UPDATED,
+
+    /**
+     * The task has been deleted.
+     */
+    DELETED,
+
+    /**
+     * The task to find, update or delete does not exist.
+     */
+    NOT_FOUND,
+
+    /**
+     * The item is not valid, therefore it has not been processed.
+     */
+    INVALID
+
+}
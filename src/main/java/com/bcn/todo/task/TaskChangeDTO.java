@@ -0,0 +1,53 @@
+/**
+* Copyright 2023 the original author or authors.
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*     http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+*/
+package com.bcn.todo.task;
+
+import java.io.Serial;
+import java.io.Serializable;
+import java.util.UUID;
+
+import lombok.Builder;
+import lombok.Data;
+
+/**
+ * Represents a change of a task published to the subscribers of the task changes stream.
+ *
+ * @author ttrigo
+ * @since 0.1.0
+ */
+@Data
+@Builder
+public class TaskChangeDTO implements Serializable {
+
+    @Serial
+    private static final long serialVersionUID = 7583920416182735071L;
+
+    /**
+     * The operation that changed the task.
+     */
+    private TaskChangeOperation operation;
+
+    /**
+     * The id of the task.
+     */
+    private UUID id;
+
+    /**
+     * The version of the task after the change, or the last version of the task when it has been deleted.
+     */
+    private Long version;
+
+}
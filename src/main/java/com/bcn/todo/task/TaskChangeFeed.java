@@ -0,0 +1,138 @@
+/**
+* Copyright 2023 the original author or authors.
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*     http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+*/
+package com.bcn.todo.task;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import reactor.core.Disposable;
+import reactor.core.Exceptions;
+import reactor.core.publisher.BufferOverflowStrategy;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Publishes the changes of the tasks to any number of subscribers.
+ * <p>
+ * The changes are read once from a single source of notifications, the {@code task_changes} channel of the database, and fanned out through a shared sink so
+ * the number of subscribers does not increase the load of the database. Every subscriber has its own bounded buffer: when a subscriber does not keep up and its
+ * buffer is full, the oldest or the latest changes are dropped, or the subscriber is disconnected, depending on the overflow strategy.
+ * <p>
+ * The changes are not persisted, subscribers only receive the changes notified while they are subscribed.
+ *
+ * @author ttrigo
+ * @since 0.1.0
+ */
+public class TaskChangeFeed {
+
+    private static final Logger logger = LoggerFactory.getLogger(TaskChangeFeed.class);
+
+    /**
+     * The channel where the database notifies the changes of the tasks.
+     */
+    public static final String CHANNEL = "task_changes";
+
+    private final Flux<String> notifications;
+
+    private final ObjectMapper objectMapper;
+
+    private final int bufferSize;
+
+    private final BufferOverflowStrategy overflowStrategy;
+
+    private final Sinks.Many<TaskChangeDTO> sink = Sinks.many()
+                                                        .multicast()
+                                                        .directBestEffort();
+
+    private Disposable subscription;
+
+    /**
+     * Default constructor.
+     *
+     * @param notifications    the payloads of the notifications of the {@link #CHANNEL} channel, must not be {@literal null}.
+     * @param objectMapper     the mapper of the JSON payloads, must not be {@literal null}.
+     * @param bufferSize       the maximum number of changes buffered per subscriber.
+     * @param overflowStrategy what to do when the buffer of a subscriber is full, {@link BufferOverflowStrategy#ERROR} disconnects the subscriber, must not be
+     *                         {@literal null}.
+     */
+    public TaskChangeFeed(Flux<String> notifications, ObjectMapper objectMapper, int bufferSize, BufferOverflowStrategy overflowStrategy) {
+        this.notifications = notifications;
+        this.objectMapper = objectMapper;
+        this.bufferSize = bufferSize;
+        this.overflowStrategy = overflowStrategy;
+    }
+
+    /**
+     * Starts listening the notifications.
+     */
+    public void start() {
+        this.subscription = this.notifications.mapNotNull(this::toTaskChange)
+                                              .subscribe(this::publish, error -> logger.error("Task changes are no longer notified", error));
+    }
+
+    /**
+     * Stops listening the notifications and completes the streams of the subscribers.
+     */
+    public void stop() {
+        if (this.subscription != null) {
+            this.subscription.dispose();
+        }
+        this.sink.tryEmitComplete();
+    }
+
+    /**
+     * Get the changes of the tasks notified from now on.
+     *
+     * @return the changes of the tasks, the flux completes when the feed is stopped or when the subscriber is disconnected.
+     */
+    public Flux<TaskChangeDTO> changes() {
+        return this.sink.asFlux()
+                        .onBackpressureBuffer(this.bufferSize, change -> logger.debug("Subscriber buffer is full, dropped task change {}", change),
+                                this.overflowStrategy)
+                        .onErrorResume(Exceptions::isOverflow, error -> {
+                            logger.warn("Disconnecting a task changes subscriber that does not keep up");
+                            return Mono.empty();
+                        });
+    }
+
+    /**
+     * Get the number of current subscribers.
+     *
+     * @return the number of subscribers.
+     */
+    public int subscriberCount() {
+        return this.sink.currentSubscriberCount();
+    }
+
+    private void publish(TaskChangeDTO change) {
+        // Changes are emitted from a single subscription, the only failure is having no subscribers
+        this.sink.tryEmitNext(change);
+    }
+
+    private TaskChangeDTO toTaskChange(String payload) {
+        try {
+            return this.objectMapper.readValue(payload, TaskChangeDTO.class);
+        } catch (JsonProcessingException e) {
+            logger.warn("Ignoring invalid task change notification {}", payload, e);
+            return null;
+        }
+    }
+
+}
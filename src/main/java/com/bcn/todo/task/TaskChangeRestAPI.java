@@ -0,0 +1,60 @@
+/**
+* Copyright 2023 the original author or authors.
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*     http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+*/
+package com.bcn.todo.task;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import reactor.core.publisher.Flux;
+
+/**
+ * Defines the endpoints to follow the changes of the tasks.
+ *
+ * @author ttrigo
+ * @since 0.1.0
+ */
+@Tag(name = "Tasks changes", description = "Defines the endpoints to follow the changes of the tasks")
+@RequestMapping({ "/v1/tasks" })
+public interface TaskChangeRestAPI {
+
+    /**
+     * Streams the changes of the tasks as server-sent events.
+     * <p>
+     * Only the changes made after the subscription are sent. A client that does not keep up with the changes loses the oldest ones or is disconnected, so
+     * clients should get the tasks again after reconnecting.
+     * <p>
+     * Response codes:
+     * <ul>
+     * <li>200-OK : The changes of the tasks</li>
+     * </ul>
+     *
+     * @return the {@link TaskChangeDTO} of every change and the appropriate HTTP headers.
+     */
+    @Operation(summary = "Stream task changes", description = "Streams the tasks created, updated and deleted from now on")
+    @ApiResponse(responseCode = "200", description = "The changes of the tasks", content = {
+            @Content(mediaType = "text/event-stream", schema = @Schema(implementation = TaskChangeDTO.class)) })
+    @GetMapping(value = { "/changes" }, produces = { "text/event-stream" })
+    @ResponseStatus(HttpStatus.OK)
+    Flux<TaskChangeDTO> streamTaskChanges();
+
+}
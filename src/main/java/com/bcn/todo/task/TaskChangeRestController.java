@@ -0,0 +1,55 @@
+/**
+* Copyright 2023 the original author or authors.
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*     http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+*/
+package com.bcn.todo.task;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.web.bind.annotation.RestController;
+
+import reactor.core.publisher.Flux;
+
+/**
+ * Default implementation of the Task changes API.
+ *
+ * @author ttrigo
+ * @since 0.1.0
+ */
+@RestController
+@ConditionalOnProperty(name = "todo.task.changes.enabled", havingValue = "true")
+public class TaskChangeRestController implements TaskChangeRestAPI {
+
+    private static final Logger logger = LoggerFactory.getLogger(TaskChangeRestController.class);
+
+    private final TaskChangeFeed taskChangeFeed;
+
+    /**
+     * Default constructor.
+     *
+     * @param taskChangeFeed the feed that publishes the changes of the tasks, must not be {@literal null}.
+     */
+    public TaskChangeRestController(TaskChangeFeed taskChangeFeed) {
+        this.taskChangeFeed = taskChangeFeed;
+    }
+
+    @Override
+    public Flux<TaskChangeDTO> streamTaskChanges() {
+        return this.taskChangeFeed.changes()
+                                  .doOnSubscribe(subscription -> logger.info("Task changes subscriber connected"))
+                                  .doFinally(signal -> logger.info("Task changes subscriber disconnected on {}", signal));
+    }
+
+}
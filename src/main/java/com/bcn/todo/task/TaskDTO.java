@@ -24,6 +24,8 @@ import jakarta.validation.constraints.NotBlank;
 import lombok.Builder;
 import lombok.Data;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
 /**
  * Represents a Task DTO.
  *
@@ -58,4 +60,10 @@ public class TaskDTO implements Serializable {
      */
     private LocalDateTime startDateTime;
 
+    /**
+     * The version of the task, exchanged with clients as the entity tag of the task instead of in the body.
+     */
+    @JsonIgnore
+    private Long version;
+
 }
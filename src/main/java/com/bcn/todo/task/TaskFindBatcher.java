@@ -0,0 +1,220 @@
+/**
+* Copyright 2023 the original author or authors.
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*     http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+*/
+package com.bcn.todo.task;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.core.scheduler.Scheduler;
+
+/**
+ * Batches the queries finding a {@link Task} by id that arrive at about the same time into a single query.
+ * <p>
+ * The ids requested within the given window are collected and found with a single query once the window ends, or as soon as the maximum batch size is
+ * reached, and each requester gets the task found with its id. Concurrent requests for the same id share the same result. Batches are not ordered with
+ * each other, so several of them may be in flight at once.
+ * <p>
+ * The batch query is not subscribed by any requester, so it is not bounded by their deadlines nor cancelled when they go away, while each requester is still
+ * bounded by its own timeout. Hence only the finds that can be routed to a read replica and that have no request deadline should be batched. The number of ids of each batch and the time each requester waits for its batch to be sent are published as the
+ * {@value #BATCH_SIZE_SUMMARY} and {@value #BATCH_WAIT_TIMER} meters.
+ *
+ * @author ttrigo
+ * @since 0.1.0
+ */
+public class TaskFindBatcher implements Disposable {
+
+    /**
+     * The name of the summary of the number of ids found by each batch query.
+     */
+    public static final String BATCH_SIZE_SUMMARY = "task.find-by-id.batch.size";
+
+    /**
+     * The name of the timer of the time each requester waits for its batch query to be sent.
+     */
+    public static final String BATCH_WAIT_TIMER = "task.find-by-id.batch.wait";
+
+    private final Function<Collection<UUID>, Flux<Task>> query;
+
+    private final Duration window;
+
+    private final int maxBatchSize;
+
+    private final Scheduler scheduler;
+
+    private final DistributionSummary batchSizeSummary;
+
+    private final Timer batchWaitTimer;
+
+    private final Object lock = new Object();
+
+    private Map<UUID, List<PendingFind>> pending = new LinkedHashMap<>();
+
+    private boolean disposed;
+
+    /**
+     * Default constructor.
+     *
+     * @param query         the query finding the tasks with the given ids, must not be {@literal null}.
+     * @param meterRegistry the registry where the batching meters are published, must not be {@literal null}.
+     * @param window        the time the ids are collected before being found, must not be {@literal null}.
+     * @param maxBatchSize  the maximum number of ids found by a single query.
+     * @param scheduler     the scheduler where the batch query is sent at the end of each window, must not be {@literal null}.
+     */
+    public TaskFindBatcher(Function<Collection<UUID>, Flux<Task>> query, MeterRegistry meterRegistry, Duration window, int maxBatchSize,
+            Scheduler scheduler) {
+        this.query = query;
+        this.window = window;
+        this.maxBatchSize = maxBatchSize;
+        this.scheduler = scheduler;
+        this.batchSizeSummary = DistributionSummary.builder(BATCH_SIZE_SUMMARY)
+                                                   .description("Number of ids found by each batch query")
+                                                   .register(meterRegistry);
+        this.batchWaitTimer = Timer.builder(BATCH_WAIT_TIMER)
+                                   .description("Time each find by id waits for its batch query to be sent")
+                                   .register(meterRegistry);
+    }
+
+    /**
+     * Finds a {@link Task} by the given id within the current batch.
+     *
+     * @param id the id of the task to be found, must not be {@literal null}.
+     * @return {@link Mono} emitting the found task if the given id exists, otherwise emitting empty.
+     */
+    public Mono<Task> findById(UUID id) {
+        return Mono.defer(() -> {
+            var find = new PendingFind(this.scheduler.now(TimeUnit.NANOSECONDS));
+            Map<UUID, List<PendingFind>> fullBatch = null;
+            synchronized (this.lock) {
+                if (this.disposed) {
+                    return this.query.apply(List.of(id))
+                                     .next();
+                }
+                if (this.pending.isEmpty()) {
+                    var batch = this.pending;
+                    this.scheduler.schedule(() -> sendIfPending(batch), this.window.toNanos(), TimeUnit.NANOSECONDS);
+                }
+                this.pending.computeIfAbsent(id, key -> new ArrayList<>())
+                            .add(find);
+                if (this.pending.size() >= this.maxBatchSize) {
+                    fullBatch = takePending();
+                }
+            }
+            if (fullBatch != null) {
+                send(fullBatch);
+            }
+            return find.sink.asMono();
+        });
+    }
+
+    /**
+     * Stops batching and sends the pending batch without waiting for the end of the window.
+     */
+    @Override
+    public void dispose() {
+        Map<UUID, List<PendingFind>> batch;
+        synchronized (this.lock) {
+            this.disposed = true;
+            batch = takePending();
+        }
+        if (!batch.isEmpty()) {
+            send(batch);
+        }
+    }
+
+    @Override
+    public boolean isDisposed() {
+        synchronized (this.lock) {
+            return this.disposed;
+        }
+    }
+
+    /**
+     * Sends the given batch at the end of its window, unless it has already been sent because it was full.
+     *
+     * @param batch the batch whose window has ended.
+     */
+    private void sendIfPending(Map<UUID, List<PendingFind>> batch) {
+        synchronized (this.lock) {
+            if (this.pending != batch) {
+                return;
+            }
+            takePending();
+        }
+        send(batch);
+    }
+
+    private Map<UUID, List<PendingFind>> takePending() {
+        var batch = this.pending;
+        this.pending = new LinkedHashMap<>();
+        return batch;
+    }
+
+    /**
+     * Finds the ids of the given batch with a single query and emits the task found with each id to its requesters.
+     *
+     * @param batch the requesters of each id.
+     */
+    private void send(Map<UUID, List<PendingFind>> batch) {
+        var now = this.scheduler.now(TimeUnit.NANOSECONDS);
+        batch.values()
+             .forEach(finds -> finds.forEach(find -> this.batchWaitTimer.record(now - find.requestedAt, TimeUnit.NANOSECONDS)));
+        this.batchSizeSummary.record(batch.size());
+
+        this.query.apply(List.copyOf(batch.keySet()))
+                  .collectMap(Task::id)
+                  .subscribe(tasksById -> batch.forEach((id, finds) -> {
+                      var task = tasksById.get(id);
+                      finds.forEach(find -> {
+                          if (task == null) {
+                              find.sink.tryEmitEmpty();
+                          } else {
+                              find.sink.tryEmitValue(task);
+                          }
+                      });
+                  }), error -> batch.values()
+                                    .forEach(finds -> finds.forEach(find -> find.sink.tryEmitError(error))));
+    }
+
+    /**
+     * Pending find of a task, with the requester waiting for it.
+     */
+    private static final class PendingFind {
+
+        private final Sinks.One<Task> sink = Sinks.one();
+
+        private final long requestedAt;
+
+        private PendingFind(long requestedAt) {
+            this.requestedAt = requestedAt;
+        }
+
+    }
+
+}
@@ -48,12 +48,13 @@ public interface TaskMapper {
     Task toTask(TaskDTO taskDTO);
 
     /**
-     * Maps all fields from a {@link TaskDTO} to {@link Task} except the id.
+     * Maps all fields from a {@link TaskDTO} to {@link Task} except the id and the version.
      *
      * @param taskDTO the source task DTO.
      * @return the task entity containing the fields mapped from the task DTO.
      */
     @Mapping(target = "id", ignore = true)
+    @Mapping(target = "version", ignore = true)
     Task toTaskIgnoreId(TaskDTO taskDTO);
 
 }
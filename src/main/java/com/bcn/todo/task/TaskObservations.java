@@ -0,0 +1,163 @@
+/**
+* Copyright 2023 the original author or authors.
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*     http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+*/
+package com.bcn.todo.task;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationRegistry;
+import reactor.core.observability.micrometer.Micrometer;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Observes the stages of the {@link Task} operations.
+ * <p>
+ * Each stage is published as an observation, and therefore as a timer, whose name identifies the stage and whose tag identifies the observed method or query:
+ * <ul>
+ * <li>{@value #SERVICE_OBSERVATION}: the service methods, tagged by {@value #METHOD_KEY}.</li>
+ * <li>{@value #MAPPER_OBSERVATION}: the mappings between entities and DTOs, tagged by {@value #METHOD_KEY}. Mappings run once per row, so only the first
+ * of every {@value #MAPPING_SAMPLING_INTERVAL} mappings of each method is observed, which keeps the cost of the observations off the streamed and batched
+ * results.</li>
+ * <li>{@value #REPOSITORY_OBSERVATION}: the database queries, tagged by {@value #QUERY_KEY}.</li>
+ * </ul>
+ *
+ * @author ttrigo
+ * @since 0.1.0
+ */
+class TaskObservations {
+
+    /**
+     * The name of the service methods observation.
+     */
+    static final String SERVICE_OBSERVATION = "task.service";
+
+    /**
+     * The name of the mappings observation.
+     */
+    static final String MAPPER_OBSERVATION = "task.mapper";
+
+    /**
+     * The name of the database queries observation.
+     */
+    static final String REPOSITORY_OBSERVATION = "task.repository";
+
+    /**
+     * The key of the tag holding the observed method.
+     */
+    static final String METHOD_KEY = "method";
+
+    /**
+     * The key of the tag holding the observed query.
+     */
+    static final String QUERY_KEY = "query";
+
+    /**
+     * The number of mappings of a method per observed mapping.
+     */
+    static final int MAPPING_SAMPLING_INTERVAL = 100;
+
+    private final ObservationRegistry observationRegistry;
+
+    private final Map<String, AtomicLong> mappingCounts = new ConcurrentHashMap<>();
+
+    /**
+     * Default constructor.
+     *
+     * @param observationRegistry the registry where the observations are published, must not be {@literal null}.
+     */
+    TaskObservations(ObservationRegistry observationRegistry) {
+        this.observationRegistry = observationRegistry;
+    }
+
+    /**
+     * Observes each subscription to the given service method result.
+     *
+     * @param method the name of the service method.
+     * @param result the result of the service method.
+     * @param <T>    the type of the result.
+     * @return the given result observed.
+     */
+    <T> Mono<T> observeService(String method, Mono<T> result) {
+        return result.name(SERVICE_OBSERVATION)
+                     .tag(METHOD_KEY, method)
+                     .tap(Micrometer.observation(this.observationRegistry));
+    }
+
+    /**
+     * Observes each subscription to the given service method result.
+     *
+     * @param method the name of the service method.
+     * @param result the result of the service method.
+     * @param <T>    the type of the result.
+     * @return the given result observed.
+     */
+    <T> Flux<T> observeService(String method, Flux<T> result) {
+        return result.name(SERVICE_OBSERVATION)
+                     .tag(METHOD_KEY, method)
+                     .tap(Micrometer.observation(this.observationRegistry));
+    }
+
+    /**
+     * Observes each execution of the given database query.
+     *
+     * @param query  the name of the query.
+     * @param result the result of the query.
+     * @param <T>    the type of the result.
+     * @return the given result observed.
+     */
+    <T> Mono<T> observeQuery(String query, Mono<T> result) {
+        return result.name(REPOSITORY_OBSERVATION)
+                     .tag(QUERY_KEY, query)
+                     .tap(Micrometer.observation(this.observationRegistry));
+    }
+
+    /**
+     * Observes each execution of the given database query.
+     *
+     * @param query  the name of the query.
+     * @param result the result of the query.
+     * @param <T>    the type of the result.
+     * @return the given result observed.
+     */
+    <T> Flux<T> observeQuery(String query, Flux<T> result) {
+        return result.name(REPOSITORY_OBSERVATION)
+                     .tag(QUERY_KEY, query)
+                     .tap(Micrometer.observation(this.observationRegistry));
+    }
+
+    /**
+     * Executes the given mapping, observing it if it is the first of its interval.
+     *
+     * @param method  the name of the mapper method.
+     * @param mapping the mapping to execute.
+     * @param <T>     the type of the mapping result.
+     * @return the result of the mapping.
+     */
+    <T> T observeMapping(String method, Supplier<T> mapping) {
+        if (this.mappingCounts.computeIfAbsent(method, key -> new AtomicLong())
+                              .getAndIncrement() % MAPPING_SAMPLING_INTERVAL != 0) {
+            return mapping.get();
+        }
+        return Observation.createNotStarted(MAPPER_OBSERVATION, this.observationRegistry)
+                          .lowCardinalityKeyValue(METHOD_KEY, method)
+                          .observe(mapping);
+    }
+
+}
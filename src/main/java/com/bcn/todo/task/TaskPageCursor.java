@@ -0,0 +1,89 @@
+/**
+* Copyright 2023 the original author or authors.
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*     http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+*/
+package com.bcn.todo.task;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.UUID;
+
+import org.springframework.lang.NonNull;
+import org.springframework.lang.Nullable;
+
+import com.bcn.todo.error.InvalidContinuationTokenException;
+
+/**
+ * Represents the position of the last {@link Task} returned in a page.
+ * <p>
+ * Tasks are paginated by keyset on {@code (start_date, task_id)}, tasks without start date are placed at the end. The cursor is exchanged with clients as an
+ * opaque continuation token.
+ *
+ * @author ttrigo
+ * @since 0.1.0
+ */
+public record TaskPageCursor(@Nullable LocalDateTime startDateTime, @NonNull UUID id) {
+
+    private static final String SEPARATOR = "|";
+
+    /**
+     * Creates the cursor that points to the given task.
+     *
+     * @param task the last task of a page, must not be {@literal null}.
+     * @return the cursor pointing to the given task.
+     */
+    public static TaskPageCursor of(Task task) {
+        return new TaskPageCursor(task.startDateTime(), task.id());
+    }
+
+    /**
+     * Decodes the given continuation token.
+     *
+     * @param continuationToken the token to decode, may be {@literal null}.
+     * @return the cursor contained in the given token, or {@literal null} if the token is {@literal null}.
+     * @throws InvalidContinuationTokenException if the token is malformed.
+     */
+    @Nullable
+    public static TaskPageCursor decode(@Nullable String continuationToken) {
+        if (continuationToken == null) {
+            return null;
+        }
+
+        try {
+            var decodedToken = new String(Base64.getUrlDecoder()
+                                                .decode(continuationToken), StandardCharsets.UTF_8);
+            var separatorIndex = decodedToken.indexOf(SEPARATOR);
+            var startDateTime = decodedToken.substring(0, separatorIndex);
+            var id = decodedToken.substring(separatorIndex + 1);
+
+            return new TaskPageCursor(startDateTime.isEmpty() ? null : LocalDateTime.parse(startDateTime), UUID.fromString(id));
+        } catch (RuntimeException e) {
+            throw new InvalidContinuationTokenException("Invalid continuation token", e);
+        }
+    }
+
+    /**
+     * Encodes this cursor as an opaque continuation token.
+     *
+     * @return the continuation token.
+     */
+    public String encode() {
+        var token = (this.startDateTime == null ? "" : this.startDateTime.toString()) + SEPARATOR + this.id;
+        return Base64.getUrlEncoder()
+                     .withoutPadding()
+                     .encodeToString(token.getBytes(StandardCharsets.UTF_8));
+    }
+
+}
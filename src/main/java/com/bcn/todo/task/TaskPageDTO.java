@@ -0,0 +1,48 @@
+/**
+* Copyright 2023 the original author or authors.
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*     http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+*/
+package com.bcn.todo.task;
+
+import java.io.Serial;
+import java.io.Serializable;
+import java.util.List;
+
+import lombok.Builder;
+import lombok.Data;
+
+/**
+ * Represents a page of Task DTOs.
+ *
+ * @author ttrigo
+ * @since 0.1.0
+ */
+@Data
+@Builder
+public class TaskPageDTO implements Serializable {
+
+    @Serial
+    private static final long serialVersionUID = -6187062373570329374L;
+
+    /**
+     * The tasks of the page.
+     */
+    private List<TaskDTO> tasks;
+
+    /**
+     * The opaque token to get the next page, {@literal null} when there are no more pages.
+     */
+    private String continuationToken;
+
+}
@@ -29,7 +29,7 @@ import reactor.core.publisher.Mono;
  * @since 0.1.0
  */
 @Repository
-public interface TaskRepository extends R2dbcRepository<Task, UUID> {
+public interface TaskRepository extends R2dbcRepository<Task, UUID>, CustomTaskRepository {
 
     /**
      * Deletes a {@link Task} with the given id.
@@ -39,4 +39,13 @@ public interface TaskRepository extends R2dbcRepository<Task, UUID> {
      */
     Mono<Long> deleteTaskById(UUID id);
 
+    /**
+     * Deletes a {@link Task} with the given id only if its current version is the given one.
+     *
+     * @param id      the id of the task to be deleted, must not be {@literal null}.
+     * @param version the expected version of the task, must not be {@literal null}.
+     * @return {@link Mono} signaling one when the task has been deleted, otherwise signaling zero.
+     */
+    Mono<Long> deleteTaskByIdAndVersion(UUID id, Long version);
+
 }
@@ -15,8 +15,12 @@
 */
 package com.bcn.todo.task;
 
+import java.time.LocalDateTime;
 import java.util.UUID;
 
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.format.annotation.DateTimeFormat.ISO;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
@@ -25,8 +29,11 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.ResponseStatus;
+import org.springframework.web.util.UriComponentsBuilder;
 
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
@@ -35,6 +42,10 @@ import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Size;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
@@ -42,6 +53,9 @@ import reactor.core.publisher.Mono;
  * Defines the endpoints to handle task related requests and responses.
  * <p>
  * Web layer relies on Spring Webflux to manage Request and Responses in a reactive.
+ * <p>
+ * Tasks are exchanged as JSON by default, and as Protocol Buffers or CBOR when requested by the {@code Accept} and {@code Content-Type} headers. Lists and
+ * streams of tasks use length-delimited framing in the binary representations. The binary media types are only mapped when the binary codecs are enabled.
  *
  * @author ttrigo
  * @since 0.1.0
@@ -53,9 +67,13 @@ public interface TaskRestAPI {
     /**
      * Get a {@link TaskDTO} by id.
      * <p>
+     * The response carries the version of the task as a strong entity tag. When the entity tag given in the {@code If-None-Match} header is the current one,
+     * the task is not sent again.
+     * <p>
      * Response codes:
      * <ul>
      * <li>200-OK : Task has been found</li>
+     * <li>304-NOT_MODIFIED : Task has not been modified since the given entity tag</li>
      * <li>404-NOT_FOUND : Task not found</li>
      * </ul>
      *
@@ -64,8 +82,9 @@ public interface TaskRestAPI {
      */
     @Operation(summary = "Get a task by id", description = "Returns the task with the given id or empty if not found")
     @ApiResponse(responseCode = "200", description = "Task has been found", content = { @Content(schema = @Schema(implementation = TaskDTO.class)) })
+    @ApiResponse(responseCode = "304", description = "Task has not been modified", content = { @Content })
     @ApiResponse(responseCode = "404", description = "Task not found", content = { @Content })
-    @GetMapping(value = { "/{id}" }, produces = { "application/json" })
+    @GetMapping(value = { "/{id}" }, produces = { "application/json", "application/x-protobuf", "application/cbor" })
     Mono<ResponseEntity<TaskDTO>> getTaskById(@Parameter(description = "Id of the task to get") @PathVariable("id") UUID id);
 
     /**
@@ -80,10 +99,157 @@ public interface TaskRestAPI {
      */
     @Operation(summary = "Get all tasks", description = "Returns all tasks or empty if there aren't tasks")
     @ApiResponse(responseCode = "200", description = "All found tasks", content = { @Content(schema = @Schema(implementation = TaskDTO.class)) })
-    @GetMapping(value = { "" }, produces = { "application/json" })
+    @GetMapping(value = { "" }, params = { "!ids" }, produces = { "application/json", "application/x-protobuf", "application/cbor" })
     @ResponseStatus(HttpStatus.OK)
     Flux<TaskDTO> getAllTasks();
 
+    /**
+     * Streams all tasks as newline delimited JSON or as server-sent events.
+     * <p>
+     * Tasks are fetched from the database as the client consumes them, so the memory used does not depend on the number of tasks.
+     * <p>
+     * Response codes:
+     * <ul>
+     * <li>200-OK : All found tasks</li>
+     * </ul>
+     *
+     * @return all found {@link TaskDTO} or empty if there aren't task and the appropriate HTTP headers.
+     */
+    @Operation(summary = "Stream all tasks", description = "Streams all tasks or empty if there aren't tasks")
+    @ApiResponse(responseCode = "200", description = "All found tasks", content = { @Content(mediaType = "application/x-ndjson", schema = @Schema(implementation = TaskDTO.class)),
+            @Content(mediaType = "text/event-stream", schema = @Schema(implementation = TaskDTO.class)) })
+    @GetMapping(value = { "" }, params = { "!ids" }, produces = { "application/x-ndjson", "text/event-stream" })
+    @ResponseStatus(HttpStatus.OK)
+    Flux<TaskDTO> streamAllTasks();
+
+    /**
+     * Get a page of tasks.
+     * <p>
+     * Tasks are ordered by start date and id, tasks without start date are placed at the end.
+     * <p>
+     * Response codes:
+     * <ul>
+     * <li>200-OK : Page of tasks</li>
+     * <li>400-BAD_REQUEST : Invalid page size or continuation token</li>
+     * </ul>
+     *
+     * @param continuationToken the token returned with the previous page, empty to get the first page.
+     * @param size              the maximum number of tasks of the page, between 1 and 500.
+     * @return the found {@link TaskPageDTO} and the appropriate HTTP headers.
+     */
+    @Operation(summary = "Get a page of tasks", description = "Returns a page of tasks and the token to get the next page if there are more tasks")
+    @ApiResponse(responseCode = "200", description = "Page of tasks", content = { @Content(schema = @Schema(implementation = TaskPageDTO.class)) })
+    @ApiResponse(responseCode = "400", description = "Invalid page size or continuation token", content = { @Content })
+    @GetMapping(value = { "/page" }, produces = { "application/json" })
+    @ResponseStatus(HttpStatus.OK)
+    Mono<TaskPageDTO> getTasksPage(
+            @Parameter(description = "Token returned with the previous page") @RequestParam(name = "continuationToken", required = false) String continuationToken,
+            @Parameter(description = "Maximum number of tasks of the page") @RequestParam(name = "size", defaultValue = "50") @Min(1) @Max(500) int size);
+
+    /**
+     * Get the number of tasks, in total and by start date.
+     * <p>
+     * Tasks are counted by the database, so that clients get the counts without downloading the tasks. Only the periods with tasks are present in the
+     * buckets, weeks start on Monday.
+     * <p>
+     * Response codes:
+     * <ul>
+     * <li>200-OK : Number of tasks</li>
+     * <li>400-BAD_REQUEST : Invalid granularity</li>
+     * </ul>
+     *
+     * @param granularity the period of time covered by each bucket.
+     * @return the {@link TaskStatsDTO} and the appropriate HTTP headers.
+     */
+    @Operation(summary = "Get task statistics", description = "Returns the number of tasks in total, without start date and by day or week of start date")
+    @ApiResponse(responseCode = "200", description = "Number of tasks", content = { @Content(schema = @Schema(implementation = TaskStatsDTO.class)) })
+    @ApiResponse(responseCode = "400", description = "Invalid granularity", content = { @Content })
+    @GetMapping(value = { "/stats" }, produces = { "application/json" })
+    @ResponseStatus(HttpStatus.OK)
+    Mono<TaskStatsDTO> getTasksStats(
+            @Parameter(description = "Period of time covered by each bucket") @RequestParam(name = "granularity", defaultValue = "DAY") TaskStatsGranularity granularity);
+
+    /**
+     * Search tasks.
+     * <p>
+     * Filters without value are not applied, the rest of them are combined so that the tasks found match all of them. The title prefix is case-sensitive, the
+     * title substring is case-insensitive and the start date range includes its lower bound and excludes its upper bound.
+     * <p>
+     * Response codes:
+     * <ul>
+     * <li>200-OK : Tasks matching the filters</li>
+     * <li>400-BAD_REQUEST : Invalid filter, sort or size</li>
+     * </ul>
+     *
+     * @param titleStartsWith the prefix of the title of the tasks.
+     * @param titleContains   a substring of the title of the tasks.
+     * @param startDateFrom   the earliest start date of the tasks, inclusive.
+     * @param startDateTo     the latest start date of the tasks, exclusive.
+     * @param sort            the order of the tasks.
+     * @param size            the maximum number of tasks to get, between 1 and 500.
+     * @return the found {@link TaskDTO} or empty if no task matches the filters and the appropriate HTTP headers.
+     */
+    @Operation(summary = "Search tasks", description = "Returns the tasks matching all the given filters in the given order or empty if no task matches them")
+    @ApiResponse(responseCode = "200", description = "Tasks matching the filters", content = { @Content(schema = @Schema(implementation = TaskDTO.class)) })
+    @ApiResponse(responseCode = "400", description = "Invalid filter, sort or size", content = { @Content })
+    @GetMapping(value = { "/search" }, produces = { "application/json", "application/x-protobuf", "application/cbor" })
+    @ResponseStatus(HttpStatus.OK)
+    Flux<TaskDTO> searchTasks(
+            @Parameter(description = "Prefix of the title, case-sensitive") @RequestParam(name = "titleStartsWith", required = false) @Size(max = 50) String titleStartsWith,
+            @Parameter(description = "Substring of the title, case-insensitive") @RequestParam(name = "titleContains", required = false) @Size(max = 50) String titleContains,
+            @Parameter(description = "Earliest start date, inclusive") @RequestParam(name = "startDateFrom", required = false) @DateTimeFormat(iso = ISO.DATE_TIME) LocalDateTime startDateFrom,
+            @Parameter(description = "Latest start date, exclusive") @RequestParam(name = "startDateTo", required = false) @DateTimeFormat(iso = ISO.DATE_TIME) LocalDateTime startDateTo,
+            @Parameter(description = "Order of the tasks") @RequestParam(name = "sort", defaultValue = "START_DATE_ASC") TaskSearchSort sort,
+            @Parameter(description = "Maximum number of tasks to get") @RequestParam(name = "size", defaultValue = "50") @Min(1) @Max(500) int size);
+
+    /**
+     * Get a page of tasks matching the given keywords.
+     * <p>
+     * Keywords are matched against the title and the description of the tasks and support the web search syntax: quoted phrases, {@code or} and {@code -} to
+     * exclude a keyword. Tasks are ordered by relevance, matches in the title being more relevant than matches in the description.
+     * <p>
+     * Response codes:
+     * <ul>
+     * <li>200-OK : Page of matching tasks</li>
+     * <li>400-BAD_REQUEST : Invalid query, page size or continuation token</li>
+     * </ul>
+     *
+     * @param query             the keywords to search.
+     * @param continuationToken the token returned with the previous page, empty to get the first page.
+     * @param size              the maximum number of tasks of the page, between 1 and 500.
+     * @return the found {@link TaskPageDTO} and the appropriate HTTP headers.
+     */
+    @Operation(summary = "Search tasks by keywords", description = "Returns a page of tasks matching the keywords ordered by relevance and the token to get the next page if there are more tasks")
+    @ApiResponse(responseCode = "200", description = "Page of matching tasks", content = { @Content(schema = @Schema(implementation = TaskPageDTO.class)) })
+    @ApiResponse(responseCode = "400", description = "Invalid query, page size or continuation token", content = { @Content })
+    @GetMapping(value = { "/search/text" }, produces = { "application/json" })
+    @ResponseStatus(HttpStatus.OK)
+    Mono<TaskPageDTO> searchTasksByText(@Parameter(description = "Keywords to search") @RequestParam(name = "query") @NotBlank @Size(max = 200) String query,
+            @Parameter(description = "Token returned with the previous page") @RequestParam(name = "continuationToken", required = false) String continuationToken,
+            @Parameter(description = "Maximum number of tasks of the page") @RequestParam(name = "size", defaultValue = "50") @Min(1) @Max(500) int size);
+
+    /**
+     * Streams all tasks matching the given keywords as newline delimited JSON or as server-sent events.
+     * <p>
+     * Tasks are ordered by relevance and fetched from the database as the client consumes them.
+     * <p>
+     * Response codes:
+     * <ul>
+     * <li>200-OK : All matching tasks</li>
+     * <li>400-BAD_REQUEST : Invalid query</li>
+     * </ul>
+     *
+     * @param query the keywords to search.
+     * @return all matching {@link TaskDTO} or empty if no task matches and the appropriate HTTP headers.
+     */
+    @Operation(summary = "Stream tasks by keywords", description = "Streams all tasks matching the keywords ordered by relevance or empty if no task matches")
+    @ApiResponse(responseCode = "200", description = "All matching tasks", content = { @Content(mediaType = "application/x-ndjson", schema = @Schema(implementation = TaskDTO.class)),
+            @Content(mediaType = "text/event-stream", schema = @Schema(implementation = TaskDTO.class)) })
+    @ApiResponse(responseCode = "400", description = "Invalid query", content = { @Content })
+    @GetMapping(value = { "/search/text" }, produces = { "application/x-ndjson", "text/event-stream", "application/x-protobuf", "application/cbor" })
+    @ResponseStatus(HttpStatus.OK)
+    Flux<TaskDTO> streamTasksByText(@Parameter(description = "Keywords to search") @RequestParam(name = "query") @NotBlank @Size(max = 200) String query);
+
     /**
      * Create a {@link TaskDTO}.
      * <p>
@@ -97,44 +263,64 @@ public interface TaskRestAPI {
      */
     @Operation(summary = "Create a task", description = "Returns the created task with a new id")
     @ApiResponse(responseCode = "201", description = "Task has been created", content = { @Content(schema = @Schema(implementation = TaskDTO.class)) })
-    @PostMapping(value = { "" }, consumes = { "application/json" }, produces = { "application/json" })
+    @PostMapping(value = { "" }, consumes = { "application/json", "application/x-protobuf", "application/cbor" }, produces = { "application/json", "application/x-protobuf", "application/cbor" })
     @ResponseStatus(HttpStatus.CREATED)
     Mono<TaskDTO> createTask(@Valid @RequestBody TaskDTO taskDTO);
 
     /**
      * Updates a {@link TaskDTO}.
      * <p>
+     * When upsert is enabled, the task is created with the given identifier if it does not exist. When the {@code If-Match} header is given, the task is only
+     * updated if the given entity tag is the current one, and it is never created.
+     * <p>
      * Response codes:
      * <ul>
      * <li>200-OK : Task has been updated</li>
+     * <li>201-CREATED : Task has been created in upsert mode</li>
+     * <li>404-NOT_FOUND : Task not found</li>
+     * <li>412-PRECONDITION_FAILED : Task has been modified since the given entity tag</li>
      * </ul>
      *
-     * @param id      the identifier of the task to update.
-     * @param taskDTO the new task data.
+     * @param id         the identifier of the task to update.
+     * @param upsert     whether the task has to be created if it does not exist.
+     * @param ifMatch    the entity tag of the task known by the client, empty to update the task unconditionally.
+     * @param taskDTO    the new task data.
+     * @param uriBuilder the builder of the URIs relative to the context path of the request, used to locate the task when it is created.
      * @return a {@link ResponseEntity} wrapping the updated {@link TaskDTO} or empty if not found and the appropriate HTTP headers.
      */
     @Operation(summary = "Update a task", description = "Returns the updated task or empty if not found")
     @ApiResponse(responseCode = "200", description = "Task has been updated", content = { @Content(schema = @Schema(implementation = TaskDTO.class)) })
-    @PutMapping(value = { "/{id}" }, consumes = { "application/json" }, produces = { "application/json" })
+    @ApiResponse(responseCode = "201", description = "Task has been created", content = { @Content(schema = @Schema(implementation = TaskDTO.class)) })
+    @ApiResponse(responseCode = "404", description = "Task not found", content = { @Content })
+    @ApiResponse(responseCode = "412", description = "Task has been modified", content = { @Content })
+    @PutMapping(value = { "/{id}" }, consumes = { "application/json", "application/x-protobuf", "application/cbor" }, produces = { "application/json", "application/x-protobuf", "application/cbor" })
     Mono<ResponseEntity<TaskDTO>> updateTask(@Parameter(description = "Identifier of the task to update") @PathVariable("id") UUID id,
-            @Valid @RequestBody TaskDTO taskDTO);
+            @Parameter(description = "Whether the task has to be created if it does not exist") @RequestParam(name = "upsert", defaultValue = "false") boolean upsert,
+            @Parameter(description = "Entity tag of the task known by the client") @RequestHeader(name = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+            @Valid @RequestBody TaskDTO taskDTO, @Parameter(hidden = true) UriComponentsBuilder uriBuilder);
 
     /**
      * Delete a {@link TaskDTO} by id.
      * <p>
+     * When the {@code If-Match} header is given, the task is only deleted if the given entity tag is the current one.
+     * <p>
      * Response codes:
      * <ul>
      * <li>204-NO_CONTENT : Task has been deleted</li>
      * <li>404-NOT_FOUND : Task not found</li>
+     * <li>412-PRECONDITION_FAILED : Task has been modified since the given entity tag</li>
      * </ul>
      *
-     * @param id the id of the task to delete.
+     * @param id      the id of the task to delete.
+     * @param ifMatch the entity tag of the task known by the client, empty to delete the task unconditionally.
      * @return a {@link ResponseEntity} wrapping empty and the appropriate HTTP headers.
      */
     @Operation(summary = "Delete a task by id", description = "Returns the empty")
     @ApiResponse(responseCode = "204", description = "Task has been deleted", content = { @Content })
     @ApiResponse(responseCode = "404", description = "Task not found", content = { @Content })
+    @ApiResponse(responseCode = "412", description = "Task has been modified", content = { @Content })
     @DeleteMapping(value = { "/{id}" }, produces = { "application/json" })
-    Mono<ResponseEntity<Void>> deleteTaskById(@Parameter(description = "Id of the task to delete") @PathVariable("id") UUID id);
+    Mono<ResponseEntity<Void>> deleteTaskById(@Parameter(description = "Id of the task to delete") @PathVariable("id") UUID id,
+            @Parameter(description = "Entity tag of the task known by the client") @RequestHeader(name = HttpHeaders.IF_MATCH, required = false) String ifMatch);
 
 }
@@ -15,6 +15,7 @@
 */
 package com.bcn.todo.task;
 
+import java.time.LocalDateTime;
 import java.util.UUID;
 
 import org.slf4j.Logger;
@@ -22,12 +23,18 @@ import org.slf4j.LoggerFactory;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.util.UriComponentsBuilder;
 
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
+import com.bcn.todo.compression.ContentCoding;
+
 /**
  * Default implementation of the Task API.
+ * <p>
+ * The version of a task is exchanged with clients as its strong entity tag, so that clients can avoid downloading tasks they already have and modifying tasks
+ * that have been modified by someone else.
  *
  * @author ttrigo
  * @since 0.1.0
@@ -37,6 +44,20 @@ public class TaskRestController implements TaskRestAPI {
 
     private static final Logger logger = LoggerFactory.getLogger(TaskRestController.class);
 
+    private static final String ETAG_QUOTE = "\"";
+
+    private static final String ANY_ETAG = "*";
+
+    /**
+     * The path of a task relative to the context path, where created tasks are located.
+     */
+    private static final String TASK_PATH = "/v1/tasks/{id}";
+
+    /**
+     * The version expected when the entity tag sent by the client is not a task version, it never matches since versions start at zero.
+     */
+    private static final long UNKNOWN_VERSION = -1L;
+
     private final TaskService taskService;
 
     /**
@@ -52,7 +73,7 @@ public class TaskRestController implements TaskRestAPI {
 
     public Mono<ResponseEntity<TaskDTO>> getTaskById(UUID id) {
         return this.taskService.findById(id)
-                               .map(ResponseEntity::ok)
+                               .map(TaskRestController::toResponseEntity)
                                .switchIfEmpty(Mono.just(ResponseEntity.notFound()
                                                                       .build()));
     }
@@ -62,6 +83,37 @@ public class TaskRestController implements TaskRestAPI {
         return this.taskService.findAll();
     }
 
+    @Override
+    public Flux<TaskDTO> streamAllTasks() {
+        return this.taskService.streamAll();
+    }
+
+    @Override
+    public Mono<TaskPageDTO> getTasksPage(String continuationToken, int size) {
+        return this.taskService.findPage(continuationToken, size);
+    }
+
+    @Override
+    public Mono<TaskStatsDTO> getTasksStats(TaskStatsGranularity granularity) {
+        return this.taskService.findStats(granularity);
+    }
+
+    @Override
+    public Flux<TaskDTO> searchTasks(String titleStartsWith, String titleContains, LocalDateTime startDateFrom, LocalDateTime startDateTo, TaskSearchSort sort,
+            int size) {
+        return this.taskService.search(new TaskSearchCriteria(titleStartsWith, titleContains, startDateFrom, startDateTo, sort, size));
+    }
+
+    @Override
+    public Mono<TaskPageDTO> searchTasksByText(String query, String continuationToken, int size) {
+        return this.taskService.searchText(query, continuationToken, size);
+    }
+
+    @Override
+    public Flux<TaskDTO> streamTasksByText(String query) {
+        return this.taskService.streamSearchText(query);
+    }
+
     @Override
     public Mono<TaskDTO> createTask(TaskDTO taskDTO) {
         logger.info("Creating a new task ...");
@@ -70,19 +122,30 @@ public class TaskRestController implements TaskRestAPI {
     }
 
     @Override
-    public Mono<ResponseEntity<TaskDTO>> updateTask(UUID id, TaskDTO taskDTO) {
+    public Mono<ResponseEntity<TaskDTO>> updateTask(UUID id, boolean upsert, String ifMatch, TaskDTO taskDTO, UriComponentsBuilder uriBuilder) {
         logger.info("Updating the task {} ...", id);
+        taskDTO.setVersion(toExpectedVersion(ifMatch));
+        if (upsert && ifMatch == null) {
+            return this.taskService.upsert(id, taskDTO)
+                                   .doOnSuccess(taskUpserted -> logger.info("Task {} upserted successfully", id))
+                                   .map(taskUpserted -> TaskService.INITIAL_VERSION.equals(taskUpserted.getVersion())
+                                           ? toResponseEntity(ResponseEntity.created(uriBuilder.path(TASK_PATH)
+                                                                                               .buildAndExpand(id)
+                                                                                               .toUri()), taskUpserted)
+                                           : toResponseEntity(taskUpserted));
+        }
+
         return this.taskService.update(id, taskDTO)
                                .doOnSuccess(taskUpdated -> logger.info("Task {} updated successfully", id))
-                               .map(ResponseEntity::ok)
+                               .map(TaskRestController::toResponseEntity)
                                .switchIfEmpty(Mono.just(ResponseEntity.notFound()
                                                                       .build()));
     }
 
     @Override
-    public Mono<ResponseEntity<Void>> deleteTaskById(UUID id) {
+    public Mono<ResponseEntity<Void>> deleteTaskById(UUID id, String ifMatch) {
         logger.info("Deleting the task {} ...", id);
-        return this.taskService.deleteById(id)
+        return this.taskService.deleteById(id, toExpectedVersion(ifMatch))
                                .doOnSuccess(taskHasBeenDeleted -> logger.info("Task {} deleted successfully", id))
                                .map(taskHasBeenDeleted -> ResponseEntity.status(
                                        Boolean.TRUE.equals(taskHasBeenDeleted) ? HttpStatus.NO_CONTENT : HttpStatus.NOT_FOUND)
@@ -90,4 +153,55 @@ public class TaskRestController implements TaskRestAPI {
 
     }
 
+    /**
+     * Builds the OK response of the given task, tagged with the version of the task.
+     * <p>
+     * Conditional GET requests whose {@code If-None-Match} header contains the tag are answered with NOT_MODIFIED, without writing the body.
+     *
+     * @param taskDTO the task to respond.
+     * @return the OK response wrapping the given task.
+     */
+    private static ResponseEntity<TaskDTO> toResponseEntity(TaskDTO taskDTO) {
+        return toResponseEntity(ResponseEntity.ok(), taskDTO);
+    }
+
+    /**
+     * Builds the response of the given task with the given builder, tagged with the version of the task.
+     *
+     * @param responseBuilder the builder of the response with its status already set.
+     * @param taskDTO         the task to respond.
+     * @return the response wrapping the given task.
+     */
+    private static ResponseEntity<TaskDTO> toResponseEntity(ResponseEntity.BodyBuilder responseBuilder, TaskDTO taskDTO) {
+        if (taskDTO.getVersion() != null) {
+            responseBuilder.eTag(ETAG_QUOTE + taskDTO.getVersion() + ETAG_QUOTE);
+        }
+        return responseBuilder.body(taskDTO);
+    }
+
+    /**
+     * Extracts the version expected by the client from the {@code If-Match} header.
+     * <p>
+     * Entity tags are compared strongly, so weak or unknown entity tags are mapped to a version that never matches. The entity tags of the compressed
+     * representations of a task carry the version of the task as well.
+     *
+     * @param ifMatch the value of the header, may be {@literal null}.
+     * @return the expected version, or {@literal null} if the header is not present or matches any version.
+     */
+    private static Long toExpectedVersion(String ifMatch) {
+        if (ifMatch == null || ANY_ETAG.equals(ifMatch.trim())) {
+            return null;
+        }
+
+        var eTag = ContentCoding.decodeAnyEntityTag(ifMatch.trim());
+        if (eTag.length() > 2 && eTag.startsWith(ETAG_QUOTE) && eTag.endsWith(ETAG_QUOTE)) {
+            try {
+                return Long.parseLong(eTag.substring(1, eTag.length() - 1));
+            } catch (NumberFormatException e) {
+                logger.debug("Entity tag {} is not a task version", eTag);
+            }
+        }
+        return UNKNOWN_VERSION;
+    }
+
 }
@@ -0,0 +1,44 @@
+/**
+* Copyright 2023 the original author or authors.
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*     http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+*/
+package com.bcn.todo.task;
+
+import java.time.LocalDateTime;
+
+import org.springframework.lang.NonNull;
+import org.springframework.lang.Nullable;
+
+/**
+ * Represents the filters, the order and the limit of a {@link Task} search.
+ * <p>
+ * Filters without value are not applied, the rest of them are combined so that the tasks found match all of them.
+ *
+ * @author ttrigo
+ * @since 0.1.0
+ */
+public record TaskSearchCriteria(@Nullable String titleStartsWith, @Nullable String titleContains, @Nullable LocalDateTime startDateFrom,
+        @Nullable LocalDateTime startDateTo, @NonNull TaskSearchSort sort, int limit) {
+
+    /**
+     * Checks whether the given filter has value.
+     *
+     * @param filter the filter to check.
+     * @return true if the filter is not {@literal null} nor empty, otherwise false.
+     */
+    static boolean hasValue(@Nullable String filter) {
+        return filter != null && !filter.isEmpty();
+    }
+
+}
@@ -0,0 +1,49 @@
+/**
+* Copyright 2023 the original author or authors.
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*     http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+*/
+package com.bcn.todo.task;
+
+/**
+ * Represents the order of the tasks found by a search.
+ * <p>
+ * Ties are broken by task id in the same direction, tasks without start date are placed after the tasks with start date in ascending order and before them
+ * in descending order.
+ *
+ * @author ttrigo
+ * @since 0.1.0
+ */
+public enum TaskSearchSort {
+
+    /**
+     * Ordered by start date from the earliest to the latest.
+     */
+    START_DATE_ASC,
+
+    /**
+     * Ordered by start date from the latest to the earliest.
+     */
+    START_DATE_DESC,
+
+    /**
+     * Ordered by title alphabetically.
+     */
+    TITLE_ASC,
+
+    /**
+     * Ordered by title in reverse alphabetical order.
+     */
+    TITLE_DESC
+
+}
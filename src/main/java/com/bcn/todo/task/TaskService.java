@@ -15,8 +15,11 @@
 */
 package com.bcn.todo.task;
 
+import java.util.List;
 import java.util.UUID;
 
+import org.springframework.lang.Nullable;
+
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
@@ -28,6 +31,11 @@ import reactor.core.publisher.Mono;
  */
 public interface TaskService {
 
+    /**
+     * The version of the tasks that have just been inserted.
+     */
+    Long INITIAL_VERSION = 0L;
+
     /**
      * Finds a {@link Task} by the given id.
      *
@@ -36,6 +44,14 @@ public interface TaskService {
      */
     Mono<TaskDTO> findById(UUID id);
 
+    /**
+     * Finds the {@link Task} with the given ids with a single query.
+     *
+     * @param ids the ids of the tasks to be found, must not be {@literal null}.
+     * @return {@link Flux} emitting the result of each given id, in the same order, with the found task if the id exists.
+     */
+    Flux<TaskBatchResultDTO> findAllById(List<UUID> ids);
+
     /**
      * Finds all {@link Task}.
      *
@@ -43,6 +59,66 @@ public interface TaskService {
      */
     Flux<TaskDTO> findAll();
 
+    /**
+     * Finds a page of {@link Task} ordered by start date and id.
+     * <p>
+     * Tasks without start date are placed at the end.
+     *
+     * @param continuationToken the token returned with the previous page, {@literal null} to find the first page.
+     * @param size              the maximum number of tasks of the page.
+     * @return {@link Mono} emitting the found page, which contains the token to find the next page if there are more tasks.
+     */
+    Mono<TaskPageDTO> findPage(String continuationToken, int size);
+
+    /**
+     * Searches the {@link Task} matching all the filters of the given criteria.
+     *
+     * @param criteria the filters, the order and the maximum number of tasks to find, must not be {@literal null}.
+     * @return {@link Flux} emitting the matching tasks in the requested order, otherwise emitting empty.
+     */
+    Flux<TaskDTO> search(TaskSearchCriteria criteria);
+
+    /**
+     * Finds a page of {@link Task} matching the given keywords, ordered by relevance.
+     * <p>
+     * Keywords are matched against the title and the description of the tasks, matches in the title being more relevant than matches in the description.
+     *
+     * @param query             the keywords to search, in web search syntax, must not be {@literal null}.
+     * @param continuationToken the token returned with the previous page, {@literal null} to find the first page.
+     * @param size              the maximum number of tasks of the page.
+     * @return {@link Mono} emitting the found page, which contains the token to find the next page if there are more matching tasks.
+     */
+    Mono<TaskPageDTO> searchText(String query, String continuationToken, int size);
+
+    /**
+     * Streams all {@link Task} matching the given keywords, ordered by relevance.
+     * <p>
+     * Unlike {@link #searchText(String, String, int)}, matching tasks are fetched from the database as they are requested by the subscriber.
+     *
+     * @param query the keywords to search, in web search syntax, must not be {@literal null}.
+     * @return {@link Flux} emitting the matching tasks, otherwise emitting empty.
+     */
+    Flux<TaskDTO> streamSearchText(String query);
+
+    /**
+     * Streams all {@link Task}.
+     * <p>
+     * Unlike {@link #findAll()}, tasks are fetched from the database as they are requested by the subscriber.
+     *
+     * @return {@link Flux} emitting all found task if there are task, otherwise emitting empty.
+     */
+    Flux<TaskDTO> streamAll();
+
+    /**
+     * Counts the {@link Task}, in total and by start date.
+     * <p>
+     * Tasks are counted by the database, so that the tasks themselves are never read.
+     *
+     * @param granularity the period of time covered by each bucket of tasks counted by start date, must not be {@literal null}.
+     * @return {@link Mono} emitting the number of tasks, in total, without start date and by start date.
+     */
+    Mono<TaskStatsDTO> findStats(TaskStatsGranularity granularity);
+
     /**
      * Creates the given {@link Task}.
      * <p>
@@ -56,20 +132,65 @@ public interface TaskService {
     /**
      * Updates the {@link Task} with the given id.
      * <p>
-     * The id of the task is never updated, so in cases where the given task has id it is ignored.
+     * The id of the task is never updated, so in cases where the given task has id it is ignored. When the given task has version, the task is only updated if
+     * its current version is the same.
      *
      * @param id      the id of the task to be updated, must not be {@literal null}.
-     * @param taskDTO the new task data.
-     * @return {@link Mono} emitting the task updated with the new data if the given id exists, otherwise emitting empty.
+     * @param taskDTO the new task data, with the expected version of the task or without version to update it unconditionally.
+     * @return {@link Mono} emitting the task updated with the new data if the given id exists, otherwise emitting empty. Emits a
+     *         {@link com.bcn.todo.error.VersionMismatchException} if the task exists with another version.
      */
     Mono<TaskDTO> update(UUID id, TaskDTO taskDTO);
 
+    /**
+     * Updates the {@link Task} with the given id, or creates it with the given id if it does not exist.
+     * <p>
+     * The id of the task is never updated, so in cases where the given task has id it is ignored. When the given task has version, the task is never created
+     * and it behaves as {@link #update(UUID, TaskDTO)}.
+     *
+     * @param id      the id of the task to be updated or created, must not be {@literal null}.
+     * @param taskDTO the new task data, with the expected version of the task or without version to update it unconditionally.
+     * @return {@link Mono} emitting the task updated or created with the new data, created tasks are emitted with the {@link #INITIAL_VERSION}.
+     */
+    Mono<TaskDTO> upsert(UUID id, TaskDTO taskDTO);
+
     /**
      * Deletes a {@link Task} by the given id.
      *
-     * @param id the id of the task to be deleted, must not be {@literal null}.
-     * @return {@link Mono} emitting true if the given id exists, otherwise emitting false.
+     * @param id              the id of the task to be deleted, must not be {@literal null}.
+     * @param expectedVersion the expected version of the task, {@literal null} to delete it unconditionally.
+     * @return {@link Mono} emitting true if the given id exists, otherwise emitting false. Emits a {@link com.bcn.todo.error.VersionMismatchException} if the
+     *         task exists with another version.
+     */
+    Mono<Boolean> deleteById(UUID id, @Nullable Long expectedVersion);
+
+    /**
+     * Creates the given {@link Task} stream in batches.
+     * <p>
+     * Always creates the tasks with a new id, therefore in cases where the id of a given task is present it is ignored. Invalid tasks are not created.
+     *
+     * @param taskDTOs the tasks to be created.
+     * @return {@link Flux} emitting the result of each given task, in the same order.
+     */
+    Flux<TaskBatchResultDTO> createAll(Flux<TaskDTO> taskDTOs);
+
+    /**
+     * Updates the given {@link Task} stream in batches.
+     * <p>
+     * Each task is updated by its id, tasks without id or invalid are not updated. Tasks are written in chunks with a single statement each, and a task
+     * whose id repeats the one of an earlier task of its chunk is rejected as invalid, since only one of them could be written.
+     *
+     * @param taskDTOs the tasks to be updated.
+     * @return {@link Flux} emitting the result of each given task, in the same order.
+     */
+    Flux<TaskBatchResultDTO> updateAll(Flux<TaskDTO> taskDTOs);
+
+    /**
+     * Deletes the {@link Task} with the given ids in batches.
+     *
+     * @param ids the ids of the tasks to be deleted.
+     * @return {@link Flux} emitting the result of each given id, in the same order.
      */
-    Mono<Boolean> deleteById(UUID id);
+    Flux<TaskBatchResultDTO> deleteAllById(Flux<UUID> ids);
 
 }
@@ -15,15 +15,46 @@
 */
 package com.bcn.todo.task;
 
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.UUID;
+import java.util.function.Function;
 
+import org.springframework.lang.Nullable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.reactive.TransactionalOperator;
 
+import io.micrometer.observation.ObservationRegistry;
+import jakarta.validation.Validator;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
+import reactor.util.context.ContextView;
+import reactor.util.function.Tuple2;
+
+import com.bcn.todo.deadline.Deadlines;
+import com.bcn.todo.error.InvalidRequestParameterDTO;
+import com.bcn.todo.error.VersionMismatchException;
+import com.bcn.todo.outbox.TaskOutboxRepository;
+import com.bcn.todo.routing.DatabaseRouting;
 
 /**
  * Default implementation of the {@link Task} operations.
+ * <p>
+ * Queries of the read operations are marked as read-only, so that they can be routed to a read replica. Writes of a single task are conditional on its version
+ * when the expected version is given.
+ * <p>
+ * Every write records the changes of the tasks in the outbox within the same transaction, so that the changes are published if and only if they are committed.
+ * <p>
+ * Every operation is bounded by its {@link TaskTimeouts timeout} and by the deadline of the request, and its queries are cancelled on the database when it
+ * times out or its subscriber goes away.
+ * <p>
+ * When a {@link TaskFindBatcher} is given, the tasks found by id at about the same time are found with a single query.
  *
  * @author ttrigo
  * @since 0.1.0
@@ -32,60 +63,557 @@ import reactor.core.publisher.Mono;
 @Service
 public class TaskServiceImpl implements TaskService {
 
+    /**
+     * The maximum number of items written with a single statement in batch operations.
+     */
+    private static final int BATCH_CHUNK_SIZE = 500;
+
+    /**
+     * The maximum time to wait for a batch chunk to be filled before writing it.
+     */
+    private static final Duration BATCH_CHUNK_MAX_WAIT = Duration.ofMillis(100);
+
+    private static final String TASK_ENTITY_NAME = "taskDTO";
+
     private final TaskRepository taskRepository;
 
+    private final TaskOutboxRepository taskOutboxRepository;
+
+    private final TransactionalOperator transactionalOperator;
+
     private final TaskMapper taskMapper;
 
+    private final Validator validator;
+
+    private final TaskObservations observations;
+
+    private final TaskTimeouts timeouts;
+
+    private final TaskFindBatcher findBatcher;
+
     /**
      * Default constructor.
      * 
-     * @param taskMapper     the mapper to between {@link Task} and {@link TaskDTO}, must not be {@literal null}.
-     * @param taskRepository the repository to access task data, must not be {@literal null}.
+     * @param taskMapper            the mapper to between {@link Task} and {@link TaskDTO}, must not be {@literal null}.
+     * @param taskRepository        the repository to access task data, must not be {@literal null}.
+     * @param taskOutboxRepository  the repository of the outbox where the changes of the tasks are recorded, must not be {@literal null}.
+     * @param transactionalOperator the operator that runs each write and the record of its changes in a transaction, must not be {@literal null}.
+     * @param validator             the validator used to validate the items of batch operations, must not be {@literal null}.
+     * @param observationRegistry   the registry where the latency of each stage of the operations is published, must not be {@literal null}.
+     * @param timeouts              the timeouts of the operations, must not be {@literal null}.
+     * @param findBatcher           the batcher of the queries finding a task by id, {@literal null} to find each task with a query of its own.
      */
-    public TaskServiceImpl(TaskMapper taskMapper, TaskRepository taskRepository) {
+    public TaskServiceImpl(TaskMapper taskMapper, TaskRepository taskRepository, TaskOutboxRepository taskOutboxRepository,
+            TransactionalOperator transactionalOperator, Validator validator, ObservationRegistry observationRegistry, TaskTimeouts timeouts,
+            @Nullable TaskFindBatcher findBatcher) {
         this.taskMapper = taskMapper;
         this.taskRepository = taskRepository;
+        this.taskOutboxRepository = taskOutboxRepository;
+        this.transactionalOperator = transactionalOperator;
+        this.validator = validator;
+        this.observations = new TaskObservations(observationRegistry);
+        this.timeouts = timeouts;
+        this.findBatcher = findBatcher;
     }
 
     @Override
     public Mono<TaskDTO> findById(UUID id) {
-        return Mono.just(id)
-                   .flatMap(this.taskRepository::findById)
-                   .map(this.taskMapper::toTaskDTO);
+        return serve("findById", Mono.just(id)
+                                     .flatMap(taskId -> Mono.deferContextual(context -> this.observations.observeQuery("findById", canBatch(context)
+                                             ? this.findBatcher.findById(taskId) : this.taskRepository.findById(taskId))))
+                                     .contextWrite(DatabaseRouting::readOnly)
+                                     .map(this::toTaskDTO));
+    }
+
+    @Override
+    public Flux<TaskBatchResultDTO> findAllById(List<UUID> ids) {
+        var foundTasks = ids.isEmpty() ? Flux.<Task> empty()
+                : this.observations.observeQuery("findTasksByIds", this.taskRepository.findTasksByIds(new HashSet<>(ids)));
+
+        return serve("findAllById", foundTasks.contextWrite(DatabaseRouting::readOnly)
+                                              .collectMap(Task::id)
+                                              .flatMapIterable(tasksById -> toFoundResults(ids, tasksById)));
     }
 
     @Override
     public Flux<TaskDTO> findAll() {
-        return this.taskRepository.findAll()
-                                  .map(this.taskMapper::toTaskDTO);
+        return serve("findAll", this.observations.observeQuery("findAll", this.taskRepository.findAll())
+                                                 .contextWrite(DatabaseRouting::readOnly)
+                                                 .map(this::toTaskDTO));
+    }
+
+    @Override
+    public Mono<TaskPageDTO> findPage(String continuationToken, int size) {
+        return serve("findPage",
+                Mono.defer(() -> this.observations.observeQuery("findPage", this.taskRepository.findPage(TaskPageCursor.decode(continuationToken), size + 1))
+                                                  .collectList())
+                    .contextWrite(DatabaseRouting::readOnly)
+                    .map(tasks -> toTaskPage(tasks, size)));
+    }
+
+    @Override
+    public Flux<TaskDTO> search(TaskSearchCriteria criteria) {
+        return serve("search", this.observations.observeQuery("search", this.taskRepository.search(criteria))
+                                                .contextWrite(DatabaseRouting::readOnly)
+                                                .map(this::toTaskDTO));
+    }
+
+    @Override
+    public Mono<TaskPageDTO> searchText(String query, String continuationToken, int size) {
+        return serve("searchText",
+                Mono.defer(() -> this.observations.observeQuery("searchText",
+                        this.taskRepository.searchText(query, TaskTextSearchCursor.decode(continuationToken), size + 1))
+                                                  .collectList())
+                    .contextWrite(DatabaseRouting::readOnly)
+                    .map(rankedTasks -> toTextSearchPage(rankedTasks, size)));
+    }
+
+    @Override
+    public Flux<TaskDTO> streamSearchText(String query) {
+        return serve("streamSearchText",
+                this.observations.observeQuery("streamSearchText", this.taskRepository.streamSearchText(query))
+                                 .contextWrite(DatabaseRouting::readOnly)
+                                 .map(this::toTaskDTO));
+    }
+
+    @Override
+    public Flux<TaskDTO> streamAll() {
+        return serve("streamAll", this.observations.observeQuery("streamAll", this.taskRepository.streamAll())
+                                                   .contextWrite(DatabaseRouting::readOnly)
+                                                   .map(this::toTaskDTO));
+    }
+
+    @Override
+    public Mono<TaskStatsDTO> findStats(TaskStatsGranularity granularity) {
+        return serve("findStats", this.observations.observeQuery("countByStartDate", this.taskRepository.countByStartDate(granularity))
+                                                   .contextWrite(DatabaseRouting::readOnly)
+                                                   .collectList()
+                                                   .map(this::toTaskStats));
     }
 
     @Override
     public Mono<TaskDTO> create(TaskDTO taskDTO) {
-        return Mono.just(taskDTO)
-                   .map(this.taskMapper::toTaskIgnoreId)
-                   .flatMap(this.taskRepository::save)
-                   .map(this.taskMapper::toTaskDTO);
+        return serve("create", Mono.just(taskDTO)
+                                   .map(this::toTaskIgnoreId)
+                                   .flatMap(task -> this.observations.observeQuery("save", this.taskRepository.save(task)))
+                                   .flatMap(task -> recordChange(TaskChangeOperation.CREATED, task))
+                                   .as(this.transactionalOperator::transactional)
+                                   .map(this::toTaskDTO));
     }
 
     @Override
     public Mono<TaskDTO> update(UUID id, TaskDTO taskDTO) {
-        return Mono.just(id)
-                   .flatMap(this.taskRepository::existsById)
-                   .filter(Boolean::booleanValue)
-                   .map(exists -> {
-                       taskDTO.setId(id);
-                       return this.taskMapper.toTask(taskDTO);
-                   })
-                   .flatMap(this.taskRepository::save)
-                   .map(this.taskMapper::toTaskDTO);
-    }
-
-    @Override
-    public Mono<Boolean> deleteById(UUID id) {
-        return Mono.just(id)
-                   .flatMap(this.taskRepository::deleteTaskById)
-                   .map(deleteCount -> deleteCount > 0L);
+        return serve("update", Mono.just(id)
+                                   .map(taskId -> {
+                                       taskDTO.setId(taskId);
+                                       return toTask(taskDTO);
+                                   })
+                                   .flatMap(this::updateTask)
+                                   .flatMap(task -> recordChange(TaskChangeOperation.UPDATED, task))
+                                   .as(this.transactionalOperator::transactional)
+                                   .map(this::toTaskDTO));
+    }
+
+    @Override
+    public Mono<TaskDTO> upsert(UUID id, TaskDTO taskDTO) {
+        return serve("upsert", Mono.just(id)
+                                   .map(taskId -> {
+                                       taskDTO.setId(taskId);
+                                       return toTask(taskDTO);
+                                   })
+                                   .flatMap(task -> task.version() == null ? this.observations.observeQuery("upsertTask",
+                                           this.taskRepository.upsertTask(task)) : updateTask(task))
+                                   .flatMap(task -> recordChange(INITIAL_VERSION.equals(task.version()) ? TaskChangeOperation.CREATED
+                                           : TaskChangeOperation.UPDATED, task))
+                                   .as(this.transactionalOperator::transactional)
+                                   .map(this::toTaskDTO));
+    }
+
+    @Override
+    public Mono<Boolean> deleteById(UUID id, Long expectedVersion) {
+        Mono<Boolean> deleted = Mono.just(id)
+                                    .flatMap(taskId -> expectedVersion == null ? this.observations.observeQuery("deleteTaskById",
+                                            this.taskRepository.deleteTaskById(taskId)) : deleteTaskIfVersionMatches(taskId, expectedVersion))
+                                    .flatMap(deleteCount -> deleteCount > 0L ? appendToOutbox(TaskChangeOperation.DELETED, List.of(id))
+                                            .thenReturn(true) : Mono.just(false));
+
+        return serve("deleteById", this.transactionalOperator.transactional(deleted));
+    }
+
+    @Override
+    public Flux<TaskBatchResultDTO> createAll(Flux<TaskDTO> taskDTOs) {
+        return serve("createAll", chunk(taskDTOs).concatMap(chunk -> writeChunk(chunk, false, taskDTO -> {
+            var task = toTaskIgnoreId(taskDTO);
+            return new Task(UUID.randomUUID(), task.title(), task.description(), task.startDateTime(), null);
+        }, tasks -> recordChanges(TaskChangeOperation.CREATED, this.observations.observeQuery("insertTasks", this.taskRepository.insertTasks(tasks))),
+                TaskBatchResultStatus.CREATED)));
+    }
+
+    @Override
+    public Flux<TaskBatchResultDTO> updateAll(Flux<TaskDTO> taskDTOs) {
+        return serve("updateAll", chunk(taskDTOs).concatMap(chunk -> writeChunk(chunk, true, this::toTask,
+                tasks -> recordChanges(TaskChangeOperation.UPDATED, this.observations.observeQuery("updateTasks", this.taskRepository.updateTasks(tasks))),
+                TaskBatchResultStatus.UPDATED)));
+    }
+
+    @Override
+    public Flux<TaskBatchResultDTO> deleteAllById(Flux<UUID> ids) {
+        return serve("deleteAllById", chunk(ids).concatMap(this::deleteChunk));
+    }
+
+    /**
+     * Observes each subscription to the given operation result, bounded by the timeout of the operation.
+     *
+     * @param method the name of the operation.
+     * @param result the result of the operation.
+     * @param <T>    the type of the result.
+     * @return the given result bounded and observed.
+     */
+    private <T> Mono<T> serve(String method, Mono<T> result) {
+        return this.observations.observeService(method, this.timeouts.limit(method, result));
+    }
+
+    /**
+     * Observes each subscription to the given operation result, bounded by the timeout of the operation.
+     *
+     * @param method the name of the operation.
+     * @param result the result of the operation.
+     * @param <T>    the type of the result.
+     * @return the given result bounded and observed.
+     */
+    private <T> Flux<T> serve(String method, Flux<T> result) {
+        return this.observations.observeService(method, this.timeouts.limit(method, result));
+    }
+
+    /**
+     * Checks whether a find by id can join a batch query.
+     * <p>
+     * Batch queries are routed to a read replica and are not bounded by the deadline of any request, so finds that require the primary database or that are
+     * bounded by the deadline of their request are sent on their own.
+     *
+     * @param context the context of the find.
+     * @return {@literal true} if there is a batcher and the find can be routed to a replica without a deadline.
+     */
+    private boolean canBatch(ContextView context) {
+        if (this.findBatcher == null || !DatabaseRouting.canUseReplica(context)) {
+            return false;
+        }
+        return Deadlines.remaining(context)
+                        .isEmpty();
+    }
+
+    /**
+     * Updates the given task, checking its version when present.
+     *
+     * @param task the task to update.
+     * @return {@link Mono} emitting the updated task if its id exists, otherwise emitting empty. Emits a {@link VersionMismatchException} if the task exists
+     *         with another version.
+     */
+    private Mono<Task> updateTask(Task task) {
+        return this.observations.observeQuery("updateTask", this.taskRepository.updateTask(task))
+                                .switchIfEmpty(Mono.defer(() -> task.version() == null ? Mono.<Task> empty() : failIfExists(task.id())));
+    }
+
+    /**
+     * Deletes the task with the given id only if its current version is the expected one.
+     *
+     * @param id              the id of the task to delete.
+     * @param expectedVersion the expected version of the task.
+     * @return {@link Mono} emitting the amount of tasks deleted. Emits a {@link VersionMismatchException} if the task exists with another version.
+     */
+    private Mono<Long> deleteTaskIfVersionMatches(UUID id, long expectedVersion) {
+        return this.observations.observeQuery("deleteTaskByIdAndVersion", this.taskRepository.deleteTaskByIdAndVersion(id, expectedVersion))
+                                .filter(deleteCount -> deleteCount > 0L)
+                                .switchIfEmpty(Mono.defer(() -> failIfExists(id)))
+                                .defaultIfEmpty(0L);
+    }
+
+    /**
+     * Signals a version mismatch if the task with the given id exists, since a conditional write has not found it with the expected version.
+     *
+     * @param id  the id of the task.
+     * @param <T> the type of the result of the conditional write.
+     * @return {@link Mono} emitting a {@link VersionMismatchException} if the task exists, otherwise emitting empty.
+     */
+    private <T> Mono<T> failIfExists(UUID id) {
+        return this.observations.observeQuery("existsById", this.taskRepository.existsById(id))
+                                .flatMap(exists -> Boolean.TRUE.equals(exists) ? Mono.<T> error(new VersionMismatchException("The task " + id
+                                        + " has been modified by another request")) : Mono.<T> empty());
+    }
+
+    /**
+     * Records the change of the given task in the outbox.
+     *
+     * @param operation the operation that changed the task.
+     * @param task      the changed task.
+     * @return {@link Mono} emitting the given task once its change has been recorded.
+     */
+    private Mono<Task> recordChange(TaskChangeOperation operation, Task task) {
+        return appendToOutbox(operation, List.of(task.id())).thenReturn(task);
+    }
+
+    /**
+     * Writes tasks and records their changes in the outbox within a single transaction.
+     *
+     * @param operation    the operation that changes the tasks.
+     * @param writtenTasks the write, emitting the written tasks.
+     * @return {@link Flux} emitting the written tasks once their changes have been recorded.
+     */
+    private Flux<Task> recordChanges(TaskChangeOperation operation, Flux<Task> writtenTasks) {
+        return writtenTasks.collectList()
+                           .flatMapMany(tasks -> appendToOutbox(operation, tasks.stream()
+                                                                               .map(Task::id)
+                                                                               .toList()).thenMany(Flux.fromIterable(tasks)))
+                           .as(this.transactionalOperator::transactional);
+    }
+
+    /**
+     * Records a change of each given task in the outbox with a single statement.
+     *
+     * @param operation the operation that changed the tasks.
+     * @param taskIds   the ids of the changed tasks.
+     * @return {@link Mono} emitting the amount of changes recorded.
+     */
+    private Mono<Long> appendToOutbox(TaskChangeOperation operation, Collection<UUID> taskIds) {
+        return taskIds.isEmpty() ? Mono.just(0L) : this.observations.observeQuery("appendToOutbox", this.taskOutboxRepository.append(operation, taskIds));
+    }
+
+    /**
+     * Deletes the tasks of the given chunk with a single statement.
+     *
+     * @param chunk the indexed ids of the chunk.
+     * @return {@link Flux} emitting the result of each id of the chunk, in the same order.
+     */
+    private Flux<TaskBatchResultDTO> deleteChunk(List<Tuple2<Long, UUID>> chunk) {
+        return this.observations.observeQuery("deleteTasksByIds", this.taskRepository.deleteTasksByIds(new HashSet<>(chunk.stream()
+                                                                                                                         .map(Tuple2::getT2)
+                                                                                                                         .toList())))
+                                .collect(HashSet<UUID>::new, HashSet::add)
+                                .flatMap(deletedIds -> appendToOutbox(TaskChangeOperation.DELETED, deletedIds).thenReturn(deletedIds))
+                                .as(this.transactionalOperator::transactional)
+                                .flatMapIterable(deletedIds -> chunk.stream()
+                                                                    .map(item -> TaskBatchResultDTO.builder()
+                                                                                                   .index(item.getT1())
+                                                                                                   .id(item.getT2())
+                                                                                                   .status(deletedIds.contains(item.getT2()) ? TaskBatchResultStatus.DELETED
+                                                                                                           : TaskBatchResultStatus.NOT_FOUND)
+                                                                                                   .build())
+                                                                    .toList());
+    }
+
+    /**
+     * Splits the given items in chunks of at most {@value #BATCH_CHUNK_SIZE} items, keeping the position of each item.
+     * <p>
+     * Chunks are emitted earlier when the items arrive slowly, so that slow streams are written progressively.
+     *
+     * @param items the items to split.
+     * @param <T>   the type of the items.
+     * @return {@link Flux} emitting the chunks of indexed items.
+     */
+    private static <T> Flux<List<Tuple2<Long, T>>> chunk(Flux<T> items) {
+        return items.index()
+                    .bufferTimeout(BATCH_CHUNK_SIZE, BATCH_CHUNK_MAX_WAIT, true);
+    }
+
+    /**
+     * Writes the valid tasks of the given chunk with a single statement.
+     * <p>
+     * A statement writes each task at most once, so the tasks whose id repeats the one of an earlier task of the chunk are rejected as invalid instead of
+     * being reported as written when only one of them is.
+     *
+     * @param chunk         the indexed tasks of the chunk.
+     * @param idIsMandatory whether the tasks must have id to be valid.
+     * @param taskFunction  the function that maps a valid task DTO to the task entity to write.
+     * @param writeFunction the function that writes the tasks, emitting the written ones.
+     * @param writtenStatus the status of the tasks that have been written.
+     * @return {@link Flux} emitting the result of each task of the chunk, in the same order.
+     */
+    private Flux<TaskBatchResultDTO> writeChunk(List<Tuple2<Long, TaskDTO>> chunk, boolean idIsMandatory, Function<TaskDTO, Task> taskFunction,
+            Function<List<Task>, Flux<Task>> writeFunction, TaskBatchResultStatus writtenStatus) {
+        var results = new TaskBatchResultDTO[chunk.size()];
+        var tasks = new Task[chunk.size()];
+        var taskIds = new HashSet<UUID>();
+        for (var position = 0; position < chunk.size(); position++) {
+            var item = chunk.get(position);
+            var errors = validate(item.getT2(), idIsMandatory);
+            var task = errors.isEmpty() ? taskFunction.apply(item.getT2()) : null;
+            if (task != null && !taskIds.add(task.id())) {
+                errors.add(InvalidRequestParameterDTO.builder()
+                                                     .entity(TASK_ENTITY_NAME)
+                                                     .field("id")
+                                                     .message("The task is already written by an earlier item of the batch")
+                                                     .build());
+                task = null;
+            }
+            if (task != null) {
+                tasks[position] = task;
+            } else {
+                results[position] = TaskBatchResultDTO.builder()
+                                                      .index(item.getT1())
+                                                      .id(item.getT2()
+                                                              .getId())
+                                                      .status(TaskBatchResultStatus.INVALID)
+                                                      .errors(errors)
+                                                      .build();
+            }
+        }
+
+        var tasksToWrite = Arrays.stream(tasks)
+                                 .filter(Objects::nonNull)
+                                 .toList();
+        var writtenTasks = tasksToWrite.isEmpty() ? Flux.<Task> empty() : writeFunction.apply(tasksToWrite);
+
+        return writtenTasks.collectMap(Task::id)
+                           .flatMapIterable(writtenTasksById -> toChunkResults(chunk, tasks, results, writtenTasksById, writtenStatus));
+    }
+
+    private List<TaskBatchResultDTO> toChunkResults(List<Tuple2<Long, TaskDTO>> chunk, Task[] tasks, TaskBatchResultDTO[] results, Map<UUID, Task> writtenTasksById,
+            TaskBatchResultStatus writtenStatus) {
+        for (var position = 0; position < chunk.size(); position++) {
+            if (results[position] == null) {
+                var writtenTask = writtenTasksById.get(tasks[position].id());
+                results[position] = TaskBatchResultDTO.builder()
+                                                      .index(chunk.get(position)
+                                                                  .getT1())
+                                                      .id(tasks[position].id())
+                                                      .status(writtenTask == null ? TaskBatchResultStatus.NOT_FOUND : writtenStatus)
+                                                      .task(writtenTask == null ? null : toTaskDTO(writtenTask))
+                                                      .build();
+            }
+        }
+        return Arrays.asList(results);
+    }
+
+    /**
+     * Builds the result of each given id from the tasks found.
+     *
+     * @param ids       the ids of the tasks to find.
+     * @param tasksById the tasks found by id.
+     * @return the result of each given id, in the same order.
+     */
+    private List<TaskBatchResultDTO> toFoundResults(List<UUID> ids, Map<UUID, Task> tasksById) {
+        var results = new ArrayList<TaskBatchResultDTO>(ids.size());
+        for (var index = 0; index < ids.size(); index++) {
+            var foundTask = tasksById.get(ids.get(index));
+            results.add(TaskBatchResultDTO.builder()
+                                          .index(index)
+                                          .id(ids.get(index))
+                                          .status(foundTask == null ? TaskBatchResultStatus.NOT_FOUND : TaskBatchResultStatus.FOUND)
+                                          .task(foundTask == null ? null : toTaskDTO(foundTask))
+                                          .build());
+        }
+        return results;
+    }
+
+    /**
+     * Validates an item of a batch operation.
+     *
+     * @param taskDTO       the task to validate.
+     * @param idIsMandatory whether the task must have id.
+     * @return the invalid fields of the given task, empty if the task is valid.
+     */
+    private List<InvalidRequestParameterDTO> validate(TaskDTO taskDTO, boolean idIsMandatory) {
+        var errors = new ArrayList<InvalidRequestParameterDTO>();
+        if (idIsMandatory && taskDTO.getId() == null) {
+            errors.add(InvalidRequestParameterDTO.builder()
+                                                 .entity(TASK_ENTITY_NAME)
+                                                 .field("id")
+                                                 .message("The id of the task is mandatory")
+                                                 .build());
+        }
+        this.validator.validate(taskDTO)
+                      .forEach(violation -> errors.add(InvalidRequestParameterDTO.builder()
+                                                                                 .entity(TASK_ENTITY_NAME)
+                                                                                 .field(violation.getPropertyPath()
+                                                                                                 .toString())
+                                                                                 .message(violation.getMessage())
+                                                                                 .build()));
+        return errors;
+    }
+
+    /**
+     * Builds a page from the given tasks.
+     * <p>
+     * The given tasks are expected to contain one task more than the page size when there is a next page.
+     *
+     * @param tasks the tasks found.
+     * @param size  the size of the page.
+     * @return the page containing at most size tasks, and the token to find the next page if there are more tasks.
+     */
+    private TaskPageDTO toTaskPage(List<Task> tasks, int size) {
+        var hasNextPage = tasks.size() > size;
+        var pageTasks = hasNextPage ? tasks.subList(0, size) : tasks;
+
+        return TaskPageDTO.builder()
+                          .tasks(pageTasks.stream()
+                                          .map(this::toTaskDTO)
+                                          .toList())
+                          .continuationToken(hasNextPage ? TaskPageCursor.of(pageTasks.get(size - 1))
+                                                                         .encode() : null)
+                          .build();
+    }
+
+    /**
+     * Builds a page from the given ranked tasks.
+     * <p>
+     * The given ranked tasks are expected to contain one task more than the page size when there is a next page.
+     *
+     * @param rankedTasks the ranked tasks found.
+     * @param size        the size of the page.
+     * @return the page containing at most size tasks, and the token to find the next page if there are more matching tasks.
+     */
+    private TaskPageDTO toTextSearchPage(List<RankedTask> rankedTasks, int size) {
+        var hasNextPage = rankedTasks.size() > size;
+        var pageRankedTasks = hasNextPage ? rankedTasks.subList(0, size) : rankedTasks;
+
+        return TaskPageDTO.builder()
+                          .tasks(pageRankedTasks.stream()
+                                                .map(rankedTask -> toTaskDTO(rankedTask.task()))
+                                                .toList())
+                          .continuationToken(hasNextPage ? TaskTextSearchCursor.of(pageRankedTasks.get(size - 1))
+                                                                               .encode() : null)
+                          .build();
+    }
+
+    /**
+     * Builds the statistics of the tasks from the number of tasks of each bucket.
+     *
+     * @param counts the number of tasks of each bucket, the tasks without start date in a bucket without start date.
+     * @return the number of tasks in total, without start date and of each bucket with start date, in the same order.
+     */
+    private TaskStatsDTO toTaskStats(List<TaskStartDateCount> counts) {
+        var buckets = new ArrayList<TaskStatsBucketDTO>(counts.size());
+        var total = 0L;
+        var withoutStartDate = 0L;
+        for (var count : counts) {
+            total += count.tasks();
+            if (count.bucketStartDate() == null) {
+                withoutStartDate += count.tasks();
+            } else {
+                buckets.add(TaskStatsBucketDTO.builder()
+                                              .startDate(count.bucketStartDate())
+                                              .tasks(count.tasks())
+                                              .build());
+            }
+        }
+
+        return TaskStatsDTO.builder()
+                           .total(total)
+                           .withoutStartDate(withoutStartDate)
+                           .buckets(buckets)
+                           .build();
+    }
+
+    private TaskDTO toTaskDTO(Task task) {
+        return this.observations.observeMapping("toTaskDTO", () -> this.taskMapper.toTaskDTO(task));
+    }
+
+    private Task toTask(TaskDTO taskDTO) {
+        return this.observations.observeMapping("toTask", () -> this.taskMapper.toTask(taskDTO));
+    }
+
+    private Task toTaskIgnoreId(TaskDTO taskDTO) {
+        return this.observations.observeMapping("toTaskIgnoreId", () -> this.taskMapper.toTaskIgnoreId(taskDTO));
     }
 
 }
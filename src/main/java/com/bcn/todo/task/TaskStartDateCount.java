@@ -0,0 +1,30 @@
+/**
+* Copyright 2023 the original author or authors.
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*     http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+*/
+package com.bcn.todo.task;
+
+import java.time.LocalDate;
+
+import org.springframework.lang.Nullable;
+
+/**
+ * Represents the number of {@link Task} whose start date falls within a bucket of the task statistics.
+ *
+ * @author ttrigo
+ * @since 0.1.0
+ */
+public record TaskStartDateCount(@Nullable LocalDate bucketStartDate, long tasks) {
+
+}
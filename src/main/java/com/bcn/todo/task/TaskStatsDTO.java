@@ -0,0 +1,53 @@
+/**
+* Copyright 2023 the original author or authors.
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*     http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+*/
+package com.bcn.todo.task;
+
+import java.io.Serial;
+import java.io.Serializable;
+import java.util.List;
+
+import lombok.Builder;
+import lombok.Data;
+
+/**
+ * Represents the number of tasks, in total and by start date.
+ *
+ * @author ttrigo
+ * @since 0.1.0
+ */
+@Data
+@Builder
+public class TaskStatsDTO implements Serializable {
+
+    @Serial
+    private static final long serialVersionUID = -2460931759818094466L;
+
+    /**
+     * The number of tasks.
+     */
+    private long total;
+
+    /**
+     * The number of tasks without start date.
+     */
+    private long withoutStartDate;
+
+    /**
+     * The number of tasks by start date, ordered by start date, only the periods with tasks are present.
+     */
+    private List<TaskStatsBucketDTO> buckets;
+
+}
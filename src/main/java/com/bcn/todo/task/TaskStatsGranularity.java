@@ -0,0 +1,36 @@
+/**
+* Copyright 2023 the original author or authors.
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*     http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+*/
+package com.bcn.todo.task;
+
+/**
+ * Represents the period of time covered by each bucket of the task statistics.
+ *
+ * @author ttrigo
+ * @since 0.1.0
+ */
+public enum TaskStatsGranularity {
+
+    /**
+     * Each bucket covers a day.
+     */
+    DAY,
+
+    /**
+     * Each bucket covers a week, starting on Monday.
+     */
+    WEEK
+
+}
@@ -0,0 +1,91 @@
+/**
+* Copyright 2023 the original author or authors.
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*     http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+*/
+package com.bcn.todo.task;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.UUID;
+
+import org.springframework.lang.NonNull;
+import org.springframework.lang.Nullable;
+
+import com.bcn.todo.error.InvalidContinuationTokenException;
+
+/**
+ * Represents the position of the last {@link RankedTask} returned in a page of a full-text search.
+ * <p>
+ * Matching tasks are paginated by keyset on their rank, in descending order, and their id. The cursor is exchanged with clients as an opaque continuation
+ * token.
+ *
+ * @author ttrigo
+ * @since 0.1.0
+ */
+public record TaskTextSearchCursor(float rank, @NonNull UUID id) {
+
+    private static final String SEPARATOR = "|";
+
+    /**
+     * Creates the cursor that points to the given ranked task.
+     *
+     * @param rankedTask the last ranked task of a page, must not be {@literal null}.
+     * @return the cursor pointing to the given ranked task.
+     */
+    public static TaskTextSearchCursor of(RankedTask rankedTask) {
+        return new TaskTextSearchCursor(rankedTask.rank(), rankedTask.task()
+                                                                     .id());
+    }
+
+    /**
+     * Decodes the given continuation token.
+     *
+     * @param continuationToken the token to decode, may be {@literal null}.
+     * @return the cursor contained in the given token, or {@literal null} if the token is {@literal null}.
+     * @throws InvalidContinuationTokenException if the token is malformed.
+     */
+    @Nullable
+    public static TaskTextSearchCursor decode(@Nullable String continuationToken) {
+        if (continuationToken == null) {
+            return null;
+        }
+
+        try {
+            var decodedToken = new String(Base64.getUrlDecoder()
+                                                .decode(continuationToken), StandardCharsets.UTF_8);
+            var separatorIndex = decodedToken.indexOf(SEPARATOR);
+            var rank = decodedToken.substring(0, separatorIndex);
+            var id = decodedToken.substring(separatorIndex + 1);
+
+            return new TaskTextSearchCursor(Float.parseFloat(rank), UUID.fromString(id));
+        } catch (RuntimeException e) {
+            throw new InvalidContinuationTokenException("Invalid continuation token", e);
+        }
+    }
+
+    /**
+     * Encodes this cursor as an opaque continuation token.
+     * <p>
+     * The rank is encoded with all its digits, so that the next page starts exactly after the task pointed by this cursor.
+     *
+     * @return the continuation token.
+     */
+    public String encode() {
+        var token = Float.toString(this.rank) + SEPARATOR + this.id;
+        return Base64.getUrlEncoder()
+                     .withoutPadding()
+                     .encodeToString(token.getBytes(StandardCharsets.UTF_8));
+    }
+
+}
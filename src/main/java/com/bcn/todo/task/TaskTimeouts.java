@@ -0,0 +1,200 @@
+/**
+* Copyright 2023 the original author or authors.
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*     http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+*/
+package com.bcn.todo.task;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.util.context.ContextView;
+
+import com.bcn.todo.deadline.Deadlines;
+import com.bcn.todo.deadline.QueryCancellation;
+import com.bcn.todo.error.OperationTimeoutException;
+
+/**
+ * Bounds the time spent by the {@link TaskService} methods.
+ * <p>
+ * Each method has its own timeout, or the default one when none is configured, and a zero timeout leaves the method unbounded. The result of a method is
+ * bounded by the shortest of its timeout and the time left until the deadline of the request, if any. When the time is up the result fails with an
+ * {@link OperationTimeoutException} and its queries are cancelled through a {@link QueryCancellation}, as they are when the subscriber goes away. The time
+ * outs and the cancellations by the subscriber are published as the {@value #TIMEOUTS_COUNTER} and {@value #CANCELLATIONS_COUNTER} counters, tagged by
+ * {@value #METHOD_KEY}.
+ *
+ * @author ttrigo
+ * @since 0.1.0
+ */
+public class TaskTimeouts {
+
+    /**
+     * The name of the timed out methods counter.
+     */
+    public static final String TIMEOUTS_COUNTER = "task.service.timeouts";
+
+    /**
+     * The name of the methods cancelled by their subscriber counter.
+     */
+    public static final String CANCELLATIONS_COUNTER = "task.service.cancellations";
+
+    /**
+     * The key of the tag holding the method.
+     */
+    public static final String METHOD_KEY = "method";
+
+    private final Duration defaultTimeout;
+
+    private final Map<String, Duration> methodTimeouts;
+
+    private final MeterRegistry meterRegistry;
+
+    /**
+     * Default constructor.
+     *
+     * @param defaultTimeout the timeout of the methods without timeout of their own, zero for no timeout, must not be {@literal null}.
+     * @param methodTimeouts the timeouts by method name, zero for no timeout, must not be {@literal null}. Names are matched ignoring case and dashes, so
+     *                       that {@code find-by-id} matches {@code findById}.
+     * @param meterRegistry  the registry where the counters are published, must not be {@literal null}.
+     */
+    public TaskTimeouts(Duration defaultTimeout, Map<String, Duration> methodTimeouts, MeterRegistry meterRegistry) {
+        this.defaultTimeout = defaultTimeout;
+        this.methodTimeouts = new HashMap<>();
+        methodTimeouts.forEach((method, timeout) -> this.methodTimeouts.put(normalize(method), timeout));
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * Creates timeouts that leave every method unbounded, except by the deadline of the request.
+     *
+     * @return the timeouts.
+     */
+    public static TaskTimeouts none() {
+        return new TaskTimeouts(Duration.ZERO, Map.of(), new SimpleMeterRegistry());
+    }
+
+    /**
+     * Gets the timeout of a method.
+     *
+     * @param method the name of the method.
+     * @return the timeout of the method, zero if the method has no timeout.
+     */
+    public Duration getTimeout(String method) {
+        return this.methodTimeouts.getOrDefault(normalize(method), this.defaultTimeout);
+    }
+
+    /**
+     * Bounds the time spent by each subscription to the given method result.
+     *
+     * @param method the name of the method.
+     * @param result the result of the method.
+     * @param <T>    the type of the result.
+     * @return the given result bounded.
+     */
+    <T> Mono<T> limit(String method, Mono<T> result) {
+        return Mono.deferContextual(context -> {
+            var cancellation = new QueryCancellation();
+            var cancellable = result.doOnNext(value -> cancellation.complete())
+                                    .doOnCancel(cancellation::cancel);
+            var timeout = timeout(method, context);
+            Mono<T> limited;
+            if (timeout == null) {
+                limited = cancellable;
+            } else if (timeout.isPositive()) {
+                limited = cancellable.timeout(timeout, Mono.defer(() -> Mono.error(timedOut(method))));
+            } else {
+                limited = Mono.defer(() -> Mono.error(timedOut(method)));
+            }
+            return limited.doOnCancel(() -> cancelled(method, cancellation))
+                          .contextWrite(innerContext -> Deadlines.withCancellation(innerContext, cancellation));
+        });
+    }
+
+    /**
+     * Bounds the time spent by each subscription to the given method result, from the subscription to the completion.
+     *
+     * @param method the name of the method.
+     * @param result the result of the method.
+     * @param <T>    the type of the result.
+     * @return the given result bounded.
+     */
+    <T> Flux<T> limit(String method, Flux<T> result) {
+        return Flux.deferContextual(context -> {
+            var cancellation = new QueryCancellation();
+            var cancellable = result.doOnCancel(cancellation::cancel);
+            var timeout = timeout(method, context);
+            Flux<T> limited;
+            if (timeout == null) {
+                limited = cancellable;
+            } else if (timeout.isPositive()) {
+                var expiry = Mono.delay(timeout)
+                                 .cache();
+                limited = cancellable.timeout(expiry, item -> expiry, Flux.defer(() -> Flux.error(timedOut(method))));
+            } else {
+                limited = Flux.defer(() -> Flux.error(timedOut(method)));
+            }
+            return limited.doOnCancel(() -> cancelled(method, cancellation))
+                          .contextWrite(innerContext -> Deadlines.withCancellation(innerContext, cancellation));
+        });
+    }
+
+    /**
+     * Computes the time a subscription to a method result may last.
+     *
+     * @param method  the name of the method.
+     * @param context the context of the subscription.
+     * @return the shortest of the timeout of the method and the time left until the deadline, or {@literal null} if the subscription is unbounded.
+     */
+    private Duration timeout(String method, ContextView context) {
+        var methodTimeout = getTimeout(method);
+        var remaining = Deadlines.remaining(context)
+                                 .orElse(null);
+        if (methodTimeout.isZero()) {
+            return remaining;
+        }
+        return remaining == null || methodTimeout.compareTo(remaining) < 0 ? methodTimeout : remaining;
+    }
+
+    private OperationTimeoutException timedOut(String method) {
+        Counter.builder(TIMEOUTS_COUNTER)
+               .description("Task service methods that did not complete within their timeout or the deadline of the request")
+               .tag(METHOD_KEY, method)
+               .register(this.meterRegistry)
+               .increment();
+        return new OperationTimeoutException("The operation " + method + " did not complete in time");
+    }
+
+    private void cancelled(String method, QueryCancellation cancellation) {
+        if (cancellation.isCompleted()) {
+            return;
+        }
+        Counter.builder(CANCELLATIONS_COUNTER)
+               .description("Task service methods cancelled by their subscriber, usually because the client went away")
+               .tag(METHOD_KEY, method)
+               .register(this.meterRegistry)
+               .increment();
+    }
+
+    private static String normalize(String method) {
+        return method.replace("-", "")
+                     .toLowerCase(Locale.ROOT);
+    }
+
+}
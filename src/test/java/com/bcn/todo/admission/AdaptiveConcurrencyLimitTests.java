@@ -0,0 +1,109 @@
+/**
+* Copyright 2023 the original author or authors.
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*     http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+*/
+package com.bcn.todo.admission;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Duration;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+class AdaptiveConcurrencyLimitTests {
+
+    private static final long FAST_LATENCY = Duration.ofMillis(10)
+                                                     .toNanos();
+
+    private static final long SLOW_LATENCY = Duration.ofSeconds(2)
+                                                     .toNanos();
+
+    // tryAcquire
+    @Test
+    @DisplayName("GIVEN limit is reached WHEN acquire THEN rejects the request until a request is released")
+    void LimitIsReached_Acquire_RejectsTheRequestUntilRequestIsReleased() {
+        // Given
+        var limit = new AdaptiveConcurrencyLimit(2, 1, 10, 0.5, Duration.ofSeconds(1));
+        assertThat(limit.tryAcquire()).isTrue();
+        assertThat(limit.tryAcquire()).isTrue();
+
+        // When & Then
+        assertThat(limit.tryAcquire()).isFalse();
+        limit.release();
+        assertThat(limit.tryAcquire()).isTrue();
+        assertThat(limit.getInFlight()).isEqualTo(2);
+    }
+
+    // release
+    @Test
+    @DisplayName("GIVEN half of the limit in use WHEN release a fast request THEN increases the limit by one")
+    void HalfOfLimitInUse_ReleaseFastRequest_IncreasesTheLimitByOne() {
+        // Given
+        var limit = new AdaptiveConcurrencyLimit(4, 1, 10, 0.5, Duration.ofSeconds(1));
+        limit.tryAcquire();
+        limit.tryAcquire();
+
+        // When
+        limit.release(FAST_LATENCY, false);
+
+        // Then
+        assertThat(limit.getLimit()).isEqualTo(5);
+        assertThat(limit.getInFlight()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("GIVEN less than half of the limit in use WHEN release a fast request THEN keeps the limit")
+    void LessThanHalfOfLimitInUse_ReleaseFastRequest_KeepsTheLimit() {
+        // Given
+        var limit = new AdaptiveConcurrencyLimit(4, 1, 10, 0.5, Duration.ofSeconds(1));
+        limit.tryAcquire();
+
+        // When
+        limit.release(FAST_LATENCY, false);
+
+        // Then
+        assertThat(limit.getLimit()).isEqualTo(4);
+    }
+
+    @Test
+    @DisplayName("GIVEN request slower than the threshold or dropped WHEN release the request THEN decreases the limit down to the minimum")
+    void RequestSlowerThanThresholdOrDropped_ReleaseRequest_DecreasesTheLimitDownToTheMinimum() {
+        // Given
+        var limit = new AdaptiveConcurrencyLimit(8, 3, 10, 0.5, Duration.ofSeconds(1));
+
+        // When & Then
+        limit.tryAcquire();
+        limit.release(SLOW_LATENCY, false);
+        assertThat(limit.getLimit()).isEqualTo(4);
+        limit.tryAcquire();
+        limit.release(FAST_LATENCY, true);
+        assertThat(limit.getLimit()).isEqualTo(3);
+    }
+
+    @Test
+    @DisplayName("GIVEN limit is the maximum WHEN release a fast request THEN keeps the maximum limit")
+    void LimitIsTheMaximum_ReleaseFastRequest_KeepsTheMaximumLimit() {
+        // Given
+        var limit = new AdaptiveConcurrencyLimit(2, 1, 2, 0.5, Duration.ofSeconds(1));
+        limit.tryAcquire();
+
+        // When
+        limit.release(FAST_LATENCY, false);
+
+        // Then
+        assertThat(limit.getLimit()).isEqualTo(2);
+    }
+
+}
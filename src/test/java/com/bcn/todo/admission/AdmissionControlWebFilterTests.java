@@ -0,0 +1,268 @@
+/**
+* Copyright 2023 the original author or authors.
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*     http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+*/
+package com.bcn.todo.admission;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.net.InetSocketAddress;
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.web.reactive.HandlerMapping;
+import org.springframework.web.server.WebFilterChain;
+import org.springframework.web.util.pattern.PathPatternParser;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+@ExtendWith(SpringExtension.class)
+class AdmissionControlWebFilterTests {
+
+    private static final String TASKS_PATH = "/v1/tasks";
+
+    private static final String CHANGES_PATH = "/v1/tasks/changes";
+
+    private static final InetSocketAddress CLIENT_ADDRESS = new InetSocketAddress("10.0.0.1", 40000);
+
+    private SimpleMeterRegistry meterRegistry;
+
+    private AdaptiveConcurrencyLimit readLimit;
+
+    private AdaptiveConcurrencyLimit writeLimit;
+
+    private AdmissionControlWebFilter admissionControlWebFilter;
+
+    private final AtomicInteger chainCalls = new AtomicInteger();
+
+    private final HandlerMapping handlerMapping = exchange -> {
+        exchange.getAttributes()
+                .put(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE, PathPatternParser.defaultInstance.parse(exchange.getRequest()
+                                                                                                                 .getPath()
+                                                                                                                 .value()));
+        return Mono.just(new Object());
+    };
+
+    private final WebFilterChain chain = exchange -> {
+        chainCalls.incrementAndGet();
+        return Mono.empty();
+    };
+
+    @BeforeEach
+    void beforeEach() {
+        this.meterRegistry = new SimpleMeterRegistry();
+        this.readLimit = new AdaptiveConcurrencyLimit(1, 1, 1, 0.5, Duration.ofSeconds(1));
+        this.writeLimit = new AdaptiveConcurrencyLimit(1, 1, 1, 0.5, Duration.ofSeconds(1));
+        this.admissionControlWebFilter = new AdmissionControlWebFilter(readLimit, writeLimit, new ClientRateLimiter(2, 1, 100, System::nanoTime),
+                handlerMapping, Set.of(CHANGES_PATH), Duration.ofSeconds(2), meterRegistry);
+    }
+
+    // filter
+    @Test
+    @DisplayName("GIVEN limit is not reached WHEN filter the request THEN admits the request And releases it once completed")
+    void LimitIsNotReached_FilterRequest_AdmitsTheRequestAndReleasesItOnceCompleted() {
+        // Given
+        var exchange = MockServerWebExchange.from(MockServerHttpRequest.get(TASKS_PATH));
+
+        // When
+        StepVerifier.create(admissionControlWebFilter.filter(exchange, chain))
+                    .verifyComplete();
+
+        // Then
+        assertThat(chainCalls).hasValue(1);
+        assertThat(readLimit.getInFlight()).isZero();
+        assertThat(exchange.getResponse()
+                           .getStatusCode()).isNull();
+    }
+
+    @Test
+    @DisplayName("GIVEN read limit is reached WHEN filter a read THEN responds 503 with Retry-After And counts the rejection")
+    void ReadLimitIsReached_FilterRead_Responds503WithRetryAfterAndCountsTheRejection() {
+        // Given
+        readLimit.tryAcquire();
+        var exchange = MockServerWebExchange.from(MockServerHttpRequest.get(TASKS_PATH));
+
+        // When
+        StepVerifier.create(admissionControlWebFilter.filter(exchange, chain))
+                    .verifyComplete();
+
+        // Then
+        assertThat(chainCalls).hasValue(0);
+        assertThat(exchange.getResponse()
+                           .getStatusCode()).isEqualTo(HttpStatus.SERVICE_UNAVAILABLE);
+        assertThat(exchange.getResponse()
+                           .getHeaders()
+                           .getFirst(HttpHeaders.RETRY_AFTER)).isEqualTo("2");
+        assertThat(meterRegistry.get(AdmissionControlWebFilter.REJECTED_COUNTER)
+                                .tag("group", "read")
+                                .tag("reason", "concurrency")
+                                .counter()
+                                .count()).isEqualTo(1);
+        assertThat(meterRegistry.get(AdmissionControlWebFilter.IN_FLIGHT_GAUGE)
+                                .tag("group", "read")
+                                .gauge()
+                                .value()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("GIVEN read limit is reached WHEN filter a write THEN admits the write")
+    void ReadLimitIsReached_FilterWrite_AdmitsTheWrite() {
+        // Given
+        readLimit.tryAcquire();
+        var exchange = MockServerWebExchange.from(MockServerHttpRequest.post(TASKS_PATH));
+
+        // When
+        StepVerifier.create(admissionControlWebFilter.filter(exchange, chain))
+                    .verifyComplete();
+
+        // Then
+        assertThat(chainCalls).hasValue(1);
+        assertThat(writeLimit.getInFlight()).isZero();
+    }
+
+    @Test
+    @DisplayName("GIVEN read limit is reached WHEN filter a read whose handler is unlimited THEN admits the request")
+    void ReadLimitIsReached_FilterReadWhoseHandlerIsUnlimited_AdmitsTheRequest() {
+        // Given
+        readLimit.tryAcquire();
+        var exchange = MockServerWebExchange.from(MockServerHttpRequest.get(CHANGES_PATH)
+                                                                       .accept(MediaType.TEXT_EVENT_STREAM));
+
+        // When
+        StepVerifier.create(admissionControlWebFilter.filter(exchange, chain))
+                    .verifyComplete();
+
+        // Then
+        assertThat(chainCalls).hasValue(1);
+        assertThat(readLimit.getInFlight()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("GIVEN read limit is reached WHEN filter a streamed read whose handler is not unlimited THEN responds 503")
+    void ReadLimitIsReached_FilterStreamedReadWhoseHandlerIsNotUnlimited_Responds503() {
+        // Given
+        readLimit.tryAcquire();
+        var exchange = MockServerWebExchange.from(MockServerHttpRequest.get(TASKS_PATH)
+                                                                       .accept(MediaType.TEXT_EVENT_STREAM));
+
+        // When
+        StepVerifier.create(admissionControlWebFilter.filter(exchange, chain))
+                    .verifyComplete();
+
+        // Then
+        assertThat(chainCalls).hasValue(0);
+        assertThat(exchange.getResponse()
+                           .getStatusCode()).isEqualTo(HttpStatus.SERVICE_UNAVAILABLE);
+    }
+
+    @Test
+    @DisplayName("GIVEN write limit is reached WHEN filter a write accepting a stream THEN responds 503")
+    void WriteLimitIsReached_FilterWriteAcceptingAStream_Responds503() {
+        // Given
+        writeLimit.tryAcquire();
+        var exchange = MockServerWebExchange.from(MockServerHttpRequest.post(CHANGES_PATH)
+                                                                       .accept(MediaType.TEXT_EVENT_STREAM));
+
+        // When
+        StepVerifier.create(admissionControlWebFilter.filter(exchange, chain))
+                    .verifyComplete();
+
+        // Then
+        assertThat(chainCalls).hasValue(0);
+        assertThat(exchange.getResponse()
+                           .getStatusCode()).isEqualTo(HttpStatus.SERVICE_UNAVAILABLE);
+    }
+
+    @Test
+    @DisplayName("GIVEN request outside of the API WHEN filter the request THEN admits the request without limiting it")
+    void RequestOutsideOfTheAPI_FilterRequest_AdmitsTheRequestWithoutLimitingIt() {
+        // Given
+        readLimit.tryAcquire();
+        var exchange = MockServerWebExchange.from(MockServerHttpRequest.get("/actuator/health"));
+
+        // When
+        StepVerifier.create(admissionControlWebFilter.filter(exchange, chain))
+                    .verifyComplete();
+
+        // Then
+        assertThat(chainCalls).hasValue(1);
+    }
+
+    @Test
+    @DisplayName("GIVEN client exceeded its rate WHEN filter the request THEN responds 429 with Retry-After And counts the rejection")
+    void ClientExceededItsRate_FilterRequest_Responds429WithRetryAfterAndCountsTheRejection() {
+        // Given
+        for (var i = 0; i < 2; i++) {
+            StepVerifier.create(admissionControlWebFilter.filter(MockServerWebExchange.from(MockServerHttpRequest.post(TASKS_PATH)
+                                                                                                               .remoteAddress(CLIENT_ADDRESS)), chain))
+                        .verifyComplete();
+        }
+        var exchange = MockServerWebExchange.from(MockServerHttpRequest.post(TASKS_PATH)
+                                                                       .remoteAddress(CLIENT_ADDRESS));
+
+        // When
+        StepVerifier.create(admissionControlWebFilter.filter(exchange, chain))
+                    .verifyComplete();
+
+        // Then
+        assertThat(chainCalls).hasValue(2);
+        assertThat(exchange.getResponse()
+                           .getStatusCode()).isEqualTo(HttpStatus.TOO_MANY_REQUESTS);
+        assertThat(exchange.getResponse()
+                           .getHeaders()
+                           .getFirst(HttpHeaders.RETRY_AFTER)).isEqualTo("1");
+        assertThat(meterRegistry.get(AdmissionControlWebFilter.REJECTED_COUNTER)
+                                .tag("group", "write")
+                                .tag("reason", "rate")
+                                .counter()
+                                .count()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("GIVEN client exceeded its rate WHEN filter a request with another client id header THEN responds 429")
+    void ClientExceededItsRate_FilterRequestWithAnotherClientIdHeader_Responds429() {
+        // Given
+        for (var i = 0; i < 2; i++) {
+            StepVerifier.create(admissionControlWebFilter.filter(MockServerWebExchange.from(MockServerHttpRequest.post(TASKS_PATH)
+                                                                                                               .remoteAddress(CLIENT_ADDRESS)
+                                                                                                               .header("X-Client-Id", "client-" + i)), chain))
+                        .verifyComplete();
+        }
+        var exchange = MockServerWebExchange.from(MockServerHttpRequest.post(TASKS_PATH)
+                                                                       .remoteAddress(CLIENT_ADDRESS)
+                                                                       .header("X-Client-Id", "client-2"));
+
+        // When
+        StepVerifier.create(admissionControlWebFilter.filter(exchange, chain))
+                    .verifyComplete();
+
+        // Then
+        assertThat(exchange.getResponse()
+                           .getStatusCode()).isEqualTo(HttpStatus.TOO_MANY_REQUESTS);
+    }
+
+}
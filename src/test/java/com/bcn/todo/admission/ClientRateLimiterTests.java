@@ -0,0 +1,61 @@
+/**
+* Copyright 2023 the original author or authors.
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*     http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+*/
+package com.bcn.todo.admission;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+class ClientRateLimiterTests {
+
+    private final AtomicLong now = new AtomicLong();
+
+    private final ClientRateLimiter clientRateLimiter = new ClientRateLimiter(2, 10, 100, now::get);
+
+    // tryAcquire
+    @Test
+    @DisplayName("GIVEN client used its burst WHEN acquire THEN rejects the request And returns the time until the next token")
+    void ClientUsedItsBurst_Acquire_RejectsTheRequestAndReturnsTheTimeUntilTheNextToken() {
+        // Given
+        assertThat(clientRateLimiter.tryAcquire("client")).isZero();
+        assertThat(clientRateLimiter.tryAcquire("client")).isZero();
+
+        // When & Then
+        assertThat(clientRateLimiter.tryAcquire("client")).isCloseTo(Duration.ofMillis(100), Duration.ofNanos(10));
+        assertThat(clientRateLimiter.tryAcquire("other client")).isZero();
+    }
+
+    @Test
+    @DisplayName("GIVEN time passed WHEN acquire THEN admits the requests allowed by the refill rate")
+    void TimePassed_Acquire_AdmitsTheRequestsAllowedByTheRefillRate() {
+        // Given
+        clientRateLimiter.tryAcquire("client");
+        clientRateLimiter.tryAcquire("client");
+
+        // When
+        now.addAndGet(Duration.ofMillis(150)
+                              .toNanos());
+
+        // Then
+        assertThat(clientRateLimiter.tryAcquire("client")).isZero();
+        assertThat(clientRateLimiter.tryAcquire("client")).isCloseTo(Duration.ofMillis(50), Duration.ofNanos(10));
+    }
+
+}
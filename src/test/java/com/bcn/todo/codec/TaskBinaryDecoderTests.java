@@ -0,0 +1,126 @@
+/**
+* Copyright 2023 the original author or authors.
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*     http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+*/
+package com.bcn.todo.codec;
+
+import java.nio.ByteBuffer;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.springframework.core.ResolvableType;
+import org.springframework.core.codec.DecodingException;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import com.bcn.todo.task.TaskDTO;
+import com.fasterxml.jackson.module.paramnames.ParameterNamesModule;
+
+@ExtendWith(SpringExtension.class)
+class TaskBinaryDecoderTests {
+
+    private static final ResolvableType TASK_TYPE = ResolvableType.forClass(TaskDTO.class);
+
+    static Stream<TaskBinaryFormat> formats() {
+        return Stream.of(new TaskProtobufFormat(), new TaskCborFormat(Jackson2ObjectMapperBuilder.cbor()
+                                                                                                 .modulesToInstall(new ParameterNamesModule())
+                                                                                                 .build()));
+    }
+
+    // decode
+    @ParameterizedTest
+    @MethodSource("formats")
+    @DisplayName("GIVEN tasks encoded in many small buffers WHEN decode the tasks THEN emits every task")
+    void TasksEncodedInManySmallBuffers_DecodeTasks_EmitsEveryTask(TaskBinaryFormat format) {
+        // Given
+        var tasks = List.of(task("UT title 1"), task("UT title 2"), TaskDTO.builder()
+                                                                           .build());
+        var body = rechunk(new TaskBinaryEncoder(format).encode(Flux.fromIterable(tasks), DefaultDataBufferFactory.sharedInstance, TASK_TYPE,
+                format.getMimeType(), null), 3);
+
+        // When & Then
+        StepVerifier.create(new TaskBinaryDecoder(format, 1024).decode(body, TASK_TYPE, format.getMimeType(), null))
+                    .expectNextSequence(tasks)
+                    .verifyComplete();
+    }
+
+    @ParameterizedTest
+    @MethodSource("formats")
+    @DisplayName("GIVEN last task is incomplete WHEN decode the tasks THEN emits the complete tasks And fails with a decoding error")
+    void LastTaskIsIncomplete_DecodeTasks_EmitsTheCompleteTasksAndFailsWithDecodingError(TaskBinaryFormat format) {
+        // Given
+        var task = task("UT title");
+        var buffers = new TaskBinaryEncoder(format).encode(Flux.just(task, task), DefaultDataBufferFactory.sharedInstance, TASK_TYPE, format.getMimeType(),
+                null);
+        var body = DataBufferUtils.join(buffers)
+                                  .map(buffer -> buffer.writePosition(buffer.writePosition() - 1))
+                                  .flux();
+
+        // When & Then
+        StepVerifier.create(new TaskBinaryDecoder(format, 1024).decode(body, TASK_TYPE, format.getMimeType(), null))
+                    .expectNext(task)
+                    .expectError(DecodingException.class)
+                    .verify();
+    }
+
+    // decodeToMono
+    @ParameterizedTest
+    @MethodSource("formats")
+    @DisplayName("GIVEN task encoded WHEN decode the task THEN reads the task without framing")
+    void TaskEncoded_DecodeTask_ReadsTheTaskWithoutFraming(TaskBinaryFormat format) {
+        // Given
+        var task = task("UT title");
+        var body = new TaskBinaryEncoder(format).encode(Mono.just(task), DefaultDataBufferFactory.sharedInstance, TASK_TYPE, format.getMimeType(), null);
+
+        // When & Then
+        StepVerifier.create(new TaskBinaryDecoder(format, 1024).decodeToMono(body, TASK_TYPE, format.getMimeType(), null))
+                    .expectNext(task)
+                    .verifyComplete();
+    }
+
+    private static TaskDTO task(String title) {
+        return TaskDTO.builder()
+                      .id(UUID.randomUUID())
+                      .title(title)
+                      .description("UT description")
+                      .startDateTime(LocalDateTime.of(2021, 2, 3, 4, 5, 6, 7_000_000))
+                      .build();
+    }
+
+    private static Flux<DataBuffer> rechunk(Flux<DataBuffer> buffers, int chunkSize) {
+        return DataBufferUtils.join(buffers)
+                              .flatMapMany(buffer -> {
+                                  var bytes = new byte[buffer.readableByteCount()];
+                                  buffer.read(bytes);
+                                  DataBufferUtils.release(buffer);
+                                  return Flux.range(0, (bytes.length + chunkSize - 1) / chunkSize)
+                                             .map(chunk -> DefaultDataBufferFactory.sharedInstance.wrap(ByteBuffer.wrap(bytes, chunk * chunkSize,
+                                                     Math.min(chunkSize, bytes.length - chunk * chunkSize))));
+                              });
+    }
+
+}
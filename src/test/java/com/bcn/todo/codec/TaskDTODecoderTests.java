@@ -0,0 +1,169 @@
+/**
+* Copyright 2023 the original author or authors.
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*     http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+*/
+package com.bcn.todo.codec;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.core.ResolvableType;
+import org.springframework.core.codec.DecodingException;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferLimitException;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+import reactor.core.publisher.Flux;
+import reactor.test.StepVerifier;
+
+import com.bcn.todo.task.TaskDTO;
+
+@ExtendWith(SpringExtension.class)
+class TaskDTODecoderTests {
+
+    private static final ResolvableType TASK_TYPE = ResolvableType.forClass(TaskDTO.class);
+
+    private static final UUID TASK_ID = UUID.fromString("0b6a4f5e-3c2d-4e1f-9a8b-7c6d5e4f3a2b");
+
+    private final TaskDTODecoder taskDTODecoder = new TaskDTODecoder("yyyy-MM-dd'T'HH:mm:ss.SSS'Z'", 1024);
+
+    // decodeToMono
+    @Test
+    @DisplayName("GIVEN task split in many buffers WHEN decode the task THEN reads every field And ignores the unknown ones")
+    void TaskSplitInManyBuffers_DecodeTask_ReadsEveryFieldAndIgnoresTheUnknownOnes() {
+        // Given
+        var body = buffers("{\"id\":\"" + TASK_ID + "\",\"unknown\":{\"nested\":[1,-2.5e3,true,null,\"}\"]},",
+                "\"title\":\"UT \\\"title\\\" \\u00e9\",\"description\":null,", "\"startDateTime\":\"2021-02-03T04:05:06.007Z\",\"version\":3}");
+
+        // When & Then
+        StepVerifier.create(taskDTODecoder.decodeToMono(body, TASK_TYPE, MediaType.APPLICATION_JSON, null))
+                    .expectNext(TaskDTO.builder()
+                                       .id(TASK_ID)
+                                       .title("UT \"title\" é")
+                                       .startDateTime(LocalDateTime.of(2021, 2, 3, 4, 5, 6, 7_000_000))
+                                       .build())
+                    .verifyComplete();
+    }
+
+    @Test
+    @DisplayName("GIVEN task start date has invalid format WHEN decode the task THEN fails with a decoding error")
+    void TaskStartDateHasInvalidFormat_DecodeTask_FailsWithDecodingError() {
+        // Given
+        var body = buffers("{\"title\":\"UT title\",\"startDateTime\":\"2021-02-03T04:05:06\"}");
+
+        // When & Then
+        StepVerifier.create(taskDTODecoder.decodeToMono(body, TASK_TYPE, MediaType.APPLICATION_JSON, null))
+                    .expectError(DecodingException.class)
+                    .verify();
+    }
+
+    @Test
+    @DisplayName("GIVEN task is not valid JSON WHEN decode the task THEN fails with a decoding error")
+    void TaskIsNotValidJson_DecodeTask_FailsWithDecodingError() {
+        // Given
+        var body = buffers("{\"title\":\"UT title\" \"description\":\"UT description\"}");
+
+        // When & Then
+        StepVerifier.create(taskDTODecoder.decodeToMono(body, TASK_TYPE, MediaType.APPLICATION_JSON, null))
+                    .expectError(DecodingException.class)
+                    .verify();
+    }
+
+    // decode
+    @Test
+    @DisplayName("GIVEN JSON array of tasks split in many buffers WHEN decode the tasks THEN emits every task")
+    void JsonArrayOfTasksSplitInManyBuffers_DecodeTasks_EmitsEveryTask() {
+        // Given
+        var body = buffers("[ {\"title\":\"UT title 1\"", ",\"description\":\"UT {[\\\"\"}", " ,{\"title\":\"UT title 2\"} ]");
+
+        // When & Then
+        StepVerifier.create(taskDTODecoder.decode(body, TASK_TYPE, MediaType.APPLICATION_JSON, null))
+                    .expectNext(TaskDTO.builder()
+                                       .title("UT title 1")
+                                       .description("UT {[\"")
+                                       .build())
+                    .expectNext(TaskDTO.builder()
+                                       .title("UT title 2")
+                                       .build())
+                    .verifyComplete();
+    }
+
+    @Test
+    @DisplayName("GIVEN NDJSON tasks WHEN decode the tasks THEN emits every task")
+    void NdjsonTasks_DecodeTasks_EmitsEveryTask() {
+        // Given
+        var body = buffers("{\"title\":\"UT title 1\"}\n{\"ti", "tle\":\"UT title 2\"}\n");
+
+        // When & Then
+        StepVerifier.create(taskDTODecoder.decode(body, TASK_TYPE, MediaType.APPLICATION_NDJSON, null))
+                    .expectNext(TaskDTO.builder()
+                                       .title("UT title 1")
+                                       .build())
+                    .expectNext(TaskDTO.builder()
+                                       .title("UT title 2")
+                                       .build())
+                    .verifyComplete();
+    }
+
+    @Test
+    @DisplayName("GIVEN last task is incomplete WHEN decode the tasks THEN emits the complete tasks And fails with a decoding error")
+    void LastTaskIsIncomplete_DecodeTasks_EmitsTheCompleteTasksAndFailsWithDecodingError() {
+        // Given
+        var body = buffers("[{\"title\":\"UT title 1\"},{\"title\":\"UT");
+
+        // When & Then
+        StepVerifier.create(taskDTODecoder.decode(body, TASK_TYPE, MediaType.APPLICATION_JSON, null))
+                    .expectNext(TaskDTO.builder()
+                                       .title("UT title 1")
+                                       .build())
+                    .expectError(DecodingException.class)
+                    .verify();
+    }
+
+    @Test
+    @DisplayName("GIVEN task is larger than the limit WHEN decode the tasks THEN fails with a limit error")
+    void TaskIsLargerThanTheLimit_DecodeTasks_FailsWithLimitError() {
+        // Given
+        var body = buffers("[{\"title\":\"" + "x".repeat(2048) + "\"}]");
+
+        // When & Then
+        StepVerifier.create(taskDTODecoder.decode(body, TASK_TYPE, MediaType.APPLICATION_JSON, null))
+                    .expectError(DataBufferLimitException.class)
+                    .verify();
+    }
+
+    @Test
+    @DisplayName("GIVEN element type WHEN check if can decode THEN only accepts tasks as JSON or NDJSON")
+    void ElementType_CanDecode_OnlyAcceptsTasksAsJsonOrNdjson() {
+        // When & Then
+        assertThat(taskDTODecoder.canDecode(TASK_TYPE, MediaType.APPLICATION_JSON)).isTrue();
+        assertThat(taskDTODecoder.canDecode(TASK_TYPE, MediaType.APPLICATION_NDJSON)).isTrue();
+        assertThat(taskDTODecoder.canDecode(TASK_TYPE, MediaType.APPLICATION_XML)).isFalse();
+        assertThat(taskDTODecoder.canDecode(ResolvableType.forClass(Object.class), MediaType.APPLICATION_JSON)).isFalse();
+    }
+
+    private static Flux<DataBuffer> buffers(String... chunks) {
+        return Flux.fromArray(chunks)
+                   .map(chunk -> DefaultDataBufferFactory.sharedInstance.wrap(chunk.getBytes(StandardCharsets.UTF_8)));
+    }
+
+}
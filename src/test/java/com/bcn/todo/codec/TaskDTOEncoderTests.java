@@ -0,0 +1,185 @@
+/**
+* Copyright 2023 the original author or authors.
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*     http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+*/
+package com.bcn.todo.codec;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.UUID;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.core.ResolvableType;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import com.bcn.todo.task.TaskDTO;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.ser.LocalDateTimeSerializer;
+
+@ExtendWith(SpringExtension.class)
+class TaskDTOEncoderTests {
+
+    private static final String DATE_TIME_PATTERN = "yyyy-MM-dd'T'HH:mm:ss.SSS'Z'";
+
+    private static final ResolvableType TASK_TYPE = ResolvableType.forClass(TaskDTO.class);
+
+    private final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json()
+                                                                         .serializationInclusion(JsonInclude.Include.NON_NULL)
+                                                                         .serializers(new LocalDateTimeSerializer(
+                                                                                 DateTimeFormatter.ofPattern(DATE_TIME_PATTERN)))
+                                                                         .build();
+
+    private final TaskDTOEncoder taskDTOEncoder = new TaskDTOEncoder(DATE_TIME_PATTERN);
+
+    // canEncode
+    @Test
+    @DisplayName("GIVEN element type WHEN check if can encode THEN only accepts tasks as JSON or NDJSON")
+    void ElementType_CanEncode_OnlyAcceptsTasksAsJsonOrNdjson() {
+        // When & Then
+        assertThat(taskDTOEncoder.canEncode(TASK_TYPE, MediaType.APPLICATION_JSON)).isTrue();
+        assertThat(taskDTOEncoder.canEncode(TASK_TYPE, MediaType.APPLICATION_NDJSON)).isTrue();
+        assertThat(taskDTOEncoder.canEncode(TASK_TYPE, null)).isTrue();
+        assertThat(taskDTOEncoder.canEncode(TASK_TYPE, MediaType.TEXT_EVENT_STREAM)).isFalse();
+        assertThat(taskDTOEncoder.canEncode(ResolvableType.forClass(Object.class), MediaType.APPLICATION_JSON)).isFalse();
+    }
+
+    // encode
+    @Test
+    @DisplayName("GIVEN task WHEN encode the task THEN writes the JSON written by the object mapper")
+    void Task_EncodeTask_WritesTheJsonWrittenByTheObjectMapper() throws JsonProcessingException {
+        // Given
+        var task = TaskDTO.builder()
+                          .id(UUID.randomUUID())
+                          .title("UT title \"quoted\" \\ / é 𝄞")
+                          .description("UT description\n\t\r\b\f\u0001\u001f\u007f")
+                          .startDateTime(LocalDateTime.of(2021, 2, 3, 4, 5, 6, 7_000_000))
+                          .version(3L)
+                          .build();
+
+        // When & Then
+        StepVerifier.create(encode(Mono.just(task), MediaType.APPLICATION_JSON))
+                    .expectNext(objectMapper.writeValueAsString(task))
+                    .verifyComplete();
+    }
+
+    @Test
+    @DisplayName("GIVEN task with null fields WHEN encode the task THEN omits the null fields")
+    void TaskWithNullFields_EncodeTask_OmitsTheNullFields() throws JsonProcessingException {
+        // Given
+        var task = TaskDTO.builder()
+                          .title("UT title")
+                          .build();
+
+        // When & Then
+        StepVerifier.create(encode(Mono.just(task), MediaType.APPLICATION_JSON))
+                    .expectNext(objectMapper.writeValueAsString(task))
+                    .verifyComplete();
+    }
+
+    @Test
+    @DisplayName("GIVEN date-time pattern is not the default one WHEN encode a task THEN formats the start date with the pattern")
+    void DateTimePatternIsNotTheDefault_EncodeTask_FormatsTheStartDateWithThePattern() {
+        // Given
+        var encoder = new TaskDTOEncoder("dd/MM/yyyy HH:mm");
+        var task = TaskDTO.builder()
+                          .startDateTime(LocalDateTime.of(2021, 2, 3, 4, 5))
+                          .build();
+
+        // When
+        var buffer = encoder.encodeValue(task, DefaultDataBufferFactory.sharedInstance, TASK_TYPE, MediaType.APPLICATION_JSON, null);
+
+        // Then
+        assertThat(toString(buffer)).isEqualTo("{\"startDateTime\":\"03/02/2021 04:05\"}");
+    }
+
+    @Test
+    @DisplayName("GIVEN many tasks WHEN encode the tasks as JSON THEN writes a JSON array with a buffer per task")
+    void ManyTasks_EncodeTasksAsJson_WritesJsonArrayWithBufferPerTask() throws JsonProcessingException {
+        // Given
+        var tasks = List.of(task("UT title 1"), task("UT title 2"), task("UT title 3"));
+
+        // When & Then
+        StepVerifier.create(encode(Flux.fromIterable(tasks), MediaType.APPLICATION_JSON))
+                    .expectNext("[" + objectMapper.writeValueAsString(tasks.get(0)))
+                    .expectNext("," + objectMapper.writeValueAsString(tasks.get(1)))
+                    .expectNext("," + objectMapper.writeValueAsString(tasks.get(2)))
+                    .expectNext("]")
+                    .verifyComplete();
+    }
+
+    @Test
+    @DisplayName("GIVEN no tasks WHEN encode the tasks as JSON THEN writes an empty JSON array")
+    void NoTasks_EncodeTasksAsJson_WritesEmptyJsonArray() {
+        // When & Then
+        StepVerifier.create(encode(Flux.empty(), MediaType.APPLICATION_JSON))
+                    .expectNext("[]")
+                    .verifyComplete();
+    }
+
+    @Test
+    @DisplayName("GIVEN many tasks WHEN encode the tasks as NDJSON THEN writes a line per task")
+    void ManyTasks_EncodeTasksAsNdjson_WritesLinePerTask() throws JsonProcessingException {
+        // Given
+        var tasks = List.of(task("UT title 1"), task("UT title 2"));
+
+        // When & Then
+        StepVerifier.create(encode(Flux.fromIterable(tasks), MediaType.APPLICATION_NDJSON))
+                    .expectNext(objectMapper.writeValueAsString(tasks.get(0)) + "\n")
+                    .expectNext(objectMapper.writeValueAsString(tasks.get(1)) + "\n")
+                    .verifyComplete();
+    }
+
+    private Flux<String> encode(Flux<TaskDTO> tasks, MediaType mediaType) {
+        return taskDTOEncoder.encode(tasks, DefaultDataBufferFactory.sharedInstance, TASK_TYPE, mediaType, null)
+                             .map(TaskDTOEncoderTests::toString);
+    }
+
+    private Flux<String> encode(Mono<TaskDTO> task, MediaType mediaType) {
+        return taskDTOEncoder.encode(task, DefaultDataBufferFactory.sharedInstance, TASK_TYPE, mediaType, null)
+                             .map(TaskDTOEncoderTests::toString);
+    }
+
+    private static TaskDTO task(String title) {
+        return TaskDTO.builder()
+                      .id(UUID.randomUUID())
+                      .title(title)
+                      .description("UT description")
+                      .startDateTime(LocalDateTime.now())
+                      .build();
+    }
+
+    private static String toString(DataBuffer buffer) {
+        var value = buffer.toString(StandardCharsets.UTF_8);
+        DataBufferUtils.release(buffer);
+        return value;
+    }
+
+}
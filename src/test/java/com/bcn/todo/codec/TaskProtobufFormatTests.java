@@ -0,0 +1,106 @@
+/**
+* Copyright 2023 the original author or authors.
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*     http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+*/
+package com.bcn.todo.codec;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.core.codec.DecodingException;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+import com.bcn.todo.task.TaskDTO;
+
+@ExtendWith(SpringExtension.class)
+class TaskProtobufFormatTests {
+
+    private static final UUID TASK_ID = new UUID(0x0102030405060708L, 0x090A0B0C0D0E0F10L);
+
+    private final TaskProtobufFormat taskProtobufFormat = new TaskProtobufFormat();
+
+    // write
+    @Test
+    @DisplayName("GIVEN task WHEN write the task THEN writes the fields of the Task message And omits the null fields")
+    void Task_WriteTask_WritesTheFieldsOfTheTaskMessageAndOmitsTheNullFields() {
+        // Given
+        var task = TaskDTO.builder()
+                          .id(TASK_ID)
+                          .title("UT")
+                          .startDateTime(LocalDateTime.of(1970, 1, 1, 0, 0, 0, 1_000_000))
+                          .version(3L)
+                          .build();
+
+        // When
+        var bytes = taskProtobufFormat.write(task);
+
+        // Then
+        assertThat(bytes).containsExactly(0x0A, 0x10, 0x01, 0x02, 0x03, 0x04, 0x05, 0x06, 0x07, 0x08, 0x09, 0x0A, 0x0B, 0x0C, 0x0D, 0x0E, 0x0F, 0x10, 0x12, 0x02,
+                'U', 'T', 0x20, 0x02);
+    }
+
+    // read
+    @Test
+    @DisplayName("GIVEN written task WHEN read the task THEN reads every field but the version")
+    void WrittenTask_ReadTask_ReadsEveryFieldButTheVersion() {
+        // Given
+        var task = TaskDTO.builder()
+                          .id(UUID.randomUUID())
+                          .title("UT title é 𝄞")
+                          .description("UT description")
+                          .startDateTime(LocalDateTime.of(1950, 2, 3, 4, 5, 6, 7_000_000))
+                          .version(3L)
+                          .build();
+        var bytes = taskProtobufFormat.write(task);
+
+        // When
+        var taskRead = taskProtobufFormat.read(bytes, 0, bytes.length);
+
+        // Then
+        task.setVersion(null);
+        assertThat(taskRead).isEqualTo(task);
+    }
+
+    @Test
+    @DisplayName("GIVEN task with unknown fields WHEN read the task THEN skips the unknown fields")
+    void TaskWithUnknownFields_ReadTask_SkipsTheUnknownFields() {
+        // Given
+        var bytes = new byte[] { 0x28, 0x01, 0x12, 0x02, 'U', 'T', 0x32, 0x01, 'x' };
+
+        // When
+        var taskRead = taskProtobufFormat.read(bytes, 0, bytes.length);
+
+        // Then
+        assertThat(taskRead).isEqualTo(TaskDTO.builder()
+                                              .title("UT")
+                                              .build());
+    }
+
+    @Test
+    @DisplayName("GIVEN task is truncated WHEN read the task THEN fails with a decoding error")
+    void TaskIsTruncated_ReadTask_FailsWithDecodingError() {
+        // Given
+        var bytes = new byte[] { 0x12, 0x05, 'U', 'T' };
+
+        // When & Then
+        assertThatThrownBy(() -> taskProtobufFormat.read(bytes, 0, bytes.length)).isInstanceOf(DecodingException.class);
+    }
+
+}
@@ -0,0 +1,265 @@
+/**
+* Copyright 2023 the original author or authors.
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*     http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+*/
+package com.bcn.todo.compression;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.InflaterInputStream;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.web.server.ServerWebExchange;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+@ExtendWith(SpringExtension.class)
+class CompressionWebFilterTests {
+
+    private static final int MIN_RESPONSE_SIZE = 1024;
+
+    private static final String LARGE_BODY = "{\"title\":\"UT title\",\"description\":\"UT description\"}".repeat(100);
+
+    private SimpleMeterRegistry meterRegistry;
+
+    private CompressionWebFilter compressionWebFilter;
+
+    @BeforeEach
+    void beforeEach() {
+        this.meterRegistry = new SimpleMeterRegistry();
+        this.compressionWebFilter = new CompressionWebFilter(List.of(ContentCoding.GZIP, ContentCoding.DEFLATE),
+                List.of(MediaType.APPLICATION_JSON, MediaType.APPLICATION_NDJSON), MIN_RESPONSE_SIZE, 6, meterRegistry);
+    }
+
+    // filter
+    @Test
+    @DisplayName("GIVEN client accepts gzip And body is larger than the minimum size WHEN filter the request THEN compresses the body with gzip And records the compression")
+    void ClientAcceptsGzipAndBodyIsLargerThanMinimumSize_FilterRequest_CompressesTheBodyWithGzipAndRecordsTheCompression() {
+        // Given
+        var exchange = exchange("gzip, deflate");
+
+        // When
+        StepVerifier.create(compressionWebFilter.filter(exchange, filteredExchange -> writeWith(filteredExchange, MediaType.APPLICATION_JSON, LARGE_BODY)))
+                    .verifyComplete();
+
+        // Then
+        var response = exchange.getResponse();
+        assertThat(response.getHeaders()
+                           .getFirst(HttpHeaders.CONTENT_ENCODING)).isEqualTo("gzip");
+        assertThat(response.getHeaders()
+                           .getVary()).containsExactly(HttpHeaders.ACCEPT_ENCODING);
+        var body = bodyBytes(exchange);
+        assertThat(response.getHeaders()
+                           .getContentLength()).isEqualTo(body.length);
+        assertThat(decompress(body, GZIPInputStream::new)).isEqualTo(LARGE_BODY);
+        var ratio = meterRegistry.get(CompressionWebFilter.RATIO_SUMMARY)
+                                 .tag("coding", "gzip")
+                                 .summary();
+        assertThat(ratio.count()).isEqualTo(1);
+        assertThat(ratio.totalAmount()).isGreaterThan(1.0);
+        assertThat(meterRegistry.get(CompressionWebFilter.CPU_TIMER)
+                                .tag("coding", "gzip")
+                                .timer()
+                                .count()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("GIVEN body is smaller than the minimum size WHEN filter the request THEN does not compress the body")
+    void BodyIsSmallerThanMinimumSize_FilterRequest_DoesNotCompressTheBody() {
+        // Given
+        var exchange = exchange("gzip");
+        var smallBody = "{\"title\":\"UT title\"}";
+
+        // When
+        StepVerifier.create(compressionWebFilter.filter(exchange, filteredExchange -> writeWith(filteredExchange, MediaType.APPLICATION_JSON, smallBody)))
+                    .verifyComplete();
+
+        // Then
+        assertThat(exchange.getResponse()
+                           .getHeaders()
+                           .containsKey(HttpHeaders.CONTENT_ENCODING)).isFalse();
+        assertThat(exchange.getResponse()
+                           .getHeaders()
+                           .getVary()).containsExactly(HttpHeaders.ACCEPT_ENCODING);
+        assertThat(new String(bodyBytes(exchange), StandardCharsets.UTF_8)).isEqualTo(smallBody);
+        assertThat(meterRegistry.find(CompressionWebFilter.RATIO_SUMMARY)
+                                .summary()).isNull();
+    }
+
+    @Test
+    @DisplayName("GIVEN streamed body WHEN filter the request THEN compresses every element of the body with deflate")
+    void StreamedBody_FilterRequest_CompressesEveryElementOfTheBodyWithDeflate() {
+        // Given
+        var exchange = exchange("deflate");
+        var lines = List.of("{\"title\":\"UT title 1\"}\n", "{\"title\":\"UT title 2\"}\n", "{\"title\":\"UT title 3\"}\n");
+
+        // When
+        StepVerifier.create(compressionWebFilter.filter(exchange, filteredExchange -> {
+            filteredExchange.getResponse()
+                            .getHeaders()
+                            .setContentType(MediaType.APPLICATION_NDJSON);
+            return filteredExchange.getResponse()
+                                   .writeAndFlushWith(Flux.fromIterable(lines)
+                                                          .map(line -> Mono.just(DefaultDataBufferFactory.sharedInstance.wrap(line.getBytes(StandardCharsets.UTF_8)))));
+        }))
+                    .verifyComplete();
+
+        // Then
+        assertThat(exchange.getResponse()
+                           .getHeaders()
+                           .getFirst(HttpHeaders.CONTENT_ENCODING)).isEqualTo("deflate");
+        assertThat(decompress(bodyBytes(exchange), InflaterInputStream::new)).isEqualTo(String.join("", lines));
+    }
+
+    @Test
+    @DisplayName("GIVEN body type is not compressible WHEN filter the request THEN does not compress the body")
+    void BodyTypeIsNotCompressible_FilterRequest_DoesNotCompressTheBody() {
+        // Given
+        var exchange = exchange("gzip");
+
+        // When
+        StepVerifier.create(compressionWebFilter.filter(exchange, filteredExchange -> writeWith(filteredExchange, MediaType.TEXT_PLAIN, LARGE_BODY)))
+                    .verifyComplete();
+
+        // Then
+        assertThat(exchange.getResponse()
+                           .getHeaders()
+                           .containsKey(HttpHeaders.CONTENT_ENCODING)).isFalse();
+        assertThat(new String(bodyBytes(exchange), StandardCharsets.UTF_8)).isEqualTo(LARGE_BODY);
+    }
+
+    @Test
+    @DisplayName("GIVEN body has a strong entity tag WHEN filter the request THEN compresses the body And suffixes the entity tag with the coding")
+    void BodyHasStrongEntityTag_FilterRequest_CompressesTheBodyAndSuffixesTheEntityTagWithTheCoding() {
+        // Given
+        var exchange = exchange("gzip");
+
+        // When
+        StepVerifier.create(compressionWebFilter.filter(exchange, filteredExchange -> {
+            filteredExchange.getResponse()
+                            .getHeaders()
+                            .setETag("\"1\"");
+            return writeWith(filteredExchange, MediaType.APPLICATION_JSON, LARGE_BODY);
+        }))
+                    .verifyComplete();
+
+        // Then
+        assertThat(exchange.getResponse()
+                           .getHeaders()
+                           .getETag()).isEqualTo("\"1-gzip\"");
+    }
+
+    @Test
+    @DisplayName("GIVEN If-None-Match has the entity tag of the coding WHEN filter a request not modified THEN the handler gets the decoded entity tag And responds with the entity tag of the coding")
+    void IfNoneMatchHasEntityTagOfTheCoding_FilterRequestNotModified_HandlerGetsTheDecodedEntityTagAndRespondsWithTheEntityTagOfTheCoding() {
+        // Given
+        var exchange = MockServerWebExchange.from(MockServerHttpRequest.get("/v1/tasks")
+                                                                       .header(HttpHeaders.ACCEPT_ENCODING, "gzip")
+                                                                       .ifNoneMatch("\"1-gzip\""));
+        var handledIfNoneMatch = new ArrayList<String>();
+
+        // When
+        StepVerifier.create(compressionWebFilter.filter(exchange, filteredExchange -> {
+            handledIfNoneMatch.addAll(filteredExchange.getRequest()
+                                                      .getHeaders()
+                                                      .getIfNoneMatch());
+            filteredExchange.checkNotModified("\"1\"");
+            return filteredExchange.getResponse()
+                                   .setComplete();
+        }))
+                    .verifyComplete();
+
+        // Then
+        assertThat(handledIfNoneMatch).containsExactly("\"1\"");
+        assertThat(exchange.getResponse()
+                           .getStatusCode()).isEqualTo(HttpStatus.NOT_MODIFIED);
+        assertThat(exchange.getResponse()
+                           .getHeaders()
+                           .getETag()).isEqualTo("\"1-gzip\"");
+    }
+
+    // negotiate
+    @ParameterizedTest
+    @CsvSource(delimiter = '|', nullValues = "null", value = { "gzip, deflate|GZIP", "deflate|DEFLATE", "gzip;q=0.5, deflate|DEFLATE", "*|GZIP",
+            "*;q=0.8, gzip;q=0|DEFLATE", "gzip;q=0|null", "br|null", "identity|null", "null|null" })
+    @DisplayName("GIVEN accepted encodings WHEN negotiate the coding THEN returns the accepted coding with the highest quality")
+    void AcceptedEncodings_NegotiateCoding_ReturnsTheAcceptedCodingWithTheHighestQuality(String acceptEncoding, ContentCoding expectedCoding) {
+        // When & Then
+        assertThat(compressionWebFilter.negotiate(acceptEncoding)).isEqualTo(expectedCoding);
+    }
+
+    private static MockServerWebExchange exchange(String acceptEncoding) {
+        return MockServerWebExchange.from(MockServerHttpRequest.get("/v1/tasks")
+                                                               .header(HttpHeaders.ACCEPT_ENCODING, acceptEncoding));
+    }
+
+    private static Mono<Void> writeWith(ServerWebExchange exchange, MediaType contentType, String body) {
+        var bytes = body.getBytes(StandardCharsets.UTF_8);
+        var response = exchange.getResponse();
+        response.getHeaders()
+                .setContentType(contentType);
+        response.getHeaders()
+                .setContentLength(bytes.length);
+        return response.writeWith(Mono.just(DefaultDataBufferFactory.sharedInstance.wrap(bytes)));
+    }
+
+    private static byte[] bodyBytes(MockServerWebExchange exchange) {
+        var body = DataBufferUtils.join(exchange.getResponse()
+                                                .getBody())
+                                  .block();
+        var bytes = new byte[body.readableByteCount()];
+        body.read(bytes);
+        return bytes;
+    }
+
+    private static String decompress(byte[] bytes, IOFunction<InputStream, InputStream> decompressor) {
+        try (var input = decompressor.apply(new ByteArrayInputStream(bytes))) {
+            return new String(input.readAllBytes(), StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @FunctionalInterface
+    private interface IOFunction<T, R> {
+
+        R apply(T value) throws IOException;
+
+    }
+
+}
@@ -0,0 +1,95 @@
+/**
+* Copyright 2023 the original author or authors.
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*     http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+*/
+package com.bcn.todo.config;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.BDDMockito.given;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.r2dbc.pool.ConnectionPool;
+import io.r2dbc.spi.Connection;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+@ExtendWith(SpringExtension.class)
+class MeteredConnectionPoolTests {
+
+    @Mock
+    private ConnectionPool connectionPoolMock;
+
+    @Mock
+    private Connection connectionMock;
+
+    private SimpleMeterRegistry meterRegistry;
+
+    private MeteredConnectionPool meteredConnectionPool;
+
+    @BeforeEach
+    void beforeEach() {
+        this.meterRegistry = new SimpleMeterRegistry();
+        this.meteredConnectionPool = new MeteredConnectionPool(connectionPoolMock, "ut", meterRegistry);
+    }
+
+    // create
+    @Test
+    @DisplayName("GIVEN pool has connections WHEN acquire a connection THEN returns the connection And records a successful acquisition")
+    void PoolHasConnections_AcquireConnection_ReturnsTheConnectionAndRecordsSuccessfulAcquisition() {
+        // Given
+        given(connectionPoolMock.create()).willReturn(Mono.just(connectionMock));
+
+        // When
+        var result = Mono.<Connection> from(meteredConnectionPool.create());
+
+        // Then
+        StepVerifier.create(result)
+                    .expectNext(connectionMock)
+                    .verifyComplete();
+
+        assertEquals(1L, meterRegistry.get(MeteredConnectionPool.ACQUIRE_TIMER)
+                                      .tag("name", "ut")
+                                      .tag("outcome", "success")
+                                      .timer()
+                                      .count());
+    }
+
+    @Test
+    @DisplayName("GIVEN pool fails WHEN acquire a connection THEN returns the error And records a failed acquisition")
+    void PoolFails_AcquireConnection_ReturnsTheErrorAndRecordsFailedAcquisition() {
+        // Given
+        given(connectionPoolMock.create()).willReturn(Mono.error(new IllegalStateException("UT acquire timeout")));
+
+        // When
+        var result = Mono.<Connection> from(meteredConnectionPool.create());
+
+        // Then
+        StepVerifier.create(result)
+                    .verifyError(IllegalStateException.class);
+
+        assertEquals(1L, meterRegistry.get(MeteredConnectionPool.ACQUIRE_TIMER)
+                                      .tag("name", "ut")
+                                      .tag("outcome", "failure")
+                                      .timer()
+                                      .count());
+    }
+
+}
@@ -0,0 +1,53 @@
+/**
+* Copyright 2023 the original author or authors.
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*     http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+*/
+package com.bcn.todo.config;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.List;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.springframework.web.util.pattern.PathPattern;
+import org.springframework.web.util.pattern.PathPatternParser;
+
+class NettyServerConfigurationTests {
+
+    private static final String BASE_PATH = "/reactive-todo-service";
+
+    private static final List<PathPattern> URI_TEMPLATES = Stream.of("/v1/tasks", "/v1/tasks/{id}", "/v1/tasks/search", "/v1/tasks:batch")
+                                                                 .map(PathPatternParser.defaultInstance::parse)
+                                                                 .sorted(PathPattern.SPECIFICITY_COMPARATOR)
+                                                                 .toList();
+
+    // uriTagValue
+    @ParameterizedTest
+    @CsvSource(delimiter = '|', value = { "/reactive-todo-service/v1/tasks|/reactive-todo-service/v1/tasks",
+            "/reactive-todo-service/v1/tasks/0b6a4f5e-3c2d-4e1f-9a8b-7c6d5e4f3a2b|/reactive-todo-service/v1/tasks/{id}",
+            "/reactive-todo-service/v1/tasks/not-an-id|/reactive-todo-service/v1/tasks/{id}",
+            "/reactive-todo-service/v1/tasks/search?titleContains=0b6a4f5e-3c2d-4e1f-9a8b-7c6d5e4f3a2b|/reactive-todo-service/v1/tasks/search",
+            "/reactive-todo-service/v1/tasks:batch|/reactive-todo-service/v1/tasks:batch",
+            "/reactive-todo-service/v1/tasks/0b6a4f5e-3c2d-4e1f-9a8b-7c6d5e4f3a2b/history|UNKNOWN", "/reactive-todo-service/actuator/metrics/jvm.memory.used|UNKNOWN",
+            "/wp-login.php|UNKNOWN" })
+    @DisplayName("GIVEN request URI WHEN get the URI tag value THEN reduces the URI to the most specific template it matches or to UNKNOWN And drops the query")
+    void RequestUri_GetUriTagValue_ReducesTheUriToTheMostSpecificTemplateItMatchesOrToUnknownAndDropsTheQuery(String uri, String expectedTagValue) {
+        // When & Then
+        assertEquals(expectedTagValue, NettyServerConfiguration.uriTagValue(uri, BASE_PATH, URI_TEMPLATES));
+    }
+
+}
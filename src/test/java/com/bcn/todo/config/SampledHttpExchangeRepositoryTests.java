@@ -0,0 +1,107 @@
+/**
+* Copyright 2023 the original author or authors.
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*     http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+*/
+package com.bcn.todo.config;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.net.URI;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.actuate.web.exchanges.HttpExchange;
+
+class SampledHttpExchangeRepositoryTests {
+
+    // add
+    @Test
+    @DisplayName("GIVEN sample rate is one WHEN add more exchanges than the capacity THEN keeps the most recent exchanges, the most recent first")
+    void SampleRateIsOne_AddMoreExchangesThanCapacity_KeepsTheMostRecentExchangesMostRecentFirst() {
+        // Given
+        var repository = new SampledHttpExchangeRepository(2, 1.0, Duration.ofSeconds(1));
+
+        // When
+        var firstExchange = exchange("/v1/tasks/1", 200, Duration.ofMillis(10));
+        var secondExchange = exchange("/v1/tasks/2", 200, Duration.ofMillis(10));
+        var thirdExchange = exchange("/v1/tasks/3", 200, Duration.ofMillis(10));
+        repository.add(firstExchange);
+        repository.add(secondExchange);
+        repository.add(thirdExchange);
+
+        // Then
+        assertEquals(List.of(thirdExchange, secondExchange), repository.findAll());
+    }
+
+    @Test
+    @DisplayName("GIVEN sample rate is zero WHEN add a fast and successful exchange THEN does not record the exchange")
+    void SampleRateIsZero_AddFastSuccessfulExchange_DoesNotRecordTheExchange() {
+        // Given
+        var repository = new SampledHttpExchangeRepository(10, 0.0, Duration.ofSeconds(1));
+
+        // When
+        repository.add(exchange("/v1/tasks", 200, Duration.ofMillis(10)));
+
+        // Then
+        assertTrue(repository.findAll()
+                             .isEmpty());
+    }
+
+    @Test
+    @DisplayName("GIVEN sample rate is zero WHEN add a server error exchange THEN records the exchange")
+    void SampleRateIsZero_AddServerErrorExchange_RecordsTheExchange() {
+        // Given
+        var repository = new SampledHttpExchangeRepository(10, 0.0, Duration.ofSeconds(1));
+
+        // When
+        var serverErrorExchange = exchange("/v1/tasks", 500, Duration.ofMillis(10));
+        repository.add(serverErrorExchange);
+
+        // Then
+        assertEquals(List.of(serverErrorExchange), repository.findAll());
+    }
+
+    @Test
+    @DisplayName("GIVEN sample rate is zero WHEN add an exchange slower than the threshold THEN records the exchange")
+    void SampleRateIsZero_AddSlowExchange_RecordsTheExchange() {
+        // Given
+        var repository = new SampledHttpExchangeRepository(10, 0.0, Duration.ofSeconds(1));
+
+        // When
+        var slowExchange = exchange("/v1/tasks", 200, Duration.ofSeconds(2));
+        repository.add(slowExchange);
+
+        // Then
+        assertEquals(List.of(slowExchange), repository.findAll());
+    }
+
+    // constructor
+    @Test
+    @DisplayName("GIVEN sample rate is greater than one WHEN create the repository THEN throws IllegalArgumentException")
+    void SampleRateGreaterThanOne_CreateRepository_ThrowsIllegalArgumentException() {
+        assertThrows(IllegalArgumentException.class, () -> new SampledHttpExchangeRepository(10, 1.5, Duration.ofSeconds(1)));
+    }
+
+    private static HttpExchange exchange(String path, int status, Duration timeTaken) {
+        return new HttpExchange(Instant.now(), new HttpExchange.Request(URI.create("http://localhost" + path), "127.0.0.1", "GET", Map.of()),
+                new HttpExchange.Response(status, Map.of()), null, null, timeTaken);
+    }
+
+}
@@ -0,0 +1,89 @@
+/**
+* Copyright 2023 the original author or authors.
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*     http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+*/
+package com.bcn.todo.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.List;
+import java.util.UUID;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.support.StaticApplicationContext;
+import org.springframework.http.MediaType;
+
+import com.bcn.todo.codec.TaskCborFormat;
+import com.bcn.todo.codec.TaskProtobufFormat;
+import com.bcn.todo.task.TaskDTO;
+import com.bcn.todo.task.TaskRestController;
+
+class TaskBinaryMediaTypesConfigurationTests {
+
+    private TaskBinaryMediaTypesConfiguration.ExcludingMediaTypesHandlerMapping handlerMapping;
+
+    @BeforeEach
+    void beforeEach() {
+        var applicationContext = new StaticApplicationContext();
+        applicationContext.refresh();
+        this.handlerMapping = new TaskBinaryMediaTypesConfiguration.ExcludingMediaTypesHandlerMapping(List.of(TaskProtobufFormat.MIME_TYPE,
+                TaskCborFormat.MIME_TYPE));
+        this.handlerMapping.setApplicationContext(applicationContext);
+        this.handlerMapping.afterPropertiesSet();
+    }
+
+    // getMappingForMethod
+    @Test
+    @DisplayName("GIVEN handler producing binary media types WHEN get its mapping THEN only produces the other media types")
+    void HandlerProducingBinaryMediaTypes_GetMapping_OnlyProducesTheOtherMediaTypes() throws NoSuchMethodException {
+        // When
+        var mapping = handlerMapping.getMappingForMethod(TaskRestController.class.getMethod("getTaskById", UUID.class), TaskRestController.class);
+
+        // Then
+        assertThat(mapping).isNotNull();
+        assertThat(mapping.getProducesCondition()
+                          .getProducibleMediaTypes()).containsExactly(MediaType.APPLICATION_JSON);
+    }
+
+    @Test
+    @DisplayName("GIVEN handler consuming binary media types WHEN get its mapping THEN only consumes the other media types")
+    void HandlerConsumingBinaryMediaTypes_GetMapping_OnlyConsumesTheOtherMediaTypes() throws NoSuchMethodException {
+        // When
+        var mapping = handlerMapping.getMappingForMethod(TaskRestController.class.getMethod("createTask", TaskDTO.class), TaskRestController.class);
+
+        // Then
+        assertThat(mapping).isNotNull();
+        assertThat(mapping.getConsumesCondition()
+                          .getConsumableMediaTypes()).containsExactly(MediaType.APPLICATION_JSON);
+        assertThat(mapping.getProducesCondition()
+                          .getProducibleMediaTypes()).containsExactly(MediaType.APPLICATION_JSON);
+        assertThat(mapping.getPatternsCondition()
+                          .getPatterns()).hasSize(1);
+    }
+
+    @Test
+    @DisplayName("GIVEN handler streaming tasks WHEN get its mapping THEN keeps the streamed media types")
+    void HandlerStreamingTasks_GetMapping_KeepsTheStreamedMediaTypes() throws NoSuchMethodException {
+        // When
+        var mapping = handlerMapping.getMappingForMethod(TaskRestController.class.getMethod("streamTasksByText", String.class), TaskRestController.class);
+
+        // Then
+        assertThat(mapping).isNotNull();
+        assertThat(mapping.getProducesCondition()
+                          .getProducibleMediaTypes()).containsExactlyInAnyOrder(MediaType.APPLICATION_NDJSON, MediaType.TEXT_EVENT_STREAM);
+    }
+
+}
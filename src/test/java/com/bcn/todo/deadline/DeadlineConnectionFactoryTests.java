@@ -0,0 +1,193 @@
+/**
+* Copyright 2023 the original author or authors.
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*     http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+*/
+package com.bcn.todo.deadline;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.BDDMockito.then;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.withSettings;
+
+import java.time.Duration;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.r2dbc.postgresql.api.PostgresqlConnection;
+import io.r2dbc.spi.Connection;
+import io.r2dbc.spi.ConnectionFactory;
+import io.r2dbc.spi.Wrapped;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+@ExtendWith(SpringExtension.class)
+class DeadlineConnectionFactoryTests {
+
+    @Mock
+    private ConnectionFactory connectionFactoryMock;
+
+    @Mock
+    private PostgresqlConnection connectionMock;
+
+    private SimpleMeterRegistry meterRegistry;
+
+    private DeadlineConnectionFactory deadlineConnectionFactory;
+
+    @BeforeEach
+    void beforeEach() {
+        given(connectionFactoryMock.create()).willAnswer(invocation -> Mono.just(connectionMock));
+        given(connectionMock.setStatementTimeout(any(Duration.class))).willReturn(Mono.empty());
+        given(connectionMock.close()).willReturn(Mono.empty());
+        given(connectionMock.cancelRequest()).willReturn(Mono.empty());
+
+        this.meterRegistry = new SimpleMeterRegistry();
+        this.deadlineConnectionFactory = new DeadlineConnectionFactory(connectionFactoryMock, meterRegistry);
+    }
+
+    // create
+    @Test
+    @DisplayName("GIVEN pipeline without deadline WHEN create a connection And close it THEN leaves the statement timeout untouched")
+    void PipelineWithoutDeadline_CreateConnectionAndCloseIt_LeavesTheStatementTimeoutUntouched() {
+        // When
+        var result = Mono.<Connection> from(deadlineConnectionFactory.create())
+                         .flatMap(connection -> Mono.from(connection.close()));
+
+        // Then
+        StepVerifier.create(result)
+                    .verifyComplete();
+
+        then(connectionMock).should(never())
+                            .setStatementTimeout(any(Duration.class));
+        then(connectionMock).should()
+                            .close();
+    }
+
+    @Test
+    @DisplayName("GIVEN pipeline with deadline WHEN create a connection And close it THEN sets the time left as statement timeout And resets it before closing")
+    void PipelineWithDeadline_CreateConnectionAndCloseIt_SetsTheTimeLeftAsStatementTimeoutAndResetsItBeforeClosing() {
+        // When
+        var result = Mono.<Connection> from(deadlineConnectionFactory.create())
+                         .flatMap(connection -> Mono.from(connection.close()))
+                         .contextWrite(context -> Deadlines.withDeadline(context, System.nanoTime() + Duration.ofSeconds(2)
+                                                                                                         .toNanos()));
+
+        // Then
+        StepVerifier.create(result)
+                    .verifyComplete();
+
+        var timeouts = ArgumentCaptor.forClass(Duration.class);
+        var order = inOrder(connectionMock);
+        order.verify(connectionMock, times(2))
+             .setStatementTimeout(timeouts.capture());
+        order.verify(connectionMock)
+             .close();
+        assertThat(timeouts.getAllValues()
+                           .get(0)).isPositive()
+                                   .isLessThanOrEqualTo(Duration.ofSeconds(2));
+        assertThat(timeouts.getAllValues()
+                           .get(1)).isZero();
+    }
+
+    @Test
+    @DisplayName("GIVEN queries cancelled WHEN close the connection THEN sends a cancel request before closing And counts it")
+    void QueriesCancelled_CloseConnection_SendsCancelRequestBeforeClosingAndCountsIt() {
+        // Given
+        var cancellation = new QueryCancellation();
+        cancellation.cancel();
+
+        // When
+        var result = Mono.<Connection> from(deadlineConnectionFactory.create())
+                         .flatMap(connection -> Mono.from(connection.close()))
+                         .contextWrite(context -> Deadlines.withCancellation(context, cancellation));
+
+        // Then
+        StepVerifier.create(result)
+                    .verifyComplete();
+
+        var order = inOrder(connectionMock);
+        order.verify(connectionMock)
+             .cancelRequest();
+        order.verify(connectionMock)
+             .close();
+        assertThat(meterRegistry.get(DeadlineConnectionFactory.CANCEL_REQUESTS_COUNTER)
+                                .tag("outcome", "success")
+                                .counter()
+                                .count()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("GIVEN pooled connection And queries cancelled WHEN close the connection THEN closes the physical connection before releasing it to the pool")
+    void PooledConnectionAndQueriesCancelled_CloseConnection_ClosesThePhysicalConnectionBeforeReleasingItToThePool() {
+        // Given
+        var pooledConnectionMock = mock(Connection.class, withSettings().extraInterfaces(Wrapped.class));
+        given(((Wrapped<?>) pooledConnectionMock).unwrap()).willAnswer(invocation -> connectionMock);
+        given(pooledConnectionMock.close()).willAnswer(invocation -> Mono.empty());
+        given(connectionFactoryMock.create()).willAnswer(invocation -> Mono.just(pooledConnectionMock));
+        var cancellation = new QueryCancellation();
+        cancellation.cancel();
+
+        // When
+        var result = Mono.<Connection> from(deadlineConnectionFactory.create())
+                         .flatMap(connection -> Mono.from(connection.close()))
+                         .contextWrite(context -> Deadlines.withCancellation(context, cancellation));
+
+        // Then
+        StepVerifier.create(result)
+                    .verifyComplete();
+
+        var order = inOrder(connectionMock, pooledConnectionMock);
+        order.verify(connectionMock)
+             .cancelRequest();
+        order.verify(connectionMock)
+             .close();
+        order.verify(pooledConnectionMock)
+             .close();
+        then(connectionMock).should(never())
+                            .setStatementTimeout(any(Duration.class));
+    }
+
+    @Test
+    @DisplayName("GIVEN queries completed before being cancelled WHEN close the connection THEN does not send a cancel request")
+    void QueriesCompletedBeforeBeingCancelled_CloseConnection_DoesNotSendCancelRequest() {
+        // Given
+        var cancellation = new QueryCancellation();
+        cancellation.complete();
+        cancellation.cancel();
+
+        // When
+        var result = Mono.<Connection> from(deadlineConnectionFactory.create())
+                         .flatMap(connection -> Mono.from(connection.close()))
+                         .contextWrite(context -> Deadlines.withCancellation(context, cancellation));
+
+        // Then
+        StepVerifier.create(result)
+                    .verifyComplete();
+
+        then(connectionMock).should(never())
+                            .cancelRequest();
+    }
+
+}
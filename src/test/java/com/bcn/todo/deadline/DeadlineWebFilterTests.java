@@ -0,0 +1,119 @@
+/**
+* Copyright 2023 the original author or authors.
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*     http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+*/
+package com.bcn.todo.deadline;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.web.server.WebFilterChain;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+@ExtendWith(SpringExtension.class)
+class DeadlineWebFilterTests {
+
+    private static final Instant NOW = Instant.parse("2024-01-01T10:00:00Z");
+
+    private SimpleMeterRegistry meterRegistry;
+
+    private DeadlineWebFilter deadlineWebFilter;
+
+    private final AtomicReference<Optional<Duration>> remaining = new AtomicReference<>();
+
+    private final WebFilterChain chain = exchange -> Mono.deferContextual(context -> {
+        remaining.set(Deadlines.remaining(context));
+        return Mono.empty();
+    });
+
+    @BeforeEach
+    void beforeEach() {
+        this.meterRegistry = new SimpleMeterRegistry();
+        this.deadlineWebFilter = new DeadlineWebFilter(Clock.fixed(NOW, ZoneOffset.UTC), meterRegistry);
+    }
+
+    // filter
+    @Test
+    @DisplayName("GIVEN request with a future deadline WHEN filter the request THEN serves the request with the time left until the deadline")
+    void RequestWithFutureDeadline_FilterRequest_ServesTheRequestWithTheTimeLeftUntilTheDeadline() {
+        // Given
+        var exchange = exchange(String.valueOf(NOW.plusSeconds(2)
+                                                  .toEpochMilli()));
+
+        // When
+        StepVerifier.create(deadlineWebFilter.filter(exchange, chain))
+                    .verifyComplete();
+
+        // Then
+        assertThat(remaining.get()).hasValueSatisfying(timeLeft -> assertThat(timeLeft).isPositive()
+                                                                                        .isLessThanOrEqualTo(Duration.ofSeconds(2)));
+    }
+
+    @Test
+    @DisplayName("GIVEN request with a passed deadline WHEN filter the request THEN responds 504 without serving the request And counts it")
+    void RequestWithPassedDeadline_FilterRequest_Responds504WithoutServingTheRequestAndCountsIt() {
+        // Given
+        var exchange = exchange(String.valueOf(NOW.minusMillis(1)
+                                                  .toEpochMilli()));
+
+        // When
+        StepVerifier.create(deadlineWebFilter.filter(exchange, chain))
+                    .verifyComplete();
+
+        // Then
+        assertThat(remaining.get()).isNull();
+        assertThat(exchange.getResponse()
+                           .getStatusCode()).isEqualTo(HttpStatus.GATEWAY_TIMEOUT);
+        assertThat(meterRegistry.get(DeadlineWebFilter.EXPIRED_COUNTER)
+                                .counter()
+                                .count()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("GIVEN request with an invalid deadline WHEN filter the request THEN serves the request without deadline")
+    void RequestWithInvalidDeadline_FilterRequest_ServesTheRequestWithoutDeadline() {
+        // Given
+        var exchange = exchange("tomorrow");
+
+        // When
+        StepVerifier.create(deadlineWebFilter.filter(exchange, chain))
+                    .verifyComplete();
+
+        // Then
+        assertThat(remaining.get()).isEmpty();
+    }
+
+    private static MockServerWebExchange exchange(String deadline) {
+        return MockServerWebExchange.from(MockServerHttpRequest.get("/v1/tasks")
+                                                               .header(DeadlineWebFilter.DEADLINE_HEADER, deadline));
+    }
+
+}
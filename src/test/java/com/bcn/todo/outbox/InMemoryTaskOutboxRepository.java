@@ -0,0 +1,72 @@
+/**
+* Copyright 2023 the original author or authors.
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*     http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+*/
+package com.bcn.todo.outbox;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import com.bcn.todo.task.TaskChangeOperation;
+
+/**
+ * In-memory implementation of {@link TaskOutboxRepository} that only counts the recorded events.
+ * <p>
+ * Stands in for the database when measuring the service and web layers, the events are discarded so that long measurements do not run out of memory.
+ *
+ * @author ttrigo
+ * @since 0.1.0
+ */
+public class InMemoryTaskOutboxRepository implements TaskOutboxRepository {
+
+    private final AtomicLong appendedEvents = new AtomicLong();
+
+    @Override
+    public Mono<Long> append(TaskChangeOperation operation, Collection<UUID> taskIds) {
+        return Mono.fromSupplier(() -> {
+            this.appendedEvents.addAndGet(taskIds.size());
+            return (long) taskIds.size();
+        });
+    }
+
+    @Override
+    public Flux<TaskOutboxEvent> lockNextBatch(int limit) {
+        return Flux.empty();
+    }
+
+    @Override
+    public Mono<Long> deleteByIds(Collection<Long> ids) {
+        return Mono.just(0L);
+    }
+
+    @Override
+    public Mono<Duration> findLag() {
+        return Mono.just(Duration.ZERO);
+    }
+
+    /**
+     * Get the number of events recorded.
+     *
+     * @return the number of events.
+     */
+    public long getAppendedEvents() {
+        return this.appendedEvents.get();
+    }
+
+}
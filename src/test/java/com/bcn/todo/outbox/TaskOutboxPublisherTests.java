@@ -0,0 +1,178 @@
+/**
+* Copyright 2023 the original author or authors.
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*     http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+*/
+package com.bcn.todo.outbox;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.BDDMockito.then;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.transaction.reactive.TransactionalOperator;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import com.bcn.todo.InMemoryTransactionManager;
+import com.bcn.todo.task.TaskChangeOperation;
+
+@ExtendWith(SpringExtension.class)
+class TaskOutboxPublisherTests {
+
+    private static final int BATCH_SIZE = 2;
+
+    @Mock
+    private TaskOutboxRepository taskOutboxRepositoryMock;
+
+    @Mock
+    private TaskOutboxSink taskOutboxSinkMock;
+
+    private SimpleMeterRegistry meterRegistry;
+
+    private TaskOutboxPublisher taskOutboxPublisher;
+
+    @BeforeEach
+    void beforeEach() {
+        this.meterRegistry = new SimpleMeterRegistry();
+        this.taskOutboxPublisher = new TaskOutboxPublisher(taskOutboxRepositoryMock, taskOutboxSinkMock, TransactionalOperator.create(
+                new InMemoryTransactionManager()), meterRegistry, BATCH_SIZE, Duration.ofSeconds(1));
+
+        given(taskOutboxRepositoryMock.deleteByIds(anyCollection())).willAnswer(invocation -> Mono.just((long) invocation.<List<Long>> getArgument(0)
+                                                                                                                         .size()));
+        given(taskOutboxRepositoryMock.findLag()).willReturn(Mono.just(Duration.ofMillis(1500)));
+        given(taskOutboxSinkMock.publish(anyList())).willReturn(Mono.empty());
+    }
+
+    // drain
+    @Test
+    @DisplayName("GIVEN outbox has less events than the batch size WHEN drain the outbox THEN publishes and deletes the events And updates the meters")
+    void OutboxHasLessEventsThanBatchSize_DrainOutbox_PublishesAndDeletesTheEventsAndUpdatesTheMeters() {
+        // Given
+        var event = event(1L);
+        given(taskOutboxRepositoryMock.lockNextBatch(anyInt())).willReturn(Flux.just(event));
+
+        // When
+        var result = taskOutboxPublisher.drain();
+
+        // Then
+        StepVerifier.create(result)
+                    .expectNext(1L)
+                    .verifyComplete();
+
+        then(taskOutboxSinkMock).should(times(1))
+                                .publish(List.of(event));
+        then(taskOutboxRepositoryMock).should(times(1))
+                                      .deleteByIds(List.of(1L));
+        assertEquals(1.0, meterRegistry.get(TaskOutboxPublisher.PUBLISHED_COUNTER)
+                                       .counter()
+                                       .count());
+        assertEquals(1L, meterRegistry.get(TaskOutboxPublisher.BATCH_TIMER)
+                                      .timer()
+                                      .count());
+        assertEquals(1500.0, meterRegistry.get(TaskOutboxPublisher.LAG_GAUGE)
+                                          .timeGauge()
+                                          .value(TimeUnit.MILLISECONDS));
+    }
+
+    @Test
+    @DisplayName("GIVEN outbox has more events than the batch size WHEN drain the outbox THEN publishes batches until a batch is not full")
+    void OutboxHasMoreEventsThanBatchSize_DrainOutbox_PublishesBatchesUntilBatchIsNotFull() {
+        // Given
+        given(taskOutboxRepositoryMock.lockNextBatch(anyInt())).willReturn(Flux.just(event(1L), event(2L)), Flux.just(event(3L)));
+
+        // When
+        var result = taskOutboxPublisher.drain();
+
+        // Then
+        StepVerifier.create(result)
+                    .expectNext(3L)
+                    .verifyComplete();
+
+        then(taskOutboxRepositoryMock).should(times(2))
+                                      .lockNextBatch(BATCH_SIZE);
+        then(taskOutboxRepositoryMock).should(times(1))
+                                      .deleteByIds(List.of(1L, 2L));
+        then(taskOutboxRepositoryMock).should(times(1))
+                                      .deleteByIds(List.of(3L));
+        assertEquals(2L, meterRegistry.get(TaskOutboxPublisher.BATCH_TIMER)
+                                      .timer()
+                                      .count());
+    }
+
+    @Test
+    @DisplayName("GIVEN outbox is empty WHEN drain the outbox THEN does not publish anything")
+    void OutboxIsEmpty_DrainOutbox_DoesNotPublishAnything() {
+        // Given
+        given(taskOutboxRepositoryMock.lockNextBatch(anyInt())).willReturn(Flux.empty());
+
+        // When
+        var result = taskOutboxPublisher.drain();
+
+        // Then
+        StepVerifier.create(result)
+                    .expectNext(0L)
+                    .verifyComplete();
+
+        then(taskOutboxSinkMock).should(never())
+                                .publish(anyList());
+        assertEquals(0L, meterRegistry.get(TaskOutboxPublisher.BATCH_TIMER)
+                                      .timer()
+                                      .count());
+    }
+
+    @Test
+    @DisplayName("GIVEN sink fails WHEN drain the outbox THEN does not delete the events And completes without error")
+    void SinkFails_DrainOutbox_DoesNotDeleteTheEventsAndCompletesWithoutError() {
+        // Given
+        given(taskOutboxRepositoryMock.lockNextBatch(anyInt())).willReturn(Flux.just(event(1L)));
+        given(taskOutboxSinkMock.publish(anyList())).willReturn(Mono.error(new IllegalStateException("UT sink failure")));
+
+        // When
+        var result = taskOutboxPublisher.drain();
+
+        // Then
+        StepVerifier.create(result)
+                    .verifyComplete();
+
+        then(taskOutboxRepositoryMock).should(never())
+                                      .deleteByIds(anyCollection());
+        assertEquals(0.0, meterRegistry.get(TaskOutboxPublisher.PUBLISHED_COUNTER)
+                                       .counter()
+                                       .count());
+    }
+
+    private static TaskOutboxEvent event(long id) {
+        return new TaskOutboxEvent(id, UUID.randomUUID(), TaskChangeOperation.CREATED, "{\"title\": \"UT Title\"}", Instant.now());
+    }
+
+}
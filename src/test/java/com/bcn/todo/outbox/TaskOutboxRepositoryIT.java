@@ -0,0 +1,178 @@
+/**
+* Copyright 2023 the original author or authors.
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*     http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+*/
+package com.bcn.todo.outbox;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.data.r2dbc.DataR2dbcTest;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.transaction.ReactiveTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import org.springframework.transaction.support.DefaultTransactionDefinition;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import org.testcontainers.utility.DockerImageName;
+
+import reactor.test.StepVerifier;
+
+import com.bcn.todo.task.Task;
+import com.bcn.todo.task.TaskChangeOperation;
+import com.bcn.todo.task.TaskRepository;
+
+@Testcontainers(disabledWithoutDocker = true)
+@DataR2dbcTest
+class TaskOutboxRepositoryIT {
+
+    @Container
+    @ServiceConnection
+    static PostgreSQLContainer<?> postgreSQLContainer = new PostgreSQLContainer<>(DockerImageName.parse("postgres:latest"));
+
+    @Autowired
+    private DatabaseClient databaseClient;
+
+    @Autowired
+    private ReactiveTransactionManager transactionManager;
+
+    @Autowired
+    private TaskRepository taskRepository;
+
+    private TaskOutboxRepository taskOutboxRepository;
+
+    @BeforeEach
+    void beforeEach() {
+        this.taskOutboxRepository = new TaskOutboxRepositoryImpl(databaseClient);
+
+        databaseClient.sql("DELETE FROM task_outbox")
+                      .then()
+                      .block();
+        taskRepository.deleteAll()
+                      .block();
+    }
+
+    @Test
+    @DisplayName("GIVEN task exists WHEN append its creation THEN records an event with the row of the task as payload")
+    void TaskExists_AppendCreation_RecordsEventWithTheRowOfTheTaskAsPayload() {
+        // Given
+        var task = taskRepository.upsertTask(new Task(UUID.randomUUID(), "IT Title", "IT Description", LocalDateTime.now(), null))
+                                 .block();
+
+        // When
+        var result = taskOutboxRepository.append(TaskChangeOperation.CREATED, List.of(task.id()))
+                                         .thenMany(taskOutboxRepository.lockNextBatch(10));
+
+        // Then
+        StepVerifier.create(result)
+                    .assertNext(event -> {
+                        Assertions.assertEquals(task.id(), event.taskId());
+                        Assertions.assertEquals(TaskChangeOperation.CREATED, event.operation());
+                        Assertions.assertTrue(event.payload()
+                                                   .contains("\"title\": \"IT Title\""));
+                        Assertions.assertFalse(event.payload()
+                                                    .contains("search_vector"));
+                    })
+                    .verifyComplete();
+    }
+
+    @Test
+    @DisplayName("GIVEN tasks have been deleted WHEN append their deletion THEN records an event per task without payload in order")
+    void TasksDeleted_AppendDeletion_RecordsEventPerTaskWithoutPayloadInOrder() {
+        // Given
+        var firstTaskId = UUID.randomUUID();
+        var secondTaskId = UUID.randomUUID();
+
+        // When
+        var result = taskOutboxRepository.append(TaskChangeOperation.DELETED, List.of(firstTaskId))
+                                         .then(taskOutboxRepository.append(TaskChangeOperation.DELETED, List.of(secondTaskId)))
+                                         .thenMany(taskOutboxRepository.lockNextBatch(10));
+
+        // Then
+        StepVerifier.create(result)
+                    .assertNext(event -> {
+                        Assertions.assertEquals(firstTaskId, event.taskId());
+                        Assertions.assertEquals(TaskChangeOperation.DELETED, event.operation());
+                        Assertions.assertNull(event.payload());
+                    })
+                    .assertNext(event -> Assertions.assertEquals(secondTaskId, event.taskId()))
+                    .verifyComplete();
+    }
+
+    @Test
+    @DisplayName("GIVEN events are locked by another transaction WHEN lock the next batch THEN skips the locked events")
+    void EventsLockedByAnotherTransaction_LockNextBatch_SkipsTheLockedEvents() {
+        // Given
+        var firstTaskId = UUID.randomUUID();
+        var secondTaskId = UUID.randomUUID();
+        taskOutboxRepository.append(TaskChangeOperation.DELETED, List.of(firstTaskId))
+                            .then(taskOutboxRepository.append(TaskChangeOperation.DELETED, List.of(secondTaskId)))
+                            .block();
+
+        var lockingTransaction = TransactionalOperator.create(transactionManager);
+        var concurrentTransaction = TransactionalOperator.create(transactionManager, new DefaultTransactionDefinition(
+                TransactionDefinition.PROPAGATION_REQUIRES_NEW));
+
+        // When
+        var result = taskOutboxRepository.lockNextBatch(1)
+                                         .collectList()
+                                         .flatMap(lockedEvents -> taskOutboxRepository.lockNextBatch(10)
+                                                                                      .collectList()
+                                                                                      .as(concurrentTransaction::transactional))
+                                         .as(lockingTransaction::transactional);
+
+        // Then
+        StepVerifier.create(result)
+                    .assertNext(events -> {
+                        Assertions.assertEquals(1, events.size());
+                        Assertions.assertEquals(secondTaskId, events.get(0)
+                                                                    .taskId());
+                    })
+                    .verifyComplete();
+    }
+
+    @Test
+    @DisplayName("GIVEN events exist WHEN delete them by ids THEN deletes the events And returns the amount of events deleted")
+    void EventsExist_DeleteByIds_DeletesTheEventsAndReturnsTheAmountOfEventsDeleted() {
+        // Given
+        var events = taskOutboxRepository.append(TaskChangeOperation.DELETED, List.of(UUID.randomUUID(), UUID.randomUUID()))
+                                         .thenMany(taskOutboxRepository.lockNextBatch(10))
+                                         .collectList()
+                                         .block();
+
+        // When
+        var result = taskOutboxRepository.deleteByIds(events.stream()
+                                                            .map(TaskOutboxEvent::id)
+                                                            .toList());
+
+        // Then
+        StepVerifier.create(result)
+                    .expectNext(2L)
+                    .verifyComplete();
+
+        Assertions.assertEquals(Duration.ZERO, taskOutboxRepository.findLag()
+                                                                   .block());
+    }
+
+}
@@ -0,0 +1,141 @@
+/**
+* Copyright 2023 the original author or authors.
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*     http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+*/
+package com.bcn.todo.routing;
+
+import static org.mockito.BDDMockito.given;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Function;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+import io.r2dbc.spi.ConnectionFactories;
+import io.r2dbc.spi.ConnectionFactory;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+import reactor.util.context.Context;
+
+@ExtendWith(SpringExtension.class)
+class ReadReplicaRoutingConnectionFactoryTests {
+
+    @Mock
+    private ConnectionFactory unhealthyReplicaMock;
+
+    private ConnectionFactory primary;
+
+    private ConnectionFactory replica;
+
+    @BeforeEach
+    void beforeEach() {
+        this.primary = embeddedDatabase("primary");
+        this.replica = embeddedDatabase("replica");
+    }
+
+    // create
+    @Test
+    @DisplayName("GIVEN query is read-only WHEN run the query THEN routes the query to the replica")
+    void QueryIsReadOnly_RunQuery_RoutesTheQueryToTheReplica() {
+        // Given
+        var routingConnectionFactory = new ReadReplicaRoutingConnectionFactory(primary, List.of(replica), Duration.ofSeconds(30));
+
+        // When
+        var result = findDatabaseName(routingConnectionFactory, DatabaseRouting::readOnly);
+
+        // Then
+        StepVerifier.create(result)
+                    .expectNext("replica")
+                    .verifyComplete();
+    }
+
+    @Test
+    @DisplayName("GIVEN query is not read-only WHEN run the query THEN routes the query to the primary")
+    void QueryIsNotReadOnly_RunQuery_RoutesTheQueryToThePrimary() {
+        // Given
+        var routingConnectionFactory = new ReadReplicaRoutingConnectionFactory(primary, List.of(replica), Duration.ofSeconds(30));
+
+        // When
+        var result = findDatabaseName(routingConnectionFactory, Function.identity());
+
+        // Then
+        StepVerifier.create(result)
+                    .expectNext("primary")
+                    .verifyComplete();
+    }
+
+    @Test
+    @DisplayName("GIVEN query is read-only And primary is required WHEN run the query THEN routes the query to the primary")
+    void QueryIsReadOnlyAndPrimaryIsRequired_RunQuery_RoutesTheQueryToThePrimary() {
+        // Given
+        var routingConnectionFactory = new ReadReplicaRoutingConnectionFactory(primary, List.of(replica), Duration.ofSeconds(30));
+
+        // When
+        var result = findDatabaseName(routingConnectionFactory, context -> DatabaseRouting.primaryRequired(DatabaseRouting.readOnly(context)));
+
+        // Then
+        StepVerifier.create(result)
+                    .expectNext("primary")
+                    .verifyComplete();
+    }
+
+    @Test
+    @DisplayName("GIVEN replica is unhealthy WHEN run a read-only query THEN falls back to the primary")
+    void ReplicaIsUnhealthy_RunReadOnlyQuery_FallsBackToThePrimary() {
+        // Given
+        given(unhealthyReplicaMock.create()).willAnswer(invocation -> Mono.error(new IllegalStateException("UT replica is down")));
+        var routingConnectionFactory = new ReadReplicaRoutingConnectionFactory(primary, List.of(unhealthyReplicaMock), Duration.ofSeconds(30));
+
+        // When
+        var result = findDatabaseName(routingConnectionFactory, DatabaseRouting::readOnly);
+
+        // Then
+        StepVerifier.create(result)
+                    .expectNext("primary")
+                    .verifyComplete();
+    }
+
+    private static Mono<String> findDatabaseName(ConnectionFactory connectionFactory, Function<Context, Context> routing) {
+        return DatabaseClient.create(connectionFactory)
+                             .sql("SELECT name FROM database_name")
+                             .map(row -> row.get("name", String.class))
+                             .one()
+                             .contextWrite(routing);
+    }
+
+    /**
+     * Creates an embedded database that holds its own name.
+     */
+    private static ConnectionFactory embeddedDatabase(String name) {
+        var connectionFactory = ConnectionFactories.get("r2dbc:h2:mem:///" + name + UUID.randomUUID()
+                                                                                     .toString()
+                                                                                     .replace("-", "") + "?options=DB_CLOSE_DELAY=-1");
+        var databaseClient = DatabaseClient.create(connectionFactory);
+        databaseClient.sql("CREATE TABLE database_name (name VARCHAR(20))")
+                      .then()
+                      .then(databaseClient.sql("INSERT INTO database_name VALUES ('" + name + "')")
+                                          .then())
+                      .block();
+        return connectionFactory;
+    }
+
+}
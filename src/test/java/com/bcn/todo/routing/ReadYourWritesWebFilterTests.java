@@ -0,0 +1,89 @@
+/**
+* Copyright 2023 the original author or authors.
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*     http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+*/
+package com.bcn.todo.routing;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.web.server.WebFilterChain;
+
+import reactor.test.StepVerifier;
+
+@ExtendWith(SpringExtension.class)
+class ReadYourWritesWebFilterTests {
+
+    private static final Duration WINDOW = Duration.ofSeconds(5);
+
+    private ReadYourWritesWebFilter readYourWritesWebFilter;
+
+    private final WebFilterChain chain = exchange -> {
+        exchange.getResponse()
+                .setStatusCode(HttpStatus.OK);
+        return exchange.getResponse()
+                       .setComplete();
+    };
+
+    @BeforeEach
+    void beforeEach() {
+        this.readYourWritesWebFilter = new ReadYourWritesWebFilter(WINDOW, Clock.fixed(Instant.ofEpochMilli(1000), ZoneOffset.UTC));
+    }
+
+    // filter
+    @Test
+    @DisplayName("GIVEN successful write WHEN filter the request THEN responds with the end of the read your writes window")
+    void SuccessfulWrite_FilterRequest_RespondsWithTheEndOfTheReadYourWritesWindow() {
+        // Given
+        var exchange = MockServerWebExchange.from(MockServerHttpRequest.post("/v1/tasks:batch"));
+
+        // When
+        StepVerifier.create(readYourWritesWebFilter.filter(exchange, chain))
+                    .verifyComplete();
+
+        // Then
+        assertThat(exchange.getResponse()
+                           .getHeaders()
+                           .getFirst(ReadYourWritesWebFilter.READ_PRIMARY_UNTIL_HEADER)).isEqualTo("6000");
+    }
+
+    @Test
+    @DisplayName("GIVEN batch get sent with POST WHEN filter the request THEN does not respond with the read your writes window")
+    void BatchGetSentWithPost_FilterRequest_DoesNotRespondWithTheReadYourWritesWindow() {
+        // Given
+        var exchange = MockServerWebExchange.from(MockServerHttpRequest.post("/v1/tasks:batchGet"));
+
+        // When
+        StepVerifier.create(readYourWritesWebFilter.filter(exchange, chain))
+                    .verifyComplete();
+
+        // Then
+        assertThat(exchange.getResponse()
+                           .getHeaders()
+                           .containsKey(ReadYourWritesWebFilter.READ_PRIMARY_UNTIL_HEADER)).isFalse();
+    }
+
+}
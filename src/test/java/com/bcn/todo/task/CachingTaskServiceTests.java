@@ -0,0 +1,329 @@
+/**
+* Copyright 2023 the original author or authors.
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*     http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+*/
+package com.bcn.todo.task;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.BDDMockito.then;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.test.StepVerifier;
+
+import com.bcn.todo.deadline.Deadlines;
+import com.bcn.todo.error.OperationTimeoutException;
+import com.bcn.todo.routing.DatabaseRouting;
+
+@ExtendWith(SpringExtension.class)
+class CachingTaskServiceTests {
+
+    @Mock
+    private TaskService taskServiceMock;
+
+    private SimpleMeterRegistry meterRegistry;
+
+    private CachingTaskService cachingTaskService;
+
+    private UUID fakeTaskId;
+
+    private TaskDTO fakeTask;
+
+    @BeforeEach
+    void beforeEach() {
+        this.meterRegistry = new SimpleMeterRegistry();
+        this.cachingTaskService = new CachingTaskService(taskServiceMock, meterRegistry, 100, Duration.ofMinutes(5), Duration.ofMinutes(1));
+
+        this.fakeTaskId = UUID.randomUUID();
+        this.fakeTask = TaskDTO.builder()
+                               .id(fakeTaskId)
+                               .title("UT Title")
+                               .build();
+    }
+
+    // findById
+    @Test
+    @DisplayName("GIVEN id exists WHEN find a task by id twice THEN finds the task once And returns the task found both times")
+    void IdExists_FindTaskByIdTwice_FindsTheTaskOnceAndReturnsTheTaskFoundBothTimes() {
+        // Given
+        given(taskServiceMock.findById(any(UUID.class))).willReturn(Mono.just(fakeTask));
+
+        // When
+        var result = cachingTaskService.findById(fakeTaskId)
+                                       .then(cachingTaskService.findById(fakeTaskId));
+
+        // Then
+        StepVerifier.create(result)
+                    .expectNext(fakeTask)
+                    .verifyComplete();
+
+        then(taskServiceMock).should(times(1))
+                             .findById(fakeTaskId);
+        assertEquals(1.0, meterRegistry.get("cache.gets")
+                                       .tag("result", "hit")
+                                       .counter()
+                                       .count());
+    }
+
+    @Test
+    @DisplayName("GIVEN id does not exists WHEN find a task by id twice THEN finds the task once And returns empty both times")
+    void IdNotExists_FindTaskByIdTwice_FindsTheTaskOnceAndReturnsEmptyBothTimes() {
+        // Given
+        given(taskServiceMock.findById(any(UUID.class))).willReturn(Mono.empty());
+
+        // When
+        var result = cachingTaskService.findById(fakeTaskId)
+                                       .concatWith(cachingTaskService.findById(fakeTaskId));
+
+        // Then
+        StepVerifier.create(result)
+                    .verifyComplete();
+
+        then(taskServiceMock).should(times(1))
+                             .findById(fakeTaskId);
+    }
+
+    @Test
+    @DisplayName("GIVEN concurrent requests for the same id WHEN find a task by id THEN finds the task once And returns the task found to all requests")
+    void ConcurrentRequestsForSameId_FindTaskById_FindsTheTaskOnceAndReturnsTheTaskFoundToAllRequests() {
+        // Given
+        var sink = Sinks.<TaskDTO> one();
+        given(taskServiceMock.findById(any(UUID.class))).willReturn(sink.asMono());
+
+        // When
+        var result = Flux.merge(cachingTaskService.findById(fakeTaskId), cachingTaskService.findById(fakeTaskId));
+
+        // Then
+        StepVerifier.create(result)
+                    .then(() -> sink.tryEmitValue(fakeTask))
+                    .expectNext(fakeTask, fakeTask)
+                    .verifyComplete();
+
+        then(taskServiceMock).should(times(1))
+                             .findById(fakeTaskId);
+    }
+
+    @Test
+    @DisplayName("GIVEN task is cached And primary required WHEN find a task by id THEN finds the task again without caching it")
+    void TaskIsCachedAndPrimaryRequired_FindTaskById_FindsTheTaskAgainWithoutCachingIt() {
+        // Given
+        var fakeUpdatedTask = TaskDTO.builder()
+                                     .id(fakeTaskId)
+                                     .title("UT Updated Title")
+                                     .build();
+        given(taskServiceMock.findById(any(UUID.class))).willReturn(Mono.just(fakeTask), Mono.just(fakeUpdatedTask), Mono.just(fakeUpdatedTask));
+
+        // When
+        var result = cachingTaskService.findById(fakeTaskId)
+                                       .concatWith(cachingTaskService.findById(fakeTaskId)
+                                                                     .contextWrite(DatabaseRouting::primaryRequired))
+                                       .concatWith(cachingTaskService.findById(fakeTaskId));
+
+        // Then
+        StepVerifier.create(result)
+                    .expectNext(fakeTask, fakeUpdatedTask, fakeTask)
+                    .verifyComplete();
+
+        then(taskServiceMock).should(times(2))
+                             .findById(fakeTaskId);
+    }
+
+    @Test
+    @DisplayName("GIVEN request deadline WHEN find a task by id not cached THEN finds the task with the deadline of the request")
+    void RequestDeadline_FindTaskByIdNotCached_FindsTheTaskWithTheDeadlineOfTheRequest() {
+        // Given
+        given(taskServiceMock.findById(any(UUID.class))).willReturn(Mono.deferContextual(context -> Mono.justOrEmpty(Deadlines.remaining(context))
+                                                                                                        .map(remaining -> fakeTask)));
+        var deadline = System.nanoTime() + Duration.ofSeconds(5)
+                                                   .toNanos();
+
+        // When
+        var result = cachingTaskService.findById(fakeTaskId)
+                                       .contextWrite(context -> Deadlines.withDeadline(context, deadline));
+
+        // Then
+        StepVerifier.create(result)
+                    .expectNext(fakeTask)
+                    .verifyComplete();
+    }
+
+    @Test
+    @DisplayName("GIVEN request deadline passes while the task is being found WHEN find a task by id THEN emits OperationTimeoutException")
+    void RequestDeadlinePassesWhileTheTaskIsBeingFound_FindTaskById_EmitsOperationTimeoutException() {
+        // Given
+        given(taskServiceMock.findById(any(UUID.class))).willReturn(Mono.never());
+        var deadline = System.nanoTime() + Duration.ofMillis(50)
+                                                   .toNanos();
+
+        // When
+        var result = cachingTaskService.findById(fakeTaskId)
+                                       .contextWrite(context -> Deadlines.withDeadline(context, deadline));
+
+        // Then
+        StepVerifier.create(result)
+                    .expectError(OperationTimeoutException.class)
+                    .verify(Duration.ofSeconds(5));
+    }
+
+    // findAllById
+    @Test
+    @DisplayName("GIVEN some tasks are cached WHEN find many tasks by id THEN finds only the tasks not cached And returns the result of each id in order")
+    void SomeTasksAreCached_FindAllTasksById_FindsOnlyTheTasksNotCachedAndReturnsTheResultOfEachIdInOrder() {
+        // Given
+        var notExistingTaskId = UUID.randomUUID();
+        given(taskServiceMock.findById(any(UUID.class))).willReturn(Mono.just(fakeTask));
+        given(taskServiceMock.findAllById(anyList())).willReturn(Flux.just(TaskBatchResultDTO.builder()
+                                                                                            .index(0)
+                                                                                            .id(notExistingTaskId)
+                                                                                            .status(TaskBatchResultStatus.NOT_FOUND)
+                                                                                            .build()));
+
+        // When
+        var result = cachingTaskService.findById(fakeTaskId)
+                                       .thenMany(cachingTaskService.findAllById(List.of(notExistingTaskId, fakeTaskId)));
+
+        // Then
+        var expectedResult1 = TaskBatchResultDTO.builder()
+                                                .index(0)
+                                                .id(notExistingTaskId)
+                                                .status(TaskBatchResultStatus.NOT_FOUND)
+                                                .build();
+        var expectedResult2 = TaskBatchResultDTO.builder()
+                                                .index(1)
+                                                .id(fakeTaskId)
+                                                .status(TaskBatchResultStatus.FOUND)
+                                                .task(fakeTask)
+                                                .build();
+        StepVerifier.create(result)
+                    .expectNext(expectedResult1, expectedResult2)
+                    .verifyComplete();
+
+        then(taskServiceMock).should(times(1))
+                             .findAllById(List.of(notExistingTaskId));
+    }
+
+    @Test
+    @DisplayName("GIVEN tasks found by many ids WHEN find a task by id THEN returns the cached task without finding it again")
+    void TasksFoundByManyIds_FindTaskById_ReturnsTheCachedTaskWithoutFindingItAgain() {
+        // Given
+        given(taskServiceMock.findAllById(anyList())).willReturn(Flux.just(TaskBatchResultDTO.builder()
+                                                                                            .index(0)
+                                                                                            .id(fakeTaskId)
+                                                                                            .status(TaskBatchResultStatus.FOUND)
+                                                                                            .task(fakeTask)
+                                                                                            .build()));
+
+        // When
+        var result = cachingTaskService.findAllById(List.of(fakeTaskId))
+                                       .then(cachingTaskService.findById(fakeTaskId));
+
+        // Then
+        StepVerifier.create(result)
+                    .expectNext(fakeTask)
+                    .verifyComplete();
+
+        then(taskServiceMock).should(never())
+                             .findById(any(UUID.class));
+    }
+
+    // update
+    @Test
+    @DisplayName("GIVEN task is cached WHEN update the task THEN invalidates the cached task")
+    void TaskIsCached_UpdateTask_InvalidatesTheCachedTask() {
+        // Given
+        given(taskServiceMock.findById(any(UUID.class))).willReturn(Mono.just(fakeTask));
+        given(taskServiceMock.update(any(UUID.class), any(TaskDTO.class))).willReturn(Mono.just(fakeTask));
+
+        // When
+        var result = cachingTaskService.findById(fakeTaskId)
+                                       .then(cachingTaskService.update(fakeTaskId, fakeTask))
+                                       .then(cachingTaskService.findById(fakeTaskId));
+
+        // Then
+        StepVerifier.create(result)
+                    .expectNext(fakeTask)
+                    .verifyComplete();
+
+        then(taskServiceMock).should(times(2))
+                             .findById(fakeTaskId);
+    }
+
+    @Test
+    @DisplayName("GIVEN task is cached WHEN find the task while it is being updated THEN finds the task again both during and after the update")
+    void TaskIsCached_FindTaskWhileItIsBeingUpdated_FindsTheTaskAgainBothDuringAndAfterTheUpdate() {
+        // Given
+        var updateSink = Sinks.<TaskDTO> one();
+        given(taskServiceMock.findById(any(UUID.class))).willReturn(Mono.just(fakeTask));
+        given(taskServiceMock.update(any(UUID.class), any(TaskDTO.class))).willReturn(updateSink.asMono());
+
+        // When
+        var update = cachingTaskService.findById(fakeTaskId)
+                                       .then(cachingTaskService.update(fakeTaskId, fakeTask));
+
+        // Then
+        StepVerifier.create(update)
+                    .then(() -> cachingTaskService.findById(fakeTaskId)
+                                                  .block())
+                    .then(() -> updateSink.tryEmitValue(fakeTask))
+                    .expectNext(fakeTask)
+                    .verifyComplete();
+        StepVerifier.create(cachingTaskService.findById(fakeTaskId))
+                    .expectNext(fakeTask)
+                    .verifyComplete();
+
+        then(taskServiceMock).should(times(3))
+                             .findById(fakeTaskId);
+    }
+
+    // deleteById
+    @Test
+    @DisplayName("GIVEN task is cached WHEN delete the task by id THEN invalidates the cached task")
+    void TaskIsCached_DeleteTaskById_InvalidatesTheCachedTask() {
+        // Given
+        given(taskServiceMock.findById(any(UUID.class))).willReturn(Mono.just(fakeTask), Mono.empty());
+        given(taskServiceMock.deleteById(any(UUID.class), isNull())).willReturn(Mono.just(true));
+
+        // When
+        var result = cachingTaskService.findById(fakeTaskId)
+                                       .then(cachingTaskService.deleteById(fakeTaskId, null))
+                                       .then(cachingTaskService.findById(fakeTaskId));
+
+        // Then
+        StepVerifier.create(result)
+                    .verifyComplete();
+
+        then(taskServiceMock).should(times(2))
+                             .findById(fakeTaskId);
+    }
+
+}
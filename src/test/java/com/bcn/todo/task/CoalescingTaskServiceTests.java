@@ -0,0 +1,312 @@
+/**
+* Copyright 2023 the original author or authors.
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*     http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+*/
+package com.bcn.todo.task;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.BDDMockito.then;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeoutException;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+import reactor.test.scheduler.VirtualTimeScheduler;
+
+import com.bcn.todo.deadline.Deadlines;
+import com.bcn.todo.error.OperationTimeoutException;
+
+@ExtendWith(SpringExtension.class)
+class CoalescingTaskServiceTests {
+
+    private static final Duration WINDOW = Duration.ofMillis(20);
+
+    private static final Duration FLUSH_TIMEOUT = Duration.ofMillis(500);
+
+    @Mock
+    private TaskService taskServiceMock;
+
+    private SimpleMeterRegistry meterRegistry;
+
+    private VirtualTimeScheduler scheduler;
+
+    private CoalescingTaskService coalescingTaskService;
+
+    private UUID fakeTaskId;
+
+    private List<TaskDTO> writtenTasks;
+
+    @BeforeEach
+    void beforeEach() {
+        this.meterRegistry = new SimpleMeterRegistry();
+        this.scheduler = VirtualTimeScheduler.create();
+        this.coalescingTaskService = new CoalescingTaskService(taskServiceMock, meterRegistry, WINDOW, 1, TaskTimeouts.none(), FLUSH_TIMEOUT, scheduler);
+
+        this.fakeTaskId = UUID.randomUUID();
+        this.writtenTasks = new ArrayList<>();
+    }
+
+    @AfterEach
+    void afterEach() {
+        this.scheduler.dispose();
+    }
+
+    // update
+    @Test
+    @DisplayName("GIVEN two updates of the same task within the window WHEN the window ends THEN writes the last update once And returns it to both callers")
+    void TwoUpdatesOfSameTaskWithinWindow_WindowEnds_WritesTheLastUpdateOnceAndReturnsItToBothCallers() {
+        // Given
+        givenUpdateAllReturns(TaskBatchResultStatus.UPDATED);
+        var firstTask = TaskDTO.builder()
+                               .title("UT First")
+                               .build();
+        var lastTask = TaskDTO.builder()
+                              .title("UT Last")
+                              .build();
+
+        // When
+        var result = Flux.merge(coalescingTaskService.update(fakeTaskId, firstTask), coalescingTaskService.update(fakeTaskId, lastTask));
+
+        // Then
+        StepVerifier.create(result)
+                    .then(() -> then(taskServiceMock).should(never())
+                                                     .updateAll(any()))
+                    .then(() -> scheduler.advanceTimeBy(WINDOW))
+                    .expectNext(lastTask, lastTask)
+                    .verifyComplete();
+
+        then(taskServiceMock).should(times(1))
+                             .updateAll(any());
+        assertEquals(List.of(lastTask), writtenTasks);
+        assertEquals(fakeTaskId, lastTask.getId());
+        assertEquals(1.0, meterRegistry.get(CoalescingTaskService.COALESCED_COUNTER)
+                                       .counter()
+                                       .count());
+    }
+
+    @Test
+    @DisplayName("GIVEN buffered update of a task that does not exist WHEN the window ends THEN returns empty")
+    void BufferedUpdateOfTaskNotExists_WindowEnds_ReturnsEmpty() {
+        // Given
+        givenUpdateAllReturns(TaskBatchResultStatus.NOT_FOUND);
+        var fakeTask = TaskDTO.builder()
+                              .title("UT Title")
+                              .build();
+
+        // When
+        var result = coalescingTaskService.update(fakeTaskId, fakeTask);
+
+        // Then
+        StepVerifier.create(result)
+                    .then(() -> scheduler.advanceTimeBy(WINDOW))
+                    .verifyComplete();
+    }
+
+    @Test
+    @DisplayName("GIVEN buffered update WHEN the batch write fails THEN returns the error")
+    void BufferedUpdate_BatchWriteFails_ReturnsTheError() {
+        // Given
+        given(taskServiceMock.updateAll(any())).willReturn(Flux.error(new IllegalStateException("UT Error")));
+        var fakeTask = TaskDTO.builder()
+                              .title("UT Title")
+                              .build();
+
+        // When
+        var result = coalescingTaskService.update(fakeTaskId, fakeTask);
+
+        // Then
+        StepVerifier.create(result)
+                    .then(() -> scheduler.advanceTimeBy(WINDOW))
+                    .verifyError(IllegalStateException.class);
+    }
+
+    @Test
+    @DisplayName("GIVEN buffered update WHEN the batch write does not complete within the flush timeout THEN returns a timeout error")
+    void BufferedUpdate_BatchWriteDoesNotCompleteWithinFlushTimeout_ReturnsTimeoutError() {
+        // Given
+        given(taskServiceMock.updateAll(any())).willReturn(Flux.never());
+        var fakeTask = TaskDTO.builder()
+                              .title("UT Title")
+                              .build();
+
+        // When
+        var result = coalescingTaskService.update(fakeTaskId, fakeTask);
+
+        // Then
+        StepVerifier.create(result)
+                    .then(() -> scheduler.advanceTimeBy(WINDOW.plus(FLUSH_TIMEOUT)))
+                    .verifyError(TimeoutException.class);
+    }
+
+    @Test
+    @DisplayName("GIVEN deadline of the request has passed WHEN update the task THEN fails with timeout without waiting for the window")
+    void DeadlinePassed_UpdateTask_FailsWithTimeoutWithoutWaitingForTheWindow() {
+        // Given
+        givenUpdateAllReturns(TaskBatchResultStatus.UPDATED);
+        var fakeTask = TaskDTO.builder()
+                              .title("UT Title")
+                              .build();
+
+        // When
+        var result = coalescingTaskService.update(fakeTaskId, fakeTask)
+                                          .contextWrite(context -> Deadlines.withDeadline(context, System.nanoTime()));
+
+        // Then
+        StepVerifier.create(result)
+                    .expectError(OperationTimeoutException.class)
+                    .verify(Duration.ofSeconds(5));
+    }
+
+    @Test
+    @DisplayName("GIVEN update with expected version WHEN update the task THEN writes the update right away")
+    void UpdateWithExpectedVersion_UpdateTask_WritesTheUpdateRightAway() {
+        // Given
+        var fakeTask = TaskDTO.builder()
+                              .title("UT Title")
+                              .version(1L)
+                              .build();
+        given(taskServiceMock.update(any(UUID.class), any(TaskDTO.class))).willReturn(Mono.just(fakeTask));
+
+        // When
+        var result = coalescingTaskService.update(fakeTaskId, fakeTask);
+
+        // Then
+        StepVerifier.create(result)
+                    .expectNext(fakeTask)
+                    .verifyComplete();
+
+        then(taskServiceMock).should(never())
+                             .updateAll(any());
+        assertEquals(1.0, meterRegistry.get(CoalescingTaskService.BYPASSED_COUNTER)
+                                       .tag("reason", "versioned")
+                                       .counter()
+                                       .count());
+    }
+
+    @Test
+    @DisplayName("GIVEN buffer is full WHEN update another task THEN writes the update right away")
+    void BufferIsFull_UpdateAnotherTask_WritesTheUpdateRightAway() {
+        // Given
+        givenUpdateAllReturns(TaskBatchResultStatus.UPDATED);
+        var bufferedTask = TaskDTO.builder()
+                                  .title("UT Buffered")
+                                  .build();
+        var otherTaskId = UUID.randomUUID();
+        var otherTask = TaskDTO.builder()
+                               .title("UT Other")
+                               .build();
+        given(taskServiceMock.update(any(UUID.class), any(TaskDTO.class))).willReturn(Mono.just(otherTask));
+        var buffered = coalescingTaskService.update(fakeTaskId, bufferedTask)
+                                            .toFuture();
+
+        // When
+        var result = coalescingTaskService.update(otherTaskId, otherTask);
+
+        // Then
+        StepVerifier.create(result)
+                    .expectNext(otherTask)
+                    .verifyComplete();
+
+        then(taskServiceMock).should(times(1))
+                             .update(otherTaskId, otherTask);
+        assertEquals(1.0, meterRegistry.get(CoalescingTaskService.BYPASSED_COUNTER)
+                                       .tag("reason", "full")
+                                       .counter()
+                                       .count());
+
+        scheduler.advanceTimeBy(WINDOW);
+        assertEquals(bufferedTask, buffered.join());
+    }
+
+    // dispose
+    @Test
+    @DisplayName("GIVEN buffered update WHEN dispose the service THEN writes the update without waiting for the window")
+    void BufferedUpdate_DisposeService_WritesTheUpdateWithoutWaitingForTheWindow() {
+        // Given
+        givenUpdateAllReturns(TaskBatchResultStatus.UPDATED);
+        var fakeTask = TaskDTO.builder()
+                              .title("UT Title")
+                              .build();
+        var buffered = coalescingTaskService.update(fakeTaskId, fakeTask)
+                                            .toFuture();
+
+        // When
+        coalescingTaskService.dispose();
+        scheduler.advanceTime();
+
+        // Then
+        assertEquals(fakeTask, buffered.join());
+        assertEquals(List.of(fakeTask), writtenTasks);
+    }
+
+    @Test
+    @DisplayName("GIVEN buffer being written WHEN dispose the service THEN waits until the buffer has been written")
+    void BufferBeingWritten_DisposeService_WaitsUntilTheBufferHasBeenWritten() {
+        // Given
+        given(taskServiceMock.updateAll(any())).willAnswer(invocation -> invocation.<Flux<TaskDTO>> getArgument(0)
+                                                                                   .delaySubscription(Duration.ofMillis(100))
+                                                                                   .index()
+                                                                                   .map(indexed -> TaskBatchResultDTO.builder()
+                                                                                                                     .index(indexed.getT1())
+                                                                                                                     .status(TaskBatchResultStatus.UPDATED)
+                                                                                                                     .task(indexed.getT2())
+                                                                                                                     .build()));
+        var fakeTask = TaskDTO.builder()
+                              .title("UT Title")
+                              .build();
+        var buffered = coalescingTaskService.update(fakeTaskId, fakeTask)
+                                            .toFuture();
+        scheduler.advanceTimeBy(WINDOW);
+
+        // When
+        coalescingTaskService.dispose();
+
+        // Then
+        assertTrue(buffered.isDone());
+        assertEquals(fakeTask, buffered.join());
+    }
+
+    private void givenUpdateAllReturns(TaskBatchResultStatus status) {
+        given(taskServiceMock.updateAll(any())).willAnswer(invocation -> invocation.<Flux<TaskDTO>> getArgument(0)
+                                                                                   .doOnNext(writtenTasks::add)
+                                                                                   .index()
+                                                                                   .map(indexed -> TaskBatchResultDTO.builder()
+                                                                                                                     .index(indexed.getT1())
+                                                                                                                     .id(indexed.getT2()
+                                                                                                                                .getId())
+                                                                                                                     .status(status)
+                                                                                                                     .task(indexed.getT2())
+                                                                                                                     .build()));
+    }
+
+}
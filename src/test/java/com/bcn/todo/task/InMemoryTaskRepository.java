@@ -0,0 +1,410 @@
+/**
+* Copyright 2023 the original author or authors.
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*     http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+*/
+package com.bcn.todo.task;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.TemporalAdjusters;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+
+import org.reactivestreams.Publisher;
+import org.springframework.data.domain.Example;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.repository.query.FluentQuery;
+import org.springframework.lang.Nullable;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * In-memory implementation of {@link TaskRepository} backed by a concurrent map.
+ * <p>
+ * Stands in for the database when measuring the service and web layers, so that the results are not dominated by the network and the database. Query by example
+ * and sorting operations are not supported.
+ *
+ * @author ttrigo
+ * @since 0.1.0
+ */
+public class InMemoryTaskRepository implements TaskRepository {
+
+    private static final Comparator<Task> PAGE_ORDER = Comparator.comparing(Task::startDateTime, Comparator.nullsLast(Comparator.naturalOrder()))
+                                                                 .thenComparing(task -> task.id()
+                                                                                            .toString());
+
+    private static final Comparator<Task> TITLE_ORDER = Comparator.comparing(Task::title)
+                                                                  .thenComparing(task -> task.id()
+                                                                                             .toString());
+
+    private static final Comparator<RankedTask> RANK_ORDER = Comparator.comparing(RankedTask::rank, Comparator.reverseOrder())
+                                                                       .thenComparing(rankedTask -> rankedTask.task()
+                                                                                                              .id()
+                                                                                                              .toString());
+
+    private final Map<UUID, Task> tasks = new ConcurrentHashMap<>();
+
+    @Override
+    public Mono<Task> findById(UUID id) {
+        return Mono.fromSupplier(() -> this.tasks.get(id));
+    }
+
+    @Override
+    public Mono<Task> findById(Publisher<UUID> id) {
+        return Mono.from(id)
+                   .flatMap(this::findById);
+    }
+
+    @Override
+    public Mono<Boolean> existsById(UUID id) {
+        return Mono.fromSupplier(() -> this.tasks.containsKey(id));
+    }
+
+    @Override
+    public Mono<Boolean> existsById(Publisher<UUID> id) {
+        return Mono.from(id)
+                   .flatMap(this::existsById);
+    }
+
+    @Override
+    public Flux<Task> findAll() {
+        return Flux.defer(() -> Flux.fromIterable(this.tasks.values()));
+    }
+
+    @Override
+    public Flux<Task> findAllById(Iterable<UUID> ids) {
+        return Flux.fromIterable(ids)
+                   .flatMap(this::findById);
+    }
+
+    @Override
+    public Flux<Task> findAllById(Publisher<UUID> idStream) {
+        return Flux.from(idStream)
+                   .flatMap(this::findById);
+    }
+
+    @Override
+    public Mono<Long> count() {
+        return Mono.fromSupplier(() -> (long) this.tasks.size());
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <S extends Task> Mono<S> save(S entity) {
+        return Mono.fromSupplier(() -> {
+            var task = withVersion(new Task(entity.id() == null ? UUID.randomUUID() : entity.id(), entity.title(), entity.description(), entity.startDateTime(),
+                    entity.version()), entity.version() == null ? 0L : entity.version() + 1);
+            this.tasks.put(task.id(), task);
+            return (S) task;
+        });
+    }
+
+    @Override
+    public <S extends Task> Flux<S> saveAll(Iterable<S> entities) {
+        return Flux.fromIterable(entities)
+                   .concatMap(this::save);
+    }
+
+    @Override
+    public <S extends Task> Flux<S> saveAll(Publisher<S> entityStream) {
+        return Flux.from(entityStream)
+                   .concatMap(this::save);
+    }
+
+    @Override
+    public Mono<Void> deleteById(UUID id) {
+        return Mono.fromRunnable(() -> this.tasks.remove(id));
+    }
+
+    @Override
+    public Mono<Void> deleteById(Publisher<UUID> id) {
+        return Mono.from(id)
+                   .flatMap(this::deleteById);
+    }
+
+    @Override
+    public Mono<Void> delete(Task entity) {
+        return deleteById(entity.id());
+    }
+
+    @Override
+    public Mono<Void> deleteAllById(Iterable<? extends UUID> ids) {
+        return Mono.fromRunnable(() -> ids.forEach(this.tasks::remove));
+    }
+
+    @Override
+    public Mono<Void> deleteAll(Iterable<? extends Task> entities) {
+        return Mono.fromRunnable(() -> entities.forEach(task -> this.tasks.remove(task.id())));
+    }
+
+    @Override
+    public Mono<Void> deleteAll(Publisher<? extends Task> entityStream) {
+        return Flux.from(entityStream)
+                   .concatMap(this::delete)
+                   .then();
+    }
+
+    @Override
+    public Mono<Void> deleteAll() {
+        return Mono.fromRunnable(this.tasks::clear);
+    }
+
+    @Override
+    public Mono<Long> deleteTaskById(UUID id) {
+        return Mono.fromSupplier(() -> this.tasks.remove(id) == null ? 0L : 1L);
+    }
+
+    @Override
+    public Mono<Long> deleteTaskByIdAndVersion(UUID id, Long version) {
+        return Mono.fromSupplier(() -> {
+            var task = this.tasks.get(id);
+            return task != null && version.equals(task.version()) && this.tasks.remove(id, task) ? 1L : 0L;
+        });
+    }
+
+    @Override
+    public Flux<Task> findPage(@Nullable TaskPageCursor after, int limit) {
+        return Flux.defer(() -> {
+            var cursorTask = after == null ? null : new Task(after.id(), "", null, after.startDateTime(), null);
+            return Flux.fromStream(this.tasks.values()
+                                             .stream()
+                                             .filter(task -> cursorTask == null || PAGE_ORDER.compare(task, cursorTask) > 0)
+                                             .sorted(PAGE_ORDER)
+                                             .limit(limit));
+        });
+    }
+
+    @Override
+    public Flux<Task> search(TaskSearchCriteria criteria) {
+        return Flux.defer(() -> Flux.fromStream(this.tasks.values()
+                                                          .stream()
+                                                          .filter(task -> matches(task, criteria))
+                                                          .sorted(searchOrder(criteria.sort()))
+                                                          .limit(criteria.limit())));
+    }
+
+    @Override
+    public Flux<RankedTask> searchText(String query, @Nullable TaskTextSearchCursor after, int limit) {
+        return Flux.defer(() -> {
+            var keywords = keywords(query);
+            return Flux.fromStream(this.tasks.values()
+                                             .stream()
+                                             .map(task -> new RankedTask(task, rank(task, keywords)))
+                                             .filter(rankedTask -> rankedTask.rank() > 0)
+                                             .filter(rankedTask -> after == null || isAfter(rankedTask, after))
+                                             .sorted(RANK_ORDER)
+                                             .limit(limit));
+        });
+    }
+
+    @Override
+    public Flux<Task> streamSearchText(String query) {
+        return searchText(query, null, Integer.MAX_VALUE).map(RankedTask::task);
+    }
+
+    @Override
+    public Flux<Task> streamAll() {
+        return findAll();
+    }
+
+    @Override
+    public Flux<TaskStartDateCount> countByStartDate(TaskStatsGranularity granularity) {
+        return Flux.defer(() -> {
+            var counts = new TreeMap<LocalDate, Long>(Comparator.nullsLast(Comparator.naturalOrder()));
+            this.tasks.values()
+                      .forEach(task -> counts.merge(bucketStartDate(task.startDateTime(), granularity), 1L, Long::sum));
+            return Flux.fromIterable(counts.entrySet())
+                       .map(count -> new TaskStartDateCount(count.getKey(), count.getValue()));
+        });
+    }
+
+    @Override
+    public Flux<Task> findTasksByIds(Collection<UUID> ids) {
+        return Flux.defer(() -> Flux.fromStream(ids.stream()
+                                                   .map(this.tasks::get)
+                                                   .filter(Objects::nonNull)));
+    }
+
+    @Override
+    public Mono<Task> updateTask(Task task) {
+        return Mono.fromSupplier(() -> {
+            var updatedTask = new AtomicReference<Task>();
+            this.tasks.computeIfPresent(task.id(), (id, existingTask) -> {
+                if (task.version() != null && !task.version()
+                                                   .equals(existingTask.version())) {
+                    return existingTask;
+                }
+                updatedTask.set(withVersion(task, existingTask.version() + 1));
+                return updatedTask.get();
+            });
+            return updatedTask.get();
+        });
+    }
+
+    @Override
+    public Mono<Task> upsertTask(Task task) {
+        return Mono.fromSupplier(() -> this.tasks.compute(task.id(),
+                (id, existingTask) -> withVersion(task, existingTask == null ? 0L : existingTask.version() + 1)));
+    }
+
+    @Override
+    public Flux<Task> insertTasks(List<Task> tasks) {
+        return Flux.defer(() -> {
+            var insertedTasks = tasks.stream()
+                                     .map(task -> withVersion(task, 0L))
+                                     .toList();
+            insertedTasks.forEach(task -> this.tasks.put(task.id(), task));
+            return Flux.fromIterable(insertedTasks);
+        });
+    }
+
+    @Override
+    public Flux<Task> updateTasks(List<Task> tasks) {
+        return Flux.defer(() -> Flux.fromStream(tasks.stream()
+                                                     .map(task -> this.tasks.computeIfPresent(task.id(),
+                                                             (id, existingTask) -> withVersion(task, existingTask.version() + 1)))
+                                                     .filter(Objects::nonNull)));
+    }
+
+    @Override
+    public Flux<UUID> deleteTasksByIds(Collection<UUID> ids) {
+        return Flux.defer(() -> Flux.fromStream(ids.stream()
+                                                   .filter(id -> this.tasks.remove(id) != null)));
+    }
+
+    @Override
+    public Flux<Task> findAll(Sort sort) {
+        throw new UnsupportedOperationException("Sorting is not supported by the in-memory repository");
+    }
+
+    @Override
+    public <S extends Task> Mono<S> findOne(Example<S> example) {
+        throw new UnsupportedOperationException("Query by example is not supported by the in-memory repository");
+    }
+
+    @Override
+    public <S extends Task> Flux<S> findAll(Example<S> example) {
+        throw new UnsupportedOperationException("Query by example is not supported by the in-memory repository");
+    }
+
+    @Override
+    public <S extends Task> Flux<S> findAll(Example<S> example, Sort sort) {
+        throw new UnsupportedOperationException("Query by example is not supported by the in-memory repository");
+    }
+
+    @Override
+    public <S extends Task> Mono<Long> count(Example<S> example) {
+        throw new UnsupportedOperationException("Query by example is not supported by the in-memory repository");
+    }
+
+    @Override
+    public <S extends Task> Mono<Boolean> exists(Example<S> example) {
+        throw new UnsupportedOperationException("Query by example is not supported by the in-memory repository");
+    }
+
+    @Override
+    public <S extends Task, R, P extends Publisher<R>> P findBy(Example<S> example, Function<FluentQuery.ReactiveFluentQuery<S>, P> queryFunction) {
+        throw new UnsupportedOperationException("Query by example is not supported by the in-memory repository");
+    }
+
+    private static boolean matches(Task task, TaskSearchCriteria criteria) {
+        if (TaskSearchCriteria.hasValue(criteria.titleStartsWith()) && !task.title()
+                                                                            .startsWith(criteria.titleStartsWith())) {
+            return false;
+        }
+        if (TaskSearchCriteria.hasValue(criteria.titleContains()) && !task.title()
+                                                                          .toLowerCase()
+                                                                          .contains(criteria.titleContains()
+                                                                                            .toLowerCase())) {
+            return false;
+        }
+        if (criteria.startDateFrom() != null && (task.startDateTime() == null || task.startDateTime()
+                                                                                     .isBefore(criteria.startDateFrom()))) {
+            return false;
+        }
+        return criteria.startDateTo() == null || (task.startDateTime() != null && task.startDateTime()
+                                                                                      .isBefore(criteria.startDateTo()));
+    }
+
+    private static Comparator<Task> searchOrder(TaskSearchSort sort) {
+        return switch (sort) {
+            case START_DATE_ASC -> PAGE_ORDER;
+            case START_DATE_DESC -> PAGE_ORDER.reversed();
+            case TITLE_ASC -> TITLE_ORDER;
+            case TITLE_DESC -> TITLE_ORDER.reversed();
+        };
+    }
+
+    private static List<String> keywords(String text) {
+        return text == null ? List.of() : Arrays.stream(text.toLowerCase()
+                                                            .split("\\W+"))
+                                                .filter(keyword -> !keyword.isEmpty())
+                                                .toList();
+    }
+
+    /**
+     * Ranks the given task with a simplified version of the database ranking, every keyword must be present and matches in the title are more relevant.
+     */
+    private static float rank(Task task, List<String> keywords) {
+        var titleKeywords = keywords(task.title());
+        var descriptionKeywords = keywords(task.description());
+        var rank = 0f;
+        for (var keyword : keywords) {
+            if (titleKeywords.contains(keyword)) {
+                rank += 1f;
+            } else if (descriptionKeywords.contains(keyword)) {
+                rank += 0.4f;
+            } else {
+                return 0f;
+            }
+        }
+        return rank;
+    }
+
+    private static boolean isAfter(RankedTask rankedTask, TaskTextSearchCursor cursor) {
+        return rankedTask.rank() < cursor.rank() || (rankedTask.rank() == cursor.rank() && rankedTask.task()
+                                                                                                     .id()
+                                                                                                     .toString()
+                                                                                                     .compareTo(cursor.id()
+                                                                                                                      .toString()) > 0);
+    }
+
+    private static Task withVersion(Task task, long version) {
+        return new Task(task.id(), task.title(), task.description(), task.startDateTime(), version);
+    }
+
+    @Nullable
+    private static LocalDate bucketStartDate(@Nullable LocalDateTime startDateTime, TaskStatsGranularity granularity) {
+        if (startDateTime == null) {
+            return null;
+        }
+        return switch (granularity) {
+            case DAY -> startDateTime.toLocalDate();
+            case WEEK -> startDateTime.toLocalDate()
+                                      .with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+        };
+    }
+
+}
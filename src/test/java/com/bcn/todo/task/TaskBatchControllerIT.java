@@ -0,0 +1,249 @@
+/**
+* Copyright 2023 the original author or authors.
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*     http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+*/
+package com.bcn.todo.task;
+
+import static org.springframework.boot.test.context.SpringBootTest.WebEnvironment;
+
+import java.util.UUID;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import org.testcontainers.utility.DockerImageName;
+
+import reactor.core.publisher.Flux;
+import reactor.test.StepVerifier;
+
+import com.bcn.todo.TodoServiceApplication;
+
+@Testcontainers(disabledWithoutDocker = true)
+@SpringBootTest(classes = TodoServiceApplication.class, webEnvironment = WebEnvironment.RANDOM_PORT)
+class TaskBatchControllerIT {
+
+    @Container
+    @ServiceConnection
+    static PostgreSQLContainer<?> postgreSQLContainer = new PostgreSQLContainer<>(DockerImageName.parse("postgres:latest"));
+
+    @Autowired
+    private TaskRepository taskRepository;
+
+    @Autowired
+    private WebTestClient webTestClient;
+
+    @BeforeEach
+    void beforeEach() {
+        taskRepository.deleteAll()
+                      .block();
+    }
+
+    // GetTasksById
+    @Test
+    @DisplayName("GIVEN existing and not existing ids WHEN get many tasks by id THEN returns HTTP code OK And the result of each id in order")
+    void ExistingAndNotExistingIds_GetTasksById_ReturnsCodeOkAndTheResultOfEachIdInOrder() {
+        // Given
+        var dummyTask = taskRepository.save(new Task(null, "IT Title", "IT Description", null, null))
+                                      .block();
+
+        Assertions.assertNotNull(dummyTask);
+
+        var notExistingId = UUID.randomUUID();
+
+        // When
+        var result = webTestClient.get()
+                                  .uri(uriBuilder -> uriBuilder.path("/v1/tasks")
+                                                               .queryParam("ids", notExistingId + "," + dummyTask.id())
+                                                               .build())
+                                  .header(HttpHeaders.ACCEPT, MediaType.APPLICATION_JSON_VALUE)
+                                  .exchange()
+                                  .expectStatus()
+                                  .isOk()
+                                  .expectBodyList(TaskBatchResultDTO.class)
+                                  .returnResult()
+                                  .getResponseBody();
+
+        // Then
+        Assertions.assertNotNull(result);
+        Assertions.assertEquals(2, result.size());
+        Assertions.assertEquals(TaskBatchResultStatus.NOT_FOUND, result.get(0)
+                                                                     .getStatus());
+        Assertions.assertEquals(TaskBatchResultStatus.FOUND, result.get(1)
+                                                                 .getStatus());
+        Assertions.assertEquals("IT Title", result.get(1)
+                                                  .getTask()
+                                                  .getTitle());
+    }
+
+    // BatchGetTasks
+    @Test
+    @DisplayName("GIVEN more than 500 ids WHEN get many tasks by id THEN returns HTTP code BAD_REQUEST")
+    void MoreThan500Ids_BatchGetTasks_ReturnsCodeBadRequest() {
+        // Given
+        var ids = Stream.generate(UUID::randomUUID)
+                        .limit(501)
+                        .toList();
+
+        // When & Then
+        webTestClient.post()
+                     .uri("/v1/tasks:batchGet")
+                     .contentType(MediaType.APPLICATION_JSON)
+                     .bodyValue(ids)
+                     .exchange()
+                     .expectStatus()
+                     .isBadRequest();
+    }
+
+    // CreateTasks
+    @Test
+    @DisplayName("GIVEN a NDJSON stream with valid and invalid tasks WHEN create many tasks THEN creates the valid tasks And returns HTTP code OK And the result of each task")
+    void StreamWithValidAndInvalidTasks_CreateTasks_CreatesTheValidTasksAndReturnsCodeOkAndTheResultOfEachTask() {
+        // Given
+        var body = """
+                {"title":"IT Title 1","startDateTime":"2023-06-01T10:00:00.000Z"}
+                {"title":""}
+                {"title":"IT Title 3"}
+                """;
+
+        // When
+        var result = webTestClient.post()
+                                  .uri("/v1/tasks:batch")
+                                  .contentType(MediaType.APPLICATION_NDJSON)
+                                  .header(HttpHeaders.ACCEPT, MediaType.APPLICATION_NDJSON_VALUE)
+                                  .bodyValue(body)
+                                  .exchange()
+                                  .expectStatus()
+                                  .isOk()
+                                  .returnResult(TaskBatchResultDTO.class)
+                                  .getResponseBody();
+
+        // Then
+        StepVerifier.create(result)
+                    .assertNext(taskResult -> {
+                        Assertions.assertEquals(0L, taskResult.getIndex());
+                        Assertions.assertEquals(TaskBatchResultStatus.CREATED, taskResult.getStatus());
+                        Assertions.assertEquals("IT Title 1", taskResult.getTask()
+                                                                        .getTitle());
+                    })
+                    .assertNext(taskResult -> {
+                        Assertions.assertEquals(1L, taskResult.getIndex());
+                        Assertions.assertEquals(TaskBatchResultStatus.INVALID, taskResult.getStatus());
+                        Assertions.assertEquals("title", taskResult.getErrors()
+                                                                   .get(0)
+                                                                   .getField());
+                    })
+                    .assertNext(taskResult -> Assertions.assertEquals(TaskBatchResultStatus.CREATED, taskResult.getStatus()))
+                    .verifyComplete();
+        StepVerifier.create(taskRepository.count())
+                    .expectNext(2L)
+                    .verifyComplete();
+    }
+
+    // UpdateTasks
+    @Test
+    @DisplayName("GIVEN an array with existing and not existing tasks WHEN update many tasks THEN updates the existing tasks And returns HTTP code OK And the result of each task")
+    void ArrayWithExistingAndNotExistingTasks_UpdateTasks_UpdatesTheExistingTasksAndReturnsCodeOkAndTheResultOfEachTask() {
+        // Given
+        var dummyTask = taskRepository.save(new Task(null, "IT Title", "IT Description", null, null))
+                                      .block();
+
+        Assertions.assertNotNull(dummyTask);
+
+        var taskToUpdate = TaskDTO.builder()
+                                  .id(dummyTask.id())
+                                  .title("IT Title Updated")
+                                  .build();
+        var notExistingTask = TaskDTO.builder()
+                                     .id(UUID.randomUUID())
+                                     .title("IT Title Not Exists")
+                                     .build();
+
+        // When
+        var result = webTestClient.put()
+                                  .uri("/v1/tasks:batch")
+                                  .contentType(MediaType.APPLICATION_JSON)
+                                  .body(Flux.just(taskToUpdate, notExistingTask), TaskDTO.class)
+                                  .exchange()
+                                  .expectStatus()
+                                  .isOk()
+                                  .expectHeader()
+                                  .contentTypeCompatibleWith(MediaType.APPLICATION_JSON)
+                                  .expectBodyList(TaskBatchResultDTO.class)
+                                  .returnResult()
+                                  .getResponseBody();
+
+        // Then
+        Assertions.assertNotNull(result);
+        Assertions.assertEquals(2, result.size());
+        Assertions.assertEquals(TaskBatchResultStatus.UPDATED, result.get(0)
+                                                                   .getStatus());
+        Assertions.assertEquals("IT Title Updated", result.get(0)
+                                                          .getTask()
+                                                          .getTitle());
+        Assertions.assertEquals(TaskBatchResultStatus.NOT_FOUND, result.get(1)
+                                                                     .getStatus());
+        StepVerifier.create(taskRepository.findById(dummyTask.id()))
+                    .expectNext(new Task(dummyTask.id(), "IT Title Updated", null, null, 1L))
+                    .verifyComplete();
+    }
+
+    // DeleteTasksById
+    @Test
+    @DisplayName("GIVEN an array with existing and not existing ids WHEN delete many tasks by id THEN deletes the existing tasks And returns HTTP code OK And the result of each id")
+    void ArrayWithExistingAndNotExistingIds_DeleteTasksById_DeletesTheExistingTasksAndReturnsCodeOkAndTheResultOfEachId() {
+        // Given
+        var dummyTask = taskRepository.save(new Task(null, "IT Title", "IT Description", null, null))
+                                      .block();
+
+        Assertions.assertNotNull(dummyTask);
+
+        var notExistingId = UUID.randomUUID();
+
+        // When
+        var result = webTestClient.method(HttpMethod.DELETE)
+                                  .uri("/v1/tasks:batch")
+                                  .contentType(MediaType.APPLICATION_JSON)
+                                  .bodyValue(new UUID[] { notExistingId, dummyTask.id() })
+                                  .exchange()
+                                  .expectStatus()
+                                  .isOk()
+                                  .expectBodyList(TaskBatchResultDTO.class)
+                                  .returnResult()
+                                  .getResponseBody();
+
+        // Then
+        Assertions.assertNotNull(result);
+        Assertions.assertEquals(2, result.size());
+        Assertions.assertEquals(TaskBatchResultStatus.NOT_FOUND, result.get(0)
+                                                                     .getStatus());
+        Assertions.assertEquals(TaskBatchResultStatus.DELETED, result.get(1)
+                                                                   .getStatus());
+        StepVerifier.create(taskRepository.count())
+                    .expectNext(0L)
+                    .verifyComplete();
+    }
+
+}
@@ -0,0 +1,159 @@
+/**
+* Copyright 2023 the original author or authors.
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*     http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+*/
+package com.bcn.todo.task;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.BDDMockito.given;
+
+import java.util.List;
+import java.util.UUID;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+import reactor.core.publisher.Flux;
+import reactor.test.StepVerifier;
+
+@ExtendWith(SpringExtension.class)
+class TaskBatchControllerTests {
+
+    @Mock
+    private TaskService taskServiceMock;
+
+    @InjectMocks
+    private TaskBatchRestController taskBatchController;
+
+    private UUID fakeTaskId;
+
+    @BeforeEach
+    void beforeEach() {
+        this.fakeTaskId = UUID.randomUUID();
+    }
+
+    // getTasksById
+    @Test
+    @DisplayName("GIVEN some ids do not exist WHEN get many tasks by id THEN returns the result of each id")
+    void SomeIdsNotExist_GetTasksById_ReturnsTheResultOfEachId() {
+        // Given
+        var notExistingTaskId = UUID.randomUUID();
+        var fakeTaskFound = TaskDTO.builder()
+                                   .id(fakeTaskId)
+                                   .title("UT Title")
+                                   .build();
+        var fakeResult1 = TaskBatchResultDTO.builder()
+                                            .index(0)
+                                            .id(fakeTaskId)
+                                            .status(TaskBatchResultStatus.FOUND)
+                                            .task(fakeTaskFound)
+                                            .build();
+        var fakeResult2 = TaskBatchResultDTO.builder()
+                                            .index(1)
+                                            .id(notExistingTaskId)
+                                            .status(TaskBatchResultStatus.NOT_FOUND)
+                                            .build();
+        given(taskServiceMock.findAllById(anyList())).willReturn(Flux.just(fakeResult1, fakeResult2));
+
+        // When
+        var result = taskBatchController.getTasksById(List.of(fakeTaskId, notExistingTaskId));
+
+        // Then
+        StepVerifier.create(result)
+                    .expectNext(fakeResult1, fakeResult2)
+                    .verifyComplete();
+    }
+
+    // createTasks
+    @Test
+    @DisplayName("GIVEN tasks are valid WHEN create many tasks THEN returns the result of each task")
+    void TasksAreValid_CreateTasks_ReturnsTheResultOfEachTask() {
+        // Given
+        var fakeTaskCreated = TaskDTO.builder()
+                                     .id(fakeTaskId)
+                                     .title("UT Title")
+                                     .build();
+        var fakeResult = TaskBatchResultDTO.builder()
+                                           .index(0)
+                                           .id(fakeTaskId)
+                                           .status(TaskBatchResultStatus.CREATED)
+                                           .task(fakeTaskCreated)
+                                           .build();
+        given(taskServiceMock.createAll(any())).willReturn(Flux.just(fakeResult));
+
+        // When
+        var taskToCreate = TaskDTO.builder()
+                                  .title("UT Title")
+                                  .build();
+        var result = taskBatchController.createTasks(Flux.just(taskToCreate));
+
+        // Then
+        StepVerifier.create(result)
+                    .expectNext(fakeResult)
+                    .verifyComplete();
+    }
+
+    // updateTasks
+    @Test
+    @DisplayName("GIVEN tasks not exist WHEN update many tasks THEN returns the result of each task")
+    void TasksNotExist_UpdateTasks_ReturnsTheResultOfEachTask() {
+        // Given
+        var fakeResult = TaskBatchResultDTO.builder()
+                                           .index(0)
+                                           .id(fakeTaskId)
+                                           .status(TaskBatchResultStatus.NOT_FOUND)
+                                           .build();
+        given(taskServiceMock.updateAll(any())).willReturn(Flux.just(fakeResult));
+
+        // When
+        var taskToUpdate = TaskDTO.builder()
+                                  .id(fakeTaskId)
+                                  .title("UT Title")
+                                  .build();
+        var result = taskBatchController.updateTasks(Flux.just(taskToUpdate));
+
+        // Then
+        StepVerifier.create(result)
+                    .expectNext(fakeResult)
+                    .verifyComplete();
+    }
+
+    // deleteTasksById
+    @Test
+    @DisplayName("GIVEN ids exist WHEN delete many tasks by id THEN returns the result of each id")
+    void IdsExist_DeleteTasksById_ReturnsTheResultOfEachId() {
+        // Given
+        var fakeResult = TaskBatchResultDTO.builder()
+                                           .index(0)
+                                           .id(fakeTaskId)
+                                           .status(TaskBatchResultStatus.DELETED)
+                                           .build();
+        given(taskServiceMock.deleteAllById(any())).willReturn(Flux.just(fakeResult));
+
+        // When
+        var result = taskBatchController.deleteTasksById(Flux.just(fakeTaskId));
+
+        // Then
+        StepVerifier.create(result)
+                    .expectNext(fakeResult)
+                    .verifyComplete();
+    }
+
+}
@@ -0,0 +1,96 @@
+/**
+* Copyright 2023 the original author or authors.
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*     http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+*/
+package com.bcn.todo.task;
+
+import static org.springframework.boot.test.context.SpringBootTest.WebEnvironment;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.UUID;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import org.testcontainers.utility.DockerImageName;
+
+import reactor.test.StepVerifier;
+
+import com.bcn.todo.TodoServiceApplication;
+
+@Testcontainers(disabledWithoutDocker = true)
+@SpringBootTest(classes = TodoServiceApplication.class, webEnvironment = WebEnvironment.RANDOM_PORT)
+class TaskChangeFeedIT {
+
+    private static final Duration CHANGE_TIMEOUT = Duration.ofSeconds(10);
+
+    @Container
+    @ServiceConnection
+    static PostgreSQLContainer<?> postgreSQLContainer = new PostgreSQLContainer<>(DockerImageName.parse("postgres:latest"));
+
+    @Autowired
+    private TaskRepository taskRepository;
+
+    @Autowired
+    private TaskChangeFeed taskChangeFeed;
+
+    private UUID fakeTaskId;
+
+    @BeforeEach
+    void beforeEach() {
+        taskRepository.deleteAll()
+                      .block();
+
+        this.fakeTaskId = UUID.randomUUID();
+    }
+
+    @Test
+    @DisplayName("GIVEN subscriber is connected WHEN create, update and delete a task THEN the subscriber receives every change of the task")
+    void SubscriberIsConnected_CreateUpdateAndDeleteTask_SubscriberReceivesEveryChangeOfTheTask() {
+        // Given
+        var task = new Task(fakeTaskId, "IT Title", "IT Description", LocalDateTime.now()
+                                                                                  .truncatedTo(ChronoUnit.MILLIS), null);
+        var taskUpdated = new Task(fakeTaskId, "IT Title updated", "IT Description", task.startDateTime(), null);
+
+        // When & Then
+        StepVerifier.create(taskChangeFeed.changes()
+                                          .filter(change -> fakeTaskId.equals(change.getId())))
+                    .then(() -> taskRepository.upsertTask(task)
+                                              .then(taskRepository.updateTask(taskUpdated))
+                                              .then(taskRepository.deleteTaskById(fakeTaskId))
+                                              .block())
+                    .expectNext(change(TaskChangeOperation.CREATED, 0L))
+                    .expectNext(change(TaskChangeOperation.UPDATED, 1L))
+                    .expectNext(change(TaskChangeOperation.DELETED, 1L))
+                    .thenCancel()
+                    .verify(CHANGE_TIMEOUT);
+    }
+
+    private TaskChangeDTO change(TaskChangeOperation operation, long version) {
+        return TaskChangeDTO.builder()
+                            .operation(operation)
+                            .id(fakeTaskId)
+                            .version(version)
+                            .build();
+    }
+
+}
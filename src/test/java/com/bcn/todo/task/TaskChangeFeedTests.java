@@ -0,0 +1,164 @@
+/**
+* Copyright 2023 the original author or authors.
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*     http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+*/
+package com.bcn.todo.task;
+
+import java.util.UUID;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+import reactor.core.publisher.BufferOverflowStrategy;
+import reactor.core.publisher.Sinks;
+import reactor.test.StepVerifier;
+
+@ExtendWith(SpringExtension.class)
+class TaskChangeFeedTests {
+
+    private Sinks.Many<String> notifications;
+
+    private TaskChangeFeed taskChangeFeed;
+
+    @BeforeEach
+    void beforeEach() {
+        this.notifications = Sinks.many()
+                                  .unicast()
+                                  .onBackpressureBuffer();
+    }
+
+    @AfterEach
+    void afterEach() {
+        this.taskChangeFeed.stop();
+    }
+
+    // changes
+    @Test
+    @DisplayName("GIVEN many subscribers WHEN a task change is notified THEN every subscriber receives the change")
+    void ManySubscribers_TaskChangeNotified_EverySubscriberReceivesTheChange() {
+        // Given
+        startFeed(BufferOverflowStrategy.DROP_OLDEST);
+        var taskId = UUID.randomUUID();
+
+        var firstSubscriber = StepVerifier.create(taskChangeFeed.changes())
+                                          .expectNext(change(TaskChangeOperation.CREATED, taskId, 0L))
+                                          .thenCancel()
+                                          .verifyLater();
+        var secondSubscriber = StepVerifier.create(taskChangeFeed.changes())
+                                           .expectNext(change(TaskChangeOperation.CREATED, taskId, 0L))
+                                           .thenCancel()
+                                           .verifyLater();
+
+        // When
+        notifyChange(TaskChangeOperation.CREATED, taskId, 0L);
+
+        // Then
+        firstSubscriber.verify();
+        secondSubscriber.verify();
+    }
+
+    @Test
+    @DisplayName("GIVEN notification is not valid WHEN task changes are notified THEN skips the invalid notification")
+    void NotificationIsNotValid_TaskChangesNotified_SkipsTheInvalidNotification() {
+        // Given
+        startFeed(BufferOverflowStrategy.DROP_OLDEST);
+        var taskId = UUID.randomUUID();
+
+        // When & Then
+        StepVerifier.create(taskChangeFeed.changes())
+                    .then(() -> {
+                        notifications.tryEmitNext("UT invalid payload");
+                        notifyChange(TaskChangeOperation.DELETED, taskId, 3L);
+                    })
+                    .expectNext(change(TaskChangeOperation.DELETED, taskId, 3L))
+                    .thenCancel()
+                    .verify();
+    }
+
+    @Test
+    @DisplayName("GIVEN subscriber is slow And overflow strategy is drop oldest WHEN its buffer is full THEN drops the oldest changes")
+    void SubscriberIsSlowAndStrategyIsDropOldest_BufferIsFull_DropsTheOldestChanges() {
+        // Given
+        startFeed(BufferOverflowStrategy.DROP_OLDEST);
+        var taskId = UUID.randomUUID();
+
+        // When & Then
+        StepVerifier.create(taskChangeFeed.changes(), 0)
+                    .then(() -> {
+                        notifyChange(TaskChangeOperation.UPDATED, taskId, 1L);
+                        notifyChange(TaskChangeOperation.UPDATED, taskId, 2L);
+                        notifyChange(TaskChangeOperation.UPDATED, taskId, 3L);
+                    })
+                    .thenRequest(2)
+                    .expectNext(change(TaskChangeOperation.UPDATED, taskId, 2L), change(TaskChangeOperation.UPDATED, taskId, 3L))
+                    .thenCancel()
+                    .verify();
+    }
+
+    @Test
+    @DisplayName("GIVEN subscriber is slow And overflow strategy is error WHEN its buffer is full THEN disconnects the subscriber")
+    void SubscriberIsSlowAndStrategyIsError_BufferIsFull_DisconnectsTheSubscriber() {
+        // Given
+        startFeed(BufferOverflowStrategy.ERROR);
+        var taskId = UUID.randomUUID();
+
+        // When & Then
+        StepVerifier.create(taskChangeFeed.changes(), 0)
+                    .then(() -> {
+                        notifyChange(TaskChangeOperation.UPDATED, taskId, 1L);
+                        notifyChange(TaskChangeOperation.UPDATED, taskId, 2L);
+                        notifyChange(TaskChangeOperation.UPDATED, taskId, 3L);
+                    })
+                    .thenRequest(2)
+                    .expectNext(change(TaskChangeOperation.UPDATED, taskId, 1L), change(TaskChangeOperation.UPDATED, taskId, 2L))
+                    .verifyComplete();
+    }
+
+    // stop
+    @Test
+    @DisplayName("GIVEN subscriber is connected WHEN stop the feed THEN completes the changes of the subscriber")
+    void SubscriberIsConnected_StopFeed_CompletesTheChangesOfTheSubscriber() {
+        // Given
+        startFeed(BufferOverflowStrategy.DROP_OLDEST);
+
+        // When & Then
+        StepVerifier.create(taskChangeFeed.changes())
+                    .then(() -> taskChangeFeed.stop())
+                    .verifyComplete();
+    }
+
+    private void startFeed(BufferOverflowStrategy overflowStrategy) {
+        this.taskChangeFeed = new TaskChangeFeed(notifications.asFlux(), Jackson2ObjectMapperBuilder.json()
+                                                                                                     .build(), 2, overflowStrategy);
+        this.taskChangeFeed.start();
+    }
+
+    private void notifyChange(TaskChangeOperation operation, UUID id, long version) {
+        notifications.tryEmitNext("{\"operation\":\"" + operation + "\",\"id\":\"" + id + "\",\"version\":" + version + "}");
+    }
+
+    private static TaskChangeDTO change(TaskChangeOperation operation, UUID id, long version) {
+        return TaskChangeDTO.builder()
+                            .operation(operation)
+                            .id(id)
+                            .version(version)
+                            .build();
+    }
+
+}
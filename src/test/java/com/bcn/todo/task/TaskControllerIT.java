@@ -35,6 +35,7 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
 import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.reactive.server.WebTestClient;
 import org.testcontainers.containers.PostgreSQLContainer;
@@ -149,7 +150,7 @@ class TaskControllerIT {
     @DisplayName("GIVEN id exists WHEN get task by id THEN gets the task by given id And returns HTTP code NOT_FOUND And a body with the task found")
     void IdExists_GetTaskById_GetsTheTaskByIdAndReturnsCodeOKAndBodyWithTheTaskFound() {
         // Given
-        var dummyTaskToBeFound = new Task(null, "IT Title", "IT Description", fakeTaskStartDate);
+        var dummyTaskToBeFound = new Task(null, "IT Title", "IT Description", fakeTaskStartDate, null);
 
         var dummyTask = taskRepository.save(dummyTaskToBeFound)
                                       .block();
@@ -178,6 +179,41 @@ class TaskControllerIT {
                      .isEqualTo(expectedTask);
     }
 
+    @Test
+    @DisplayName("GIVEN If-None-Match header has the current entity tag WHEN get task by id THEN returns HTTP code NOT_MODIFIED And an empty body")
+    void IfNoneMatchHasTheCurrentEntityTag_GetTaskById_ReturnsCodeNotModifiedAndEmptyBody() {
+        // Given
+        var dummyTask = taskRepository.save(new Task(null, "IT Title", "IT Description", fakeTaskStartDate, null))
+                                      .block();
+
+        Assertions.assertNotNull(dummyTask);
+
+        var eTag = webTestClient.get()
+                                .uri("/v1/tasks/{id}", dummyTask.id())
+                                .header(HttpHeaders.ACCEPT, MediaType.APPLICATION_JSON_VALUE)
+                                .exchange()
+                                .expectStatus()
+                                .isOk()
+                                .expectHeader()
+                                .valueEquals(HttpHeaders.ETAG, "\"0\"")
+                                .returnResult(TaskDTO.class)
+                                .getResponseHeaders()
+                                .getETag();
+
+        // When & Then
+        webTestClient.get()
+                     .uri("/v1/tasks/{id}", dummyTask.id())
+                     .header(HttpHeaders.ACCEPT, MediaType.APPLICATION_JSON_VALUE)
+                     .header(HttpHeaders.IF_NONE_MATCH, eTag)
+                     .exchange()
+                     .expectStatus()
+                     .isNotModified()
+                     .expectHeader()
+                     .valueEquals(HttpHeaders.ETAG, eTag)
+                     .expectBody()
+                     .isEmpty();
+    }
+
     // GetAllTasks
     @Test
     @DisplayName("GIVEN there are not tasks WHEN get all tasks THEN gets all tasks returns HTTP code OK And an empty body")
@@ -197,9 +233,9 @@ class TaskControllerIT {
     @DisplayName("GIVEN there are tasks WHEN get all tasks THEN gets all tasks And returns HTTP code OK And a body with all task found")
     void ThereAreTasks_GetAllTasks_GetsAllTasksReturnsCodeOKAndTheBodyWithTheTasksFound() {
         // Given
-        var dummyTask1ToBeFound = new Task(null, "IT Title 1", "IT Description 1", fakeTaskStartDate);
-        var dummyTask2ToBeFound = new Task(null, "IT Title 2", "IT Description 2", fakeTaskStartDate);
-        var dummyTask3ToBeFound = new Task(null, "IT Title 3", "IT Description 3", fakeTaskStartDate);
+        var dummyTask1ToBeFound = new Task(null, "IT Title 1", "IT Description 1", fakeTaskStartDate, null);
+        var dummyTask2ToBeFound = new Task(null, "IT Title 2", "IT Description 2", fakeTaskStartDate, null);
+        var dummyTask3ToBeFound = new Task(null, "IT Title 3", "IT Description 3", fakeTaskStartDate, null);
         var dummyTasksToBeFound = Flux.just(dummyTask1ToBeFound, dummyTask2ToBeFound, dummyTask3ToBeFound);
 
         var dummyTaskIds = taskRepository.saveAll(dummyTasksToBeFound)
@@ -244,6 +280,119 @@ class TaskControllerIT {
                      .isEqualTo(expectedTasks);
     }
 
+    // StreamAllTasks
+    @Test
+    @DisplayName("GIVEN there are tasks WHEN stream all tasks as NDJSON THEN streams all tasks And returns HTTP code OK And a body with all task found")
+    void ThereAreTasks_StreamAllTasks_StreamsAllTasksAndReturnsCodeOKAndTheBodyWithTheTasksFound() {
+        // Given
+        var dummyTask1ToBeFound = new Task(null, "IT Title 1", "IT Description 1", fakeTaskStartDate, null);
+        var dummyTask2ToBeFound = new Task(null, "IT Title 2", "IT Description 2", fakeTaskStartDate, null);
+
+        taskRepository.saveAll(Flux.just(dummyTask1ToBeFound, dummyTask2ToBeFound))
+                      .blockLast();
+
+        // When
+        var result = webTestClient.get()
+                                  .uri("/v1/tasks")
+                                  .header(HttpHeaders.ACCEPT, MediaType.APPLICATION_NDJSON_VALUE)
+                                  .exchange()
+                                  .expectStatus()
+                                  .isOk()
+                                  .expectHeader()
+                                  .contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON)
+                                  .returnResult(TaskDTO.class)
+                                  .getResponseBody();
+
+        // Then
+        StepVerifier.create(result)
+                    .expectNextCount(2)
+                    .verifyComplete();
+    }
+
+    // GetTasksPage
+    @Test
+    @DisplayName("GIVEN there are more tasks than the page size WHEN get the pages of tasks THEN gets all tasks And returns HTTP code OK And the continuation token until the last page")
+    void ThereAreMoreTasksThanThePageSize_GetTasksPages_GetsAllTasksAndReturnsCodeOKAndContinuationTokenUntilTheLastPage() {
+        // Given
+        var dummyTasksToBeFound = Flux.just(new Task(null, "IT Title 1", "IT Description 1", fakeTaskStartDate, null),
+                new Task(null, "IT Title 2", "IT Description 2", fakeTaskStartDate.plusDays(1), null), new Task(null, "IT Title 3", "IT Description 3", null, null));
+
+        taskRepository.saveAll(dummyTasksToBeFound)
+                      .blockLast();
+
+        // When & Then
+        var firstPage = webTestClient.get()
+                                     .uri("/v1/tasks/page?size={size}", 2)
+                                     .header(HttpHeaders.ACCEPT, MediaType.APPLICATION_JSON_VALUE)
+                                     .exchange()
+                                     .expectStatus()
+                                     .isOk()
+                                     .expectBody(TaskPageDTO.class)
+                                     .returnResult()
+                                     .getResponseBody();
+
+        Assertions.assertNotNull(firstPage);
+        assertThat(firstPage.getTasks()
+                            .stream()
+                            .map(TaskDTO::getTitle)
+                            .toList(), equalTo(Arrays.asList("IT Title 1", "IT Title 2")));
+        assertThat(firstPage.getContinuationToken(), notNullValue());
+
+        webTestClient.get()
+                     .uri("/v1/tasks/page?size={size}&continuationToken={token}", 2, firstPage.getContinuationToken())
+                     .header(HttpHeaders.ACCEPT, MediaType.APPLICATION_JSON_VALUE)
+                     .exchange()
+                     .expectStatus()
+                     .isOk()
+                     .expectBody()
+                     .jsonPath("$.tasks.length()")
+                     .isEqualTo(1)
+                     .jsonPath("$.tasks[0].title")
+                     .isEqualTo("IT Title 3")
+                     .jsonPath("$.continuationToken")
+                     .doesNotExist();
+    }
+
+    @Test
+    @DisplayName("GIVEN continuation token is not valid WHEN get a page of tasks THEN returns HTTP code BAD_REQUEST And a body with the problem details")
+    void ContinuationTokenIsNotValid_GetTasksPage_ReturnsCodeBadRequestAndBodyWithProblemDetails() {
+        // When & Then
+        webTestClient.get()
+                     .uri("/v1/tasks/page?continuationToken={token}", "not-a-token")
+                     .header(HttpHeaders.ACCEPT, MediaType.APPLICATION_JSON_VALUE)
+                     .exchange()
+                     .expectStatus()
+                     .isBadRequest()
+                     .expectHeader()
+                     .contentType(MediaType.APPLICATION_PROBLEM_JSON)
+                     .expectBody()
+                     .jsonPath("$.title")
+                     .isEqualTo("Bad Request")
+                     .jsonPath("$.status")
+                     .isEqualTo("400")
+                     .jsonPath("$.detail")
+                     .isEqualTo("Invalid continuation token");
+    }
+
+    @Test
+    @DisplayName("GIVEN page size is greater than the maximum WHEN get a page of tasks THEN returns HTTP code BAD_REQUEST And a body with the problem details")
+    void PageSizeIsGreaterThanMaximum_GetTasksPage_ReturnsCodeBadRequestAndBodyWithProblemDetails() {
+        // When & Then
+        webTestClient.get()
+                     .uri("/v1/tasks/page?size={size}", 501)
+                     .header(HttpHeaders.ACCEPT, MediaType.APPLICATION_JSON_VALUE)
+                     .exchange()
+                     .expectStatus()
+                     .isBadRequest()
+                     .expectHeader()
+                     .contentType(MediaType.APPLICATION_PROBLEM_JSON)
+                     .expectBody()
+                     .jsonPath("$.title")
+                     .isEqualTo("Bad Request")
+                     .jsonPath("$.status")
+                     .isEqualTo("400");
+    }
+
     // CreateTask
     @Test
     @DisplayName("GIVEN task is not a valid Json WHEN create a task THEN does not create the task And returns HTTP code Unsupported Media Type And a body with the problem details")
@@ -403,7 +552,7 @@ class TaskControllerIT {
                      .uri("/v1/tasks")
                      .header(HttpHeaders.ACCEPT, MediaType.APPLICATION_JSON_VALUE)
                      .header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
-                     .body(Mono.just(taskToCreate), TaskDTO.class)
+                     .body(Mono.just(taskToCreate), String.class)
                      .exchange()
                      .expectStatus()
                      .isBadRequest()
@@ -459,7 +608,7 @@ class TaskControllerIT {
 
         Assertions.assertNotNull(result);
 
-        var expectedRepositoryTask = new Task(result.getId(), "IT Title", "IT Description", fakeTaskStartDate);
+        var expectedRepositoryTask = new Task(result.getId(), "IT Title", "IT Description", fakeTaskStartDate, 0L);
         StepVerifier.create(taskRepository.findById(result.getId()))
                     .expectNext(expectedRepositoryTask)
                     .verifyComplete();
@@ -495,7 +644,7 @@ class TaskControllerIT {
 
         Assertions.assertNotNull(result);
 
-        var expectedRepositoryTask = new Task(result.getId(), "IT Title", "IT Description", fakeTaskStartDate);
+        var expectedRepositoryTask = new Task(result.getId(), "IT Title", "IT Description", fakeTaskStartDate, 0L);
         StepVerifier.create(taskRepository.findById(result.getId()))
                     .expectNext(expectedRepositoryTask)
                     .verifyComplete();
@@ -589,11 +738,46 @@ class TaskControllerIT {
                      .isEmpty();
     }
 
+    @Test
+    @DisplayName("GIVEN id does not exists And upsert is enabled WHEN update task THEN creates the task with the given id And returns HTTP code CREATED And the location And a body with the task created")
+    void IdNotExistsAndUpsertIsEnabled_UpdateTask_CreatesTheTaskAndReturnsCodeCreatedAndLocationAndBodyWithTheTaskCreated() {
+        // When
+        var idToUpdate = fakeTaskId;
+        var taskToUpdate = TaskDTO.builder()
+                                  .title("IT Title 2")
+                                  .description("IT Description 2")
+                                  .startDateTime(fakeTaskStartDate)
+                                  .build();
+
+        webTestClient.put()
+                     .uri("/v1/tasks/{id}?upsert=true", idToUpdate)
+                     .header(HttpHeaders.ACCEPT, MediaType.APPLICATION_JSON_VALUE)
+                     .header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+                     .body(Mono.just(taskToUpdate), TaskDTO.class)
+                     .exchange()
+                     .expectStatus()
+                     .isCreated()
+                     .expectHeader()
+                     .valueMatches(HttpHeaders.LOCATION, ".*/v1/tasks/" + idToUpdate)
+                     .expectBody(TaskDTO.class)
+                     .isEqualTo(TaskDTO.builder()
+                                       .id(idToUpdate)
+                                       .title("IT Title 2")
+                                       .description("IT Description 2")
+                                       .startDateTime(fakeTaskStartDate)
+                                       .build());
+
+        // Then
+        StepVerifier.create(taskRepository.findById(idToUpdate))
+                    .expectNextCount(1)
+                    .verifyComplete();
+    }
+
     @Test
     @DisplayName("GIVEN task is not a valid Json WHEN update a task THEN does not update the task And returns HTTP code Unsupported Media Type And a body containing the problem details")
     void TaskIsNotJson_UpdateTask_DoesNotUpdateTheTaskAndReturnsCodeUnsupportedMediaTypeAndBodyWithProblemDetails() {
         // Given
-        var dummyTaskToBeUpdate = new Task(null, "IT Title", "IT Description", fakeTaskStartDate);
+        var dummyTaskToBeUpdate = new Task(null, "IT Title", "IT Description", fakeTaskStartDate, null);
 
         var dummyTask = taskRepository.save(dummyTaskToBeUpdate)
                                       .block();
@@ -635,7 +819,7 @@ class TaskControllerIT {
     @DisplayName("GIVEN task is not present WHEN update a task THEN does not update the task And returns HTTP code BAD_REQUEST And a body containing the problem details")
     void TaskIsNotPresent_UpdateTask_DoesNotUpdateTheTaskAndReturnsCodeBadRequestAndBodyWithProblemDetails() {
         // Given
-        var dummyTaskToBeUpdate = new Task(null, "IT Title", "IT Description", fakeTaskStartDate);
+        var dummyTaskToBeUpdate = new Task(null, "IT Title", "IT Description", fakeTaskStartDate, null);
 
         var dummyTask = taskRepository.save(dummyTaskToBeUpdate)
                                       .block();
@@ -677,7 +861,7 @@ class TaskControllerIT {
     @DisplayName("GIVEN task has not mandatory fields WHEN update a task THEN does not update the task And returns HTTP code BAD_REQUEST And a body containing the problem details")
     void TaskHasNotMandatoryFields_UpdateTask_DoesNotUpdateTheTaskAndReturnsCodeBadRequestAndBodyWithProblemDetails() {
         // Given
-        var dummyTaskToBeUpdate = new Task(null, "IT Title", "IT Description", fakeTaskStartDate);
+        var dummyTaskToBeUpdate = new Task(null, "IT Title", "IT Description", fakeTaskStartDate, null);
 
         var dummyTask = taskRepository.save(dummyTaskToBeUpdate)
                                       .block();
@@ -725,7 +909,7 @@ class TaskControllerIT {
     @DisplayName("GIVEN task mandatory fields are empty WHEN update a task THEN does not update the task And returns HTTP code BAD_REQUEST And a body containing the problem details")
     void TaskMandatoryFieldsAreEmpty_UpdateTask_DoesNotUpdateTheTaskAndReturnsCodeBadRequestAndBodyWithProblemDetails() {
         // Given
-        var dummyTaskToBeUpdate = new Task(null, "IT Title", "IT Description", fakeTaskStartDate);
+        var dummyTaskToBeUpdate = new Task(null, "IT Title", "IT Description", fakeTaskStartDate, null);
 
         var dummyTask = taskRepository.save(dummyTaskToBeUpdate)
                                       .block();
@@ -772,7 +956,7 @@ class TaskControllerIT {
     @DisplayName("GIVEN task start date has invalid format WHEN update a task THEN does not update the task And returns HTTP code BAD_REQUEST And a body containing the problem details")
     void TaskStartDateHasInvalidFormat_UpdateTask_DoesNotUpdateTheTaskAndReturnsCodeBadRequestAndBodyWithProblemDetails() {
         // Given
-        var dummyTaskToBeUpdate = new Task(null, "IT Title", "IT Description", fakeTaskStartDate);
+        var dummyTaskToBeUpdate = new Task(null, "IT Title", "IT Description", fakeTaskStartDate, null);
 
         var dummyTask = taskRepository.save(dummyTaskToBeUpdate)
                                       .block();
@@ -793,7 +977,7 @@ class TaskControllerIT {
                      .uri("/v1/tasks/{id}", idToUpdate)
                      .header(HttpHeaders.ACCEPT, MediaType.APPLICATION_JSON_VALUE)
                      .header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
-                     .body(Mono.just(taskToUpdate), TaskDTO.class)
+                     .body(Mono.just(taskToUpdate), String.class)
                      .exchange()
                      .expectStatus()
                      .isBadRequest()
@@ -820,7 +1004,7 @@ class TaskControllerIT {
     @DisplayName("GIVEN task has id WHEN update a task THEN updates all fields of the task except the id And returns HTTP code OK And a body containing the task updated")
     void TaskHasId_UpdateTask_UpdatesTheTaskAndReturnsCodeOkAndBodyWithTheTaskUpdated() {
         // Given
-        var dummyTaskToBeUpdate = new Task(null, "IT Title", "IT Description", fakeTaskStartDate);
+        var dummyTaskToBeUpdate = new Task(null, "IT Title", "IT Description", fakeTaskStartDate, null);
 
         var dummyTask = taskRepository.save(dummyTaskToBeUpdate)
                                       .block();
@@ -858,7 +1042,7 @@ class TaskControllerIT {
                      .expectBody(TaskDTO.class)
                      .isEqualTo(expectedTask);
 
-        var expectedRepositoryTask = new Task(dummyTask.id(), "IT Title 2", "IT Description 2", newStartDate);
+        var expectedRepositoryTask = new Task(dummyTask.id(), "IT Title 2", "IT Description 2", newStartDate, 1L);
         StepVerifier.create(taskRepository.findById(dummyTask.id()))
                     .expectNext(expectedRepositoryTask)
                     .verifyComplete();
@@ -868,7 +1052,7 @@ class TaskControllerIT {
     @DisplayName("GIVEN task is valid WHEN update a task THEN updates the task And returns HTTP code OK And a body containing the task updated")
     void TaskIsValid_UpdateTask_UpdatesTheTaskReturnsCodeOkAndBodyWithTheTaskUpdated() {
         // Given
-        var dummyTaskToBeUpdate = new Task(null, "IT Title", "IT Description", fakeTaskStartDate);
+        var dummyTaskToBeUpdate = new Task(null, "IT Title", "IT Description", fakeTaskStartDate, null);
 
         var dummyTask = taskRepository.save(dummyTaskToBeUpdate)
                                       .block();
@@ -905,12 +1089,60 @@ class TaskControllerIT {
                      .expectBody(TaskDTO.class)
                      .isEqualTo(expectedTask);
 
-        var expectedRepositoryTask = new Task(dummyTask.id(), "IT Title 2", "IT Description 2", newStartDate);
+        var expectedRepositoryTask = new Task(dummyTask.id(), "IT Title 2", "IT Description 2", newStartDate, 1L);
         StepVerifier.create(taskRepository.findById(dummyTask.id()))
                     .expectNext(expectedRepositoryTask)
                     .verifyComplete();
     }
 
+    @Test
+    @DisplayName("GIVEN If-Match header has a stale entity tag WHEN update a task THEN does not update the task And returns HTTP code PRECONDITION_FAILED And a body with the problem details")
+    void IfMatchHasStaleEntityTag_UpdateTask_DoesNotUpdateTheTaskAndReturnsCodePreconditionFailedAndBodyWithProblemDetails() {
+        // Given
+        var dummyTask = taskRepository.save(new Task(null, "IT Title", "IT Description", fakeTaskStartDate, null))
+                                      .block();
+
+        Assertions.assertNotNull(dummyTask);
+
+        var taskToUpdate = TaskDTO.builder()
+                                  .title("IT Title 2")
+                                  .build();
+
+        webTestClient.put()
+                     .uri("/v1/tasks/{id}", dummyTask.id())
+                     .header(HttpHeaders.ACCEPT, MediaType.APPLICATION_JSON_VALUE)
+                     .header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+                     .header(HttpHeaders.IF_MATCH, "\"0\"")
+                     .body(Mono.just(taskToUpdate), TaskDTO.class)
+                     .exchange()
+                     .expectStatus()
+                     .isOk()
+                     .expectHeader()
+                     .valueEquals(HttpHeaders.ETAG, "\"1\"");
+
+        // When & Then
+        webTestClient.put()
+                     .uri("/v1/tasks/{id}", dummyTask.id())
+                     .header(HttpHeaders.ACCEPT, MediaType.APPLICATION_JSON_VALUE)
+                     .header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+                     .header(HttpHeaders.IF_MATCH, "\"0\"")
+                     .body(Mono.just(taskToUpdate), TaskDTO.class)
+                     .exchange()
+                     .expectStatus()
+                     .isEqualTo(HttpStatus.PRECONDITION_FAILED)
+                     .expectHeader()
+                     .contentType(MediaType.APPLICATION_PROBLEM_JSON)
+                     .expectBody()
+                     .jsonPath("$.title")
+                     .isEqualTo("Precondition Failed")
+                     .jsonPath("$.status")
+                     .isEqualTo("412");
+
+        StepVerifier.create(taskRepository.findById(dummyTask.id()))
+                    .expectNext(new Task(dummyTask.id(), "IT Title 2", null, null, 1L))
+                    .verifyComplete();
+    }
+
     // DeleteTaskById
     @Test
     @DisplayName("GIVEN id is empty WHEN delete task by id THEN returns HTTP code NOT_FOUND And a body containing the problem details")
@@ -968,7 +1200,7 @@ class TaskControllerIT {
     @DisplayName("GIVEN id does not exists WHEN delete a task by id THEN does not delete any task And returns HTTP code NOT_FOUND And an empty body")
     void IdNotExists_DeleteTaskById_DoesNotDeleteTheTaskAndReturnsCodeNotFoundAndEmptyBody() {
         // Given
-        var dummyTaskToBeDeleted = new Task(null, "IT Title", "IT Description", fakeTaskStartDate);
+        var dummyTaskToBeDeleted = new Task(null, "IT Title", "IT Description", fakeTaskStartDate, null);
 
         var dummyTaskId = taskRepository.save(dummyTaskToBeDeleted)
                                         .map(Task::id)
@@ -997,7 +1229,7 @@ class TaskControllerIT {
     @DisplayName("GIVEN id exists WHEN delete a task by id THEN deletes the task with the given id And returns HTTP code NO_CONTENT And an empty body")
     void IdExists_DeleteTaskById_ReturnsCodeNoContentAndEmptyBody() {
         // Given
-        var dummyTaskToBeDeleted = new Task(null, "IT Title", "IT Description", fakeTaskStartDate);
+        var dummyTaskToBeDeleted = new Task(null, "IT Title", "IT Description", fakeTaskStartDate, null);
 
         var dummyTask = taskRepository.save(dummyTaskToBeDeleted)
                                       .block();
@@ -15,10 +15,18 @@
 */
 package com.bcn.todo.task;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.isNull;
 import static org.mockito.BDDMockito.given;
+import static org.mockito.BDDMockito.then;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 
+import java.net.URI;
 import java.time.LocalDateTime;
+import java.util.List;
 import java.util.UUID;
 
 import org.junit.jupiter.api.BeforeEach;
@@ -27,8 +35,10 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.web.util.UriComponentsBuilder;
 
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
@@ -173,6 +183,168 @@ class TaskControllerTests {
                     .verifyComplete();
     }
 
+    // StreamAllTasks
+    @Test
+    @DisplayName("GIVEN there are tasks WHEN stream all tasks THEN returns a stream with all tasks found")
+    void ThereAreTasks_StreamAllTasks_ReturnsStreamWithAllTasksFound() {
+        // Given
+        var fakeTaskFound = TaskDTO.builder()
+                                   .id(fakeTaskId)
+                                   .title("UT Title")
+                                   .description("UT Description")
+                                   .startDateTime(fakeTaskStartDate)
+                                   .build();
+        given(taskServiceMock.streamAll()).willReturn(Flux.just(fakeTaskFound));
+
+        // When
+        var result = taskController.streamAllTasks();
+
+        // Then
+        var expectedTask = TaskDTO.builder()
+                                  .id(fakeTaskId)
+                                  .title("UT Title")
+                                  .description("UT Description")
+                                  .startDateTime(fakeTaskStartDate)
+                                  .build();
+        StepVerifier.create(result)
+                    .expectNext(expectedTask)
+                    .verifyComplete();
+    }
+
+    // GetTasksPage
+    @Test
+    @DisplayName("GIVEN there are tasks WHEN get a page of tasks THEN returns a body with the page found")
+    void ThereAreTasks_GetTasksPage_ReturnsBodyWithThePageFound() {
+        // Given
+        var fakeTaskFound = TaskDTO.builder()
+                                   .id(fakeTaskId)
+                                   .title("UT Title")
+                                   .description("UT Description")
+                                   .startDateTime(fakeTaskStartDate)
+                                   .build();
+        var fakePageFound = TaskPageDTO.builder()
+                                       .tasks(List.of(fakeTaskFound))
+                                       .continuationToken("UT Token")
+                                       .build();
+        given(taskServiceMock.findPage(any(), anyInt())).willReturn(Mono.just(fakePageFound));
+
+        // When
+        var result = taskController.getTasksPage(null, 1);
+
+        // Then
+        var expectedTask = TaskDTO.builder()
+                                  .id(fakeTaskId)
+                                  .title("UT Title")
+                                  .description("UT Description")
+                                  .startDateTime(fakeTaskStartDate)
+                                  .build();
+        var expectedPage = TaskPageDTO.builder()
+                                      .tasks(List.of(expectedTask))
+                                      .continuationToken("UT Token")
+                                      .build();
+        StepVerifier.create(result)
+                    .expectNext(expectedPage)
+                    .verifyComplete();
+    }
+
+    // getTasksStats
+    @Test
+    @DisplayName("GIVEN there are tasks WHEN get task statistics THEN returns the statistics of the tasks")
+    void ThereAreTasks_GetTasksStats_ReturnsTheStatisticsOfTheTasks() {
+        // Given
+        var fakeStats = TaskStatsDTO.builder()
+                                    .total(3L)
+                                    .withoutStartDate(1L)
+                                    .buckets(List.of(TaskStatsBucketDTO.builder()
+                                                                       .startDate(fakeTaskStartDate.toLocalDate())
+                                                                       .tasks(2L)
+                                                                       .build()))
+                                    .build();
+        given(taskServiceMock.findStats(any(TaskStatsGranularity.class))).willReturn(Mono.just(fakeStats));
+
+        // When
+        var result = taskController.getTasksStats(TaskStatsGranularity.WEEK);
+
+        // Then
+        StepVerifier.create(result)
+                    .expectNext(fakeStats)
+                    .verifyComplete();
+
+        then(taskServiceMock).should(times(1))
+                             .findStats(TaskStatsGranularity.WEEK);
+    }
+
+    // searchTasks
+    @Test
+    @DisplayName("GIVEN there are tasks matching the filters WHEN search tasks THEN searches the tasks with the given filters And returns the tasks found")
+    void ThereAreTasksMatchingTheFilters_SearchTasks_SearchesTheTasksWithTheGivenFiltersAndReturnsTheTasksFound() {
+        // Given
+        var fakeTaskFound = TaskDTO.builder()
+                                   .id(fakeTaskId)
+                                   .title("UT Title")
+                                   .description("UT Description")
+                                   .startDateTime(fakeTaskStartDate)
+                                   .build();
+        given(taskServiceMock.search(any(TaskSearchCriteria.class))).willReturn(Flux.just(fakeTaskFound));
+
+        // When
+        var startDateFrom = fakeTaskStartDate.minusDays(1);
+        var result = taskController.searchTasks("UT", null, startDateFrom, null, TaskSearchSort.START_DATE_DESC, 20);
+
+        // Then
+        var expectedTask = TaskDTO.builder()
+                                  .id(fakeTaskId)
+                                  .title("UT Title")
+                                  .description("UT Description")
+                                  .startDateTime(fakeTaskStartDate)
+                                  .build();
+        StepVerifier.create(result)
+                    .expectNext(expectedTask)
+                    .verifyComplete();
+
+        then(taskServiceMock).should(times(1))
+                             .search(new TaskSearchCriteria("UT", null, startDateFrom, null, TaskSearchSort.START_DATE_DESC, 20));
+    }
+
+    // searchTasksByText
+    @Test
+    @DisplayName("GIVEN there are tasks matching the keywords WHEN search tasks by text THEN returns the page of matching tasks")
+    void ThereAreTasksMatchingTheKeywords_SearchTasksByText_ReturnsThePageOfMatchingTasks() {
+        // Given
+        var fakeTaskFound = TaskDTO.builder()
+                                   .id(fakeTaskId)
+                                   .title("UT Title")
+                                   .description("UT Description")
+                                   .startDateTime(fakeTaskStartDate)
+                                   .build();
+        var fakePageFound = TaskPageDTO.builder()
+                                       .tasks(List.of(fakeTaskFound))
+                                       .continuationToken("UT Token")
+                                       .build();
+        given(taskServiceMock.searchText(any(), any(), anyInt())).willReturn(Mono.just(fakePageFound));
+
+        // When
+        var result = taskController.searchTasksByText("title", null, 1);
+
+        // Then
+        var expectedTask = TaskDTO.builder()
+                                  .id(fakeTaskId)
+                                  .title("UT Title")
+                                  .description("UT Description")
+                                  .startDateTime(fakeTaskStartDate)
+                                  .build();
+        var expectedPage = TaskPageDTO.builder()
+                                      .tasks(List.of(expectedTask))
+                                      .continuationToken("UT Token")
+                                      .build();
+        StepVerifier.create(result)
+                    .expectNext(expectedPage)
+                    .verifyComplete();
+
+        then(taskServiceMock).should(times(1))
+                             .searchText("title", null, 1);
+    }
+
     // CreateTask
     @Test
     @DisplayName("GIVEN task is valid WHEN create a task THEN returns HTTP code CREATED And a body with the task created")
@@ -206,6 +378,30 @@ class TaskControllerTests {
                     .verifyComplete();
     }
 
+    @Test
+    @DisplayName("GIVEN id exists WHEN get a task by id THEN returns HTTP code OK And the version of the task as entity tag")
+    void IdExists_GetTaskById_ReturnsCodeOkAndTheVersionOfTheTaskAsEntityTag() {
+        // Given
+        var fakeTaskFound = TaskDTO.builder()
+                                   .id(fakeTaskId)
+                                   .title("UT Title")
+                                   .version(3L)
+                                   .build();
+        given(taskServiceMock.findById(any(UUID.class))).willReturn(Mono.just(fakeTaskFound));
+
+        // When
+        var result = taskController.getTaskById(fakeTaskId);
+
+        // Then
+        StepVerifier.create(result)
+                    .assertNext(responseEntity -> {
+                        assertEquals(HttpStatus.OK, responseEntity.getStatusCode());
+                        assertEquals("\"3\"", responseEntity.getHeaders()
+                                                             .getETag());
+                    })
+                    .verifyComplete();
+    }
+
     // UpdateTask
     @Test
     @DisplayName("GIVEN id does not exists WHEN update a task THEN returns HTTP code NOT_FOUND And an empty body")
@@ -220,7 +416,7 @@ class TaskControllerTests {
                                   .description("UT Description")
                                   .startDateTime(fakeTaskStartDate)
                                   .build();
-        var result = taskController.updateTask(idToUpdate, taskToUpdate);
+        var result = taskController.updateTask(idToUpdate, false, null, taskToUpdate, UriComponentsBuilder.newInstance());
 
         // Then
         ResponseEntity<TaskDTO> expected = ResponseEntity.notFound()
@@ -249,7 +445,7 @@ class TaskControllerTests {
                                   .description("UT Description")
                                   .startDateTime(fakeTaskStartDate)
                                   .build();
-        var result = taskController.updateTask(idToUpdate, taskToUpdate);
+        var result = taskController.updateTask(idToUpdate, false, null, taskToUpdate, UriComponentsBuilder.newInstance());
 
         // Then
         var expectedTask = TaskDTO.builder()
@@ -264,16 +460,149 @@ class TaskControllerTests {
                     .verifyComplete();
     }
 
+    @Test
+    @DisplayName("GIVEN id exists And upsert is enabled WHEN update a task THEN returns HTTP code OK And a body with the task updated")
+    void IdExistsAndUpsertIsEnabled_UpdateTask_ReturnsCodeOkAndTheTaskUpdated() {
+        // Given
+        var fakeTaskUpdated = TaskDTO.builder()
+                                     .id(fakeTaskId)
+                                     .title("UT Title")
+                                     .version(1L)
+                                     .build();
+        given(taskServiceMock.upsert(any(UUID.class), any(TaskDTO.class))).willReturn(Mono.just(fakeTaskUpdated));
+
+        // When
+        var idToUpdate = fakeTaskId;
+        var taskToUpdate = TaskDTO.builder()
+                                  .title("UT Title")
+                                  .build();
+        var result = taskController.updateTask(idToUpdate, true, null, taskToUpdate, UriComponentsBuilder.newInstance());
+
+        // Then
+        var expectedTask = TaskDTO.builder()
+                                  .id(fakeTaskId)
+                                  .title("UT Title")
+                                  .version(1L)
+                                  .build();
+        ResponseEntity<TaskDTO> expectedResponseEntity = ResponseEntity.ok()
+                                                                       .eTag("\"1\"")
+                                                                       .body(expectedTask);
+        StepVerifier.create(result)
+                    .expectNext(expectedResponseEntity)
+                    .verifyComplete();
+    }
+
+    @Test
+    @DisplayName("GIVEN id does not exists And upsert is enabled WHEN update a task that is created with the initial version THEN returns HTTP code CREATED And the location of the task created")
+    void IdNotExistsAndUpsertIsEnabled_UpdateTaskCreatedWithTheInitialVersion_ReturnsCodeCreatedAndTheLocationOfTheTaskCreated() {
+        // Given
+        var fakeTaskCreated = TaskDTO.builder()
+                                     .id(fakeTaskId)
+                                     .title("UT Title")
+                                     .version(0L)
+                                     .build();
+        given(taskServiceMock.upsert(any(UUID.class), any(TaskDTO.class))).willReturn(Mono.just(fakeTaskCreated));
+
+        // When
+        var taskToUpdate = TaskDTO.builder()
+                                  .title("UT Title")
+                                  .build();
+        var result = taskController.updateTask(fakeTaskId, true, null, taskToUpdate, UriComponentsBuilder.fromPath("/reactive-todo-service"));
+
+        // Then
+        var expectedTask = TaskDTO.builder()
+                                  .id(fakeTaskId)
+                                  .title("UT Title")
+                                  .version(0L)
+                                  .build();
+        ResponseEntity<TaskDTO> expectedResponseEntity = ResponseEntity.created(URI.create("/reactive-todo-service/v1/tasks/" + fakeTaskId))
+                                                                       .eTag("\"0\"")
+                                                                       .body(expectedTask);
+        StepVerifier.create(result)
+                    .expectNext(expectedResponseEntity)
+                    .verifyComplete();
+    }
+
+    @Test
+    @DisplayName("GIVEN If-Match header has an entity tag WHEN update a task THEN updates the task with the version of the entity tag And does not upsert it")
+    void IfMatchHasEntityTag_UpdateTask_UpdatesTheTaskWithTheVersionOfTheEntityTagAndDoesNotUpsertIt() {
+        // Given
+        given(taskServiceMock.update(any(UUID.class), any(TaskDTO.class))).willReturn(Mono.empty());
+
+        // When
+        var taskToUpdate = TaskDTO.builder()
+                                  .title("UT Title")
+                                  .build();
+        var result = taskController.updateTask(fakeTaskId, true, "\"2\"", taskToUpdate, UriComponentsBuilder.newInstance());
+
+        // Then
+        StepVerifier.create(result)
+                    .expectNextCount(1)
+                    .verifyComplete();
+
+        var expectedTask = TaskDTO.builder()
+                                  .title("UT Title")
+                                  .version(2L)
+                                  .build();
+        then(taskServiceMock).should(times(1))
+                             .update(fakeTaskId, expectedTask);
+        then(taskServiceMock).should(never())
+                             .upsert(any(UUID.class), any(TaskDTO.class));
+    }
+
+    @Test
+    @DisplayName("GIVEN If-Match header has the entity tag of a compressed representation WHEN update a task THEN updates the task with the version of the entity tag")
+    void IfMatchHasEntityTagOfCompressedRepresentation_UpdateTask_UpdatesTheTaskWithTheVersionOfTheEntityTag() {
+        // Given
+        given(taskServiceMock.update(any(UUID.class), any(TaskDTO.class))).willReturn(Mono.empty());
+
+        // When
+        var taskToUpdate = TaskDTO.builder()
+                                  .title("UT Title")
+                                  .build();
+        var result = taskController.updateTask(fakeTaskId, false, "\"2-gzip\"", taskToUpdate, UriComponentsBuilder.newInstance());
+
+        // Then
+        StepVerifier.create(result)
+                    .expectNextCount(1)
+                    .verifyComplete();
+
+        var expectedTask = TaskDTO.builder()
+                                  .title("UT Title")
+                                  .version(2L)
+                                  .build();
+        then(taskServiceMock).should(times(1))
+                             .update(fakeTaskId, expectedTask);
+    }
+
+    @Test
+    @DisplayName("GIVEN If-Match header has a weak entity tag WHEN delete a task by id THEN deletes the task with a version that never matches")
+    void IfMatchHasWeakEntityTag_DeleteTaskById_DeletesTheTaskWithAVersionThatNeverMatches() {
+        // Given
+        given(taskServiceMock.deleteById(any(UUID.class), any())).willReturn(Mono.just(false));
+
+        // When
+        var result = taskController.deleteTaskById(fakeTaskId, "W/\"2\"");
+
+        // Then
+        StepVerifier.create(result)
+                    .expectNextCount(1)
+                    .verifyComplete();
+
+        then(taskServiceMock).should(times(1))
+                             .deleteById(fakeTaskId, -1L);
+    }
+
     // DeleteTaskById
     @Test
     @DisplayName("GIVEN id does not exists WHEN delete a task by id THEN returns HTTP code NOT_FOUND And an empty body")
     void IdNotExists_DeleteTaskById_ReturnsCodeNotFoundAndEmptyBody() {
         // Given
-        given(taskServiceMock.deleteById(any(UUID.class))).willReturn(Mono.just(false));
+        given(taskServiceMock.deleteById(any(UUID.class), isNull())).willReturn(Mono.just(false));
 
         // When
         var idToDelete = fakeTaskId;
-        var result = taskController.deleteTaskById(idToDelete);
+        var result = taskController.deleteTaskById(idToDelete, null);
 
         // Then
         ResponseEntity<Void> expected = ResponseEntity.notFound()
@@ -287,11 +616,11 @@ class TaskControllerTests {
     @DisplayName("GIVEN id exists WHEN delete a task by id THEN returns HTTP code NO_CONTENT And an empty body")
     void IdExists_DeleteTaskById_ReturnsCodeNoContentAndEmptyBody() {
         // Given
-        given(taskServiceMock.deleteById(any(UUID.class))).willReturn(Mono.just(true));
+        given(taskServiceMock.deleteById(any(UUID.class), isNull())).willReturn(Mono.just(true));
 
         // When
         var idToDelete = fakeTaskId;
-        var result = taskController.deleteTaskById(idToDelete);
+        var result = taskController.deleteTaskById(idToDelete, null);
 
         // Then
         ResponseEntity<Void> expected = ResponseEntity.noContent()
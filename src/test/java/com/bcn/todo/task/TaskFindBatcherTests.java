@@ -0,0 +1,165 @@
+/**
+* Copyright 2023 the original author or authors.
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*     http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+*/
+package com.bcn.todo.task;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.BDDMockito.then;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import reactor.core.publisher.Flux;
+import reactor.test.StepVerifier;
+import reactor.test.scheduler.VirtualTimeScheduler;
+
+@ExtendWith(SpringExtension.class)
+class TaskFindBatcherTests {
+
+    private static final Duration WINDOW = Duration.ofMillis(2);
+
+    @Mock
+    private TaskRepository taskRepositoryMock;
+
+    private SimpleMeterRegistry meterRegistry;
+
+    private VirtualTimeScheduler scheduler;
+
+    private TaskFindBatcher taskFindBatcher;
+
+    private Task fakeTask;
+
+    @BeforeEach
+    void beforeEach() {
+        this.meterRegistry = new SimpleMeterRegistry();
+        this.scheduler = VirtualTimeScheduler.create();
+        this.taskFindBatcher = new TaskFindBatcher(taskRepositoryMock::findTasksByIds, meterRegistry, WINDOW, 3, scheduler);
+
+        this.fakeTask = new Task(UUID.randomUUID(), "UT Title", null, null, 0L);
+    }
+
+    @AfterEach
+    void afterEach() {
+        this.scheduler.dispose();
+    }
+
+    // findById
+    @Test
+    @DisplayName("GIVEN concurrent finds within the window WHEN the window ends THEN finds all ids with a single query And returns the task found to each find")
+    void ConcurrentFindsWithinWindow_WindowEnds_FindsAllIdsWithSingleQueryAndReturnsTheTaskFoundToEachFind() {
+        // Given
+        var notExistingTaskId = UUID.randomUUID();
+        given(taskRepositoryMock.findTasksByIds(anyCollection())).willReturn(Flux.just(fakeTask));
+
+        // When
+        var found = taskFindBatcher.findById(fakeTask.id())
+                                   .toFuture();
+        var notFound = taskFindBatcher.findById(notExistingTaskId)
+                                      .toFuture();
+        var foundAgain = taskFindBatcher.findById(fakeTask.id())
+                                        .toFuture();
+
+        // Then
+        then(taskRepositoryMock).should(never())
+                                .findTasksByIds(anyCollection());
+
+        scheduler.advanceTimeBy(WINDOW);
+
+        assertEquals(fakeTask, found.join());
+        assertNull(notFound.join());
+        assertEquals(fakeTask, foundAgain.join());
+        then(taskRepositoryMock).should(times(1))
+                                .findTasksByIds(List.of(fakeTask.id(), notExistingTaskId));
+        assertEquals(2.0, meterRegistry.get(TaskFindBatcher.BATCH_SIZE_SUMMARY)
+                                       .summary()
+                                       .totalAmount());
+        assertEquals(WINDOW.toNanos() * 3, meterRegistry.get(TaskFindBatcher.BATCH_WAIT_TIMER)
+                                                        .timer()
+                                                        .totalTime(TimeUnit.NANOSECONDS));
+    }
+
+    @Test
+    @DisplayName("GIVEN the batch is full WHEN find another id THEN finds the ids right away without waiting for the window")
+    void BatchIsFull_FindAnotherId_FindsTheIdsRightAwayWithoutWaitingForTheWindow() {
+        // Given
+        given(taskRepositoryMock.findTasksByIds(anyCollection())).willReturn(Flux.just(fakeTask));
+        taskFindBatcher.findById(UUID.randomUUID())
+                       .subscribe();
+        taskFindBatcher.findById(UUID.randomUUID())
+                       .subscribe();
+
+        // When
+        var result = taskFindBatcher.findById(fakeTask.id());
+
+        // Then
+        StepVerifier.create(result)
+                    .expectNext(fakeTask)
+                    .verifyComplete();
+
+        then(taskRepositoryMock).should(times(1))
+                                .findTasksByIds(anyCollection());
+        scheduler.advanceTimeBy(WINDOW);
+        then(taskRepositoryMock).should(times(1))
+                                .findTasksByIds(anyCollection());
+    }
+
+    @Test
+    @DisplayName("GIVEN pending finds WHEN the batch query fails THEN returns the error to each find")
+    void PendingFinds_BatchQueryFails_ReturnsTheErrorToEachFind() {
+        // Given
+        given(taskRepositoryMock.findTasksByIds(anyCollection())).willReturn(Flux.error(new IllegalStateException("UT Error")));
+
+        // When
+        var result = taskFindBatcher.findById(fakeTask.id());
+
+        // Then
+        StepVerifier.create(result)
+                    .then(() -> scheduler.advanceTimeBy(WINDOW))
+                    .verifyError(IllegalStateException.class);
+    }
+
+    // dispose
+    @Test
+    @DisplayName("GIVEN pending finds WHEN dispose the batcher THEN finds the pending ids without waiting for the window")
+    void PendingFinds_DisposeBatcher_FindsThePendingIdsWithoutWaitingForTheWindow() {
+        // Given
+        given(taskRepositoryMock.findTasksByIds(anyCollection())).willReturn(Flux.just(fakeTask));
+        var found = taskFindBatcher.findById(fakeTask.id())
+                                   .toFuture();
+
+        // When
+        taskFindBatcher.dispose();
+
+        // Then
+        assertEquals(fakeTask, found.join());
+    }
+
+}
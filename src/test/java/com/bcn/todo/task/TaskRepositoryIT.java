@@ -16,6 +16,8 @@
 package com.bcn.todo.task;
 
 import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.List;
 import java.util.UUID;
 
 import org.junit.jupiter.api.Assertions;
@@ -25,11 +27,13 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.data.r2dbc.DataR2dbcTest;
 import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.r2dbc.core.DatabaseClient;
 import org.testcontainers.containers.PostgreSQLContainer;
 import org.testcontainers.junit.jupiter.Container;
 import org.testcontainers.junit.jupiter.Testcontainers;
 import org.testcontainers.utility.DockerImageName;
 
+import reactor.core.publisher.Flux;
 import reactor.test.StepVerifier;
 
 @Testcontainers(disabledWithoutDocker = true)
@@ -43,6 +47,9 @@ class TaskRepositoryIT {
     @Autowired
     private TaskRepository taskRepository;
 
+    @Autowired
+    private DatabaseClient databaseClient;
+
     @BeforeEach
     void beforeEach() {
         taskRepository.deleteAll()
@@ -67,7 +74,7 @@ class TaskRepositoryIT {
     @DisplayName("GIVEN id exists WHEN delete a task by id THEN deletes the task And returns the amount of tasks deleted")
     void IdExists_DeleteTaskById_DeletesTheTaskAndReturnsTheAmountOfTasksDeleted() {
         // Given
-        var dummyTaskToBeDeleted = new Task(null, "Title Test", "Description Test", LocalDateTime.now());
+        var dummyTaskToBeDeleted = new Task(null, "Title Test", "Description Test", LocalDateTime.now(), null);
 
         var dummyTask = taskRepository.save(dummyTaskToBeDeleted)
                                       .block();
@@ -89,4 +96,440 @@ class TaskRepositoryIT {
                     .verifyComplete();
     }
 
+    @Test
+    @DisplayName("GIVEN there are tasks with and without start date WHEN find pages of tasks THEN finds all tasks ordered by start date and id with tasks without start date at the end")
+    void ThereAreTasksWithAndWithoutStartDate_FindPages_FindsAllTasksOrderedByStartDateAndIdWithTasksWithoutStartDateAtTheEnd() {
+        // Given
+        var now = LocalDateTime.now()
+                               .withNano(0);
+        var dummyTasks = Flux.just(new Task(null, "Title Test 1", "Description Test 1", now.plusDays(1), null),
+                new Task(null, "Title Test 2", "Description Test 2", null, null), new Task(null, "Title Test 3", "Description Test 3", now, null),
+                new Task(null, "Title Test 4", "Description Test 4", null, null), new Task(null, "Title Test 5", "Description Test 5", now, null));
+
+        var savedTasks = taskRepository.saveAll(dummyTasks)
+                                       .collectList()
+                                       .block();
+
+        Assertions.assertNotNull(savedTasks);
+
+        // When
+        var firstPage = taskRepository.findPage(null, 2)
+                                      .collectList()
+                                      .block();
+        Assertions.assertNotNull(firstPage);
+        var secondPage = taskRepository.findPage(TaskPageCursor.of(firstPage.get(1)), 2)
+                                       .collectList()
+                                       .block();
+        Assertions.assertNotNull(secondPage);
+        var thirdPage = taskRepository.findPage(TaskPageCursor.of(secondPage.get(1)), 2)
+                                      .collectList()
+                                      .block();
+        Assertions.assertNotNull(thirdPage);
+
+        // Then
+        var sameStartDateTasks = savedTasks.stream()
+                                           .filter(task -> now.equals(task.startDateTime()))
+                                           .map(Task::id)
+                                           .sorted(Comparator.comparing(UUID::toString))
+                                           .toList();
+        var withoutStartDateTasks = savedTasks.stream()
+                                              .filter(task -> task.startDateTime() == null)
+                                              .map(Task::id)
+                                              .sorted(Comparator.comparing(UUID::toString))
+                                              .toList();
+
+        Assertions.assertEquals(sameStartDateTasks, firstPage.stream()
+                                                             .map(Task::id)
+                                                             .toList());
+        Assertions.assertEquals(savedTasks.get(0)
+                                          .id(),
+                secondPage.get(0)
+                          .id());
+        Assertions.assertEquals(withoutStartDateTasks.get(0), secondPage.get(1)
+                                                                        .id());
+        Assertions.assertEquals(1, thirdPage.size());
+        Assertions.assertEquals(withoutStartDateTasks.get(1), thirdPage.get(0)
+                                                                       .id());
+    }
+
+    @Test
+    @DisplayName("GIVEN there are tasks WHEN search tasks by title and start date range THEN finds the matching tasks in the given order")
+    void ThereAreTasks_SearchByTitleAndStartDateRange_FindsTheMatchingTasksInTheGivenOrder() {
+        // Given
+        var now = LocalDateTime.now()
+                               .withNano(0);
+        var dummyTasks = Flux.just(new Task(null, "Shopping list", "Description Test 1", now.minusDays(1), null),
+                new Task(null, "Shopping for the party", "Description Test 2", now.plusDays(1), null), new Task(null, "Shopping later", "Description Test 3", null, null),
+                new Task(null, "Go shopping", "Description Test 4", now, null), new Task(null, "Shopping tomorrow", "Description Test 5", now.plusDays(2), null));
+
+        taskRepository.saveAll(dummyTasks)
+                      .blockLast();
+
+        // When
+        var criteria = new TaskSearchCriteria("Shop", null, now.minusDays(1), now.plusDays(2), TaskSearchSort.START_DATE_DESC, 10);
+        var result = taskRepository.search(criteria)
+                                   .map(Task::title);
+
+        // Then
+        StepVerifier.create(result)
+                    .expectNext("Shopping for the party", "Shopping list")
+                    .verifyComplete();
+    }
+
+    @Test
+    @DisplayName("GIVEN there are tasks WHEN search tasks by title substring THEN finds the tasks containing the substring ignoring case And wildcards are matched literally")
+    void ThereAreTasks_SearchByTitleSubstring_FindsTheTasksContainingTheSubstringIgnoringCaseAndWildcardsAreMatchedLiterally() {
+        // Given
+        var dummyTasks = Flux.just(new Task(null, "Title 100% done", "Description Test 1", null, null), new Task(null, "ANOTHER 100% DONE", "Description Test 2", null, null),
+                new Task(null, "Title 1000 done", "Description Test 3", null, null), new Task(null, "Title 100_done", "Description Test 4", null, null));
+
+        taskRepository.saveAll(dummyTasks)
+                      .blockLast();
+
+        // When
+        var criteria = new TaskSearchCriteria(null, "100% d", null, null, TaskSearchSort.TITLE_ASC, 10);
+        var result = taskRepository.search(criteria)
+                                   .map(Task::title);
+
+        // Then
+        StepVerifier.create(result)
+                    .expectNext("ANOTHER 100% DONE", "Title 100% done")
+                    .verifyComplete();
+    }
+
+    @Test
+    @DisplayName("GIVEN there are tasks matching the keywords WHEN search pages of tasks by text THEN finds the matching tasks with matches in the title before matches in the description")
+    void ThereAreTasksMatchingTheKeywords_SearchPagesByText_FindsTheMatchingTasksWithMatchesInTheTitleBeforeMatchesInTheDescription() {
+        // Given
+        var dummyTasks = Flux.just(new Task(null, "Buy groceries", "Milk and bread", null, null), new Task(null, "Call the plumber", "Ask about the groceries", null, null),
+                new Task(null, "Write the report", "Quarterly figures", null, null), new Task(null, "Groceries for the party", null, null, null));
+
+        taskRepository.saveAll(dummyTasks)
+                      .blockLast();
+
+        // When
+        var firstPage = taskRepository.searchText("grocery", null, 2)
+                                      .collectList()
+                                      .block();
+        Assertions.assertNotNull(firstPage);
+        var secondPage = taskRepository.searchText("grocery", TaskTextSearchCursor.of(firstPage.get(1)), 2)
+                                       .collectList()
+                                       .block();
+        Assertions.assertNotNull(secondPage);
+
+        // Then
+        Assertions.assertEquals(List.of("Buy groceries", "Groceries for the party"), firstPage.stream()
+                                                                                          .map(rankedTask -> rankedTask.task()
+                                                                                                                       .title())
+                                                                                          .sorted()
+                                                                                          .toList());
+        Assertions.assertEquals(List.of("Call the plumber"), secondPage.stream()
+                                                                       .map(rankedTask -> rankedTask.task()
+                                                                                                    .title())
+                                                                       .toList());
+    }
+
+    @Test
+    @DisplayName("GIVEN there are tasks matching the keywords WHEN stream tasks by text THEN finds all matching tasks")
+    void ThereAreTasksMatchingTheKeywords_StreamSearchText_FindsAllMatchingTasks() {
+        // Given
+        var dummyTasks = Flux.range(0, 10)
+                             .map(index -> new Task(null, "Title Test " + index, index % 2 == 0 ? "Even task" : "Odd task", null, null));
+
+        taskRepository.saveAll(dummyTasks)
+                      .blockLast();
+
+        // When
+        var result = taskRepository.streamSearchText("even");
+
+        // Then
+        StepVerifier.create(result)
+                    .expectNextCount(5)
+                    .verifyComplete();
+    }
+
+    @Test
+    @DisplayName("GIVEN there are tasks WHEN stream all tasks THEN finds all tasks")
+    void ThereAreTasks_StreamAll_FindsAllTasks() {
+        // Given
+        var dummyTasks = Flux.range(0, 10)
+                             .map(index -> new Task(null, "Title Test " + index, "Description Test " + index, LocalDateTime.now(), null));
+
+        taskRepository.saveAll(dummyTasks)
+                      .blockLast();
+
+        // When
+        var result = taskRepository.streamAll();
+
+        // Then
+        StepVerifier.create(result)
+                    .expectNextCount(10)
+                    .verifyComplete();
+    }
+
+    @Test
+    @DisplayName("GIVEN tasks with id WHEN insert many tasks THEN inserts all tasks with a single statement And returns the tasks inserted")
+    void TasksWithId_InsertTasks_InsertsAllTasksAndReturnsTheTasksInserted() {
+        // When
+        var tasksToInsert = List.of(new Task(UUID.randomUUID(), "Title Test 1", "Description Test 1", LocalDateTime.now()
+                                                                                                                   .withNano(0), null),
+                new Task(UUID.randomUUID(), "Title Test 2", null, null, null));
+
+        var result = taskRepository.insertTasks(tasksToInsert)
+                                   .collectList()
+                                   .block();
+
+        // Then
+        var expectedTasks = tasksToInsert.stream()
+                                         .map(task -> new Task(task.id(), task.title(), task.description(), task.startDateTime(), 0L))
+                                         .toList();
+        Assertions.assertNotNull(result);
+        Assertions.assertEquals(expectedTasks, result);
+        StepVerifier.create(taskRepository.count())
+                    .expectNext(2L)
+                    .verifyComplete();
+    }
+
+    @Test
+    @DisplayName("GIVEN some tasks not exist WHEN update many tasks THEN updates the existing tasks with a single statement And returns the tasks updated")
+    void SomeTasksNotExist_UpdateTasks_UpdatesTheExistingTasksAndReturnsTheTasksUpdated() {
+        // Given
+        var savedTask = taskRepository.save(new Task(null, "Title Test", "Description Test", null, null))
+                                      .block();
+
+        Assertions.assertNotNull(savedTask);
+
+        // When
+        var updatedStartDate = LocalDateTime.now()
+                                            .withNano(0);
+        var tasksToUpdate = List.of(new Task(savedTask.id(), "Title Test Updated", null, updatedStartDate, null),
+                new Task(UUID.randomUUID(), "Title Test Not Exists", null, null, null));
+
+        var result = taskRepository.updateTasks(tasksToUpdate);
+
+        // Then
+        var expectedTask = new Task(savedTask.id(), "Title Test Updated", null, updatedStartDate, 1L);
+        StepVerifier.create(result)
+                    .expectNext(expectedTask)
+                    .verifyComplete();
+        StepVerifier.create(taskRepository.findById(savedTask.id()))
+                    .expectNext(expectedTask)
+                    .verifyComplete();
+    }
+
+    @Test
+    @DisplayName("GIVEN there are tasks with and without start date WHEN count tasks by week of start date THEN returns the count of each week ordered by week with tasks without start date at the end")
+    void ThereAreTasksWithAndWithoutStartDate_CountByWeekOfStartDate_ReturnsTheCountOfEachWeekOrderedByWeekWithTasksWithoutStartDateAtTheEnd() {
+        // Given
+        var monday = LocalDateTime.of(2026, 10, 12, 9, 0);
+        taskRepository.saveAll(List.of(new Task(null, "Title Test 1", null, monday, null), new Task(null, "Title Test 2", null, monday.plusDays(6), null),
+                new Task(null, "Title Test 3", null, monday.plusDays(7), null), new Task(null, "Title Test 4", null, null, null)))
+                      .blockLast();
+
+        // When
+        var result = taskRepository.countByStartDate(TaskStatsGranularity.WEEK);
+
+        // Then
+        StepVerifier.create(result)
+                    .expectNext(new TaskStartDateCount(monday.toLocalDate(), 2L))
+                    .expectNext(new TaskStartDateCount(monday.toLocalDate()
+                                                             .plusDays(7), 1L))
+                    .expectNext(new TaskStartDateCount(null, 1L))
+                    .verifyComplete();
+    }
+
+    @Test
+    @DisplayName("GIVEN stats summary disabled WHEN the schema is migrated THEN does not create the summary of tasks by start day")
+    void StatsSummaryDisabled_MigrateSchema_DoesNotCreateTheSummaryOfTasksByStartDay() {
+        // When
+        var result = databaseClient.sql("""
+                SELECT to_regclass('task_start_day_count') IS NULL
+                    AND NOT EXISTS (SELECT 1 FROM pg_trigger WHERE tgname LIKE 'task_start_day_count_%_trigger') AS missing""")
+                                   .map(row -> row.get("missing", Boolean.class))
+                                   .one();
+
+        // Then
+        StepVerifier.create(result)
+                    .expectNext(true)
+                    .verifyComplete();
+    }
+
+    @Test
+    @DisplayName("GIVEN some ids not exist WHEN find many tasks by id THEN finds the existing tasks with a single statement")
+    void SomeIdsNotExist_FindTasksByIds_FindsTheExistingTasks() {
+        // Given
+        var savedTask = taskRepository.save(new Task(null, "Title Test", "Description Test", null, null))
+                                      .block();
+
+        Assertions.assertNotNull(savedTask);
+
+        // When
+        var result = taskRepository.findTasksByIds(List.of(savedTask.id(), UUID.randomUUID()));
+
+        // Then
+        StepVerifier.create(result)
+                    .expectNext(savedTask)
+                    .verifyComplete();
+    }
+
+    @Test
+    @DisplayName("GIVEN some ids not exist WHEN delete many tasks by id THEN deletes the existing tasks with a single statement And returns the ids deleted")
+    void SomeIdsNotExist_DeleteTasksByIds_DeletesTheExistingTasksAndReturnsTheIdsDeleted() {
+        // Given
+        var savedTask = taskRepository.save(new Task(null, "Title Test", "Description Test", null, null))
+                                      .block();
+
+        Assertions.assertNotNull(savedTask);
+
+        // When
+        var result = taskRepository.deleteTasksByIds(List.of(savedTask.id(), UUID.randomUUID()));
+
+        // Then
+        StepVerifier.create(result)
+                    .expectNext(savedTask.id())
+                    .verifyComplete();
+        StepVerifier.create(taskRepository.count())
+                    .expectNext(0L)
+                    .verifyComplete();
+    }
+
+    @Test
+    @DisplayName("GIVEN id not exists WHEN update a task THEN does not update any task And returns empty")
+    void IdNotExists_UpdateTask_DoesNotUpdateAnyTaskAndReturnsEmpty() {
+        // When
+        var result = taskRepository.updateTask(new Task(UUID.randomUUID(), "Title Test", null, null, null));
+
+        // Then
+        StepVerifier.create(result)
+                    .verifyComplete();
+        StepVerifier.create(taskRepository.count())
+                    .expectNext(0L)
+                    .verifyComplete();
+    }
+
+    @Test
+    @DisplayName("GIVEN id exists WHEN update a task THEN updates the task And returns the task updated")
+    void IdExists_UpdateTask_UpdatesTheTaskAndReturnsTheTaskUpdated() {
+        // Given
+        var savedTask = taskRepository.save(new Task(null, "Title Test", "Description Test", null, null))
+                                      .block();
+
+        Assertions.assertNotNull(savedTask);
+
+        // When
+        var taskToUpdate = new Task(savedTask.id(), "Title Test Updated", null, null, null);
+
+        var result = taskRepository.updateTask(taskToUpdate);
+
+        // Then
+        var expectedTask = new Task(savedTask.id(), "Title Test Updated", null, null, 1L);
+        StepVerifier.create(result)
+                    .expectNext(expectedTask)
+                    .verifyComplete();
+        StepVerifier.create(taskRepository.findById(savedTask.id()))
+                    .expectNext(expectedTask)
+                    .verifyComplete();
+    }
+
+    @Test
+    @DisplayName("GIVEN id exists with the given version WHEN update a task THEN updates the task And returns the task updated with the next version")
+    void IdExistsWithTheGivenVersion_UpdateTask_UpdatesTheTaskAndReturnsTheTaskUpdatedWithTheNextVersion() {
+        // Given
+        var savedTask = taskRepository.save(new Task(null, "Title Test", "Description Test", null, null))
+                                      .block();
+
+        Assertions.assertNotNull(savedTask);
+        Assertions.assertEquals(0L, savedTask.version());
+
+        // When
+        var result = taskRepository.updateTask(new Task(savedTask.id(), "Title Test Updated", null, null, 0L));
+
+        // Then
+        StepVerifier.create(result)
+                    .expectNext(new Task(savedTask.id(), "Title Test Updated", null, null, 1L))
+                    .verifyComplete();
+    }
+
+    @Test
+    @DisplayName("GIVEN id exists with another version WHEN update a task THEN does not update the task And returns empty")
+    void IdExistsWithAnotherVersion_UpdateTask_DoesNotUpdateTheTaskAndReturnsEmpty() {
+        // Given
+        var savedTask = taskRepository.save(new Task(null, "Title Test", "Description Test", null, null))
+                                      .block();
+
+        Assertions.assertNotNull(savedTask);
+
+        // When
+        var result = taskRepository.updateTask(new Task(savedTask.id(), "Title Test Updated", null, null, 1L));
+
+        // Then
+        StepVerifier.create(result)
+                    .verifyComplete();
+        StepVerifier.create(taskRepository.findById(savedTask.id()))
+                    .expectNext(savedTask)
+                    .verifyComplete();
+    }
+
+    @Test
+    @DisplayName("GIVEN id exists with another version WHEN delete a task by id and version THEN does not delete the task And returns zero")
+    void IdExistsWithAnotherVersion_DeleteTaskByIdAndVersion_DoesNotDeleteTheTaskAndReturnsZero() {
+        // Given
+        var savedTask = taskRepository.save(new Task(null, "Title Test", "Description Test", null, null))
+                                      .block();
+
+        Assertions.assertNotNull(savedTask);
+
+        // When
+        var result = taskRepository.deleteTaskByIdAndVersion(savedTask.id(), 1L);
+
+        // Then
+        StepVerifier.create(result)
+                    .expectNext(0L)
+                    .verifyComplete();
+        StepVerifier.create(taskRepository.count())
+                    .expectNext(1L)
+                    .verifyComplete();
+    }
+
+    @Test
+    @DisplayName("GIVEN id not exists WHEN upsert a task THEN inserts the task And returns the task inserted")
+    void IdNotExists_UpsertTask_InsertsTheTaskAndReturnsTheTaskInserted() {
+        // When
+        var taskToUpsert = new Task(UUID.randomUUID(), "Title Test", null, null, null);
+
+        var result = taskRepository.upsertTask(taskToUpsert);
+
+        // Then
+        var expectedTask = new Task(taskToUpsert.id(), "Title Test", null, null, 0L);
+        StepVerifier.create(result)
+                    .expectNext(expectedTask)
+                    .verifyComplete();
+        StepVerifier.create(taskRepository.findById(taskToUpsert.id()))
+                    .expectNext(expectedTask)
+                    .verifyComplete();
+    }
+
+    @Test
+    @DisplayName("GIVEN id exists WHEN upsert a task THEN updates the task And returns the task updated")
+    void IdExists_UpsertTask_UpdatesTheTaskAndReturnsTheTaskUpdated() {
+        // Given
+        var savedTask = taskRepository.save(new Task(null, "Title Test", "Description Test", null, null))
+                                      .block();
+
+        Assertions.assertNotNull(savedTask);
+
+        // When
+        var taskToUpsert = new Task(savedTask.id(), "Title Test Updated", null, null, null);
+
+        var result = taskRepository.upsertTask(taskToUpsert);
+
+        // Then
+        StepVerifier.create(result)
+                    .expectNext(new Task(savedTask.id(), "Title Test Updated", null, null, 1L))
+                    .verifyComplete();
+        StepVerifier.create(taskRepository.count())
+                    .expectNext(1L)
+                    .verifyComplete();
+    }
+
 }
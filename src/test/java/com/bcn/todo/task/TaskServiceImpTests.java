@@ -16,14 +16,23 @@
 package com.bcn.todo.task;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
 import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.isNull;
 import static org.mockito.BDDMockito.given;
 import static org.mockito.BDDMockito.then;
+import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 
+import java.time.Duration;
 import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
 import java.util.UUID;
 
 import org.junit.jupiter.api.BeforeEach;
@@ -35,20 +44,50 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.Spy;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.transaction.reactive.TransactionalOperator;
 
+import io.micrometer.core.instrument.observation.DefaultMeterObservationHandler;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.micrometer.observation.ObservationRegistry;
+import jakarta.validation.Validation;
+import jakarta.validation.Validator;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 import reactor.test.StepVerifier;
 
+import com.bcn.todo.InMemoryTransactionManager;
+import com.bcn.todo.deadline.Deadlines;
+import com.bcn.todo.error.InvalidContinuationTokenException;
+import com.bcn.todo.error.InvalidRequestParameterDTO;
+import com.bcn.todo.error.VersionMismatchException;
+import com.bcn.todo.outbox.TaskOutboxRepository;
+import com.bcn.todo.routing.DatabaseRouting;
+
 @ExtendWith(SpringExtension.class)
 class TaskServiceImpTests {
 
     @Mock
     private TaskRepository taskRepositoryMock;
 
+    @Mock
+    private TaskOutboxRepository taskOutboxRepositoryMock;
+
+    @Spy
+    private TransactionalOperator transactionalOperator = TransactionalOperator.create(new InMemoryTransactionManager());
+
     @Spy
     private TaskMapperImpl taskMapperSpy;
 
+    @Spy
+    private Validator validatorSpy = Validation.buildDefaultValidatorFactory()
+                                               .getValidator();
+
+    @Spy
+    private ObservationRegistry observationRegistry = ObservationRegistry.create();
+
+    @Spy
+    private TaskTimeouts taskTimeouts = TaskTimeouts.none();
+
     @InjectMocks
     private TaskServiceImpl taskService;
 
@@ -61,6 +100,7 @@ class TaskServiceImpTests {
         given(taskMapperSpy.toTaskDTO(any(Task.class))).willCallRealMethod();
         given(taskMapperSpy.toTask(any(TaskDTO.class))).willCallRealMethod();
         given(taskMapperSpy.toTaskIgnoreId(any(TaskDTO.class))).willCallRealMethod();
+        given(taskOutboxRepositoryMock.append(any(TaskChangeOperation.class), anyCollection())).willReturn(Mono.just(1L));
 
         this.fakeTaskId = UUID.randomUUID();
         this.fakeTaskStartDate = LocalDateTime.now();
@@ -89,7 +129,7 @@ class TaskServiceImpTests {
     @DisplayName("GIVEN id exists WHEN find a task by id THEN finds the task by the given id And returns the task found")
     void IdExists_FindTaskById_FindsTaskByGivenIdAndReturnsTheTaskFound() {
         // Given
-        var fakeTaskFound = new Task(fakeTaskId, "UT Title", "UT Description", fakeTaskStartDate);
+        var fakeTaskFound = new Task(fakeTaskId, "UT Title", "UT Description", fakeTaskStartDate, null);
         given(taskRepositoryMock.findById(any(UUID.class))).willReturn(Mono.just(fakeTaskFound));
 
         // When
@@ -111,6 +151,166 @@ class TaskServiceImpTests {
                                 .findById(fakeTaskId);
     }
 
+    @Test
+    @DisplayName("GIVEN id exists WHEN find a task by id THEN publishes the latency of the service, query and mapping stages")
+    void IdExists_FindTaskById_PublishesTheLatencyOfTheServiceQueryAndMappingStages() {
+        // Given
+        var meterRegistry = new SimpleMeterRegistry();
+        observationRegistry.observationConfig()
+                           .observationHandler(new DefaultMeterObservationHandler(meterRegistry));
+        var fakeTaskFound = new Task(fakeTaskId, "UT Title", "UT Description", fakeTaskStartDate, null);
+        given(taskRepositoryMock.findById(any(UUID.class))).willReturn(Mono.just(fakeTaskFound));
+
+        // When
+        var result = taskService.findById(fakeTaskId);
+
+        // Then
+        StepVerifier.create(result)
+                    .expectNextCount(1)
+                    .verifyComplete();
+
+        assertEquals(1L, meterRegistry.get(TaskObservations.SERVICE_OBSERVATION)
+                                      .tag(TaskObservations.METHOD_KEY, "findById")
+                                      .timer()
+                                      .count());
+        assertEquals(1L, meterRegistry.get(TaskObservations.REPOSITORY_OBSERVATION)
+                                      .tag(TaskObservations.QUERY_KEY, "findById")
+                                      .timer()
+                                      .count());
+        assertEquals(1L, meterRegistry.get(TaskObservations.MAPPER_OBSERVATION)
+                                      .tag(TaskObservations.METHOD_KEY, "toTaskDTO")
+                                      .timer()
+                                      .count());
+    }
+
+    @Test
+    @DisplayName("GIVEN find batcher WHEN find a task by id THEN finds the task within a batch")
+    void FindBatcher_FindTaskById_FindsTheTaskWithinABatch() {
+        // Given
+        var findBatcherMock = mock(TaskFindBatcher.class);
+        var fakeTaskFound = new Task(fakeTaskId, "UT Title", "UT Description", fakeTaskStartDate, null);
+        given(findBatcherMock.findById(any(UUID.class))).willReturn(Mono.just(fakeTaskFound));
+
+        // When
+        var result = batchingTaskService(findBatcherMock).findById(fakeTaskId);
+
+        // Then
+        StepVerifier.create(result)
+                    .expectNextMatches(task -> fakeTaskId.equals(task.getId()))
+                    .verifyComplete();
+
+        then(findBatcherMock).should(times(1))
+                             .findById(fakeTaskId);
+        then(taskRepositoryMock).should(never())
+                                .findById(any(UUID.class));
+    }
+
+    @Test
+    @DisplayName("GIVEN find batcher And primary required WHEN find a task by id THEN finds the task with a query of its own")
+    void FindBatcherAndPrimaryRequired_FindTaskById_FindsTheTaskWithAQueryOfItsOwn() {
+        // Given
+        var findBatcherMock = mock(TaskFindBatcher.class);
+        var fakeTaskFound = new Task(fakeTaskId, "UT Title", "UT Description", fakeTaskStartDate, null);
+        given(taskRepositoryMock.findById(any(UUID.class))).willReturn(Mono.just(fakeTaskFound));
+
+        // When
+        var result = batchingTaskService(findBatcherMock).findById(fakeTaskId)
+                                                         .contextWrite(DatabaseRouting::primaryRequired);
+
+        // Then
+        StepVerifier.create(result)
+                    .expectNextMatches(task -> fakeTaskId.equals(task.getId()))
+                    .verifyComplete();
+
+        then(findBatcherMock).should(never())
+                             .findById(any(UUID.class));
+        then(taskRepositoryMock).should(times(1))
+                                .findById(fakeTaskId);
+    }
+
+    @Test
+    @DisplayName("GIVEN find batcher And request deadline WHEN find a task by id THEN finds the task with a query of its own")
+    void FindBatcherAndRequestDeadline_FindTaskById_FindsTheTaskWithAQueryOfItsOwn() {
+        // Given
+        var findBatcherMock = mock(TaskFindBatcher.class);
+        var fakeTaskFound = new Task(fakeTaskId, "UT Title", "UT Description", fakeTaskStartDate, null);
+        given(taskRepositoryMock.findById(any(UUID.class))).willReturn(Mono.just(fakeTaskFound));
+        var deadline = System.nanoTime() + Duration.ofSeconds(5)
+                                                   .toNanos();
+
+        // When
+        var result = batchingTaskService(findBatcherMock).findById(fakeTaskId)
+                                                         .contextWrite(context -> Deadlines.withDeadline(context, deadline));
+
+        // Then
+        StepVerifier.create(result)
+                    .expectNextMatches(task -> fakeTaskId.equals(task.getId()))
+                    .verifyComplete();
+
+        then(findBatcherMock).should(never())
+                             .findById(any(UUID.class));
+        then(taskRepositoryMock).should(times(1))
+                                .findById(fakeTaskId);
+    }
+
+    // findAllById
+    @Test
+    @DisplayName("GIVEN some ids do not exist WHEN find many tasks by id THEN finds the tasks with a single query And returns the result of each id in order")
+    void SomeIdsNotExist_FindAllTasksById_FindsTheTasksWithSingleQueryAndReturnsTheResultOfEachIdInOrder() {
+        // Given
+        var fakeTaskFound = new Task(fakeTaskId, "UT Title", "UT Description", fakeTaskStartDate, null);
+        given(taskRepositoryMock.findTasksByIds(anyCollection())).willReturn(Flux.just(fakeTaskFound));
+
+        // When
+        var notExistingTaskId = UUID.randomUUID();
+        var result = taskService.findAllById(List.of(notExistingTaskId, fakeTaskId, fakeTaskId));
+
+        // Then
+        var expectedTask = TaskDTO.builder()
+                                  .id(fakeTaskId)
+                                  .title("UT Title")
+                                  .description("UT Description")
+                                  .startDateTime(fakeTaskStartDate)
+                                  .build();
+        var expectedResult1 = TaskBatchResultDTO.builder()
+                                                .index(0)
+                                                .id(notExistingTaskId)
+                                                .status(TaskBatchResultStatus.NOT_FOUND)
+                                                .build();
+        var expectedResult2 = TaskBatchResultDTO.builder()
+                                                .index(1)
+                                                .id(fakeTaskId)
+                                                .status(TaskBatchResultStatus.FOUND)
+                                                .task(expectedTask)
+                                                .build();
+        var expectedResult3 = TaskBatchResultDTO.builder()
+                                                .index(2)
+                                                .id(fakeTaskId)
+                                                .status(TaskBatchResultStatus.FOUND)
+                                                .task(expectedTask)
+                                                .build();
+        StepVerifier.create(result)
+                    .expectNext(expectedResult1, expectedResult2, expectedResult3)
+                    .verifyComplete();
+
+        then(taskRepositoryMock).should(times(1))
+                                .findTasksByIds(Set.of(notExistingTaskId, fakeTaskId));
+    }
+
+    @Test
+    @DisplayName("GIVEN no ids WHEN find many tasks by id THEN does not query the tasks And returns empty")
+    void NoIds_FindAllTasksById_DoesNotQueryTheTasksAndReturnsEmpty() {
+        // When
+        var result = taskService.findAllById(List.of());
+
+        // Then
+        StepVerifier.create(result)
+                    .verifyComplete();
+
+        then(taskRepositoryMock).should(never())
+                                .findTasksByIds(anyCollection());
+    }
+
     // findAll
     @Test
     @DisplayName("GIVEN there are not tasks WHEN find all tasks THEN finds all tasks And returns empty")
@@ -137,9 +337,9 @@ class TaskServiceImpTests {
         var fakeTask3Id = UUID.randomUUID();
 
         // Given
-        var fakeTask1Found = new Task(fakeTask1Id, "UT Title 1", "UT Description 1", fakeTaskStartDate);
-        var fakeTask2Found = new Task(fakeTask2Id, "UT Title 2", "UT Description 2", fakeTaskStartDate);
-        var fakeTask3Found = new Task(fakeTask3Id, "UT Title 3", "UT Description 3", fakeTaskStartDate);
+        var fakeTask1Found = new Task(fakeTask1Id, "UT Title 1", "UT Description 1", fakeTaskStartDate, null);
+        var fakeTask2Found = new Task(fakeTask2Id, "UT Title 2", "UT Description 2", fakeTaskStartDate, null);
+        var fakeTask3Found = new Task(fakeTask3Id, "UT Title 3", "UT Description 3", fakeTaskStartDate, null);
         given(taskRepositoryMock.findAll()).willReturn(Flux.just(fakeTask1Found, fakeTask2Found, fakeTask3Found));
 
         // When
@@ -174,6 +374,292 @@ class TaskServiceImpTests {
                                 .findAll();
     }
 
+    @Test
+    @DisplayName("GIVEN many tasks WHEN find all tasks THEN observes one mapping out of each sampling interval")
+    void ManyTasks_FindAllTasks_ObservesOneMappingOutOfEachSamplingInterval() {
+        // Given
+        var meterRegistry = new SimpleMeterRegistry();
+        observationRegistry.observationConfig()
+                           .observationHandler(new DefaultMeterObservationHandler(meterRegistry));
+        given(taskRepositoryMock.findAll()).willReturn(Flux.range(0, TaskObservations.MAPPING_SAMPLING_INTERVAL + 1)
+                                                           .map(index -> new Task(UUID.randomUUID(), "UT Title " + index, null, null, null)));
+
+        // When
+        var result = taskService.findAll();
+
+        // Then
+        StepVerifier.create(result)
+                    .expectNextCount(TaskObservations.MAPPING_SAMPLING_INTERVAL + 1L)
+                    .verifyComplete();
+
+        assertEquals(2L, meterRegistry.get(TaskObservations.MAPPER_OBSERVATION)
+                                      .tag(TaskObservations.METHOD_KEY, "toTaskDTO")
+                                      .timer()
+                                      .count());
+    }
+
+    // findStats
+    @Test
+    @DisplayName("GIVEN there are tasks with and without start date WHEN find task statistics THEN counts the tasks with a single query And returns the total and the count of each bucket")
+    void ThereAreTasksWithAndWithoutStartDate_FindTaskStats_CountsTheTasksWithSingleQueryAndReturnsTheTotalAndTheCountOfEachBucket() {
+        // Given
+        var firstDay = fakeTaskStartDate.toLocalDate();
+        var secondDay = firstDay.plusDays(1);
+        given(taskRepositoryMock.countByStartDate(any(TaskStatsGranularity.class))).willReturn(Flux.just(new TaskStartDateCount(firstDay, 2L),
+                new TaskStartDateCount(secondDay, 1L), new TaskStartDateCount(null, 4L)));
+
+        // When
+        var result = taskService.findStats(TaskStatsGranularity.DAY);
+
+        // Then
+        var expectedStats = TaskStatsDTO.builder()
+                                        .total(7L)
+                                        .withoutStartDate(4L)
+                                        .buckets(List.of(TaskStatsBucketDTO.builder()
+                                                                           .startDate(firstDay)
+                                                                           .tasks(2L)
+                                                                           .build(),
+                                                TaskStatsBucketDTO.builder()
+                                                                  .startDate(secondDay)
+                                                                  .tasks(1L)
+                                                                  .build()))
+                                        .build();
+        StepVerifier.create(result)
+                    .expectNext(expectedStats)
+                    .verifyComplete();
+
+        then(taskRepositoryMock).should(times(1))
+                                .countByStartDate(TaskStatsGranularity.DAY);
+    }
+
+    @Test
+    @DisplayName("GIVEN there are not tasks WHEN find task statistics THEN returns zero tasks And no buckets")
+    void ThereAreNotTasks_FindTaskStats_ReturnsZeroTasksAndNoBuckets() {
+        // Given
+        given(taskRepositoryMock.countByStartDate(any(TaskStatsGranularity.class))).willReturn(Flux.empty());
+
+        // When
+        var result = taskService.findStats(TaskStatsGranularity.WEEK);
+
+        // Then
+        var expectedStats = TaskStatsDTO.builder()
+                                        .total(0L)
+                                        .withoutStartDate(0L)
+                                        .buckets(List.of())
+                                        .build();
+        StepVerifier.create(result)
+                    .expectNext(expectedStats)
+                    .verifyComplete();
+    }
+
+    // search
+    @Test
+    @DisplayName("GIVEN there are tasks matching the criteria WHEN search tasks THEN searches the tasks with the given criteria And returns the tasks found")
+    void ThereAreTasksMatchingTheCriteria_Search_SearchesTheTasksWithTheGivenCriteriaAndReturnsTheTasksFound() {
+        // Given
+        var fakeTaskFound = new Task(fakeTaskId, "UT Title", "UT Description", fakeTaskStartDate, null);
+        given(taskRepositoryMock.search(any(TaskSearchCriteria.class))).willReturn(Flux.just(fakeTaskFound));
+
+        // When
+        var criteria = new TaskSearchCriteria("UT", "title", fakeTaskStartDate.minusDays(1), fakeTaskStartDate.plusDays(1), TaskSearchSort.TITLE_DESC, 10);
+        var result = taskService.search(criteria);
+
+        // Then
+        var expectedTask = TaskDTO.builder()
+                                  .id(fakeTaskId)
+                                  .title("UT Title")
+                                  .description("UT Description")
+                                  .startDateTime(fakeTaskStartDate)
+                                  .build();
+        StepVerifier.create(result)
+                    .expectNext(expectedTask)
+                    .verifyComplete();
+
+        then(taskRepositoryMock).should(times(1))
+                                .search(criteria);
+    }
+
+    // searchText
+    @Test
+    @DisplayName("GIVEN continuation token is null And there are more matching tasks than the page size WHEN search tasks by text THEN finds the first page And returns the page with a continuation token")
+    void ContinuationTokenIsNullAndThereAreMoreMatchingTasks_SearchText_FindsTheFirstPageAndReturnsThePageWithContinuationToken() {
+        var fakeTask1Id = UUID.randomUUID();
+        var fakeTask2Id = UUID.randomUUID();
+
+        // Given
+        var fakeTask1Found = new RankedTask(new Task(fakeTask1Id, "UT Title 1", "UT Description 1", fakeTaskStartDate, null), 0.6f);
+        var fakeTask2Found = new RankedTask(new Task(fakeTask2Id, "UT Title 2", "UT Description 2", fakeTaskStartDate, null), 0.2f);
+        given(taskRepositoryMock.searchText(any(), isNull(), anyInt())).willReturn(Flux.just(fakeTask1Found, fakeTask2Found));
+
+        // When
+        var result = taskService.searchText("title", null, 1);
+
+        // Then
+        var expectedTask = TaskDTO.builder()
+                                  .id(fakeTask1Id)
+                                  .title("UT Title 1")
+                                  .description("UT Description 1")
+                                  .startDateTime(fakeTaskStartDate)
+                                  .build();
+        var expectedPage = TaskPageDTO.builder()
+                                      .tasks(List.of(expectedTask))
+                                      .continuationToken(new TaskTextSearchCursor(0.6f, fakeTask1Id).encode())
+                                      .build();
+        StepVerifier.create(result)
+                    .expectNext(expectedPage)
+                    .verifyComplete();
+
+        then(taskRepositoryMock).should(times(1))
+                                .searchText("title", null, 2);
+    }
+
+    @Test
+    @DisplayName("GIVEN continuation token is valid WHEN search tasks by text THEN finds the page after the token")
+    void ContinuationTokenIsValid_SearchText_FindsThePageAfterTheToken() {
+        // Given
+        given(taskRepositoryMock.searchText(any(), any(TaskTextSearchCursor.class), anyInt())).willReturn(Flux.empty());
+
+        // When
+        var cursor = new TaskTextSearchCursor(0.0607927f, fakeTaskId);
+        var result = taskService.searchText("title", cursor.encode(), 10);
+
+        // Then
+        var expectedPage = TaskPageDTO.builder()
+                                      .tasks(List.of())
+                                      .build();
+        StepVerifier.create(result)
+                    .expectNext(expectedPage)
+                    .verifyComplete();
+
+        then(taskRepositoryMock).should(times(1))
+                                .searchText("title", cursor, 11);
+    }
+
+    @Test
+    @DisplayName("GIVEN continuation token is not valid WHEN search tasks by text THEN does not search the tasks And returns an invalid continuation token error")
+    void ContinuationTokenIsNotValid_SearchText_DoesNotSearchTheTasksAndReturnsInvalidContinuationTokenError() {
+        // When
+        var result = taskService.searchText("title", "not-a-token", 10);
+
+        // Then
+        StepVerifier.create(result)
+                    .expectError(InvalidContinuationTokenException.class)
+                    .verify();
+
+        then(taskRepositoryMock).should(never())
+                                .searchText(any(), any(), anyInt());
+    }
+
+    // findPage
+    @Test
+    @DisplayName("GIVEN continuation token is null And there are more tasks than the page size WHEN find a page of tasks THEN finds the first page And returns the page with a continuation token")
+    void ContinuationTokenIsNullAndThereAreMoreTasks_FindPage_FindsTheFirstPageAndReturnsThePageWithContinuationToken() {
+        var fakeTask1Id = UUID.randomUUID();
+        var fakeTask2Id = UUID.randomUUID();
+        var fakeTask3Id = UUID.randomUUID();
+
+        // Given
+        var fakeTask1Found = new Task(fakeTask1Id, "UT Title 1", "UT Description 1", fakeTaskStartDate, null);
+        var fakeTask2Found = new Task(fakeTask2Id, "UT Title 2", "UT Description 2", fakeTaskStartDate, null);
+        var fakeTask3Found = new Task(fakeTask3Id, "UT Title 3", "UT Description 3", fakeTaskStartDate, null);
+        given(taskRepositoryMock.findPage(isNull(), anyInt())).willReturn(Flux.just(fakeTask1Found, fakeTask2Found, fakeTask3Found));
+
+        // When
+        var result = taskService.findPage(null, 2);
+
+        // Then
+        var expectedTask1 = TaskDTO.builder()
+                                   .id(fakeTask1Id)
+                                   .title("UT Title 1")
+                                   .description("UT Description 1")
+                                   .startDateTime(fakeTaskStartDate)
+                                   .build();
+        var expectedTask2 = TaskDTO.builder()
+                                   .id(fakeTask2Id)
+                                   .title("UT Title 2")
+                                   .description("UT Description 2")
+                                   .startDateTime(fakeTaskStartDate)
+                                   .build();
+        var expectedPage = TaskPageDTO.builder()
+                                      .tasks(List.of(expectedTask1, expectedTask2))
+                                      .continuationToken(new TaskPageCursor(fakeTaskStartDate, fakeTask2Id).encode())
+                                      .build();
+        StepVerifier.create(result)
+                    .expectNext(expectedPage)
+                    .verifyComplete();
+
+        then(taskRepositoryMock).should(times(1))
+                                .findPage(null, 3);
+    }
+
+    @Test
+    @DisplayName("GIVEN continuation token is valid And there are not more tasks than the page size WHEN find a page of tasks THEN finds the page after the token And returns the page without continuation token")
+    void ContinuationTokenIsValidAndThereAreNotMoreTasks_FindPage_FindsThePageAfterTheTokenAndReturnsThePageWithoutContinuationToken() {
+        // Given
+        var fakeTaskFound = new Task(fakeTaskId, "UT Title", "UT Description", null, null);
+        given(taskRepositoryMock.findPage(any(TaskPageCursor.class), anyInt())).willReturn(Flux.just(fakeTaskFound));
+
+        // When
+        var cursor = new TaskPageCursor(fakeTaskStartDate, UUID.randomUUID());
+        var result = taskService.findPage(cursor.encode(), 2);
+
+        // Then
+        var expectedTask = TaskDTO.builder()
+                                  .id(fakeTaskId)
+                                  .title("UT Title")
+                                  .description("UT Description")
+                                  .build();
+        var expectedPage = TaskPageDTO.builder()
+                                      .tasks(List.of(expectedTask))
+                                      .build();
+        StepVerifier.create(result)
+                    .expectNext(expectedPage)
+                    .verifyComplete();
+
+        then(taskRepositoryMock).should(times(1))
+                                .findPage(cursor, 3);
+    }
+
+    @Test
+    @DisplayName("GIVEN continuation token is not valid WHEN find a page of tasks THEN does not find any task And returns an error")
+    void ContinuationTokenIsNotValid_FindPage_DoesNotFindAnyTaskAndReturnsError() {
+        // When
+        var result = taskService.findPage("not-a-token", 2);
+
+        // Then
+        StepVerifier.create(result)
+                    .verifyError(InvalidContinuationTokenException.class);
+
+        then(taskRepositoryMock).should(never())
+                                .findPage(any(), anyInt());
+    }
+
+    // streamAll
+    @Test
+    @DisplayName("GIVEN there are tasks WHEN stream all tasks THEN streams all tasks And returns all tasks found")
+    void ThereAreTasks_StreamAllTasks_StreamsAllTasksAndReturnsAllTasksFound() {
+        // Given
+        var fakeTaskFound = new Task(fakeTaskId, "UT Title", "UT Description", fakeTaskStartDate, null);
+        given(taskRepositoryMock.streamAll()).willReturn(Flux.just(fakeTaskFound));
+
+        // When
+        var result = taskService.streamAll();
+
+        // Then
+        var expectedTask = TaskDTO.builder()
+                                  .id(fakeTaskId)
+                                  .title("UT Title")
+                                  .description("UT Description")
+                                  .startDateTime(fakeTaskStartDate)
+                                  .build();
+        StepVerifier.create(result)
+                    .expectNext(expectedTask)
+                    .verifyComplete();
+
+        then(taskRepositoryMock).should(times(1))
+                                .streamAll();
+    }
+
     // Create
     @Test
     @DisplayName("GIVEN task id is not null WHEN create a task THEN creates the task ignoring the given task id And returns the task created with a new id")
@@ -181,7 +667,7 @@ class TaskServiceImpTests {
         var anotherFakeTaskId = UUID.randomUUID();
 
         // Given
-        var fakeTaskCreated = new Task(anotherFakeTaskId, "UT Title", "UT Description", fakeTaskStartDate);
+        var fakeTaskCreated = new Task(anotherFakeTaskId, "UT Title", "UT Description", fakeTaskStartDate, null);
         given(taskRepositoryMock.save(any(Task.class))).willReturn(Mono.just(fakeTaskCreated));
 
         // When
@@ -215,7 +701,7 @@ class TaskServiceImpTests {
     @DisplayName("GIVEN task id is null WHEN create a task THEN creates the task And returns the task created with a new id")
     void TaskIdIsNull_CreateTask_CreatesTheTaskAndReturnsTheTaskCreated() {
         // Given
-        var fakeTaskCreated = new Task(fakeTaskId, "UT Title", "UT Description", fakeTaskStartDate);
+        var fakeTaskCreated = new Task(fakeTaskId, "UT Title", "UT Description", fakeTaskStartDate, null);
         given(taskRepositoryMock.save(any(Task.class))).willReturn(Mono.just(fakeTaskCreated));
 
         // When
@@ -243,6 +729,29 @@ class TaskServiceImpTests {
                                 .save(taskArgumentCaptor.capture());
         Task taskArgument = taskArgumentCaptor.getValue();
         assertNull(taskArgument.id());
+        then(taskOutboxRepositoryMock).should(times(1))
+                                      .append(TaskChangeOperation.CREATED, List.of(fakeTaskId));
+    }
+
+    @Test
+    @DisplayName("GIVEN outbox fails WHEN create a task THEN returns the error of the outbox")
+    void OutboxFails_CreateTask_ReturnsTheErrorOfTheOutbox() {
+        // Given
+        var fakeTaskCreated = new Task(fakeTaskId, "UT Title", null, null, 0L);
+        given(taskRepositoryMock.save(any(Task.class))).willReturn(Mono.just(fakeTaskCreated));
+        given(taskOutboxRepositoryMock.append(any(TaskChangeOperation.class), anyCollection())).willReturn(Mono.error(new IllegalStateException(
+                "UT outbox failure")));
+
+        // When
+        var taskToCreate = TaskDTO.builder()
+                                  .title("UT Title")
+                                  .build();
+        var result = taskService.create(taskToCreate);
+
+        // Then
+        StepVerifier.create(result)
+                    .expectErrorMessage("UT outbox failure")
+                    .verify();
     }
 
     // Update
@@ -250,7 +759,7 @@ class TaskServiceImpTests {
     @DisplayName("GIVEN id does not exists And task id is not null WHEN update a task THEN does not update the task And returns empty")
     void IdNotExistsAndTaskIdIsNotNull_UpdateTask_DoesNotUpdateTheTaskAndReturnsEmpty() {
         // Given
-        given(taskRepositoryMock.existsById(any(UUID.class))).willReturn(Mono.just(false));
+        given(taskRepositoryMock.updateTask(any(Task.class))).willReturn(Mono.empty());
 
         // When
         var idToUpdate = fakeTaskId;
@@ -274,7 +783,7 @@ class TaskServiceImpTests {
     @DisplayName("GIVEN id does not exists And task id is null WHEN update a task THEN does not update the task And returns empty")
     void IdNotExistsAndTaskIdIsNull_UpdateTask_DoesNotUpdateTheTaskAndReturnsEmpty() {
         // Given
-        given(taskRepositoryMock.existsById(any(UUID.class))).willReturn(Mono.just(false));
+        given(taskRepositoryMock.updateTask(any(Task.class))).willReturn(Mono.empty());
 
         // When
         var idToUpdate = fakeTaskId;
@@ -295,13 +804,62 @@ class TaskServiceImpTests {
     }
 
     @Test
-    @DisplayName("GIVEN id exists And task id is not null WHEN update a task THEN updates all fields of the task except the id And Returns the task updated with the new values")
-    void IdExistsAndTaskIdIsNotNull_UpdateTask_UpdatesAllFieldsExceptTheIdAndReturnsTheTaskUpdated() {
+    @DisplayName("GIVEN id exists with another version WHEN update a task with version THEN does not update the task And returns a version mismatch error")
+    void IdExistsWithAnotherVersion_UpdateTaskWithVersion_DoesNotUpdateTheTaskAndReturnsVersionMismatchError() {
         // Given
+        given(taskRepositoryMock.updateTask(any(Task.class))).willReturn(Mono.empty());
         given(taskRepositoryMock.existsById(any(UUID.class))).willReturn(Mono.just(true));
 
-        var fakeTaskUpdated = new Task(fakeTaskId, "UT Title 2", "UT Description 2", fakeTaskStartDate);
-        given(taskRepositoryMock.save(any(Task.class))).willReturn(Mono.just(fakeTaskUpdated));
+        // When
+        var taskToUpdate = TaskDTO.builder()
+                                  .title("UT Title")
+                                  .version(1L)
+                                  .build();
+        var result = taskService.update(fakeTaskId, taskToUpdate);
+
+        // Then
+        StepVerifier.create(result)
+                    .expectError(VersionMismatchException.class)
+                    .verify();
+
+        then(taskRepositoryMock).should(times(1))
+                                .updateTask(new Task(fakeTaskId, "UT Title", null, null, 1L));
+    }
+
+    @Test
+    @DisplayName("GIVEN task has version WHEN upsert a task THEN updates the task with version And does not upsert it")
+    void TaskHasVersion_UpsertTask_UpdatesTheTaskWithVersionAndDoesNotUpsertIt() {
+        // Given
+        var fakeTaskUpdated = new Task(fakeTaskId, "UT Title", null, null, 2L);
+        given(taskRepositoryMock.updateTask(any(Task.class))).willReturn(Mono.just(fakeTaskUpdated));
+
+        // When
+        var taskToUpsert = TaskDTO.builder()
+                                  .title("UT Title")
+                                  .version(1L)
+                                  .build();
+        var result = taskService.upsert(fakeTaskId, taskToUpsert);
+
+        // Then
+        var expectedTask = TaskDTO.builder()
+                                  .id(fakeTaskId)
+                                  .title("UT Title")
+                                  .version(2L)
+                                  .build();
+        StepVerifier.create(result)
+                    .expectNext(expectedTask)
+                    .verifyComplete();
+
+        then(taskRepositoryMock).should(never())
+                                .upsertTask(any(Task.class));
+    }
+
+    @Test
+    @DisplayName("GIVEN id exists And task id is not null WHEN update a task THEN updates all fields of the task except the id And Returns the task updated with the new values")
+    void IdExistsAndTaskIdIsNotNull_UpdateTask_UpdatesAllFieldsExceptTheIdAndReturnsTheTaskUpdated() {
+        // Given
+        var fakeTaskUpdated = new Task(fakeTaskId, "UT Title 2", "UT Description 2", fakeTaskStartDate, null);
+        given(taskRepositoryMock.updateTask(any(Task.class))).willReturn(Mono.just(fakeTaskUpdated));
 
         // When
         var idToUpdate = fakeTaskId;
@@ -326,7 +884,7 @@ class TaskServiceImpTests {
 
         ArgumentCaptor<Task> taskArgumentCaptor = ArgumentCaptor.forClass(Task.class);
         then(taskRepositoryMock).should(times(1))
-                                .save(taskArgumentCaptor.capture());
+                                .updateTask(taskArgumentCaptor.capture());
         Task taskArgument = taskArgumentCaptor.getValue();
         assertEquals(idToUpdate, taskArgument.id());
     }
@@ -335,10 +893,8 @@ class TaskServiceImpTests {
     @DisplayName("GIVEN id exists And task id is null WHEN update a task THEN updates all fields of the task except the id And Returns the task updated with the new values")
     void IdExistsAndTaskIdIsNull_UpdateTask_UpdatesAllFieldsExceptTheIdAndReturnsTheTaskUpdated() {
         // Given
-        given(taskRepositoryMock.existsById(any(UUID.class))).willReturn(Mono.just(true));
-
-        var fakeTaskUpdated = new Task(fakeTaskId, "UT Title 2", "UT Description 2", fakeTaskStartDate);
-        given(taskRepositoryMock.save(any(Task.class))).willReturn(Mono.just(fakeTaskUpdated));
+        var fakeTaskUpdated = new Task(fakeTaskId, "UT Title 2", "UT Description 2", fakeTaskStartDate, null);
+        given(taskRepositoryMock.updateTask(any(Task.class))).willReturn(Mono.just(fakeTaskUpdated));
 
         // When
         var idToUpdate = fakeTaskId;
@@ -363,11 +919,64 @@ class TaskServiceImpTests {
 
         ArgumentCaptor<Task> taskArgumentCaptor = ArgumentCaptor.forClass(Task.class);
         then(taskRepositoryMock).should(times(1))
-                                .save(taskArgumentCaptor.capture());
+                                .updateTask(taskArgumentCaptor.capture());
         Task taskArgument = taskArgumentCaptor.getValue();
         assertEquals(idToUpdate, taskArgument.id());
     }
 
+    // upsert
+    @Test
+    @DisplayName("GIVEN task id is not null WHEN upsert a task THEN upserts the task with the given id ignoring the task id And returns the task upserted")
+    void TaskIdIsNotNull_UpsertTask_UpsertsTheTaskWithTheGivenIdAndReturnsTheTaskUpserted() {
+        // Given
+        var fakeTaskUpserted = new Task(fakeTaskId, "UT Title", null, null, null);
+        given(taskRepositoryMock.upsertTask(any(Task.class))).willReturn(Mono.just(fakeTaskUpserted));
+
+        // When
+        var idToUpsert = fakeTaskId;
+        var taskToUpsert = TaskDTO.builder()
+                                  .id(UUID.randomUUID())
+                                  .title("UT Title")
+                                  .build();
+        var result = taskService.upsert(idToUpsert, taskToUpsert);
+
+        // Then
+        var expectedTask = TaskDTO.builder()
+                                  .id(fakeTaskId)
+                                  .title("UT Title")
+                                  .build();
+        StepVerifier.create(result)
+                    .expectNext(expectedTask)
+                    .verifyComplete();
+
+        then(taskRepositoryMock).should(times(1))
+                                .upsertTask(fakeTaskUpserted);
+        then(taskOutboxRepositoryMock).should(times(1))
+                                      .append(TaskChangeOperation.UPDATED, List.of(fakeTaskId));
+    }
+
+    @Test
+    @DisplayName("GIVEN id does not exists WHEN upsert a task THEN inserts the task And records its creation in the outbox")
+    void IdNotExists_UpsertTask_InsertsTheTaskAndRecordsItsCreationInTheOutbox() {
+        // Given
+        var fakeTaskInserted = new Task(fakeTaskId, "UT Title", null, null, 0L);
+        given(taskRepositoryMock.upsertTask(any(Task.class))).willReturn(Mono.just(fakeTaskInserted));
+
+        // When
+        var taskToUpsert = TaskDTO.builder()
+                                  .title("UT Title")
+                                  .build();
+        var result = taskService.upsert(fakeTaskId, taskToUpsert);
+
+        // Then
+        StepVerifier.create(result)
+                    .expectNextCount(1)
+                    .verifyComplete();
+
+        then(taskOutboxRepositoryMock).should(times(1))
+                                      .append(TaskChangeOperation.CREATED, List.of(fakeTaskId));
+    }
+
     // Delete
     @Test
     @DisplayName("GIVEN id does not exists WHEN delete a task by id THEN does not delete any task And returns false")
@@ -377,7 +986,7 @@ class TaskServiceImpTests {
 
         // When
         var idToDelete = fakeTaskId;
-        var result = taskService.deleteById(idToDelete);
+        var result = taskService.deleteById(idToDelete, null);
 
         // Then
         StepVerifier.create(result)
@@ -386,6 +995,8 @@ class TaskServiceImpTests {
 
         then(taskRepositoryMock).should(times(1))
                                 .deleteTaskById(idToDelete);
+        then(taskOutboxRepositoryMock).should(never())
+                                      .append(any(TaskChangeOperation.class), anyCollection());
     }
 
     @Test
@@ -396,7 +1007,7 @@ class TaskServiceImpTests {
 
         // When
         var idToDelete = fakeTaskId;
-        var result = taskService.deleteById(idToDelete);
+        var result = taskService.deleteById(idToDelete, null);
 
         // Then
         StepVerifier.create(result)
@@ -405,6 +1016,243 @@ class TaskServiceImpTests {
 
         then(taskRepositoryMock).should(times(1))
                                 .deleteTaskById(idToDelete);
+        then(taskOutboxRepositoryMock).should(times(1))
+                                      .append(TaskChangeOperation.DELETED, List.of(idToDelete));
+    }
+
+    @Test
+    @DisplayName("GIVEN id exists with another version WHEN delete a task by id and version THEN does not delete the task And returns a version mismatch error")
+    void IdExistsWithAnotherVersion_DeleteTaskByIdAndVersion_DoesNotDeleteTheTaskAndReturnsVersionMismatchError() {
+        // Given
+        given(taskRepositoryMock.deleteTaskByIdAndVersion(any(UUID.class), any())).willReturn(Mono.just(0L));
+        given(taskRepositoryMock.existsById(any(UUID.class))).willReturn(Mono.just(true));
+
+        // When
+        var result = taskService.deleteById(fakeTaskId, 1L);
+
+        // Then
+        StepVerifier.create(result)
+                    .expectError(VersionMismatchException.class)
+                    .verify();
+
+        then(taskRepositoryMock).should(times(1))
+                                .deleteTaskByIdAndVersion(fakeTaskId, 1L);
+        then(taskRepositoryMock).should(never())
+                                .deleteTaskById(any(UUID.class));
+    }
+
+    @Test
+    @DisplayName("GIVEN id not exists WHEN delete a task by id and version THEN does not delete any task And returns false")
+    void IdNotExists_DeleteTaskByIdAndVersion_DoesNotDeleteAnyTaskAndReturnsFalse() {
+        // Given
+        given(taskRepositoryMock.deleteTaskByIdAndVersion(any(UUID.class), any())).willReturn(Mono.just(0L));
+        given(taskRepositoryMock.existsById(any(UUID.class))).willReturn(Mono.just(false));
+
+        // When
+        var result = taskService.deleteById(fakeTaskId, 1L);
+
+        // Then
+        StepVerifier.create(result)
+                    .expectNext(false)
+                    .verifyComplete();
+    }
+
+    // createAll
+    @Test
+    @DisplayName("GIVEN some tasks are not valid WHEN create many tasks THEN creates the valid tasks with a single statement And returns the result of each task in order")
+    void SomeTasksAreNotValid_CreateAllTasks_CreatesTheValidTasksAndReturnsTheResultOfEachTaskInOrder() {
+        // Given
+        given(taskRepositoryMock.insertTasks(anyList())).willAnswer(invocation -> Flux.fromIterable(invocation.<List<Task>> getArgument(0)));
+
+        // When
+        var taskToCreate1 = TaskDTO.builder()
+                                   .title("UT Title 1")
+                                   .startDateTime(fakeTaskStartDate)
+                                   .build();
+        var taskToCreate2 = TaskDTO.builder()
+                                   .title(" ")
+                                   .build();
+        var taskToCreate3 = TaskDTO.builder()
+                                   .id(fakeTaskId)
+                                   .title("UT Title 3")
+                                   .build();
+        var result = taskService.createAll(Flux.just(taskToCreate1, taskToCreate2, taskToCreate3));
+
+        // Then
+        StepVerifier.create(result)
+                    .assertNext(taskResult -> {
+                        assertEquals(0L, taskResult.getIndex());
+                        assertEquals(TaskBatchResultStatus.CREATED, taskResult.getStatus());
+                        assertEquals(taskResult.getId(), taskResult.getTask()
+                                                                   .getId());
+                        assertEquals("UT Title 1", taskResult.getTask()
+                                                             .getTitle());
+                        assertEquals(fakeTaskStartDate, taskResult.getTask()
+                                                                  .getStartDateTime());
+                    })
+                    .assertNext(taskResult -> {
+                        assertEquals(1L, taskResult.getIndex());
+                        assertEquals(TaskBatchResultStatus.INVALID, taskResult.getStatus());
+                        assertNull(taskResult.getTask());
+                        assertEquals(1, taskResult.getErrors()
+                                                  .size());
+                        assertInvalidRequestParameter("title", "The title of the task is mandatory", taskResult.getErrors()
+                                                                                                              .get(0));
+                    })
+                    .assertNext(taskResult -> {
+                        assertEquals(2L, taskResult.getIndex());
+                        assertEquals(TaskBatchResultStatus.CREATED, taskResult.getStatus());
+                        assertNotEquals(fakeTaskId, taskResult.getId());
+                    })
+                    .verifyComplete();
+
+        then(taskRepositoryMock).should(times(1))
+                                .insertTasks(anyList());
+    }
+
+    @Test
+    @DisplayName("GIVEN all tasks are not valid WHEN create many tasks THEN does not create any task And returns the errors of each task")
+    void AllTasksAreNotValid_CreateAllTasks_DoesNotCreateAnyTaskAndReturnsTheErrorsOfEachTask() {
+        // When
+        var taskToCreate = TaskDTO.builder()
+                                  .build();
+        var result = taskService.createAll(Flux.just(taskToCreate));
+
+        // Then
+        StepVerifier.create(result)
+                    .assertNext(taskResult -> assertEquals(TaskBatchResultStatus.INVALID, taskResult.getStatus()))
+                    .verifyComplete();
+
+        then(taskRepositoryMock).should(never())
+                                .insertTasks(anyList());
+    }
+
+    // updateAll
+    @Test
+    @DisplayName("GIVEN some tasks do not exist or have not id WHEN update many tasks THEN updates the existing tasks with a single statement And returns the result of each task in order")
+    void SomeTasksNotExistOrHaveNotId_UpdateAllTasks_UpdatesTheExistingTasksAndReturnsTheResultOfEachTaskInOrder() {
+        // Given
+        var fakeTaskUpdated = new Task(fakeTaskId, "UT Title 1", null, null, null);
+        given(taskRepositoryMock.updateTasks(anyList())).willReturn(Flux.just(fakeTaskUpdated));
+
+        // When
+        var notExistingTaskId = UUID.randomUUID();
+        var taskToUpdate1 = TaskDTO.builder()
+                                   .id(fakeTaskId)
+                                   .title("UT Title 1")
+                                   .build();
+        var taskToUpdate2 = TaskDTO.builder()
+                                   .id(notExistingTaskId)
+                                   .title("UT Title 2")
+                                   .build();
+        var taskToUpdate3 = TaskDTO.builder()
+                                   .title("UT Title 3")
+                                   .build();
+        var result = taskService.updateAll(Flux.just(taskToUpdate1, taskToUpdate2, taskToUpdate3));
+
+        // Then
+        var expectedResult1 = TaskBatchResultDTO.builder()
+                                                .index(0)
+                                                .id(fakeTaskId)
+                                                .status(TaskBatchResultStatus.UPDATED)
+                                                .task(TaskDTO.builder()
+                                                             .id(fakeTaskId)
+                                                             .title("UT Title 1")
+                                                             .build())
+                                                .build();
+        var expectedResult2 = TaskBatchResultDTO.builder()
+                                                .index(1)
+                                                .id(notExistingTaskId)
+                                                .status(TaskBatchResultStatus.NOT_FOUND)
+                                                .build();
+        StepVerifier.create(result)
+                    .expectNext(expectedResult1, expectedResult2)
+                    .assertNext(taskResult -> {
+                        assertEquals(2L, taskResult.getIndex());
+                        assertEquals(TaskBatchResultStatus.INVALID, taskResult.getStatus());
+                        assertEquals(1, taskResult.getErrors()
+                                                  .size());
+                        assertInvalidRequestParameter("id", "The id of the task is mandatory", taskResult.getErrors()
+                                                                                                         .get(0));
+                    })
+                    .verifyComplete();
+
+        then(taskRepositoryMock).should(times(1))
+                                .updateTasks(List.of(new Task(fakeTaskId, "UT Title 1", null, null, null), new Task(notExistingTaskId, "UT Title 2", null, null, null)));
+    }
+
+    @Test
+    @DisplayName("GIVEN two tasks with the same id WHEN update many tasks THEN updates the first task And rejects the second one as invalid")
+    void TwoTasksWithSameId_UpdateAllTasks_UpdatesTheFirstTaskAndRejectsTheSecondOneAsInvalid() {
+        // Given
+        var fakeTaskUpdated = new Task(fakeTaskId, "UT Title 1", null, null, null);
+        given(taskRepositoryMock.updateTasks(anyList())).willReturn(Flux.just(fakeTaskUpdated));
+
+        // When
+        var taskToUpdate1 = TaskDTO.builder()
+                                   .id(fakeTaskId)
+                                   .title("UT Title 1")
+                                   .build();
+        var taskToUpdate2 = TaskDTO.builder()
+                                   .id(fakeTaskId)
+                                   .title("UT Title 2")
+                                   .build();
+        var result = taskService.updateAll(Flux.just(taskToUpdate1, taskToUpdate2));
+
+        // Then
+        StepVerifier.create(result)
+                    .assertNext(taskResult -> assertEquals(TaskBatchResultStatus.UPDATED, taskResult.getStatus()))
+                    .assertNext(taskResult -> {
+                        assertEquals(1L, taskResult.getIndex());
+                        assertEquals(TaskBatchResultStatus.INVALID, taskResult.getStatus());
+                        assertInvalidRequestParameter("id", "The task is already written by an earlier item of the batch", taskResult.getErrors()
+                                                                                                                                   .get(0));
+                    })
+                    .verifyComplete();
+
+        then(taskRepositoryMock).should(times(1))
+                                .updateTasks(List.of(new Task(fakeTaskId, "UT Title 1", null, null, null)));
+    }
+
+    // deleteAllById
+    @Test
+    @DisplayName("GIVEN some ids do not exist WHEN delete many tasks by id THEN deletes the existing tasks with a single statement And returns the result of each id in order")
+    void SomeIdsNotExist_DeleteAllTasksById_DeletesTheExistingTasksAndReturnsTheResultOfEachIdInOrder() {
+        // Given
+        given(taskRepositoryMock.deleteTasksByIds(anyCollection())).willReturn(Flux.just(fakeTaskId));
+
+        // When
+        var notExistingTaskId = UUID.randomUUID();
+        var result = taskService.deleteAllById(Flux.just(notExistingTaskId, fakeTaskId));
+
+        // Then
+        var expectedResult1 = TaskBatchResultDTO.builder()
+                                                .index(0)
+                                                .id(notExistingTaskId)
+                                                .status(TaskBatchResultStatus.NOT_FOUND)
+                                                .build();
+        var expectedResult2 = TaskBatchResultDTO.builder()
+                                                .index(1)
+                                                .id(fakeTaskId)
+                                                .status(TaskBatchResultStatus.DELETED)
+                                                .build();
+        StepVerifier.create(result)
+                    .expectNext(expectedResult1, expectedResult2)
+                    .verifyComplete();
+
+        then(taskRepositoryMock).should(times(1))
+                                .deleteTasksByIds(anyCollection());
+    }
+
+    private static void assertInvalidRequestParameter(String expectedField, String expectedMessage, InvalidRequestParameterDTO actual) {
+        assertEquals("taskDTO", actual.getEntity());
+        assertEquals(expectedField, actual.getField());
+        assertEquals(expectedMessage, actual.getMessage());
+    }
+
+    private TaskServiceImpl batchingTaskService(TaskFindBatcher findBatcher) {
+        return new TaskServiceImpl(taskMapperSpy, taskRepositoryMock, taskOutboxRepositoryMock, transactionalOperator, validatorSpy, observationRegistry,
+                taskTimeouts, findBatcher);
     }
 
 }
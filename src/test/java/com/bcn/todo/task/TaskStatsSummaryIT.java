@@ -0,0 +1,111 @@
+/**
+* Copyright 2023 the original author or authors.
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*     http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+*/
+package com.bcn.todo.task;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.data.r2dbc.DataR2dbcTest;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import org.testcontainers.utility.DockerImageName;
+
+import reactor.test.StepVerifier;
+
+@Testcontainers(disabledWithoutDocker = true)
+@DataR2dbcTest(properties = "todo.task.stats.summary.enabled=true")
+class TaskStatsSummaryIT {
+
+    @Container
+    @ServiceConnection
+    static PostgreSQLContainer<?> postgreSQLContainer = new PostgreSQLContainer<>(DockerImageName.parse("postgres:latest"));
+
+    @Autowired
+    private TaskRepository taskRepository;
+
+    @Autowired
+    private DatabaseClient databaseClient;
+
+    @BeforeEach
+    void beforeEach() {
+        taskRepository.deleteAll()
+                      .block();
+    }
+
+    @Test
+    @DisplayName("GIVEN tasks are inserted, updated and deleted WHEN read the summary of tasks by start day THEN returns the current count of each start day")
+    void TasksAreInsertedUpdatedAndDeleted_ReadSummaryByStartDay_ReturnsTheCurrentCountOfEachStartDay() {
+        // Given
+        var day = LocalDateTime.of(2026, 10, 12, 9, 0);
+        var savedTasks = taskRepository.insertTasks(List.of(new Task(UUID.randomUUID(), "Title Test 1", null, day, null),
+                new Task(UUID.randomUUID(), "Title Test 2", null, day, null), new Task(UUID.randomUUID(), "Title Test 3", null, null, null)))
+                                       .collectList()
+                                       .block();
+
+        Assertions.assertNotNull(savedTasks);
+
+        taskRepository.updateTask(new Task(savedTasks.get(0)
+                                                     .id(), "Title Test 1", null, day.plusDays(1), null))
+                      .block();
+        taskRepository.deleteTasksByIds(List.of(savedTasks.get(2)
+                                                          .id()))
+                      .blockLast();
+
+        // When
+        var result = databaseClient.sql("SELECT start_day, tasks FROM task_start_day_count WHERE tasks > 0 ORDER BY start_day")
+                                   .map(row -> new TaskStartDateCount(row.get("start_day", LocalDate.class), row.get("tasks", Long.class)))
+                                   .all();
+
+        // Then
+        StepVerifier.create(result)
+                    .expectNext(new TaskStartDateCount(day.toLocalDate(), 1L))
+                    .expectNext(new TaskStartDateCount(day.toLocalDate()
+                                                          .plusDays(1), 1L))
+                    .verifyComplete();
+    }
+
+    @Test
+    @DisplayName("GIVEN there are tasks with and without start date WHEN count tasks by week of start date THEN returns the count of each week from the summary")
+    void ThereAreTasksWithAndWithoutStartDate_CountByWeekOfStartDate_ReturnsTheCountOfEachWeekFromTheSummary() {
+        // Given
+        var monday = LocalDateTime.of(2026, 10, 12, 9, 0);
+        taskRepository.saveAll(List.of(new Task(null, "Title Test 1", null, monday, null), new Task(null, "Title Test 2", null, monday.plusDays(6), null),
+                new Task(null, "Title Test 3", null, monday.plusDays(7), null), new Task(null, "Title Test 4", null, null, null)))
+                      .blockLast();
+
+        // When
+        var result = taskRepository.countByStartDate(TaskStatsGranularity.WEEK);
+
+        // Then
+        StepVerifier.create(result)
+                    .expectNext(new TaskStartDateCount(monday.toLocalDate(), 2L))
+                    .expectNext(new TaskStartDateCount(monday.toLocalDate()
+                                                             .plusDays(7), 1L))
+                    .expectNext(new TaskStartDateCount(null, 1L))
+                    .verifyComplete();
+    }
+
+}
@@ -0,0 +1,165 @@
+/**
+* Copyright 2023 the original author or authors.
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*     http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+*/
+package com.bcn.todo.task;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import com.bcn.todo.deadline.Deadlines;
+import com.bcn.todo.deadline.QueryCancellation;
+import com.bcn.todo.error.OperationTimeoutException;
+
+@ExtendWith(SpringExtension.class)
+class TaskTimeoutsTests {
+
+    private SimpleMeterRegistry meterRegistry;
+
+    private TaskTimeouts taskTimeouts;
+
+    private AtomicReference<QueryCancellation> cancellation;
+
+    @BeforeEach
+    void beforeEach() {
+        this.meterRegistry = new SimpleMeterRegistry();
+        this.taskTimeouts = new TaskTimeouts(Duration.ofMillis(100), Map.of("find-by-id", Duration.ofSeconds(10), "stream-all", Duration.ZERO), meterRegistry);
+        this.cancellation = new AtomicReference<>();
+    }
+
+    // getTimeout
+    @Test
+    @DisplayName("GIVEN timeouts keyed by dashed names WHEN get the timeout of a method THEN returns its own timeout or else the default one")
+    void TimeoutsKeyedByDashedNames_GetTimeoutOfMethod_ReturnsItsOwnTimeoutOrElseTheDefaultOne() {
+        // When & Then
+        assertThat(taskTimeouts.getTimeout("findById")).isEqualTo(Duration.ofSeconds(10));
+        assertThat(taskTimeouts.getTimeout("streamAll")).isZero();
+        assertThat(taskTimeouts.getTimeout("create")).isEqualTo(Duration.ofMillis(100));
+    }
+
+    // limit
+    @Test
+    @DisplayName("GIVEN method slower than its timeout WHEN limit the method THEN fails with timeout And cancels its queries And counts the timeout")
+    void MethodSlowerThanItsTimeout_LimitMethod_FailsWithTimeoutAndCancelsItsQueriesAndCountsTheTimeout() {
+        // When
+        var result = taskTimeouts.limit("create", neverCompleting());
+
+        // Then
+        StepVerifier.create(result)
+                    .expectError(OperationTimeoutException.class)
+                    .verify(Duration.ofSeconds(5));
+        assertThat(cancellation.get()
+                               .isCancelled()).isTrue();
+        assertThat(meterRegistry.get(TaskTimeouts.TIMEOUTS_COUNTER)
+                                .tag(TaskTimeouts.METHOD_KEY, "create")
+                                .counter()
+                                .count()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("GIVEN deadline sooner than the method timeout WHEN limit the method THEN fails with timeout at the deadline")
+    void DeadlineSoonerThanMethodTimeout_LimitMethod_FailsWithTimeoutAtTheDeadline() {
+        // When
+        var result = taskTimeouts.limit("findById", neverCompleting())
+                                 .contextWrite(context -> Deadlines.withDeadline(context, System.nanoTime() + Duration.ofMillis(50)
+                                                                                                                 .toNanos()));
+
+        // Then
+        StepVerifier.create(result)
+                    .expectError(OperationTimeoutException.class)
+                    .verify(Duration.ofSeconds(5));
+    }
+
+    @Test
+    @DisplayName("GIVEN deadline passed WHEN limit the method THEN fails with timeout without subscribing to the method")
+    void DeadlinePassed_LimitMethod_FailsWithTimeoutWithoutSubscribingToTheMethod() {
+        // When
+        var result = taskTimeouts.limit("findById", neverCompleting())
+                                 .contextWrite(context -> Deadlines.withDeadline(context, System.nanoTime()));
+
+        // Then
+        StepVerifier.create(result)
+                    .expectError(OperationTimeoutException.class)
+                    .verify(Duration.ofSeconds(5));
+        assertThat(cancellation.get()).isNull();
+    }
+
+    @Test
+    @DisplayName("GIVEN method without timeout WHEN limit a stream slower than the default timeout THEN emits the whole stream")
+    void MethodWithoutTimeout_LimitStreamSlowerThanDefaultTimeout_EmitsTheWholeStream() {
+        // When
+        var result = taskTimeouts.limit("streamAll", Flux.interval(Duration.ofMillis(40))
+                                                         .take(5));
+
+        // Then
+        StepVerifier.create(result)
+                    .expectNextCount(5)
+                    .verifyComplete();
+    }
+
+    @Test
+    @DisplayName("GIVEN stream emitting faster than its timeout WHEN limit the stream THEN fails once the whole stream exceeds the timeout")
+    void StreamEmittingFasterThanItsTimeout_LimitStream_FailsOnceTheWholeStreamExceedsTheTimeout() {
+        // When
+        var result = taskTimeouts.limit("findAll", Flux.interval(Duration.ofMillis(20)));
+
+        // Then
+        StepVerifier.create(result)
+                    .thenConsumeWhile(item -> true)
+                    .expectError(OperationTimeoutException.class)
+                    .verify(Duration.ofSeconds(5));
+    }
+
+    @Test
+    @DisplayName("GIVEN subscriber goes away WHEN limit the method THEN cancels its queries And counts the cancellation")
+    void SubscriberGoesAway_LimitMethod_CancelsItsQueriesAndCountsTheCancellation() {
+        // When
+        var result = taskTimeouts.limit("findById", neverCompleting());
+
+        // Then
+        StepVerifier.create(result)
+                    .thenAwait(Duration.ofMillis(10))
+                    .thenCancel()
+                    .verify();
+        assertThat(cancellation.get()
+                               .isCancelled()).isTrue();
+        assertThat(meterRegistry.get(TaskTimeouts.CANCELLATIONS_COUNTER)
+                                .tag(TaskTimeouts.METHOD_KEY, "findById")
+                                .counter()
+                                .count()).isEqualTo(1);
+    }
+
+    private Mono<String> neverCompleting() {
+        return Mono.deferContextual(context -> {
+            cancellation.set(Deadlines.cancellation(context)
+                                      .orElseThrow());
+            return Mono.never();
+        });
+    }
+
+}